@@ -0,0 +1,113 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs;
+
+import java.nio.file.attribute.FileAttribute;
+
+/**
+ * File attribute which creates a circular file holding only its last bytes.
+ *
+ * Pass it to {@link java.nio.file.Files#createFile(java.nio.file.Path, FileAttribute[])}:<br/>
+ * <code>
+ final Path log = Files.createFile(path, JvfsCircularFile.forValue("64k"));
+ </code>
+ *
+ * Every write is appended at the end, regardless of the position of the channel. Once the file holds its capacity,
+ * appending overwrites the oldest bytes, so the file never occupies more memory than its capacity and each append
+ * only copies the appended bytes. Reads start at the oldest byte still held.
+ *
+ * Other file systems than JVFS ignore this attribute or reject it.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public final class JvfsCircularFile implements FileAttribute<JvfsQuantity> {
+
+    /**
+     * Name of the attribute.
+     */
+    public static final String NAME = "jvfs:circular";
+    /**
+     * Maximum number of bytes the file holds.
+     */
+    private final JvfsQuantity capacity;
+
+    /**
+     * Dedicated constructor.
+     *
+     * Use {@link #forValue(long)} or {@link #forValue(java.lang.String)} to get instances.
+     *
+     * @param capacity must not be {@code null} or zero
+     */
+    private JvfsCircularFile(final JvfsQuantity capacity) {
+        super();
+        JvfsAssertions.notNull(capacity, "capacity");
+        JvfsAssertions.greaterThanEqual(capacity.value(), 1L, "capacity");
+        this.capacity = capacity;
+    }
+
+    /**
+     * Factory method to get an attribute for a number of bytes.
+     *
+     * @param capacity must be greater than 0
+     * @return never {@code null}
+     */
+    public static JvfsCircularFile forValue(final long capacity) {
+        return new JvfsCircularFile(JvfsQuantity.forValue(capacity));
+    }
+
+    /**
+     * Factory method to get an attribute for a quantity string.
+     *
+     * @see JvfsQuantity#forValue(java.lang.String)
+     * @param capacity must not be {@code null} or empty
+     * @return never {@code null}
+     */
+    public static JvfsCircularFile forValue(final String capacity) {
+        return new JvfsCircularFile(JvfsQuantity.forValue(capacity));
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    /**
+     * Get the maximum number of bytes the file holds.
+     *
+     * @return never {@code null}
+     */
+    @Override
+    public JvfsQuantity value() {
+        return capacity;
+    }
+
+    @Override
+    public int hashCode() {
+        return capacity.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof JvfsCircularFile)) {
+            return false;
+        }
+
+        final JvfsCircularFile other = (JvfsCircularFile) obj;
+        return capacity.equals(other.capacity);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{capacity=" + capacity + '}';
+    }
+
+}
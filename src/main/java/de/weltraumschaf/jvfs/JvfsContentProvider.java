@@ -0,0 +1,48 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Computes the content of a {@link JvfsGeneratedFile generated file} on demand.
+ *
+ * The file system asks only for the ranges which are actually read, so a provider for a huge file never needs to
+ * materialize it. Implementations must be thread-safe and give the same bytes for the same range every time,
+ * because ranges may be generated concurrently and more than once.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public interface JvfsContentProvider {
+
+    /**
+     * Get the size of the content in bytes.
+     *
+     * Must never change.
+     *
+     * @return non negative
+     */
+    long size();
+
+    /**
+     * Fills all remaining bytes of the destination with the content beginning at the given position.
+     *
+     * The file system guarantees that the range lies within {@link #size()}.
+     *
+     * @param position must not be negative
+     * @param destination must not be {@code null}
+     * @throws IOException if the content can't be computed
+     */
+    void read(long position, ByteBuffer destination) throws IOException;
+
+}
@@ -12,17 +12,30 @@
 package de.weltraumschaf.jvfs;
 
 import de.weltraumschaf.jvfs.impl.JvfsFileSystemProvider;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
 import java.nio.file.spi.FileSystemProvider;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Factory to get virtual file system stuff.
@@ -52,7 +65,11 @@ public final class JvfsFileSystems {
     /**
      * Full qualified class name of provider implementation.
      */
-    public static final String IMPLEMENTATION_CLASS_NAME = "de.weltraumschaf.jvfs.impl.JvfsFileSystemProviderOld";
+    public static final String IMPLEMENTATION_CLASS_NAME = "de.weltraumschaf.jvfs.impl.JvfsDefaultFileSystemProvider";
+    /**
+     * Name of the file attribute which seals a file if set to {@link Boolean#TRUE}.
+     */
+    public static final String ATTRIBUTE_SEALED = "jvfs:sealed";
     /**
      * Protocol suffix before ID portion of ShrinkWrap {@link URI}s.
      */
@@ -68,7 +85,11 @@ public final class JvfsFileSystems {
     /**
      * Mount points for virtual file systems to be hooked in.
      */
-    private final Map<String, FileSystem> fstab = JvfsCollections.newMap();
+    private final Map<String, FileSystem> fstab = JvfsCollections.newConcurrentMap();
+    /**
+     * Incremented after each change of {@link #fstab}.
+     */
+    private final AtomicLong fstabVersion = new AtomicLong();
 
     /**
      * Hidden constructor.
@@ -186,6 +207,303 @@ public static FileAttribute<Set<PosixFilePermission>> createFileAttribute(
         return PosixFilePermissions.asFileAttribute(permissions);
     }
 
+    /**
+     * Reads all bytes of a file.
+     *
+     * Uses the fast path of {@link JvfsFileSystemProvider} for JVFS paths and falls back to
+     * {@link Files#readAllBytes(java.nio.file.Path)} for any other path.
+     *
+     * @param path must not be {@code null}
+     * @return never {@code null}
+     * @throws IOException if an I/O error occurs reading from the file
+     */
+    public static byte[] readAllBytes(final Path path) throws IOException {
+        JvfsAssertions.notNull(path, "path");
+        final FileSystemProvider provider = path.getFileSystem().provider();
+
+        if (provider instanceof JvfsFileSystemProvider) {
+            return ((JvfsFileSystemProvider) provider).readAllBytes(path);
+        }
+
+        return Files.readAllBytes(path);
+    }
+
+    /**
+     * Writes bytes to a file, replacing its content.
+     *
+     * Uses the fast path of {@link JvfsFileSystemProvider} for JVFS paths and falls back to
+     * {@link Files#write(java.nio.file.Path, byte[], java.nio.file.OpenOption...)} for any other path.
+     *
+     * @param path must not be {@code null}
+     * @param bytes must not be {@code null}
+     * @throws IOException if an I/O error occurs writing to the file
+     */
+    public static void write(final Path path, final byte[] bytes) throws IOException {
+        JvfsAssertions.notNull(path, "path");
+        final FileSystemProvider provider = path.getFileSystem().provider();
+
+        if (provider instanceof JvfsFileSystemProvider) {
+            ((JvfsFileSystemProvider) provider).writeAllBytes(path, bytes);
+            return;
+        }
+
+        Files.write(path, bytes);
+    }
+
+    /**
+     * Replaces the content of a file by the remaining bytes of a buffer.
+     *
+     * JVFS paths adopt heap buffers without copying (see
+     * {@link JvfsFileSystemProvider#adopt(java.nio.file.Path, java.nio.ByteBuffer)}), so the caller must not modify
+     * the buffer afterwards. Any other path gets the bytes written by a {@link Files#newByteChannel byte channel}.
+     * The position of the buffer is not changed.
+     *
+     * @param path must not be {@code null}
+     * @param buffer must not be {@code null}
+     * @throws IOException if an I/O error occurs writing to the file
+     */
+    public static void adopt(final Path path, final ByteBuffer buffer) throws IOException {
+        JvfsAssertions.notNull(path, "path");
+        JvfsAssertions.notNull(buffer, "buffer");
+        final FileSystemProvider provider = path.getFileSystem().provider();
+
+        if (provider instanceof JvfsFileSystemProvider) {
+            ((JvfsFileSystemProvider) provider).adopt(path, buffer);
+            return;
+        }
+
+        try (SeekableByteChannel channel = Files.newByteChannel(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final ByteBuffer source = buffer.duplicate();
+
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+    }
+
+    /**
+     * Get the content of a file as read-only buffer.
+     *
+     * JVFS paths export their current content without copying (see
+     * {@link JvfsFileSystemProvider#readOnlyView(java.nio.file.Path)}). Any other path is read into a new buffer.
+     *
+     * @param path must not be {@code null}
+     * @return never {@code null}
+     * @throws IOException if an I/O error occurs reading from the file
+     */
+    public static ByteBuffer readOnlyView(final Path path) throws IOException {
+        JvfsAssertions.notNull(path, "path");
+        final FileSystemProvider provider = path.getFileSystem().provider();
+
+        if (provider instanceof JvfsFileSystemProvider) {
+            return ((JvfsFileSystemProvider) provider).readOnlyView(path);
+        }
+
+        return ByteBuffer.wrap(Files.readAllBytes(path)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Seals a file.
+     *
+     * A sealed file is immutable: all later writes to it are rejected, and reads of it don't need any locking. This
+     * can't be undone. Files may also be sealed when they are closed by opening them with
+     * {@link JvfsOpenOption#SEAL_ON_CLOSE}.
+     *
+     * @param path must not be {@code null}
+     * @throws IOException if path does not exist
+     * @throws UnsupportedOperationException if path is not a JVFS path
+     */
+    public static void seal(final Path path) throws IOException {
+        JvfsAssertions.notNull(path, "path");
+        Files.setAttribute(path, ATTRIBUTE_SEALED, Boolean.TRUE);
+    }
+
+    /**
+     * Copies several ranges of a file into their destination buffers.
+     *
+     * JVFS paths serve all ranges from the same snapshot of the content in one go (see
+     * {@link JvfsFileSystemProvider#read(java.nio.file.Path, java.util.List)}). Any other path is read range by range
+     * through a {@link FileChannel}.
+     *
+     * @param path must not be {@code null}
+     * @param ranges must not be {@code null}, each range must have a destination
+     * @return total number of bytes read
+     * @throws IOException if an I/O error occurs reading from the file
+     */
+    public static long read(final Path path, final List<JvfsReadRange> ranges) throws IOException {
+        JvfsAssertions.notNull(path, "path");
+        JvfsAssertions.notNull(ranges, "ranges");
+        final FileSystemProvider provider = path.getFileSystem().provider();
+
+        if (provider instanceof JvfsFileSystemProvider) {
+            return ((JvfsFileSystemProvider) provider).read(path, ranges);
+        }
+
+        long total = 0;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (final JvfsReadRange range : ranges) {
+                if (!range.hasDestination()) {
+                    throw new IllegalArgumentException("Range " + range + " has no destination!");
+                }
+
+                total += readFully(channel, range.getOffset(), range.getDestination());
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Get several ranges of a file as read-only buffers.
+     *
+     * JVFS paths export the ranges without copying (see
+     * {@link JvfsFileSystemProvider#slice(java.nio.file.Path, java.util.List)}). Any other path is read range by range
+     * into new buffers.
+     *
+     * @param path must not be {@code null}
+     * @param ranges must not be {@code null}
+     * @return never {@code null}
+     * @throws IOException if an I/O error occurs reading from the file
+     */
+    public static List<ByteBuffer> slice(final Path path, final List<JvfsReadRange> ranges) throws IOException {
+        JvfsAssertions.notNull(path, "path");
+        JvfsAssertions.notNull(ranges, "ranges");
+        final FileSystemProvider provider = path.getFileSystem().provider();
+
+        if (provider instanceof JvfsFileSystemProvider) {
+            return ((JvfsFileSystemProvider) provider).slice(path, ranges);
+        }
+
+        final List<ByteBuffer> slices = JvfsCollections.newList(ranges.size());
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (final JvfsReadRange range : ranges) {
+                final ByteBuffer slice = ByteBuffer.allocate(range.getLength());
+                readFully(channel, range.getOffset(), slice);
+                slice.flip();
+                slices.add(slice.asReadOnlyBuffer());
+            }
+        }
+
+        return slices;
+    }
+
+    /**
+     * Finds all paths at or below a start path which match a pattern.
+     *
+     * JVFS paths are searched by a walk which descends only into directories where matches may be (see
+     * {@link JvfsFileSystemProvider#find(java.nio.file.Path, java.lang.String)}), so narrow globs over huge trees are
+     * cheap. Any other path is searched by {@link Files#walkFileTree(java.nio.file.Path, java.nio.file.FileVisitor)}.
+     * Symbolic links are not followed.
+     *
+     * @param start must not be {@code null}
+     * @param syntaxAndPattern must not be {@code null} or empty, as for
+     * {@link FileSystem#getPathMatcher(java.lang.String)}
+     * @return never {@code null}, in no particular order
+     * @throws IOException if start does not exist or an I/O error occurs while walking
+     */
+    public static List<Path> find(final Path start, final String syntaxAndPattern) throws IOException {
+        JvfsAssertions.notNull(start, "start");
+        JvfsAssertions.notEmpty(syntaxAndPattern, "syntaxAndPattern");
+        final FileSystemProvider provider = start.getFileSystem().provider();
+
+        if (provider instanceof JvfsFileSystemProvider) {
+            return ((JvfsFileSystemProvider) provider).find(start, syntaxAndPattern);
+        }
+
+        final PathMatcher matcher = start.getFileSystem().getPathMatcher(syntaxAndPattern);
+        final List<Path> found = JvfsCollections.newList();
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+                return visitFile(dir, attrs);
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                if (matcher.matches(file)) {
+                    found.add(file);
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return found;
+    }
+
+    /**
+     * Creates an evaluator of the {@link JvfsIgnoreRules#DEFAULT_FILE_NAME .gitignore} files below a directory.
+     *
+     * @param root must not be {@code null}
+     * @return never {@code null}
+     * @throws UnsupportedOperationException if root is not a JVFS path
+     */
+    public static JvfsIgnoreRules newIgnoreRules(final Path root) {
+        return newIgnoreRules(root, JvfsIgnoreRules.DEFAULT_FILE_NAME);
+    }
+
+    /**
+     * Creates an evaluator of the ignore files below a directory.
+     *
+     * @param root must not be {@code null}
+     * @param fileName must not be {@code null} or empty, name of the ignore files
+     * @return never {@code null}
+     * @throws UnsupportedOperationException if root is not a JVFS path
+     */
+    public static JvfsIgnoreRules newIgnoreRules(final Path root, final String fileName) {
+        JvfsAssertions.notNull(root, "root");
+        JvfsAssertions.notEmpty(fileName, "fileName");
+        final FileSystemProvider provider = root.getFileSystem().provider();
+
+        if (!(provider instanceof JvfsFileSystemProvider)) {
+            throw new UnsupportedOperationException("Ignore rules are only supported for JVFS paths!");
+        }
+
+        return ((JvfsFileSystemProvider) provider).newIgnoreRules(root, fileName);
+    }
+
+    /**
+     * Creates a matcher evaluating many patterns in one pass.
+     *
+     * Each pattern has the syntax of {@link java.nio.file.FileSystem#getPathMatcher(java.lang.String)}. Matching
+     * works on the string form of a path, so the matcher may be used with paths of any file system.
+     *
+     * @param syntaxAndPatterns must not be {@code null}, patterns must not be {@code null} or empty
+     * @return never {@code null}
+     */
+    public static JvfsPathMatcherSet newPathMatcherSet(final String... syntaxAndPatterns) {
+        JvfsAssertions.notNull(syntaxAndPatterns, "syntaxAndPatterns");
+        return JvfsFileSystemProvider.newPathMatcherSet(Arrays.asList(syntaxAndPatterns));
+    }
+
+    /**
+     * Reads from a position until the destination is full or the end of the channel is reached.
+     *
+     * @param channel must not be {@code null}
+     * @param position must not be negative
+     * @param destination must not be {@code null}
+     * @return number of bytes read
+     * @throws IOException if an I/O error occurs reading from the channel
+     */
+    private static long readFully(final FileChannel channel, final long position, final ByteBuffer destination)
+        throws IOException {
+        long total = 0;
+
+        while (destination.hasRemaining()) {
+            final int read = channel.read(destination, position + total);
+
+            if (read < 0) {
+                break;
+            }
+
+            total += read;
+        }
+
+        return total;
+    }
+
     /**
      * Mount a virtual file system.
      *
@@ -194,6 +512,7 @@ public static FileAttribute<Set<PosixFilePermission>> createFileAttribute(
     public void mount(final String path) {
         JvfsAssertions.notEmpty(path, "path");
         fstab.put(path, FileSystems.getFileSystem(createRootUri()));
+        fstabVersion.incrementAndGet();
     }
 
     /**
@@ -211,6 +530,7 @@ public void umount(final String path) {
         }
 
         fstab.remove(path);
+        fstabVersion.incrementAndGet();
     }
 
     /**
@@ -222,4 +542,15 @@ public Map<String, FileSystem> getFstab() {
         return Collections.unmodifiableMap(fstab);
     }
 
+    /**
+     * Get the version of the map of mount points, which changes whenever a path is mounted or unmounted.
+     *
+     * Lets the default file system provider detect that its routing tables are stale without comparing mount points.
+     *
+     * @return non negative
+     */
+    public long getFstabVersion() {
+        return fstabVersion.get();
+    }
+
 }
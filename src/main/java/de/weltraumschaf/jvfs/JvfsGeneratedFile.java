@@ -0,0 +1,117 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs;
+
+import java.nio.file.attribute.FileAttribute;
+
+/**
+ * File attribute which creates a read-only file whose content is computed by a {@link JvfsContentProvider}.
+ *
+ * Pass it to {@link java.nio.file.Files#createFile(java.nio.file.Path, FileAttribute[])}:<br/>
+ * <code>
+ final Path report = Files.createFile(path, JvfsGeneratedFile.forValue(provider, "1M"));
+ </code>
+ *
+ * Nothing is generated until the file is read, and then only the read ranges. Without a cache size every read asks
+ * the provider again. With a cache size the content is generated in blocks and the least recently used blocks are
+ * kept as long as they fit into the cache size. Opening the file for writing fails with
+ * {@link java.nio.file.AccessDeniedException}.
+ *
+ * Other file systems than JVFS ignore this attribute or reject it.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public final class JvfsGeneratedFile implements FileAttribute<JvfsContentProvider> {
+
+    /**
+     * Name of the attribute.
+     */
+    public static final String NAME = "jvfs:generated";
+    /**
+     * Computes the content.
+     */
+    private final JvfsContentProvider provider;
+    /**
+     * Maximum number of generated bytes to cache.
+     */
+    private final JvfsQuantity cacheSize;
+
+    /**
+     * Dedicated constructor.
+     *
+     * Use {@link #forValue(JvfsContentProvider)} or {@link #forValue(JvfsContentProvider, java.lang.String)} to get
+     * instances.
+     *
+     * @param provider must not be {@code null}
+     * @param cacheSize must not be {@code null}
+     */
+    private JvfsGeneratedFile(final JvfsContentProvider provider, final JvfsQuantity cacheSize) {
+        super();
+        JvfsAssertions.notNull(provider, "provider");
+        JvfsAssertions.notNull(cacheSize, "cacheSize");
+        JvfsAssertions.greaterThanEqual(provider.size(), 0L, "size");
+        this.provider = provider;
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Factory method to get an attribute for a file without cache.
+     *
+     * @param provider must not be {@code null}
+     * @return never {@code null}
+     */
+    public static JvfsGeneratedFile forValue(final JvfsContentProvider provider) {
+        return new JvfsGeneratedFile(provider, JvfsQuantity.EMPTY);
+    }
+
+    /**
+     * Factory method to get an attribute for a file which caches generated blocks.
+     *
+     * @see JvfsQuantity#forValue(java.lang.String)
+     * @param provider must not be {@code null}
+     * @param cacheSize must not be {@code null} or empty
+     * @return never {@code null}
+     */
+    public static JvfsGeneratedFile forValue(final JvfsContentProvider provider, final String cacheSize) {
+        return new JvfsGeneratedFile(provider, JvfsQuantity.forValue(cacheSize));
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    /**
+     * Get the provider which computes the content.
+     *
+     * @return never {@code null}
+     */
+    @Override
+    public JvfsContentProvider value() {
+        return provider;
+    }
+
+    /**
+     * Get the maximum number of generated bytes to cache.
+     *
+     * @return never {@code null}, {@link JvfsQuantity#EMPTY} if nothing is cached
+     */
+    public JvfsQuantity getCacheSize() {
+        return cacheSize;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{provider=" + provider + ", cacheSize=" + cacheSize + '}';
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs;
+
+import java.io.IOException;
+import java.nio.file.FileVisitor;
+import java.nio.file.Path;
+
+/**
+ * Evaluates ignore rules with the semantics of {@literal .gitignore} files below a root directory.
+ *
+ * Each directory below the root may contain an ignore file whose rules apply to the paths below that directory.
+ * Rules of deeper directories take precedence over those of their parents and within a file the last matching rule
+ * wins. Supported are comments ({@literal #}), negation ({@literal !}), directory-only rules (trailing
+ * {@literal /}), anchored rules (containing a {@literal /}) and {@literal **} for any number of directories.
+ * Like git, a path inside an ignored directory is ignored, even if a negated rule matches it.
+ *
+ * The rules of each directory are compiled once and cached; changes of ignore files are picked up at the next
+ * evaluation. Implementations are thread-safe.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public interface JvfsIgnoreRules {
+
+    /**
+     * Name of the ignore file used by default.
+     */
+    String DEFAULT_FILE_NAME = ".gitignore";
+
+    /**
+     * Whether a path is ignored.
+     *
+     * Paths not below the root and the root itself are never ignored. A path which does not exist is treated as
+     * file.
+     *
+     * @param path must not be {@code null}
+     * @return {@code true} if ignored, else {@code false}
+     * @throws IOException if an ignore file can't be read
+     */
+    boolean isIgnored(Path path) throws IOException;
+
+    /**
+     * Whether a path is ignored without looking it up.
+     *
+     * @param path must not be {@code null}
+     * @param directory whether the path is a directory
+     * @return {@code true} if ignored, else {@code false}
+     * @throws IOException if an ignore file can't be read
+     */
+    boolean isIgnored(Path path, boolean directory) throws IOException;
+
+    /**
+     * Wraps a visitor so that it sees no ignored paths.
+     *
+     * Ignored directories are skipped as a whole without visiting anything below them, so a
+     * {@link java.nio.file.Files#walkFileTree(java.nio.file.Path, java.nio.file.FileVisitor) walk} prunes them.
+     *
+     * @param visitor must not be {@code null}
+     * @return never {@code null}
+     */
+    FileVisitor<Path> filter(FileVisitor<Path> visitor);
+
+}
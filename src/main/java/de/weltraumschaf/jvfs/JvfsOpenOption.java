@@ -0,0 +1,41 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs;
+
+import java.nio.file.OpenOption;
+
+/**
+ * JVFS specific options to open files.
+ *
+ * Other file systems than JVFS ignore these options or reject them.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public enum JvfsOpenOption implements OpenOption {
+
+    /**
+     * Seals the file when the channel or stream is closed.
+     *
+     * A sealed file is immutable: all later writes are rejected and reads don't need any locking.
+     *
+     * @see JvfsFileSystems#seal(java.nio.file.Path)
+     */
+    SEAL_ON_CLOSE,
+    /**
+     * Reads and writes on a {@link JvfsPipeFile pipe} never wait.
+     *
+     * A read of an empty pipe returns 0 unless all producers are gone, a write to a full pipe returns the number of
+     * bytes which did fit, which may be 0. Regular files ignore this option.
+     */
+    NON_BLOCKING;
+
+}
@@ -12,6 +12,7 @@
 package de.weltraumschaf.jvfs;
 
 import java.util.Collections;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 
@@ -27,6 +28,16 @@
       .create();
  </code>
  *
+ * Synthetic devices are mounted into a directory of the file system by {@link Builder#devices(java.lang.String)}:
+ * <ul>
+ * <li><kbd>null</kbd> discards all writes and reads nothing,</li>
+ * <li><kbd>zero</kbd> reads zeros and discards writes,</li>
+ * <li><kbd>random</kbd> reads pseudo random bytes derived from {@link Builder#randomSeed(long)} and discards
+ * writes.</li>
+ * </ul>
+ * The sources are endless unless a size is given by {@link Builder#deviceSize(java.lang.String)}. None of the devices
+ * occupies memory.
+ *
  * @author Sven Strittmatter <weltraumschaf@googlemail.com>
  */
 public final class JvfsOptions {
@@ -140,8 +151,19 @@ public boolean isReadonly() {
      * @return never {@literal null}, {@link JvfsQuantity#EMPTY} by default
      */
     public JvfsQuantity getCapacity() {
-        if (env.containsKey(Option.CAPACITY.key)) {
-            final Object value = env.get(Option.CAPACITY.key);
+        return getQuantity(Option.CAPACITY, Builder.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Get a quantity option.
+     *
+     * @param option must not be {@literal null}
+     * @param defaultValue returned if the option is not set
+     * @return default value if not set
+     */
+    private JvfsQuantity getQuantity(final Option option, final JvfsQuantity defaultValue) {
+        if (env.containsKey(option.key)) {
+            final Object value = env.get(option.key);
 
             if (value instanceof JvfsQuantity) {
                 return (JvfsQuantity) value;
@@ -154,7 +176,7 @@ public JvfsQuantity getCapacity() {
             }
         }
 
-        return Builder.DEFAULT_CAPACITY;
+        return defaultValue;
     }
 
     /**
@@ -170,6 +192,104 @@ public String identifier() {
         return Builder.DEFAULT_ID;
     }
 
+    /**
+     * Get the absolute path of the directory the devices are mounted in.
+     *
+     * @return never {@literal null}, empty string if no devices are mounted
+     */
+    public String getDevices() {
+        if (env.containsKey(Option.DEVICES.key)) {
+            return Objects.toString(env.get(Option.DEVICES.key));
+        }
+
+        return Builder.DEFAULT_DEVICES;
+    }
+
+    /**
+     * Get the number of bytes the device sources give.
+     *
+     * @return never {@literal null}, {@link JvfsQuantity#EMPTY} (endless) by default
+     */
+    public JvfsQuantity getDeviceSize() {
+        return getQuantity(Option.DEVICE_SIZE, Builder.DEFAULT_DEVICE_SIZE);
+    }
+
+    /**
+     * Get the seed of the random device.
+     *
+     * @return 0 by default
+     */
+    public long getRandomSeed() {
+        return getLong(Option.RANDOM_SEED, Builder.DEFAULT_RANDOM_SEED);
+    }
+
+    /**
+     * Get the maximum number of paths the file system caches.
+     *
+     * @return non negative, 0 disables the cache, 4096 by default
+     */
+    public int getPathCacheSize() {
+        final long size = getLong(Option.PATH_CACHE_SIZE, Builder.DEFAULT_PATH_CACHE_SIZE);
+
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(Objects.toString(env.get(Option.PATH_CACHE_SIZE.key)));
+        }
+
+        return (int) size;
+    }
+
+    /**
+     * Get the set of characters allowed in names.
+     *
+     * @return never {@literal null}, {@link JvfsPathCharset#PORTABLE} by default
+     */
+    public JvfsPathCharset getPathCharset() {
+        if (env.containsKey(Option.PATH_CHARSET.key)) {
+            final Object value = env.get(Option.PATH_CHARSET.key);
+
+            if (value instanceof JvfsPathCharset) {
+                return (JvfsPathCharset) value;
+            } else if (value instanceof String) {
+                try {
+                    return JvfsPathCharset.valueOf(((String) value).toUpperCase(Locale.ENGLISH));
+                } catch (final IllegalArgumentException ex) {
+                    throw new IllegalArgumentException(Objects.toString(value), ex);
+                }
+            } else {
+                throw new IllegalArgumentException(Objects.toString(value));
+            }
+        }
+
+        return Builder.DEFAULT_PATH_CHARSET;
+    }
+
+    /**
+     * Get a numeric option.
+     *
+     * @param option must not be {@literal null}
+     * @param defaultValue returned if the option is not set
+     * @return default value if not set
+     */
+    private long getLong(final Option option, final long defaultValue) {
+        if (env.containsKey(option.key)) {
+            final Object value = env.get(option.key);
+
+            if (value instanceof Number) {
+                return ((Number) value).longValue();
+            } else if (value instanceof String) {
+                try {
+                    return Long.parseLong((String) value);
+                } catch (final NumberFormatException ex) {
+                    throw new IllegalArgumentException(Objects.toString(value), ex);
+                }
+            } else {
+                throw new IllegalArgumentException(Objects.toString(value));
+            }
+        }
+
+        return defaultValue;
+    }
+
     /**
      * Builder to create options.
      */
@@ -187,6 +307,26 @@ public static final class Builder {
          * Default value for identifier option.
          */
         private static final String DEFAULT_ID = "";
+        /**
+         * Default value for devices option: none.
+         */
+        private static final String DEFAULT_DEVICES = "";
+        /**
+         * Default value for device size option: endless.
+         */
+        private static final JvfsQuantity DEFAULT_DEVICE_SIZE = JvfsQuantity.EMPTY;
+        /**
+         * Default value for random seed option.
+         */
+        private static final long DEFAULT_RANDOM_SEED = 0L;
+        /**
+         * Default value for path cache size option.
+         */
+        private static final long DEFAULT_PATH_CACHE_SIZE = 4096L;
+        /**
+         * Default value for path charset option.
+         */
+        private static final JvfsPathCharset DEFAULT_PATH_CHARSET = JvfsPathCharset.PORTABLE;
         /**
          * Capacity for created options.
          */
@@ -199,6 +339,26 @@ public static final class Builder {
          * Id for created options.
          */
         private String identifier = DEFAULT_ID;
+        /**
+         * Device directory for created options, {@literal null} if not set.
+         */
+        private String devices;
+        /**
+         * Device size for created options, {@literal null} if not set.
+         */
+        private JvfsQuantity deviceSize;
+        /**
+         * Random seed for created options, {@literal null} if not set.
+         */
+        private Long randomSeed;
+        /**
+         * Path cache size for created options, {@literal null} if not set.
+         */
+        private Integer pathCacheSize;
+        /**
+         * Path charset for created options, {@literal null} if not set.
+         */
+        private JvfsPathCharset pathCharset;
 
         /**
          * Use {@link JvfsOptions#builder()} to get instance.
@@ -241,6 +401,64 @@ public Builder identifier(final String id) {
             return this;
         }
 
+        /**
+         * Mount the devices <kbd>null</kbd>, <kbd>zero</kbd> and <kbd>random</kbd> into a directory.
+         *
+         * @param directory absolute path, e.g. <kbd>/dev</kbd>, must not be {@code null} or empty
+         * @return builder itself
+         */
+        public Builder devices(final String directory) {
+            JvfsAssertions.notEmpty(directory, "directory");
+            this.devices = directory;
+            return this;
+        }
+
+        /**
+         * Set the number of bytes the device sources give before end of stream.
+         *
+         * @param quantity see {@link JvfsQuantity#forValue(java.lang.String)}, 0 means endless
+         * @return builder itself
+         */
+        public Builder deviceSize(final String quantity) {
+            deviceSize = JvfsQuantity.forValue(quantity);
+            return this;
+        }
+
+        /**
+         * Set the seed of the random device.
+         *
+         * @param seed any number
+         * @return builder itself
+         */
+        public Builder randomSeed(final long seed) {
+            randomSeed = seed;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of paths the file system caches.
+         *
+         * @param size must not be negative, 0 disables the cache
+         * @return builder itself
+         */
+        public Builder pathCacheSize(final int size) {
+            JvfsAssertions.greaterThanEqual(size, 0, "size");
+            pathCacheSize = size;
+            return this;
+        }
+
+        /**
+         * Set the characters allowed in names.
+         *
+         * @param charset must not be {@code null}
+         * @return builder itself
+         */
+        public Builder pathCharset(final JvfsPathCharset charset) {
+            JvfsAssertions.notNull(charset, "charset");
+            pathCharset = charset;
+            return this;
+        }
+
         /**
          * Create a new options instance.
          *
@@ -254,6 +472,27 @@ public JvfsOptions create() {
             env.put(Option.CAPACITY.key, capacity);
             env.put(Option.READONLY.key, readOnly);
             env.put(Option.ID.key, identifier);
+
+            if (null != devices) {
+                env.put(Option.DEVICES.key, devices);
+            }
+
+            if (null != deviceSize) {
+                env.put(Option.DEVICE_SIZE.key, deviceSize);
+            }
+
+            if (null != randomSeed) {
+                env.put(Option.RANDOM_SEED.key, randomSeed);
+            }
+
+            if (null != pathCacheSize) {
+                env.put(Option.PATH_CACHE_SIZE.key, pathCacheSize);
+            }
+
+            if (null != pathCharset) {
+                env.put(Option.PATH_CHARSET.key, pathCharset);
+            }
+
             return new JvfsOptions(env);
         }
     }
@@ -283,7 +522,27 @@ public enum Option {
         /**
          * Key for identifier.
          */
-        ID("id");
+        ID("id"),
+        /**
+         * Key for the directory of the devices.
+         */
+        DEVICES("devices"),
+        /**
+         * Key for the size of the device sources.
+         */
+        DEVICE_SIZE("deviceSize"),
+        /**
+         * Key for the seed of the random device.
+         */
+        RANDOM_SEED("randomSeed"),
+        /**
+         * Key for the maximum number of cached paths.
+         */
+        PATH_CACHE_SIZE("pathCacheSize"),
+        /**
+         * Key for the characters allowed in names.
+         */
+        PATH_CHARSET("pathCharset");
         /**
          * The key for the map.
          */
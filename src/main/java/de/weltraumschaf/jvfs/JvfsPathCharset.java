@@ -0,0 +1,37 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs;
+
+/**
+ * Sets of characters allowed in names of a JVFS file system.
+ *
+ * The separator <kbd>/</kbd> is always allowed between names, control characters are never allowed.
+ *
+ * @see JvfsOptions.Builder#pathCharset(de.weltraumschaf.jvfs.JvfsPathCharset)
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public enum JvfsPathCharset {
+
+    /**
+     * ASCII letters and digits, <kbd>_</kbd>, <kbd>-</kbd> and <kbd>.</kbd>; the default.
+     */
+    PORTABLE,
+    /**
+     * Like {@link #PORTABLE} plus letters, digits and combining marks of all Unicode scripts.
+     */
+    UNICODE,
+    /**
+     * All characters but control characters, as most Unix file systems do.
+     */
+    ANY;
+
+}
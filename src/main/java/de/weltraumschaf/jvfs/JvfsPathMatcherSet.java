@@ -0,0 +1,62 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs;
+
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.BitSet;
+
+/**
+ * Matches paths against many patterns at once.
+ *
+ * The patterns use the syntax of {@link java.nio.file.FileSystem#getPathMatcher(java.lang.String)} and are addressed
+ * by their index in the order given to {@link JvfsFileSystems#newPathMatcherSet(java.lang.String[])}. All globs are
+ * evaluated together in a single pass over the path, so a set of some hundred include or exclude rules costs little
+ * more than a single rule. Implementations are immutable and thread-safe.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public interface JvfsPathMatcherSet extends PathMatcher {
+
+    /**
+     * Get the number of patterns.
+     *
+     * @return non negative
+     */
+    int size();
+
+    /**
+     * Get a pattern as given.
+     *
+     * @param index must be less than {@link #size()}
+     * @return never {@code null}, syntax and pattern
+     */
+    String getPattern(int index);
+
+    /**
+     * Tells which patterns match a path.
+     *
+     * @param path must not be {@code null}
+     * @return never {@code null}, bit set of the indices of the matching patterns
+     */
+    BitSet match(Path path);
+
+    /**
+     * Whether any pattern matches a path.
+     *
+     * @param path must not be {@code null}
+     * @return {@code true} if at least one pattern matches, else {@code false}
+     */
+    @Override
+    boolean matches(Path path);
+
+}
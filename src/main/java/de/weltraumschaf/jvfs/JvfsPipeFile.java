@@ -0,0 +1,120 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs;
+
+import java.nio.file.attribute.FileAttribute;
+
+/**
+ * File attribute which creates a named pipe (FIFO) to hand bytes from producer to consumer threads.
+ *
+ * Pass it to {@link java.nio.file.Files#createFile(java.nio.file.Path, FileAttribute[])}:<br/>
+ * <code>
+ final Path pipe = Files.createFile(path, JvfsPipeFile.forValue("64k"));
+ </code>
+ *
+ * Channels opened for writing are producers, all others are consumers. Bytes are read in the order they were
+ * written and each byte is read by exactly one consumer. The pipe buffers at most its capacity:
+ * <ul>
+ * <li>A write blocks while the buffer is full, until all bytes are written.</li>
+ * <li>A read blocks while the buffer is empty, until at least one byte was written or all producers closed their
+ * channels after writing (end of stream).</li>
+ * <li>A write fails with an {@link java.io.IOException} if all consumers closed their channels (broken pipe).</li>
+ * </ul>
+ * With {@link JvfsOpenOption#NON_BLOCKING} reads and writes transfer only what is possible without waiting, which may
+ * be nothing. Pipes are not seekable and truncating them does nothing.
+ *
+ * Other file systems than JVFS ignore this attribute or reject it.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public final class JvfsPipeFile implements FileAttribute<JvfsQuantity> {
+
+    /**
+     * Name of the attribute.
+     */
+    public static final String NAME = "jvfs:pipe";
+    /**
+     * Maximum number of bytes the pipe buffers.
+     */
+    private final JvfsQuantity capacity;
+
+    /**
+     * Dedicated constructor.
+     *
+     * Use {@link #forValue(long)} or {@link #forValue(java.lang.String)} to get instances.
+     *
+     * @param capacity must not be {@code null} or zero
+     */
+    private JvfsPipeFile(final JvfsQuantity capacity) {
+        super();
+        JvfsAssertions.notNull(capacity, "capacity");
+        JvfsAssertions.greaterThanEqual(capacity.value(), 1L, "capacity");
+        this.capacity = capacity;
+    }
+
+    /**
+     * Factory method to get an attribute for a number of bytes.
+     *
+     * @param capacity must be greater than 0
+     * @return never {@code null}
+     */
+    public static JvfsPipeFile forValue(final long capacity) {
+        return new JvfsPipeFile(JvfsQuantity.forValue(capacity));
+    }
+
+    /**
+     * Factory method to get an attribute for a quantity string.
+     *
+     * @see JvfsQuantity#forValue(java.lang.String)
+     * @param capacity must not be {@code null} or empty
+     * @return never {@code null}
+     */
+    public static JvfsPipeFile forValue(final String capacity) {
+        return new JvfsPipeFile(JvfsQuantity.forValue(capacity));
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    /**
+     * Get the maximum number of bytes the pipe buffers.
+     *
+     * @return never {@code null}
+     */
+    @Override
+    public JvfsQuantity value() {
+        return capacity;
+    }
+
+    @Override
+    public int hashCode() {
+        return capacity.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof JvfsPipeFile)) {
+            return false;
+        }
+
+        final JvfsPipeFile other = (JvfsPipeFile) obj;
+        return capacity.equals(other.capacity);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{capacity=" + capacity + '}';
+    }
+
+}
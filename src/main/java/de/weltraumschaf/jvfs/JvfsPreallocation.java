@@ -0,0 +1,107 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs;
+
+import java.nio.file.OpenOption;
+
+/**
+ * Open option which reserves storage for a file up front.
+ *
+ * Use it if the final size of a file is known before writing it, e.g. when copying:<br/>
+ * <code>
+ final OutputStream out = Files.newOutputStream(target, JvfsPreallocation.forValue(Files.size(source)));
+ </code>
+ *
+ * The file can then grow up to the given size without reallocating its content, and the reserved size counts
+ * against the capacity of the file store at once. So opening the file fails early if the store has not enough
+ * space left. The same can be done for an existing file by setting the attribute
+ * {@value #ATTRIBUTE} to a number of bytes.
+ *
+ * Other file systems than JVFS ignore this option or reject it.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public final class JvfsPreallocation implements OpenOption {
+
+    /**
+     * Name of the file attribute which reserves storage.
+     */
+    public static final String ATTRIBUTE = "jvfs:allocationHint";
+    /**
+     * Number of bytes to reserve.
+     */
+    private final JvfsQuantity size;
+
+    /**
+     * Dedicated constructor.
+     *
+     * Use {@link #forValue(long)} or {@link #forValue(java.lang.String)} to get instances.
+     *
+     * @param size must not be {@code null}
+     */
+    private JvfsPreallocation(final JvfsQuantity size) {
+        super();
+        JvfsAssertions.notNull(size, "size");
+        this.size = size;
+    }
+
+    /**
+     * Factory method to get an option for a number of bytes.
+     *
+     * @param size must not be negative
+     * @return never {@code null}
+     */
+    public static JvfsPreallocation forValue(final long size) {
+        return new JvfsPreallocation(JvfsQuantity.forValue(size));
+    }
+
+    /**
+     * Factory method to get an option for a quantity string.
+     *
+     * @see JvfsQuantity#forValue(java.lang.String)
+     * @param size must not be {@code null} or empty
+     * @return never {@code null}
+     */
+    public static JvfsPreallocation forValue(final String size) {
+        return new JvfsPreallocation(JvfsQuantity.forValue(size));
+    }
+
+    /**
+     * Get the number of bytes to reserve.
+     *
+     * @return never {@code null}
+     */
+    public JvfsQuantity getSize() {
+        return size;
+    }
+
+    @Override
+    public int hashCode() {
+        return size.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof JvfsPreallocation)) {
+            return false;
+        }
+
+        final JvfsPreallocation other = (JvfsPreallocation) obj;
+        return size.equals(other.size);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{size=" + size + '}';
+    }
+
+}
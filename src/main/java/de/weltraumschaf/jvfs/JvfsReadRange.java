@@ -0,0 +1,146 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Describes one range of a file for batched reads.
+ *
+ * Use {@link #of(long, java.nio.ByteBuffer)} to copy the range into a destination buffer or {@link #of(long, int)}
+ * to get it as slice.
+ *
+ * @see JvfsFileSystems#read(java.nio.file.Path, java.util.List)
+ * @see JvfsFileSystems#slice(java.nio.file.Path, java.util.List)
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public final class JvfsReadRange {
+
+    /**
+     * First byte of the range in the file.
+     */
+    private final long offset;
+    /**
+     * Maximum number of bytes in the range.
+     */
+    private final int length;
+    /**
+     * Where the bytes are copied to; may be {@code null}.
+     */
+    private final ByteBuffer destination;
+
+    /**
+     * Dedicated constructor.
+     *
+     * Use {@link #of(long, java.nio.ByteBuffer)} or {@link #of(long, int)} to get instances.
+     *
+     * @param offset must not be negative
+     * @param length must not be negative
+     * @param destination may be {@code null}
+     */
+    private JvfsReadRange(final long offset, final int length, final ByteBuffer destination) {
+        super();
+        JvfsAssertions.greaterThanEqual(offset, 0L, "offset");
+        JvfsAssertions.greaterThanEqual(length, 0, "length");
+        this.offset = offset;
+        this.length = length;
+        this.destination = destination;
+    }
+
+    /**
+     * Creates a range which is copied into the remaining bytes of the destination.
+     *
+     * @param offset must not be negative
+     * @param destination must not be {@code null}
+     * @return never {@code null}
+     */
+    public static JvfsReadRange of(final long offset, final ByteBuffer destination) {
+        JvfsAssertions.notNull(destination, "destination");
+        return new JvfsReadRange(offset, destination.remaining(), destination);
+    }
+
+    /**
+     * Creates a range without destination.
+     *
+     * @param offset must not be negative
+     * @param length must not be negative
+     * @return never {@code null}
+     */
+    public static JvfsReadRange of(final long offset, final int length) {
+        return new JvfsReadRange(offset, length, null);
+    }
+
+    /**
+     * Get the position of the first byte in the file.
+     *
+     * @return non negative
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Get the maximum number of bytes; less bytes are read if the range reaches behind the end of the file.
+     *
+     * @return non negative
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Get the buffer where the bytes are copied to.
+     *
+     * @return may be {@code null}
+     */
+    public ByteBuffer getDestination() {
+        return destination;
+    }
+
+    /**
+     * Whether the range has a destination buffer.
+     *
+     * @return {@code true} if there is a destination, else {@code false}
+     */
+    public boolean hasDestination() {
+        return null != destination;
+    }
+
+    @Override
+    public int hashCode() {
+        // Destinations are compared by identity: ByteBuffer#equals() compares the remaining bytes.
+        return JvfsObject.hashCode(offset, length, System.identityHashCode(destination));
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof JvfsReadRange)) {
+            return false;
+        }
+
+        final JvfsReadRange other = (JvfsReadRange) obj;
+        return offset == other.offset
+            && length == other.length
+            && destination == other.destination;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{"
+            + "offset=" + offset + ", "
+            + "length=" + length + ", "
+            + "destination=" + Objects.toString(destination)
+            + '}';
+    }
+
+}
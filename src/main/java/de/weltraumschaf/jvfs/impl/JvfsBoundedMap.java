@@ -0,0 +1,124 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Concurrent map holding at most a fixed number of entries; used for caches which must not grow unbounded.
+ *
+ * Lookups never lock. If the map is full an arbitrary entry is evicted for each new one, which is cheap and good
+ * enough for caches whose working set fits into the capacity. Concurrent inserts may exceed the capacity by the number
+ * of racing threads.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsBoundedMap<K, V> {
+
+    /**
+     * Maximum number of entries, 0 disables the map.
+     */
+    private final int capacity;
+    /**
+     * Holds the entries.
+     */
+    private final ConcurrentMap<K, V> entries;
+
+    /**
+     * Dedicated constructor.
+     *
+     * @param capacity must not be negative, 0 disables the map
+     */
+    JvfsBoundedMap(final int capacity) {
+        super();
+        assert capacity >= 0 : "capacity must not be negative";
+        this.capacity = capacity;
+        this.entries = new ConcurrentHashMap<K, V>(Math.min(capacity, 16));
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key must not be {@literal null}
+     * @return {@literal null} if absent
+     */
+    V get(final K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Adds a value unless another thread added one for the same key before.
+     *
+     * @param key must not be {@literal null}
+     * @param value must not be {@literal null}
+     * @return the value held for the key, never {@literal null}
+     */
+    V putIfAbsent(final K key, final V value) {
+        if (capacity == 0) {
+            return value;
+        }
+
+        makeRoom();
+        final V previous = entries.putIfAbsent(key, value);
+        return null == previous ? value : previous;
+    }
+
+    /**
+     * Adds a value, replacing the value held for the key.
+     *
+     * @param key must not be {@literal null}
+     * @param value must not be {@literal null}
+     */
+    void put(final K key, final V value) {
+        if (capacity == 0) {
+            return;
+        }
+
+        makeRoom();
+        entries.put(key, value);
+    }
+
+    /**
+     * Evicts an arbitrary entry if the map is full.
+     */
+    private void makeRoom() {
+        if (entries.size() >= capacity) {
+            final Iterator<K> keys = entries.keySet().iterator();
+
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return non negative
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes all entries.
+     */
+    void clear() {
+        entries.clear();
+    }
+
+}
@@ -13,9 +13,11 @@
 package de.weltraumschaf.jvfs.impl;
 
 import de.weltraumschaf.jvfs.JvfsAssertions;
+import de.weltraumschaf.jvfs.JvfsCollections;
 import de.weltraumschaf.jvfs.JvfsFileSystems;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.AccessMode;
 import java.nio.file.CopyOption;
@@ -25,12 +27,10 @@
 import java.nio.file.LinkOption;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.FileAttributeView;
 import java.nio.file.spi.FileSystemProvider;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
@@ -41,46 +41,70 @@
  * This provider will dispatches all paths matching a mounted file system
  * to {@link JvfsFileSystemProvider}.
  *
+ * Each operation routes its paths through a trie of the mount points with one node per path name, so a path is
+ * mounted if the walk over its names passes a node holding a file system. The trie is rebuilt only if the
+ * {@link JvfsFileSystems#getFstabVersion() version} of the mount points changed. As long as nothing is mounted, an
+ * operation costs one version check before it is passed to the parent provider. Translated paths are cached with the
+ * trie, so repeated operations on a mounted path neither walk nor parse it again.
+ *
+ * The platform creates this provider while it builds the default file system, so any class loaded from a jar at
+ * that time, like the logger of {@link JvfsFileSystemProvider}, would ask for the default file system again. Hence
+ * the mount points and the virtual file system provider are resolved on the first routed operation.
+ *
  * @author Sven Strittmatter <weltraumschaf@googlemail.com>
  */
 public class JvfsDefaultFileSystemProvider extends FileSystemProvider {
 
+    /**
+     * Maximum number of cached translated paths.
+     */
+    static final int CACHE_SIZE = 1024;
+    /**
+     * Directory separator as character.
+     */
+    private static final char DIR_SEP = System.getProperty("file.separator").charAt(0);
     /**
      * The default system provider.
      */
     private final FileSystemProvider parent;
     /**
-     * Virtual file system.
+     * Virtual file system, {@code null} until the first path is translated.
+     */
+    private volatile FileSystemProvider jvfs;
+    /**
+     * Holds the mount points, {@code null} until the first path is routed.
      */
-    private final FileSystemProvider jvfs;
+    private volatile JvfsFileSystems mounts;
     /**
-     * Holds the mount points.
+     * Routing table of the last seen version of the mount points.
      */
-    private final Map<String, FileSystem> fstab;
+    private volatile Routes routes = new Routes(-1L, new Node());
 
     /**
      * Constructor used by {@link java.nio.file.FileSystems} to create default provider.
      *
-     * @param parent is ignored at the moment, necessary that JVM default factory can instantiate
+     * @param parent the default provider of the platform, all not mounted paths are passed to
      */
     public JvfsDefaultFileSystemProvider(final FileSystemProvider parent) {
-        this(parent, JvfsFileSystems.getInstance().getFstab(), new JvfsFileSystemProvider(false));
+        super();
+        JvfsAssertions.notNull(parent, "parent");
+        this.parent = parent;
     }
 
     /**
      * Dedicated constructor.
      *
      * @param parent must not be {@literal null}
-     * @param fstab must not be {@literal null}
+     * @param mounts must not be {@literal null}
      * @param jvfs must not be {@literal null}
      */
     JvfsDefaultFileSystemProvider(
-        final FileSystemProvider parent, final Map<String, FileSystem> fstab, final FileSystemProvider jvfs) {
+        final FileSystemProvider parent, final JvfsFileSystems mounts, final FileSystemProvider jvfs) {
         super();
         JvfsAssertions.notNull(parent, "parent");
         this.parent = parent;
-        JvfsAssertions.notNull(fstab, "fstab");
-        this.fstab = fstab;
+        JvfsAssertions.notNull(mounts, "mounts");
+        this.mounts = mounts;
         JvfsAssertions.notNull(jvfs, "jvfs");
         this.jvfs = jvfs;
     }
@@ -108,20 +132,34 @@ public Path getPath(final URI uri) {
     @Override
     public SeekableByteChannel newByteChannel(
         final Path path, final Set<? extends OpenOption> options, final FileAttribute<?>... attrs) throws IOException {
+        final Path translated = translate(path);
 
-        if (isMounted(path)) {
-            return jvfs.newByteChannel(translate(path), options, attrs);
+        if (null != translated) {
+            return jvfs().newByteChannel(translated, options, attrs);
         }
 
         return parent.newByteChannel(path, options, attrs);
     }
 
+    @Override
+    public FileChannel newFileChannel(
+        final Path path, final Set<? extends OpenOption> options, final FileAttribute<?>... attrs) throws IOException {
+        final Path translated = translate(path);
+
+        if (null != translated) {
+            return jvfs().newFileChannel(translated, options, attrs);
+        }
+
+        return parent.newFileChannel(path, options, attrs);
+    }
+
     @Override
     public DirectoryStream<Path> newDirectoryStream(
         final Path dir, final DirectoryStream.Filter<? super Path> filter) throws IOException {
+        final Path translated = translate(dir);
 
-        if (isMounted(dir)) {
-            return jvfs.newDirectoryStream(translate(dir), filter);
+        if (null != translated) {
+            return jvfs().newDirectoryStream(translated, filter);
         }
 
         return parent.newDirectoryStream(dir, filter);
@@ -129,8 +167,10 @@ public DirectoryStream<Path> newDirectoryStream(
 
     @Override
     public void createDirectory(final Path dir, final FileAttribute<?>... attrs) throws IOException {
-        if (isMounted(dir)) {
-            jvfs.createDirectory(translate(dir), attrs);
+        final Path translated = translate(dir);
+
+        if (null != translated) {
+            jvfs().createDirectory(translated, attrs);
             return;
         }
 
@@ -139,8 +179,10 @@ public void createDirectory(final Path dir, final FileAttribute<?>... attrs) thr
 
     @Override
     public void delete(final Path path) throws IOException {
-        if (isMounted(path)) {
-            jvfs.delete(translate(path));
+        final Path translated = translate(path);
+
+        if (null != translated) {
+            jvfs().delete(translated);
             return;
         }
 
@@ -149,10 +191,13 @@ public void delete(final Path path) throws IOException {
 
     @Override
     public void copy(final Path source, final Path target, final CopyOption... options) throws IOException {
-        if (isMounted(source) && isMounted(target)) {
-            jvfs.copy(translate(source), translate(target), options);
+        final Path translatedSource = translate(source);
+        final Path translatedTarget = translate(target);
+
+        if (null != translatedSource && null != translatedTarget) {
+            jvfs().copy(translatedSource, translatedTarget, options);
             return;
-        } else if (!isMounted(source) && !isMounted(target)) {
+        } else if (null == translatedSource && null == translatedTarget) {
             parent.copy(source, target, options);
             return;
         }
@@ -162,10 +207,13 @@ public void copy(final Path source, final Path target, final CopyOption... optio
 
     @Override
     public void move(final Path source, final Path target, final CopyOption... options) throws IOException {
-        if (isMounted(source) && isMounted(target)) {
-            jvfs.move(translate(source), translate(target), options);
+        final Path translatedSource = translate(source);
+        final Path translatedTarget = translate(target);
+
+        if (null != translatedSource && null != translatedTarget) {
+            jvfs().move(translatedSource, translatedTarget, options);
             return;
-        } else if (!isMounted(source) && !isMounted(target)) {
+        } else if (null == translatedSource && null == translatedTarget) {
             parent.move(source, target, options);
             return;
         }
@@ -173,21 +221,114 @@ public void move(final Path source, final Path target, final CopyOption... optio
         throw new UnsupportedOperationException("Move over different file systems not provided!");
     }
 
+    /**
+     * Creates a symbolic link.
+     *
+     * Relative targets stay relative. Absolute targets are translated like the link, so they must be mounted, too.
+     *
+     * @param link must not be {@literal null}
+     * @param target must not be {@literal null}
+     * @param attrs an optional list of attributes to set atomically when creating the link
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void createSymbolicLink(final Path link, final Path target, final FileAttribute<?>... attrs)
+        throws IOException {
+        final Path translated = translate(link);
+
+        if (null == translated) {
+            parent.createSymbolicLink(link, target, attrs);
+            return;
+        }
+
+        if (!target.isAbsolute()) {
+            jvfs().createSymbolicLink(translated, translated.getFileSystem().getPath(target.toString()), attrs);
+            return;
+        }
+
+        final Path translatedTarget = translate(target);
+
+        if (null == translatedTarget) {
+            throw new UnsupportedOperationException("Link over different file systems not provided!");
+        }
+
+        jvfs().createSymbolicLink(translated, translatedTarget, attrs);
+    }
+
+    /**
+     * Reads the target of a symbolic link.
+     *
+     * Targets of mounted links are mapped back to paths of the link's file system. Absolute targets which are not
+     * mounted are only reachable inside JVFS, so they are returned as JVFS paths.
+     *
+     * @param link must not be {@literal null}
+     * @return never {@literal null}
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public Path readSymbolicLink(final Path link) throws IOException {
+        final Path translated = translate(link);
+
+        if (null == translated) {
+            return parent.readSymbolicLink(link);
+        }
+
+        final Path target = jvfs().readSymbolicLink(translated);
+        final Path mapped = link.getFileSystem().getPath(target.toString());
+
+        if (target.isAbsolute() && !isMounted(mapped)) {
+            return target;
+        }
+
+        return mapped;
+    }
+
+    @Override
+    public void createLink(final Path link, final Path existing) throws IOException {
+        final Path translatedLink = translate(link);
+        final Path translatedExisting = translate(existing);
+
+        if (null != translatedLink && null != translatedExisting) {
+            jvfs().createLink(translatedLink, translatedExisting);
+            return;
+        } else if (null == translatedLink && null == translatedExisting) {
+            parent.createLink(link, existing);
+            return;
+        }
+
+        throw new UnsupportedOperationException("Link over different file systems not provided!");
+    }
+
+    /**
+     * Tests if two paths locate the same file.
+     *
+     * A mounted and a not mounted path never locate the same file.
+     *
+     * @param path must not be {@literal null}
+     * @param path2 must not be {@literal null}
+     * @return {@literal true} if both paths locate the same file, else {@literal false}
+     * @throws IOException if an I/O error occurs
+     */
     @Override
     public boolean isSameFile(final Path path, final Path path2) throws IOException {
-        if (isMounted(path) && isMounted(path)) {
-            return jvfs.isSameFile(translate(path), translate(path));
-        } else if (!isMounted(path) && !isMounted(path)) {
-            return parent.isSameFile(path, path);
+        final Path translated = translate(path);
+        final Path translated2 = translate(path2);
+
+        if (null != translated && null != translated2) {
+            return jvfs().isSameFile(translated, translated2);
+        } else if (null == translated && null == translated2) {
+            return parent.isSameFile(path, path2);
         }
 
-        throw new UnsupportedOperationException("Is same file check over different file systems not provided!");
+        return false;
     }
 
     @Override
     public boolean isHidden(final Path path) throws IOException {
-        if (isMounted(path)) {
-            return jvfs.isHidden(translate(path));
+        final Path translated = translate(path);
+
+        if (null != translated) {
+            return jvfs().isHidden(translated);
         }
 
         return parent.isHidden(path);
@@ -195,8 +336,10 @@ public boolean isHidden(final Path path) throws IOException {
 
     @Override
     public FileStore getFileStore(final Path path) throws IOException {
-        if (isMounted(path)) {
-            return jvfs.getFileStore(translate(path));
+        final Path translated = translate(path);
+
+        if (null != translated) {
+            return jvfs().getFileStore(translated);
         }
 
         return parent.getFileStore(path);
@@ -204,8 +347,11 @@ public FileStore getFileStore(final Path path) throws IOException {
 
     @Override
     public void checkAccess(final Path path, final AccessMode... modes) throws IOException {
-        if (isMounted(path)) {
-            jvfs.checkAccess(translate(path), modes);
+        final Path translated = translate(path);
+
+        if (null != translated) {
+            jvfs().checkAccess(translated, modes);
+            return;
         }
 
         parent.checkAccess(path, modes);
@@ -214,8 +360,10 @@ public void checkAccess(final Path path, final AccessMode... modes) throws IOExc
     @Override
     public <V extends FileAttributeView> V getFileAttributeView(
         final Path path, final Class<V> type, final LinkOption... options) {
-        if (isMounted(path)) {
-            return jvfs.getFileAttributeView(translate(path), type, options);
+        final Path translated = translate(path);
+
+        if (null != translated) {
+            return jvfs().getFileAttributeView(translated, type, options);
         }
 
         return parent.getFileAttributeView(path, type, options);
@@ -224,8 +372,10 @@ public <V extends FileAttributeView> V getFileAttributeView(
     @Override
     public <A extends BasicFileAttributes> A readAttributes(
         final Path path, final Class<A> type, final LinkOption... options) throws IOException {
-        if (isMounted(path)) {
-            return jvfs.readAttributes(translate(path), type, options);
+        final Path translated = translate(path);
+
+        if (null != translated) {
+            return jvfs().readAttributes(translated, type, options);
         }
 
         return parent.readAttributes(path, type, options);
@@ -234,8 +384,10 @@ public <A extends BasicFileAttributes> A readAttributes(
     @Override
     public Map<String, Object> readAttributes(
         final Path path, final String attributes, final LinkOption... options) throws IOException {
-        if (isMounted(path)) {
-            return jvfs.readAttributes(translate(path), attributes, options);
+        final Path translated = translate(path);
+
+        if (null != translated) {
+            return jvfs().readAttributes(translated, attributes, options);
         }
 
         return parent.readAttributes(path, attributes, options);
@@ -244,8 +396,11 @@ public Map<String, Object> readAttributes(
     @Override
     public void setAttribute(
         final Path path, final String attribute, final Object value, final LinkOption... options) throws IOException {
-        if (isMounted(path)) {
-            jvfs.setAttribute(translate(path), attribute, value, options);
+        final Path translated = translate(path);
+
+        if (null != translated) {
+            jvfs().setAttribute(translated, attribute, value, options);
+            return;
         }
 
         parent.setAttribute(path, attribute, value, options);
@@ -254,36 +409,236 @@ public void setAttribute(
     /**
      * Checks if the given path is in a mounted directory.
      *
+     * Only absolute paths are mounted and mount points match whole names only: {@literal /foobar} is not mounted by
+     * {@literal /foo}.
+     *
      * @param path must not be {@literal null}
      * @return {@literal true} if the path starts with a mount point, else {@literal false}
      */
     boolean isMounted(final Path path) {
         assert path != null : "path must be defined";
+        final Routes current = routes();
+        return !current.isEmpty() && null != current.route(path.toString());
+    }
+
+    /**
+     * Translates a path to a JVFS path.
+     *
+     * @param path must not be {@code null}
+     * @return {@code null} if the path is not mounted
+     */
+    Path translate(final Path path) {
+        assert path != null : "path must be defined";
+        final Routes current = routes();
 
-        if (fstab.isEmpty()) {
-            return false;
+        if (current.isEmpty()) {
+            return null;
+        }
+
+        final Path cached = current.translated.get(path);
+
+        if (null != cached) {
+            return cached;
         }
 
         final String pathName = path.toString();
-        final Iterator<Map.Entry<String, FileSystem>>  it = fstab.entrySet().iterator();
+        final FileSystem fs = current.route(pathName);
+
+        if (null == fs) {
+            return null;
+        }
+
+        return current.translated.putIfAbsent(path, fs.getPath(pathName));
+    }
+
+    /**
+     * Get the number of cached translated paths.
+     *
+     * @return non negative
+     */
+    int getCacheSize() {
+        return routes.translated.size();
+    }
+
+    /**
+     * Get the virtual file system provider, creating it on first use.
+     *
+     * Only called for translated paths, so the default file system is built already.
+     *
+     * @return never {@code null}
+     */
+    private FileSystemProvider jvfs() {
+        FileSystemProvider current = jvfs;
 
-        while (it.hasNext()) {
-            if (pathName.startsWith(it.next().getKey())) {
-                return true;
+        if (null == current) {
+            synchronized (this) {
+                current = jvfs;
+
+                if (null == current) {
+                    current = new JvfsFileSystemProvider(false);
+                    jvfs = current;
+                }
             }
         }
 
-        return false;
+        return current;
     }
 
     /**
-     * Translates a path to a JVFS path.
+     * Get the mount points, looking them up on first use.
      *
-     * @param path must not be {@code null}
      * @return never {@code null}
      */
-    Path translate(final Path path) {
-        return Paths.get(JvfsFileSystems.createUri(path.toString()));
+    private JvfsFileSystems mounts() {
+        JvfsFileSystems current = mounts;
+
+        if (null == current) {
+            current = JvfsFileSystems.getInstance();
+            mounts = current;
+        }
+
+        return current;
+    }
+
+    /**
+     * Get the routing table of the current mount points, rebuilding it if they changed.
+     *
+     * Threads racing to rebuild may publish an outdated table, which is detected and rebuilt by the next call.
+     *
+     * @return never {@code null}
+     */
+    private Routes routes() {
+        final Routes current = routes;
+        final JvfsFileSystems fstab = mounts();
+        final long version = fstab.getFstabVersion();
+
+        if (current.version == version) {
+            return current;
+        }
+
+        final Node trie = new Node();
+
+        for (final Map.Entry<String, FileSystem> entry : fstab.getFstab().entrySet()) {
+            Node node = trie;
+
+            for (final String name : JvfsPathUtil.tokenize(entry.getKey())) {
+                node = node.child(name);
+            }
+
+            node.fs = entry.getValue();
+        }
+
+        final Routes rebuilt = new Routes(version, trie);
+        routes = rebuilt;
+        return rebuilt;
+    }
+
+    /**
+     * Immutable trie of the mount points of one version together with the paths translated by it.
+     */
+    private static final class Routes {
+
+        /**
+         * Version of the mount points the trie was built from.
+         */
+        private final long version;
+        /**
+         * Root of the trie; holds the file system mounted on root.
+         */
+        private final Node trie;
+        /**
+         * Translated paths by path.
+         */
+        private final JvfsBoundedMap<Path, Path> translated = new JvfsBoundedMap<Path, Path>(CACHE_SIZE);
+
+        /**
+         * Dedicated constructor.
+         *
+         * @param version version of the mount points
+         * @param trie must not be {@code null}
+         */
+        Routes(final long version, final Node trie) {
+            super();
+            this.version = version;
+            this.trie = trie;
+        }
+
+        /**
+         * Whether nothing is mounted.
+         *
+         * @return {@code true} if the trie is empty, else {@code false}
+         */
+        boolean isEmpty() {
+            return null == trie.fs && trie.children.isEmpty();
+        }
+
+        /**
+         * Finds the file system mounted on the longest mount point being the path or one of its parents.
+         *
+         * @param path must not be {@code null}
+         * @return {@code null} if the path is not absolute or not mounted
+         */
+        FileSystem route(final String path) {
+            if (path.isEmpty() || DIR_SEP != path.charAt(0)) {
+                return null;
+            }
+
+            Node node = trie;
+            FileSystem found = node.fs;
+            int start = 1;
+
+            while (null != node && start < path.length()) {
+                int end = path.indexOf(DIR_SEP, start);
+
+                if (end < 0) {
+                    end = path.length();
+                }
+
+                if (end > start) {
+                    node = node.children.get(path.substring(start, end));
+
+                    if (null != node && null != node.fs) {
+                        found = node.fs;
+                    }
+                }
+
+                start = end + 1;
+            }
+
+            return found;
+        }
+    }
+
+    /**
+     * Node of the mount point trie; only changed while the trie is built.
+     */
+    private static final class Node {
+
+        /**
+         * Child nodes by name.
+         */
+        private final Map<String, Node> children = JvfsCollections.newMap();
+        /**
+         * File system mounted on this node, {@code null} if none.
+         */
+        private FileSystem fs;
+
+        /**
+         * Get the child node with the given name, creating it if missing.
+         *
+         * @param name must not be {@code null} or empty
+         * @return never {@code null}
+         */
+        Node child(final String name) {
+            Node child = children.get(name);
+
+            if (null == child) {
+                child = new Node();
+                children.put(name, child);
+            }
+
+            return child;
+        }
     }
 
 }
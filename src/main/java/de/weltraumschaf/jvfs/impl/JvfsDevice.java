@@ -0,0 +1,297 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Synthetic device which neither holds nor consumes any memory; immutable and thread-safe.
+ *
+ * All devices discard writes. Reading the {@link Type#NULL null} device gives end of stream at once, the
+ * {@link Type#ZERO zero} and {@link Type#RANDOM random} devices are sources which are endless unless a size is given.
+ *
+ * The random bytes are a function of the seed and the position, so equal seeds give equal bytes and channels can be
+ * positioned anywhere without generating the bytes in front.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsDevice implements JvfsSpecialFile {
+
+    /**
+     * Kinds of devices.
+     */
+    enum Type {
+
+        /**
+         * Sink discarding writes.
+         */
+        NULL("null"),
+        /**
+         * Source of zero bytes.
+         */
+        ZERO("zero"),
+        /**
+         * Source of pseudo random bytes.
+         */
+        RANDOM("random");
+        /**
+         * File name of the device.
+         */
+        private final String fileName;
+
+        /**
+         * Dedicated constructor.
+         *
+         * @param fileName must not be {@literal null} or empty
+         */
+        Type(final String fileName) {
+            this.fileName = fileName;
+        }
+
+        /**
+         * Get the file name of the device.
+         *
+         * @return never {@literal null} or empty
+         */
+        String fileName() {
+            return fileName;
+        }
+    }
+
+    /**
+     * Source of zeros for buffers without accessible array.
+     */
+    private static final byte[] ZEROS = new byte[8192];
+    /**
+     * Increment of the SplitMix64 generator.
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    /**
+     * Kind of the device.
+     */
+    private final Type type;
+    /**
+     * Number of bytes a source gives, 0 means endless.
+     */
+    private final long size;
+    /**
+     * Seed of the random device.
+     */
+    private final long seed;
+
+    /**
+     * Dedicated constructor.
+     *
+     * @param type must not be {@literal null}
+     * @param size must not be negative, 0 means endless, ignored by the null device
+     * @param seed seed of the random device
+     */
+    JvfsDevice(final Type type, final long size, final long seed) {
+        super();
+        assert null != type : "type must be defined";
+        assert size >= 0 : "size must not be negative";
+        this.type = type;
+        this.size = type == Type.NULL ? 0L : size;
+        this.seed = seed;
+    }
+
+    /**
+     * Get the kind of the device.
+     *
+     * @return never {@literal null}
+     */
+    Type getType() {
+        return type;
+    }
+
+    @Override
+    public boolean isRegularFile() {
+        return false;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public long allocatedSize() {
+        return 0L;
+    }
+
+    @Override
+    public JvfsSpecialFile copy() {
+        return this;
+    }
+
+    @Override
+    public SeekableByteChannel newChannel(final JvfsFileEntry entry, final JvfsOpenFlags flags) {
+        return new Channel(entry);
+    }
+
+    /**
+     * Mixes a number into a pseudo random long (finalizer of SplitMix64).
+     *
+     * @param z any number
+     * @return pseudo random number
+     */
+    private static long mix(final long z) {
+        long x = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+
+    /**
+     * Get the eight random bytes of the block at the given index, lowest byte first.
+     *
+     * @param block must not be negative
+     * @return pseudo random number
+     */
+    private long block(final long block) {
+        return mix(seed + (block + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Fills the destination with zeros.
+     *
+     * @param destination must not be {@literal null}
+     * @param count must not be negative or greater than remaining bytes of destination
+     */
+    private static void fillZeros(final ByteBuffer destination, final int count) {
+        int left = count;
+
+        while (left > 0) {
+            final int chunk = Math.min(left, ZEROS.length);
+            destination.put(ZEROS, 0, chunk);
+            left -= chunk;
+        }
+    }
+
+    /**
+     * Fills the destination with the random bytes beginning at the given position.
+     *
+     * @param destination must not be {@literal null}
+     * @param position must not be negative
+     * @param count must not be negative or greater than remaining bytes of destination
+     */
+    private void fillRandom(final ByteBuffer destination, final long position, final int count) {
+        long current = position;
+        final long end = position + count;
+
+        // Unaligned head byte by byte.
+        while (current < end && (current & 7) != 0) {
+            destination.put((byte) (block(current >>> 3) >>> ((current & 7) << 3)));
+            ++current;
+        }
+
+        // Whole blocks at once.
+        final boolean littleEndian = destination.order() == ByteOrder.LITTLE_ENDIAN;
+
+        while (end - current >= 8) {
+            final long word = block(current >>> 3);
+            destination.putLong(littleEndian ? word : Long.reverseBytes(word));
+            current += 8;
+        }
+
+        // Tail byte by byte.
+        while (current < end) {
+            destination.put((byte) (block(current >>> 3) >>> ((current & 7) << 3)));
+            ++current;
+        }
+    }
+
+    /**
+     * Channel on a device.
+     */
+    private final class Channel extends JvfsSpecialChannel {
+
+        /**
+         * Dedicated constructor.
+         *
+         * @param entry must not be {@code null}
+         */
+        Channel(final JvfsFileEntry entry) {
+            super(entry);
+        }
+
+        @Override
+        public int read(final ByteBuffer destination) throws IOException {
+            checkClosed();
+
+            if (destination == null) {
+                throw new IllegalArgumentException("Destination buffer must be supplied");
+            }
+
+            if (type == Type.NULL) {
+                return -1;
+            }
+
+            while (true) {
+                final long current = position();
+                long count = destination.remaining();
+
+                if (size > 0) {
+                    if (current >= size) {
+                        return -1;
+                    }
+
+                    count = Math.min(count, size - current);
+                }
+
+                if (claim(current, current + count)) {
+                    if (type == Type.ZERO) {
+                        fillZeros(destination, (int) count);
+                    } else {
+                        fillRandom(destination, current, (int) count);
+                    }
+
+                    return (int) count;
+                }
+            }
+        }
+
+        @Override
+        public int write(final ByteBuffer source) throws IOException {
+            checkClosed();
+
+            if (source == null) {
+                throw new IllegalArgumentException("Source buffer must be supplied");
+            }
+
+            final int count = source.remaining();
+            source.position(source.limit());
+            advance(count);
+            return count;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return size;
+        }
+
+        /**
+         * Does nothing, as devices have no content to truncate.
+         *
+         * @param newSize ignored
+         * @return this channel
+         */
+        @Override
+        public SeekableByteChannel truncate(final long newSize) throws IOException {
+            checkClosed();
+            return this;
+        }
+    }
+
+}
@@ -13,6 +13,9 @@
 
 import de.weltraumschaf.jvfs.JvfsAssertions;
 import de.weltraumschaf.jvfs.JvfsCollections;
+import de.weltraumschaf.jvfs.JvfsFileSystems;
+import de.weltraumschaf.jvfs.JvfsPreallocation;
+import de.weltraumschaf.jvfs.JvfsQuantity;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributeView;
@@ -31,6 +34,14 @@ final class JvfsFileAttributeView implements BasicFileAttributeView {
      * Contracted name of the {@link java.nio.file.attribute.BasicFileAttributeView}.
      */
     static final String BASIC_VIEW_NAME = "basic";
+    /**
+     * Name of the JVFS specific attributes.
+     */
+    static final String JVFS_VIEW_NAME = "jvfs";
+    /**
+     * Separates view name and attribute name.
+     */
+    private static final char VIEW_SEP = ':';
     /**
      * To get attributes from.
      */
@@ -66,6 +77,10 @@ public void setTimes(final FileTime lastModifiedTime, final FileTime lastAccessT
     /**
      * Sets the value of a file attribute.
      *
+     * The attribute name may be prefixed with a view name and a colon, e.g. {@literal "basic:lastModifiedTime"}.
+     * Besides the basic attributes the attributes {@value de.weltraumschaf.jvfs.JvfsPreallocation#ATTRIBUTE} and
+     * {@value de.weltraumschaf.jvfs.JvfsFileSystems#ATTRIBUTE_SEALED} are supported.
+     *
      * @param attribute must not be {@literal nul} or empty
      * @param value must not be {@literal nul} or empty
      * @throws IOException IOException if file does not exist
@@ -73,7 +88,65 @@ public void setTimes(final FileTime lastModifiedTime, final FileTime lastAccessT
     void setAttribute(final String attribute, final Object value) throws IOException {
         JvfsAssertions.notEmpty(attribute, "attribute");
         JvfsAssertions.notNull(value, "value");
+        final int sep = attribute.indexOf(VIEW_SEP);
+
+        if (sep > -1) {
+            final String view = attribute.substring(0, sep);
+            final String name = attribute.substring(sep + 1);
+
+            if (JVFS_VIEW_NAME.equals(view)) {
+                setJvfsAttribute(name, value);
+                return;
+            }
+
+            if (!BASIC_VIEW_NAME.equals(view)) {
+                throw new UnsupportedOperationException("View '" + view + "' is not supported!");
+            }
+
+            setBasicAttribute(name, value);
+            return;
+        }
+
+        setBasicAttribute(attribute, value);
+    }
+
+    /**
+     * Sets the value of a JVFS specific file attribute.
+     *
+     * @param attribute must not be {@literal nul} or empty
+     * @param value must not be {@literal nul} or empty
+     * @throws IOException IOException if file does not exist
+     */
+    private void setJvfsAttribute(final String attribute, final Object value) throws IOException {
+        final String qualified = JVFS_VIEW_NAME + VIEW_SEP + attribute;
 
+        if (JvfsPreallocation.ATTRIBUTE.equals(qualified)) {
+            if (value instanceof JvfsQuantity) {
+                path.preallocate(((JvfsQuantity) value).value());
+            } else if (value instanceof Number) {
+                path.preallocate(((Number) value).longValue());
+            } else {
+                throw new IllegalArgumentException("Attribute '" + attribute + "' must be a number or quantity!");
+            }
+        } else if (JvfsFileSystems.ATTRIBUTE_SEALED.equals(qualified)) {
+            if (!Boolean.TRUE.equals(value)) {
+                throw new IllegalArgumentException("A sealed file can't be unsealed!");
+            }
+
+            path.seal();
+        } else {
+            throw new UnsupportedOperationException("Attribute '" + attribute + "' is unknown!");
+        }
+    }
+
+    /**
+     * Sets the value of a basic file attribute.
+     *
+     * @param attribute must not be {@literal nul} or empty
+     * @param value must not be {@literal nul} or empty
+     * @throws IOException IOException if file does not exist
+     */
+    private void setBasicAttribute(final String attribute, final Object value) throws IOException {
         switch (Names.valueOf(attribute)) {
             case creationTime:
                 setTimes(null, null, (FileTime) value);
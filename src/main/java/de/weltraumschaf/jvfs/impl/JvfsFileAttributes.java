@@ -67,7 +67,7 @@ public FileTime creationTime() {
 
     @Override
     public boolean isRegularFile() {
-        return !isDirectory();
+        return !isDirectory() && !isOther() && !isSymbolicLink();
     }
 
     @Override
@@ -82,8 +82,8 @@ public boolean isSymbolicLink() {
 
     @Override
     public boolean isOther() {
-        // Either a dir or regular file
-        return false;
+        // Pipes and devices
+        return entry.isOther();
     }
 
     @Override
@@ -91,9 +91,14 @@ public long size() {
         return entry.size();
     }
 
+    /**
+     * Get the number of the inode, which is equal for all hard links of a file.
+     *
+     * @return never {@code null}
+     */
     @Override
     public Object fileKey() {
-        return entry.getPath();
+        return entry.getInode().getId();
     }
 
 }
@@ -0,0 +1,360 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsReadRange;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable version of a file's content.
+ *
+ * A {@link JvfsFileEntry} always points to its current version. Readers pin the version which was current when they
+ * started and are never affected by writers: every write publishes a new version instead of changing the old one.
+ * Once the last reader of a superseded version has gone the version is unreachable and reclaimed by the garbage
+ * collector.
+ *
+ * Several versions may share one backing array. A version only ever looks at the first {@link #length()} bytes of
+ * the array, so the bytes behind that may be appended in place by the version which owns the tail of the array.
+ * All other modifications copy the array.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsFileContent {
+
+    /**
+     * Empty content.
+     */
+    static final JvfsFileContent EMPTY = new JvfsFileContent(new byte[0], 0, false);
+    /**
+     * Maximum size of an array; some VMs reserve header words in an array.
+     */
+    static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+    /**
+     * Orders ranges by their offset.
+     */
+    private static final Comparator<JvfsReadRange> BY_OFFSET = new Comparator<JvfsReadRange>() {
+        @Override
+        public int compare(final JvfsReadRange a, final JvfsReadRange b) {
+            return Long.compare(a.getOffset(), b.getOffset());
+        }
+    };
+    /**
+     * Backing array, may be greater than {@link #length}.
+     */
+    private final byte[] data;
+    /**
+     * Number of valid bytes in {@link #data}.
+     */
+    private final int length;
+    /**
+     * Whether this version owns the unused bytes behind {@link #length}.
+     *
+     * Only the owner may append to the backing array in place. Guarded by the write lock of the entry holding this
+     * version as current content.
+     */
+    private boolean tailOwner;
+
+    /**
+     * Dedicated constructor.
+     *
+     * @param data must not be {@code null}
+     * @param length must not be negative or greater than the array length
+     * @param tailOwner whether the version may append in place
+     */
+    private JvfsFileContent(final byte[] data, final int length, final boolean tailOwner) {
+        super();
+        assert null != data : "data must be defined";
+        assert length >= 0 && length <= data.length : "length must be between 0 and data length";
+        this.data = data;
+        this.length = length;
+        this.tailOwner = tailOwner;
+    }
+
+    /**
+     * Creates a version which takes ownership of the given array.
+     *
+     * The caller must not modify the array afterwards.
+     *
+     * @param data must not be {@code null}
+     * @return never {@code null}
+     */
+    static JvfsFileContent adopt(final byte[] data) {
+        return new JvfsFileContent(data, data.length, false);
+    }
+
+    /**
+     * Creates a version which takes ownership of the remaining bytes of the given buffer.
+     *
+     * A heap buffer whose remaining bytes start at the beginning of its backing array is adopted without copying and
+     * the caller must not modify it afterwards. Any other buffer (direct, read-only or sliced behind the array start)
+     * has no such array and is copied once. The position of the given buffer is not changed.
+     *
+     * @param buffer must not be {@code null}
+     * @return never {@code null}
+     */
+    static JvfsFileContent adopt(final ByteBuffer buffer) {
+        if (buffer.hasArray() && buffer.arrayOffset() + buffer.position() == 0) {
+            return new JvfsFileContent(buffer.array(), buffer.limit(), false);
+        }
+
+        final byte[] copy = new byte[buffer.remaining()];
+        buffer.duplicate().get(copy);
+        return adopt(copy);
+    }
+
+    /**
+     * Get the number of bytes.
+     *
+     * @return non negative
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Get the backing array.
+     *
+     * Only the first {@link #length()} bytes belong to this version and they must never be modified.
+     *
+     * @return never {@code null}
+     */
+    byte[] array() {
+        return data;
+    }
+
+    /**
+     * Copies the bytes into a new array of exact size.
+     *
+     * @return never {@code null}
+     */
+    byte[] toByteArray() {
+        final byte[] copy = new byte[length];
+        System.arraycopy(data, 0, copy, 0, length);
+        return copy;
+    }
+
+    /**
+     * Exports the bytes as read-only buffer without copying.
+     *
+     * The capacity of the buffer is exactly {@link #length()}, so bytes of later versions sharing the array are not
+     * reachable through it.
+     *
+     * @return never {@code null}
+     */
+    ByteBuffer asReadOnlyBuffer() {
+        return ByteBuffer.wrap(data, 0, length).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Reads bytes beginning at the given position into the destination buffer.
+     *
+     * @param position must not be negative
+     * @param destination must not be {@code null}
+     * @return number of bytes read, -1 if position is at or behind the end
+     */
+    int read(final int position, final ByteBuffer destination) {
+        assert position >= 0 : "position must not be negative";
+        assert null != destination : "destination must be defined";
+        final int available = length - position;
+
+        if (available <= 0) {
+            return -1;
+        }
+
+        final int count = Math.min(available, destination.remaining());
+        destination.put(data, position, count);
+        return count;
+    }
+
+    /**
+     * Copies several ranges into their destination buffers.
+     *
+     * The ranges are served in the order of their offsets, so the backing array is walked front to back. A range
+     * reaching behind the end is read short, a range starting behind the end reads nothing.
+     *
+     * @param ranges must not be {@code null}, each range must have a destination
+     * @return total number of bytes read
+     */
+    long read(final List<JvfsReadRange> ranges) {
+        assert null != ranges : "ranges must be defined";
+        final List<JvfsReadRange> sorted = new ArrayList<JvfsReadRange>(ranges);
+        Collections.sort(sorted, BY_OFFSET);
+        long total = 0;
+
+        for (final JvfsReadRange range : sorted) {
+            if (!range.hasDestination()) {
+                throw new IllegalArgumentException("Range " + range + " has no destination!");
+            }
+
+            final ByteBuffer destination = range.getDestination();
+            final int count = Math.min(available(range), destination.remaining());
+
+            if (count > 0) {
+                destination.put(data, (int) range.getOffset(), count);
+                total += count;
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Exports several ranges as read-only buffers without copying.
+     *
+     * The slices are returned in the order of the given ranges. A range reaching behind the end is cut, a range
+     * starting behind the end gives an empty buffer. Destinations of the ranges are ignored.
+     *
+     * @param ranges must not be {@code null}
+     * @return never {@code null}
+     */
+    List<ByteBuffer> slice(final List<JvfsReadRange> ranges) {
+        assert null != ranges : "ranges must be defined";
+        final List<ByteBuffer> slices = new ArrayList<ByteBuffer>(ranges.size());
+
+        for (final JvfsReadRange range : ranges) {
+            final int count = available(range);
+
+            if (count > 0) {
+                slices.add(ByteBuffer.wrap(data, (int) range.getOffset(), count).slice().asReadOnlyBuffer());
+            } else {
+                slices.add(EMPTY.asReadOnlyBuffer());
+            }
+        }
+
+        return slices;
+    }
+
+    /**
+     * Calculates how many bytes of a range are available in this version, regardless of its destination.
+     *
+     * @param range must not be {@code null}
+     * @return non negative
+     */
+    private int available(final JvfsReadRange range) {
+        if (range.getOffset() >= length) {
+            return 0;
+        }
+
+        return Math.min(length - (int) range.getOffset(), range.getLength());
+    }
+
+    /**
+     * Creates a new version with the source buffer written at the given position.
+     *
+     * Must be called under the write lock of the entry whose current content this is. Gaps between the current
+     * length and the position are filled with zeros.
+     *
+     * @param position must not be negative
+     * @param source must not be {@code null}
+     * @return never {@code null}
+     */
+    JvfsFileContent write(final int position, final ByteBuffer source) {
+        assert position >= 0 : "position must not be negative";
+        assert null != source : "source must be defined";
+        final int count = source.remaining();
+        final int end = position + count;
+
+        if (end < 0) {
+            throw new IllegalArgumentException("Content can't exceed " + MAX_ARRAY_SIZE + " bytes!");
+        }
+
+        final int newLength = Math.max(length, end);
+
+        if (tailOwner && position >= length && end <= data.length) {
+            // Nobody sees the bytes behind our length, so append in place.
+            source.get(data, position, count);
+            tailOwner = false;
+            return new JvfsFileContent(data, newLength, true);
+        }
+
+        final byte[] copy;
+
+        if (end > length) {
+            copy = new byte[grow(newLength)];
+        } else {
+            copy = new byte[data.length];
+        }
+
+        System.arraycopy(data, 0, copy, 0, length);
+        source.get(copy, position, count);
+        return new JvfsFileContent(copy, newLength, true);
+    }
+
+    /**
+     * Creates a new version cut to the given size.
+     *
+     * The new version shares the backing array, but never appends in place, because the bytes behind the new size
+     * may still be read through this version.
+     *
+     * @param size must not be negative or greater than {@link #length()}
+     * @return never {@code null}
+     */
+    JvfsFileContent truncate(final int size) {
+        assert size >= 0 && size <= length : "size must be between 0 and length";
+        return new JvfsFileContent(data, size, false);
+    }
+
+    /**
+     * Creates a version with the same bytes to be used by an other entry.
+     *
+     * No bytes are copied; the copy will never append in place, so writes to either of them won't affect the other.
+     *
+     * @return never {@code null}
+     */
+    JvfsFileContent share() {
+        return new JvfsFileContent(data, length, false);
+    }
+
+    /**
+     * Creates a version with the same bytes which can append in place up to the given capacity.
+     *
+     * Must be called under the write lock of the entry whose current content this is. Returns this version if it
+     * already owns enough spare capacity.
+     *
+     * @param capacity must not be negative or greater than {@link #MAX_ARRAY_SIZE}
+     * @return never {@code null}
+     */
+    JvfsFileContent reserve(final int capacity) {
+        assert capacity >= 0 && capacity <= MAX_ARRAY_SIZE : "capacity must be between 0 and max array size";
+
+        if (capacity <= length || tailOwner && capacity <= data.length) {
+            return this;
+        }
+
+        final byte[] copy = new byte[capacity];
+        System.arraycopy(data, 0, copy, 0, length);
+        return new JvfsFileContent(copy, length, true);
+    }
+
+    /**
+     * Calculates the capacity for a growing array.
+     *
+     * Doubles the current capacity so that appending has amortized constant cost.
+     *
+     * @param minCapacity must not be negative
+     * @return at least min capacity
+     */
+    private int grow(final int minCapacity) {
+        final int doubled = data.length << 1;
+
+        if (doubled < 0 || doubled > MAX_ARRAY_SIZE) {
+            return Math.max(minCapacity, MAX_ARRAY_SIZE);
+        }
+
+        return Math.max(minCapacity, doubled);
+    }
+
+}
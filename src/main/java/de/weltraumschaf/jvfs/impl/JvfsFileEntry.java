@@ -13,13 +13,16 @@
 
 import de.weltraumschaf.jvfs.JvfsAssertions;
 import de.weltraumschaf.jvfs.JvfsCollections;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
 import java.util.Set;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Holds the administrative data of a file entry in the virtual file system.
  *
+ * An entry is a name in the hierarchy; content and metadata live in its {@link JvfsInode inode}, which hard links
+ * share.
+ *
  * @author Sven Strittmatter <weltraumschaf@googlemail.com>
  */
 final class JvfsFileEntry {
@@ -33,33 +36,9 @@ final class JvfsFileEntry {
      */
     private final boolean direcotry;
     /**
-     * R/W lock.
-     */
-    private final ReadWriteLock rwlock = new ReentrantReadWriteLock();
-    /**
-     * Holds the file data.
-     */
-    private byte[] content;
-    /**
-     * Last modification time.
-     */
-    private long lastModifiedTime;
-    /**
-     * Last access time.
-     */
-    private long lastAccessTime;
-    /**
-     * Creation time.
-     */
-    private long creationTime;
-    /**
-     * Whether it is hidden.
+     * Content and metadata; shared by all hard links of the file.
      */
-    private boolean hidden;
-    /**
-     * Holds the file permissions.
-     */
-    private JvfsFilePermissions permissions = new JvfsFilePermissions();
+    private final JvfsInode inode;
     /**
      * Contains children if it is a directory.
      */
@@ -78,12 +57,7 @@ final class JvfsFileEntry {
      * @param src must not be {@literal null}
      */
     private JvfsFileEntry(final String path, final JvfsFileEntry src) {
-        this(path, src.direcotry, src.getContent().clone());
-        this.lastModifiedTime = src.getLastModifiedTime();
-        this.lastAccessTime = src.getLastAccessTime();
-        this.creationTime = src.getCreationTime();
-        this.permissions = src.permissions.copy();
-        this.hidden = src.isHidden();
+        this(path, src.direcotry, src.inode.copy());
         this.children = JvfsCollections.newSet(src.children);
     }
 
@@ -94,7 +68,7 @@ private JvfsFileEntry(final String path, final JvfsFileEntry src) {
      * @param direcotry {@literal true} if it is a directory, else {@literal false}
      */
     private JvfsFileEntry(final String path, final boolean direcotry) {
-        this(path, direcotry, new byte[0]);
+        this(path, direcotry, new JvfsInode(JvfsFileContent.EMPTY, null));
     }
 
     /**
@@ -105,13 +79,25 @@ private JvfsFileEntry(final String path, final boolean direcotry) {
      * @param content must not be {@code null}
      */
     JvfsFileEntry(final String path, final boolean direcotry, final byte[] content) {
+        this(path, direcotry, new JvfsInode(JvfsFileContent.adopt(content), null));
+    }
+
+    /**
+     * Constructor which refers to a given inode.
+     *
+     * @param path must not be {@literal null} or empty
+     * @param direcotry {@literal true} if it is a directory, else {@literal false}
+     * @param inode must not be {@code null}
+     */
+    private JvfsFileEntry(final String path, final boolean direcotry, final JvfsInode inode) {
         super();
         assert path != null : "path must not be null";
         assert !path.isEmpty() : "path must not be empty";
-        assert content != null : "content must not be null";
+        assert inode != null : "inode must not be null";
+        assert inode.getSpecial() == null || !direcotry : "directory can't be special";
         this.path = path;
         this.direcotry = direcotry;
-        this.content = content;
+        this.inode = inode;
     }
 
     /**
@@ -134,6 +120,30 @@ static JvfsFileEntry newFile(final String path) {
         return new JvfsFileEntry(path, false);
     }
 
+    /**
+     * Creates a new special file entry.
+     *
+     * @param path must not be {@literal null} or empty
+     * @param special must not be {@literal null}
+     * @return never {@literal null}
+     */
+    static JvfsFileEntry newSpecial(final String path, final JvfsSpecialFile special) {
+        JvfsAssertions.notNull(special, "special");
+        return new JvfsFileEntry(path, false, new JvfsInode(JvfsFileContent.EMPTY, special));
+    }
+
+    /**
+     * Creates a new symbolic link entry.
+     *
+     * @param path must not be {@literal null} or empty
+     * @param target must not be {@literal null} or empty, relative targets are relative to the directory of the link
+     * @return never {@literal null}
+     */
+    static JvfsFileEntry newSymbolicLink(final String path, final String target) {
+        JvfsAssertions.notEmpty(target, "target");
+        return new JvfsFileEntry(path, false, new JvfsInode(JvfsFileContent.EMPTY, null, target));
+    }
+
     /**
      * Creates identical deep copy with a different path.
      *
@@ -153,6 +163,55 @@ JvfsFileEntry copy() {
         return new JvfsFileEntry(this.getPath(), this);
     }
 
+    /**
+     * Creates a hard link: an entry with a different path sharing the inode of this entry.
+     *
+     * Nothing but the path is copied; the link count of the shared inode is incremented.
+     *
+     * @param newPath must not be {@literal null} or empty
+     * @return never {@literal null}
+     */
+    JvfsFileEntry link(final String newPath) {
+        if (isDirectory()) {
+            throw new IllegalStateException("Can't link directory!");
+        }
+
+        inode.link();
+        return new JvfsFileEntry(newPath, false, inode);
+    }
+
+    /**
+     * Creates an entry with a different path which takes over the inode and children of this entry.
+     *
+     * The link count is not changed, as this entry is meant to be dropped.
+     *
+     * @param newPath must not be {@literal null} or empty
+     * @return never {@literal null}
+     */
+    JvfsFileEntry rename(final String newPath) {
+        final JvfsFileEntry renamed = new JvfsFileEntry(newPath, direcotry, inode);
+        renamed.children = JvfsCollections.newSet(children);
+        return renamed;
+    }
+
+    /**
+     * Get the inode holding content and metadata.
+     *
+     * @return never {@literal null}
+     */
+    JvfsInode getInode() {
+        return inode;
+    }
+
+    /**
+     * Get the number of entries sharing the inode of this entry.
+     *
+     * @return greater than 0 as long as the entry is part of a file system
+     */
+    int getLinkCount() {
+        return inode.getLinks();
+    }
+
     @Override
     public int hashCode() {
         return path.hashCode();
@@ -174,11 +233,18 @@ public String toString() {
 
         if (isDirectory()) {
             buffer.append('d');
+        } else if (isSymbolicLink()) {
+            buffer.append('l');
         } else {
             buffer.append('-');
         }
 
-        buffer.append(permissions).append(' ').append(path);
+        buffer.append(inode.getPermissions()).append(' ').append(path);
+
+        if (isSymbolicLink()) {
+            buffer.append(" -> ").append(inode.getLinkTarget());
+        }
+
         return buffer.toString();
     }
 
@@ -200,13 +266,40 @@ boolean isDirectory() {
         return direcotry;
     }
 
+    /**
+     * Whether it is a special file which brings its own channels.
+     *
+     * @return {@literal true} if it is a special file, else {@literal false}
+     */
+    boolean isSpecial() {
+        return null != inode.getSpecial();
+    }
+
+    /**
+     * Whether it is neither a directory nor a regular file.
+     *
+     * @return {@literal true} if it is a special file which does not behave like a regular file
+     */
+    boolean isOther() {
+        return isSpecial() && !inode.getSpecial().isRegularFile();
+    }
+
+    /**
+     * Get the content of a special file.
+     *
+     * @return {@literal null} unless it is a special file
+     */
+    JvfsSpecialFile getSpecial() {
+        return inode.getSpecial();
+    }
+
     /**
      * Whether the entry is hidden or not.
      *
      * @return {@literal true} if it is hidden, else {@literal false}
      */
     boolean isHidden() {
-        return hidden;
+        return inode.isHidden();
     }
 
     /**
@@ -215,7 +308,7 @@ boolean isHidden() {
      * @return non negative number
      */
     long getLastModifiedTime() {
-        return lastModifiedTime;
+        return inode.getLastModifiedTime();
     }
 
     /**
@@ -224,8 +317,7 @@ long getLastModifiedTime() {
      * @param timestamp must be non negative
      */
     void setLastModifiedTime(final long timestamp) {
-        JvfsAssertions.greaterThanEqual(timestamp, 0, "timestamp");
-        this.lastModifiedTime = timestamp;
+        inode.setLastModifiedTime(timestamp);
     }
 
     /**
@@ -234,7 +326,7 @@ void setLastModifiedTime(final long timestamp) {
      * @return non negative number
      */
     long getLastAccessTime() {
-        return lastAccessTime;
+        return inode.getLastAccessTime();
     }
 
     /**
@@ -243,8 +335,7 @@ long getLastAccessTime() {
      * @param timestamp must be non negative
      */
     void setLastAccessTime(final long timestamp) {
-        JvfsAssertions.greaterThanEqual(timestamp, 0, "timestamp");
-        this.lastAccessTime = timestamp;
+        inode.setLastAccessTime(timestamp);
     }
 
     /**
@@ -253,7 +344,7 @@ void setLastAccessTime(final long timestamp) {
      * @return non negative number
      */
     long getCreationTime() {
-        return creationTime;
+        return inode.getCreationTime();
     }
 
     /**
@@ -262,8 +353,7 @@ long getCreationTime() {
      * @param timestamp must be non negative
      */
     void setCreationTime(final long timestamp) {
-        JvfsAssertions.greaterThanEqual(timestamp, 0, "timestamp");
-        this.creationTime = timestamp;
+        inode.setCreationTime(timestamp);
     }
 
     /**
@@ -272,7 +362,7 @@ void setCreationTime(final long timestamp) {
      * @return {@literal true} if readable, else {@literal false}
      */
     boolean isReadable() {
-        return permissions.ownerRead();
+        return inode.getPermissions().ownerRead();
     }
 
     /**
@@ -281,7 +371,7 @@ boolean isReadable() {
      * @return {@literal true} if writable, else {@literal false}
      */
     boolean isWritable() {
-        return permissions.ownerWrite();
+        return inode.getPermissions().ownerWrite();
     }
 
     /**
@@ -290,7 +380,7 @@ boolean isWritable() {
      * @return {@literal true} if executable, else {@literal false}
      */
     boolean isExecutable() {
-        return permissions.ownerExecute();
+        return inode.getPermissions().ownerExecute();
     }
 
     /**
@@ -299,7 +389,7 @@ boolean isExecutable() {
      * @param readable {@code true} for readable, else {@code false}
      */
     public void setReadable(boolean readable) {
-        permissions.ownerRead(readable);
+        inode.getPermissions().ownerRead(readable);
     }
 
     /**
@@ -308,7 +398,7 @@ public void setReadable(boolean readable) {
      * @param writable {@code true} for writable, else {@code false}
      */
     public void setWritable(boolean writable) {
-        permissions.ownerWrite(writable);
+        inode.getPermissions().ownerWrite(writable);
     }
 
     /**
@@ -317,7 +407,7 @@ public void setWritable(boolean writable) {
      * @param executable {@code true} for executable, else {@code false}
      */
     public void setExecutable(boolean executable) {
-        permissions.ownerExecute(executable);
+        inode.getPermissions().ownerExecute(executable);
     }
 
     /**
@@ -326,7 +416,7 @@ public void setExecutable(boolean executable) {
      * @param hidden {@code true} for hidden, else {@code false}
      */
     public void setHidden(boolean hidden) {
-        this.hidden = hidden;
+        inode.setHidden(hidden);
     }
 
     /**
@@ -335,8 +425,16 @@ public void setHidden(boolean hidden) {
      * @return {@literal true} if it is a symbolic link, else {@literal false}
      */
     boolean isSymbolicLink() {
-        // TODO Implement symbolic links.
-        return false;
+        return null != inode.getLinkTarget();
+    }
+
+    /**
+     * Get the target of a symbolic link as given on creation.
+     *
+     * @return {@literal null} unless it is a symbolic link
+     */
+    String getLinkTarget() {
+        return inode.getLinkTarget();
     }
 
     /**
@@ -349,54 +447,188 @@ long size() {
             return -1L;
         }
 
-        return content.length;
+        if (isSpecial()) {
+            return inode.getSpecial().size();
+        }
+
+        if (isSymbolicLink()) {
+            return getLinkTarget().length();
+        }
+
+        return inode.getContent().length();
     }
 
     /**
-     * Get the file content.
+     * Get a copy of the file content.
      *
      * @return never {@literal null}
      */
     byte[] getContent() {
-        return content;
+        return inode.getContent().toByteArray();
     }
 
     /**
      * Set the file content.
      *
+     * The entry takes ownership of the array, so the caller must not modify it afterwards.
+     *
      * @param content must not be {@code null}
      */
     void setContent(final byte[] content) {
         assert content != null : "content must be defined";
-        this.content = content;
+        setContentVersion(JvfsFileContent.adopt(content));
     }
 
     /**
-     * Acquire write lock.
+     * Get the current version of the file content.
+     *
+     * The returned version is immutable and stays valid regardless of later writes.
+     *
+     * @return never {@literal null}
      */
-    void beginWrite() {
-        rwlock.writeLock().lock();
+    JvfsFileContent getContentVersion() {
+        return inode.getContent();
     }
 
     /**
-     * Return write lock.
+     * Publishes a new version of the file content which replaces the current one.
+     *
+     * @param version must not be {@code null}
      */
-    void endWrite() {
-        rwlock.writeLock().unlock();
+    void setContentVersion(final JvfsFileContent version) {
+        inode.setContent(version);
+    }
+
+    /**
+     * Writes the source buffer at the given position and publishes the result as new version.
+     *
+     * @param position must not be negative
+     * @param source must not be {@code null}
+     * @return the published version, never {@code null}
+     */
+    JvfsFileContent write(final int position, final ByteBuffer source) {
+        return inode.write(position, source);
     }
 
     /**
-     * Acquire read lock.
+     * Appends the source buffer at the end of the current version and publishes the result as new version.
+     *
+     * Reserving the range at the end and writing it is one atomic step, so concurrent appenders never overwrite each
+     * other. Because appending uses the spare capacity of the backing array the critical section only copies the
+     * appended bytes.
+     *
+     * @param source must not be {@code null}
+     * @return the published version, never {@code null}
      */
-    void beginRead() {
-        rwlock.readLock().lock();
+    JvfsFileContent append(final ByteBuffer source) {
+        return inode.append(source);
     }
 
     /**
-     * Return read lock.
+     * Cuts the current version to the given size and publishes the result as new version.
+     *
+     * Nothing happens if the current version is not greater than the given size.
+     *
+     * @param size must not be negative
+     * @return the current version, never {@code null}
+     */
+    JvfsFileContent truncate(final int size) {
+        return inode.truncate(size);
+    }
+
+    /**
+     * Reserves storage so that the file can grow up to the given size without reallocating its content.
+     *
+     * @param size must not be negative or greater than {@link JvfsFileContent#MAX_ARRAY_SIZE}
+     */
+    void reserve(final int size) {
+        inode.reserve(size);
+    }
+
+    /**
+     * Get the number of bytes reserved by {@link #reserve(int)}.
+     *
+     * @return non negative
+     */
+    int getAllocationHint() {
+        return inode.getAllocationHint();
+    }
+
+    /**
+     * Get the number of bytes the file occupies in its store.
+     *
+     * This is the size of the content or the reserved size, whatever is greater.
+     *
+     * @return 0 if it is a directory, else non negative
      */
-    void endRead() {
-        rwlock.readLock().unlock();
+    long allocatedSize() {
+        if (this.isDirectory()) {
+            return 0L;
+        }
+
+        if (isSpecial()) {
+            return inode.getSpecial().allocatedSize();
+        }
+
+        return Math.max(inode.getContent().length(), inode.getAllocationHint());
+    }
+
+    /**
+     * Makes the content immutable.
+     *
+     * All later attempts to change the content throw a {@link NonWritableChannelException}. Sealing can't be undone,
+     * sealing a sealed entry again does nothing.
+     */
+    void seal() {
+        inode.seal();
+    }
+
+    /**
+     * Whether the content is immutable.
+     *
+     * The current version of a sealed entry never changes, so it may be read without any synchronization.
+     *
+     * @return {@code true} if sealed, else {@code false}
+     */
+    boolean isSealed() {
+        return inode.isSealed();
+    }
+
+    /**
+     * Registers a newly opened channel or stream.
+     */
+    void opened() {
+        inode.opened();
+    }
+
+    /**
+     * Unregisters a closed channel or stream; must be called exactly once per {@link #opened()}.
+     */
+    void closed() {
+        inode.closed();
+    }
+
+    /**
+     * Get the number of open channels and streams on this entry.
+     *
+     * @return non negative
+     */
+    int getOpenHandles() {
+        return inode.getOpenHandles();
+    }
+
+    /**
+     * Acquire write lock.
+     */
+    void beginWrite() {
+        inode.beginWrite();
+    }
+
+    /**
+     * Return write lock.
+     */
+    void endWrite() {
+        inode.endWrite();
     }
 
     /**
@@ -405,8 +637,7 @@ void endRead() {
      * @param permissions must not be {@code null}
      */
     void setPermissions(final JvfsFilePermissions permissions) {
-        JvfsAssertions.notNull(permissions, "permissions");
-        this.permissions = permissions;
+        inode.setPermissions(permissions);
     }
 
     /**
@@ -415,7 +646,7 @@ void setPermissions(final JvfsFilePermissions permissions) {
      * @return never {@code null}
      */
     JvfsFilePermissions getPermissions() {
-        return permissions;
+        return inode.getPermissions();
     }
 
     /**
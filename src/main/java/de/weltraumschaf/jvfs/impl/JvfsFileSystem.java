@@ -12,10 +12,20 @@
 package de.weltraumschaf.jvfs.impl;
 
 import de.weltraumschaf.jvfs.JvfsAssertions;
+import de.weltraumschaf.jvfs.JvfsCircularFile;
 import de.weltraumschaf.jvfs.JvfsCollections;
 import de.weltraumschaf.jvfs.JvfsFileSystems;
+import de.weltraumschaf.jvfs.JvfsGeneratedFile;
 import de.weltraumschaf.jvfs.JvfsOptions;
+import de.weltraumschaf.jvfs.JvfsPipeFile;
+import de.weltraumschaf.jvfs.JvfsPreallocation;
+import de.weltraumschaf.jvfs.JvfsReadRange;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.AccessDeniedException;
@@ -26,8 +36,10 @@
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileStore;
 import java.nio.file.FileSystem;
+import java.nio.file.FileSystemException;
 import java.nio.file.InvalidPathException;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.NotLinkException;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
@@ -38,13 +50,19 @@
 import java.nio.file.attribute.FileTime;
 import java.nio.file.attribute.UserPrincipalLookupService;
 import java.nio.file.spi.FileSystemProvider;
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Maintains the file system specific hierarchy.
@@ -71,6 +89,26 @@ class JvfsFileSystem extends FileSystem {
      * The key is the absolute pathname of the file ({@link JvfsFileEntry#path}).
      */
     private final Map<String, JvfsFileEntry> attic = JvfsCollections.newMap();
+    /**
+     * Resolves symbolic links in paths to their keys in {@link #attic}.
+     */
+    private final JvfsLinkResolver links = new JvfsLinkResolver(attic);
+    /**
+     * Incremented after each change of the hierarchy, so that {@link EntryHint hints} taken before are stale.
+     */
+    private final AtomicLong namespaceVersion = new AtomicLong();
+    /**
+     * Serializes preallocations, so checking the free space and reserving it is atomic.
+     */
+    private final Lock allocationLock = new ReentrantLock();
+    /**
+     * Shares the paths created by {@link #getPath(java.lang.String, java.lang.String[])}.
+     */
+    private final JvfsPathCache paths;
+    /**
+     * Validates and normalizes paths with the allowed characters.
+     */
+    private final JvfsPathScanner scanner;
     /**
      * List of file stores.
      */
@@ -94,10 +132,41 @@ class JvfsFileSystem extends FileSystem {
         JvfsAssertions.notNull(options, "options");
         this.provider = provider;
         this.open = true;
+        this.paths = new JvfsPathCache(options.getPathCacheSize());
+        this.scanner = JvfsPathScanner.forCharset(options.getPathCharset());
         final FileStore store = new JvfsFileStore(options, this);
         final List<FileStore> stores = JvfsCollections.newList(1);
         stores.add(store);
         this.fileStores = Collections.unmodifiableList(stores);
+        mountDevices(options);
+    }
+
+    /**
+     * Adds the {@link JvfsDevice devices} if the options name a directory for them.
+     *
+     * @param options must not be {@literal null}
+     */
+    private void mountDevices(final JvfsOptions options) {
+        final String directory = options.getDevices();
+
+        if (directory.isEmpty()) {
+            return;
+        }
+
+        if (!directory.startsWith(JvfsFileSystems.DIR_SEP)) {
+            throw new IllegalArgumentException("Device directory must be absolute: " + directory);
+        }
+
+        final String separator = JvfsFileSystems.DIR_SEP;
+        final String prefix = directory.endsWith(separator) ? directory : directory + separator;
+        final long size = options.getDeviceSize().value();
+
+        for (final JvfsDevice.Type type : JvfsDevice.Type.values()) {
+            final JvfsDevice device = new JvfsDevice(type, size, options.getRandomSeed());
+            final JvfsFileEntry entry = JvfsFileEntry.newSpecial(prefix + type.fileName(), device);
+            entry.setPermissions(JvfsFilePermissions.forValue());
+            add(entry);
+        }
     }
 
     @Override
@@ -143,17 +212,30 @@ public Set<String> supportedFileAttributeViews() {
         return SUPPORTED_ATTRIBUTE_VIEWS;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Paths are shared: repeated calls with the same arguments return the cached instance without validating and
+     * parsing them again.
+     */
     @Override
     public Path getPath(final String first, final String... more) {
         this.checkClosed();
+        JvfsAssertions.notNull(first, "first");
+        final String merged = more.length == 0 ? first : this.merge(first, more);
+        final JvfsPath cached = paths.get(merged);
 
-        if (!JvfsPathUtil.isValid(first) || !JvfsPathUtil.isValid(more)) {
-            throw new InvalidPathException(first, "Invalid input!");
+        if (null != cached) {
+            return cached;
         }
 
-        JvfsAssertions.notNull(first, "first");
-        final String merged = this.merge(first, more);
-        return new JvfsPath(merged, this);
+        final int invalid = scanner.indexOfInvalid(merged);
+
+        if (invalid != -1) {
+            throw new InvalidPathException(merged, "Invalid character", invalid);
+        }
+
+        return paths.put(merged, new JvfsPath(merged, this));
     }
 
     /**
@@ -213,24 +295,90 @@ private void checkClosed() {
      * Throws {@link NoSuchFileException} if file does not exist.
      *
      * @param path must not be {@literal null} or empty
-     * @throws NoSuchFileException if file does not exists
+     * @throws FileSystemException if file does not exists or resolving links loops
      */
-    private void assertFileExists(final String path) throws NoSuchFileException {
+    private void assertFileExists(final String path) throws FileSystemException {
         if (!contains(path)) {
             throw new NoSuchFileException(path);
         }
     }
 
+    /**
+     * Get a file entry, following symbolic links.
+     *
+     * @param path must not be {@literal null} or empty
+     * @return may be {@literal null} if not exists
+     * @throws FileSystemException if resolving links loops
+     */
+    JvfsFileEntry get(final String path) throws FileSystemException {
+        return get(path, true);
+    }
+
     /**
      * Get a file entry.
      *
      * @param path must not be {@literal null} or empty
+     * @param followLinks whether to follow a symbolic link in the last component
+     * @return may be {@literal null} if not exists
+     * @throws FileSystemException if resolving links loops
+     */
+    JvfsFileEntry get(final String path, final boolean followLinks) throws FileSystemException {
+        JvfsAssertions.notEmpty(path, "path");
+        checkClosed();
+        return attic.get(links.resolve(path, followLinks));
+    }
+
+    /**
+     * Get a file entry by a path, reusing the entry the path located last if the hierarchy is unchanged since.
+     *
+     * @param path must not be {@literal null}
+     * @param followLinks whether to follow a symbolic link in the last component
      * @return may be {@literal null} if not exists
+     * @throws FileSystemException if resolving links loops
+     */
+    JvfsFileEntry get(final JvfsPath path, final boolean followLinks) throws FileSystemException {
+        checkClosed();
+        // Read the version first: a change racing with the lookup then leaves a stale hint.
+        final long version = namespaceVersion.get();
+        final EntryHint hint = path.getHint();
+
+        if (null != hint && hint.matches(version, followLinks)) {
+            return hint.entry;
+        }
+
+        final JvfsFileEntry entry = get(path.toString(), followLinks);
+
+        if (null != entry) {
+            path.setHint(new EntryHint(entry, version, followLinks));
+        }
+
+        return entry;
+    }
+
+    /**
+     * Get the version of the hierarchy.
+     *
+     * It changes whenever entries are added, deleted or moved; changes of the content of files don't affect it.
+     *
+     * @return non negative
+     */
+    long getNamespaceVersion() {
+        return namespaceVersion.get();
+    }
+
+    /**
+     * Resolves all symbolic links in a path to the path of the entry it locates.
+     *
+     * @see JvfsLinkResolver#resolve(java.lang.String, boolean)
+     * @param path must not be {@literal null} or empty
+     * @param followLinks whether to follow a symbolic link in the last component
+     * @return never {@literal null}
+     * @throws FileSystemException if resolving links loops
      */
-    JvfsFileEntry get(final String path) {
+    String resolve(final String path, final boolean followLinks) throws FileSystemException {
         JvfsAssertions.notEmpty(path, "path");
         checkClosed();
-        return attic.get(path);
+        return links.resolve(path, followLinks);
     }
 
     /**
@@ -275,18 +423,23 @@ void add(final JvfsFileEntry entry) {
         previous.addChild(entry);
         entry.setParent(previous);
         attic.put(entry.getPath(), entry);
+
+        if (entry.isSymbolicLink()) {
+            links.linkAdded();
+        }
+
+        namespaceVersion.incrementAndGet();
     }
 
     /**
-     * Whether the file system contains a file entry.
+     * Whether the file system contains a file entry, following symbolic links.
      *
      * @param path must not be {@literal null} or empty
      * @return {@literal true} if entry exists, else {@literal false}
+     * @throws FileSystemException if resolving links loops
      */
-    boolean contains(final String path) {
-        JvfsAssertions.notEmpty(path, "path");
-        checkClosed();
-        return attic.containsKey(path);
+    boolean contains(final String path) throws FileSystemException {
+        return null != get(path);
     }
 
     /**
@@ -304,38 +457,35 @@ FileChannel newFileChannel(
             final FileAttribute<?>... attrs) throws IOException {
         JvfsAssertions.notEmpty(path, "path");
         checkClosed();
-        final boolean forWrite = options.contains(StandardOpenOption.WRITE)
-                || options.contains(StandardOpenOption.APPEND);
+        final JvfsOpenFlags flags = JvfsOpenFlags.of(options);
+        final String real = links.resolve(path, true);
+        final JvfsFileEntry existing = attic.get(real);
 
-        if (forWrite) {
+        if (flags.hasAny(JvfsOpenFlags.WRITE | JvfsOpenFlags.APPEND)) {
             if (isReadOnly()) {
                 throw new ReadOnlyFileSystemException();
             }
 
-            if (contains(path)) {
-                if (options.contains(StandardOpenOption.CREATE_NEW)) {
+            if (null != existing) {
+                if (flags.has(JvfsOpenFlags.CREATE_NEW)) {
                     throw new FileAlreadyExistsException(path);
                 }
 
-                if (get(path).isDirectory()) {
+                if (existing.isDirectory()) {
                     throw new FileAlreadyExistsException("directory <" + path + "> exists");
                 }
             } else {
-                if (!options.contains(StandardOpenOption.CREATE_NEW)) {
+                if (!flags.has(JvfsOpenFlags.CREATE_NEW)) {
                     throw new NoSuchFileException(path);
                 }
             }
         } else {
-            if (contains(path)) {
-                if (get(path).isDirectory()) {
-                    throw new NoSuchFileException(path);
-                }
-            } else {
+            if (null == existing || existing.isDirectory()) {
                 throw new NoSuchFileException(path);
             }
         }
 
-        return new JvfsFileChannel(newByteChannel(path, options, attrs));
+        return new JvfsFileChannel(newByteChannel(real, existing, flags, attrs));
     }
 
     /**
@@ -351,217 +501,1072 @@ SeekableByteChannel newByteChannel(
             final String path,
             final Set<? extends OpenOption> options,
             final FileAttribute<?>... attrs) throws IOException {
+        JvfsAssertions.notEmpty(path, "path");
         checkClosed();
+        final String real = links.resolve(path, true);
+        return newByteChannel(real, attic.get(real), JvfsOpenFlags.of(options), attrs);
+    }
 
-        // Writing?
-        if (options.contains(StandardOpenOption.CREATE)
-                || options.contains(StandardOpenOption.CREATE_NEW)
-                || options.contains(StandardOpenOption.WRITE)) {
-            if (contains(path)) {
-                if (options.contains(StandardOpenOption.WRITE)) {
-                    final JvfsFileEntry entry = get(path);
-                    final JvfsSeekableByteChannel channel = new JvfsSeekableByteChannel(entry);
-
-                    if (options.contains(StandardOpenOption.APPEND)) {
-                        channel.position(channel.size());
-                    }
-
-                    return channel;
-                } else {
-                    throw new FileAlreadyExistsException(path);
-                }
-            } else {
-                final JvfsFileEntry entry = JvfsFileEntry.newFile(path);
-                entry.setPermissions(JvfsFilePermissions.forValue(attrs));
-                add(entry);
-                return new JvfsSeekableByteChannel(entry);
-            }
-        }
+    /**
+     * Create a new byte channel for an already resolved entry.
+     *
+     * @param path must not be {@literal null} or empty
+     * @param existing the entry of path, {@literal null} if it does not exist
+     * @param flags must not be {@literal null}
+     * @param attrs an optional list of file attributes to set atomically when creating the file
+     * @return never {@literal null}
+     * @throws IOException on any I/O error
+     */
+    private SeekableByteChannel newByteChannel(
+            final String path,
+            final JvfsFileEntry existing,
+            final JvfsOpenFlags flags,
+            final FileAttribute<?>... attrs) throws IOException {
+        final JvfsFileEntry entry = openAndPreallocate(path, existing, flags, attrs);
 
-        if (contains(path)) {
-            return new JvfsSeekableByteChannel(get(path));
+        if (entry.isSpecial()) {
+            return entry.getSpecial().newChannel(entry, flags);
         }
 
-        throw new NoSuchFileException(path);
+        return new JvfsSeekableByteChannel(
+                entry, flags.has(JvfsOpenFlags.APPEND), flags.has(JvfsOpenFlags.SEAL_ON_CLOSE));
     }
 
     /**
-     * check file permissions.
+     * Create a new input stream reading from the current content version of a file.
      *
      * @param path must not be {@literal null} or empty
-     * @param modes The access modes to check; may have zero elements
-     * @throws IOException if path does not exist
+     * @param options options specifying how the file is opened
+     * @return never {@literal null}
+     * @throws IOException on any I/O error
      */
-    void checkAccess(final String path, final AccessMode... modes) throws IOException {
+    InputStream newInputStream(final String path, final OpenOption... options) throws IOException {
+        JvfsAssertions.notEmpty(path, "path");
         checkClosed();
-        assertFileExists(path);
-
-        boolean r = false;
-        boolean w = false;
-        boolean x = false;
 
-        for (AccessMode mode : modes) {
-            switch (mode) {
-                case READ:
-                    r = true;
-                    break;
-                case WRITE:
-                    w = true;
-                    break;
-                case EXECUTE:
-                    x = true;
-                    break;
-                default:
-                    throw new UnsupportedOperationException();
+        for (final OpenOption option : options) {
+            if (option == StandardOpenOption.APPEND || option == StandardOpenOption.WRITE) {
+                throw new UnsupportedOperationException("'" + option + "' not allowed");
             }
         }
 
-        final JvfsFileEntry entry = get(path);
-
-        if (r && !entry.isReadable()) {
-            throw new AccessDeniedException(path);
-        }
+        final JvfsFileEntry entry = open(path, get(path), JvfsOpenFlags.READ_ONLY);
 
-        if (w && (isReadOnly() || !entry.isWritable())) {
-            throw new AccessDeniedException(path);
+        if (entry.isSpecial()) {
+            return Channels.newInputStream(entry.getSpecial().newChannel(entry, JvfsOpenFlags.READ_ONLY));
         }
 
-        if (x && !entry.isExecutable()) {
-            throw new AccessDeniedException(path);
-        }
+        return new JvfsInputStream(entry);
     }
 
     /**
-     * Create a directory.
+     * Create a new output stream which coalesces small writes.
+     *
+     * Without options the file is opened as with {@link StandardOpenOption#CREATE},
+     * {@link StandardOpenOption#TRUNCATE_EXISTING} and {@link StandardOpenOption#WRITE}.
      *
      * @param path must not be {@literal null} or empty
-     * @param attrs an optional list of file attributes to set atomically when creating the directory
-     * @throws IOException if path does not exist
+     * @param options options specifying how the file is opened
+     * @return never {@literal null}
+     * @throws IOException on any I/O error
      */
-    void createDirectory(final String path, final FileAttribute<?>... attrs) throws IOException {
+    OutputStream newOutputStream(final String path, final OpenOption... options) throws IOException {
+        JvfsAssertions.notEmpty(path, "path");
         checkClosed();
-        final JvfsFileEntry directory = JvfsFileEntry.newDir(path);
-        directory.setPermissions(JvfsFilePermissions.forValue(attrs));
-        add(directory);
+        final List<OpenOption> opts = JvfsCollections.newList(options.length + 2);
+
+        if (options.length == 0) {
+            opts.add(StandardOpenOption.CREATE);
+            opts.add(StandardOpenOption.TRUNCATE_EXISTING);
+        } else {
+            for (final OpenOption option : options) {
+                if (option == StandardOpenOption.READ) {
+                    throw new IllegalArgumentException("READ not allowed");
+                }
+
+                opts.add(option);
+            }
+        }
+
+        opts.add(StandardOpenOption.WRITE);
+        final JvfsOpenFlags flags = JvfsOpenFlags.of(opts);
+        final String real = links.resolve(path, true);
+        final JvfsFileEntry entry = openAndPreallocate(real, attic.get(real), flags);
+        final boolean append = flags.has(JvfsOpenFlags.APPEND);
+
+        if (entry.isSpecial()) {
+            final SeekableByteChannel channel = entry.getSpecial().newChannel(entry, flags);
+
+            if (!append && flags.has(JvfsOpenFlags.TRUNCATE_EXISTING)) {
+                channel.truncate(0);
+            }
+
+            return Channels.newOutputStream(channel);
+        }
+
+        if (!append && flags.has(JvfsOpenFlags.TRUNCATE_EXISTING)) {
+            entry.truncate(0);
+        }
+
+        return new JvfsOutputStream(entry, append, flags.has(JvfsOpenFlags.SEAL_ON_CLOSE));
     }
 
     /**
-     * Deletes a file.
+     * Resolves the entry to open and reserves storage for it if the flags contain a {@link JvfsPreallocation}.
+     *
+     * The free space is checked before a missing file is created, so a failing preallocation leaves no empty file
+     * behind.
      *
      * @param path must not be {@literal null} or empty
-     * @throws IOException if path does not exist
+     * @param existing the entry of path, {@literal null} if it does not exist
+     * @param flags must not be {@literal null}
+     * @param attrs an optional list of file attributes to set atomically when creating the file
+     * @return never {@literal null}
+     * @throws IOException on any I/O error, or if the store has not enough space left
      */
-    void delete(final String path) throws IOException {
-        checkClosed();
-        assertFileExists(path);
-        final JvfsFileEntry entry = get(path);
+    private JvfsFileEntry openAndPreallocate(
+            final String path,
+            final JvfsFileEntry existing,
+            final JvfsOpenFlags flags,
+            final FileAttribute<?>... attrs) throws IOException {
+        final long size = flags.getPreallocation();
 
-        if (entry.isDirectory() && entry.hasChildren()) {
-            throw new DirectoryNotEmptyException(path);
+        if (size < 0) {
+            return open(path, existing, flags, attrs);
         }
 
-        attic.remove(path);
+        allocationLock.lock();
+
+        try {
+            checkFreeSpace(path, existing, size);
+            final JvfsFileEntry entry = open(path, existing, flags, attrs);
+            preallocate(entry, size);
+            return entry;
+        } finally {
+            allocationLock.unlock();
+        }
     }
 
     /**
-     * Get the file attributes.
+     * Reserves storage for an existing file.
      *
      * @param path must not be {@literal null} or empty
-     * @return never {@literal null}
-     * @throws IOException if path does not exist
+     * @param size must not be negative
+     * @throws IOException if path does not exist, or the store has not enough space left
      */
-    JvfsFileAttributes getFileAttributes(final String path) throws IOException {
+    void preallocate(final String path, final long size) throws IOException {
         checkClosed();
         assertFileExists(path);
-        return new JvfsFileAttributes(get(path));
+        preallocate(get(path), size);
     }
 
     /**
-     * Set the times.
+     * Reserves storage for a file and counts it against the capacity of the file store.
      *
-     * @param path must not be {@literal null} or empty
-     * @param mtime not changed if {@literal null}
-     * @param atime not changed if {@literal null}
-     * @param ctime not changed if {@literal null}
-     * @throws IOException if source does not exist
+     * A capacity of 0 means unlimited.
+     *
+     * @param entry must not be {@literal null}
+     * @param size must not be negative
+     * @throws IOException if entry is a directory, or the store has not enough space left
      */
-    void setTimes(final String path, final FileTime mtime, final FileTime atime, final FileTime ctime)
-        throws IOException {
-        checkClosed();
-        assertFileExists(path);
-        final JvfsFileEntry entry = get(path);
+    private void preallocate(final JvfsFileEntry entry, final long size) throws IOException {
+        JvfsAssertions.greaterThanEqual(size, 0L, "size");
 
-        if (null != mtime) {
-            entry.setLastModifiedTime(mtime.to(TimeUnit.SECONDS));
+        if (isReadOnly()) {
+            throw new ReadOnlyFileSystemException();
         }
 
-        if (null != atime) {
-            entry.setLastAccessTime(atime.to(TimeUnit.SECONDS));
+        if (entry.isDirectory()) {
+            throw new FileSystemException(entry.getPath(), null, "Is a directory");
         }
 
-        if (null != ctime) {
-            entry.setCreationTime(ctime.to(TimeUnit.SECONDS));
+        assertNotSealed(entry);
+        assertNotSpecial(entry);
+        allocationLock.lock();
+
+        try {
+            checkFreeSpace(entry.getPath(), entry, size);
+            entry.reserve((int) size);
+        } finally {
+            allocationLock.unlock();
         }
     }
 
     /**
-     * Copy a file from one path to an other one.
+     * Checks that the store has space left to reserve storage for a file; must be called under the allocation lock.
      *
-     * @param source must not be {@literal null} or empty
-     * @param target must not be {@literal null} or empty
-     * @param options options specifying how the copy should be done
-     * @throws IOException if source does not exist
+     * A capacity of 0 means unlimited.
+     *
+     * @param path must not be {@literal null} or empty
+     * @param entry the entry of path, {@literal null} if it does not exist yet
+     * @param size must not be negative
+     * @throws IOException if the size is too large, or the store has not enough space left
      */
-    void copy(final String source, final String target, final CopyOption... options) throws IOException {
-        checkClosed();
-        assertFileExists(source);
-
-        if (contains(target)) {
-            throw new FileAlreadyExistsException(target);
+    private void checkFreeSpace(final String path, final JvfsFileEntry entry, final long size) throws IOException {
+        if (size > JvfsFileContent.MAX_ARRAY_SIZE) {
+            throw new FileSystemException(path, null, "File too large");
         }
 
-        add(get(source).copy(target));
-    }
-
-    /**
-     * Move a file from one path to an other one.
-     *
-     * @param source must not be {@literal null} or empty
-     * @param target must not be {@literal null} or empty
-     * @param options options specifying how the move should be done
-     * @throws IOException if source does not exist
-     */
-    void move(final String source, final String target, final CopyOption... options) throws IOException {
-        checkClosed();
-        assertFileExists(source);
-        JvfsAssertions.notEmpty(target, "target");
+        final long capacity = getFileStore().getTotalSpace();
 
-        if (contains(target)) {
-            throw new FileAlreadyExistsException(target);
-        }
+        if (capacity > 0) {
+            final long used = null == entry
+                    ? getUsedSpace() + size
+                    : getUsedSpace() - entry.allocatedSize() + Math.max(entry.size(), size);
 
-        synchronized (attic) {
-            final JvfsFileEntry entry = get(source);
-            attic.remove(entry.getPath());
-            add(entry.copy(target));
+            if (used > capacity) {
+                throw new FileSystemException(path, null, "No space left on device");
+            }
         }
     }
 
     /**
-     * Get the file store.
+     * Resolves the entry to open, creating it if requested by the flags.
      *
+     * @param path must not be {@literal null} or empty
+     * @param existing the entry of path, {@literal null} if it does not exist
+     * @param flags must not be {@literal null}
+     * @param attrs an optional list of file attributes to set atomically when creating the file
      * @return never {@literal null}
+     * @throws IOException on any I/O error
      */
-    FileStore getFileStore() {
-        return fileStores.get(0);
+    private JvfsFileEntry open(
+            final String path,
+            final JvfsFileEntry existing,
+            final JvfsOpenFlags flags,
+            final FileAttribute<?>... attrs) throws IOException {
+        // Writing?
+        if (flags.hasAny(JvfsOpenFlags.CREATE | JvfsOpenFlags.CREATE_NEW | JvfsOpenFlags.WRITE
+                | JvfsOpenFlags.APPEND)) {
+            if (null != existing) {
+                if (flags.hasAny(JvfsOpenFlags.WRITE | JvfsOpenFlags.APPEND)) {
+                    assertNotSealed(existing);
+                    return existing;
+                } else {
+                    throw new FileAlreadyExistsException(path);
+                }
+            } else if (flags.hasAny(JvfsOpenFlags.CREATE | JvfsOpenFlags.CREATE_NEW)) {
+                final JvfsFileEntry entry = newFile(path, attrs);
+                entry.setPermissions(JvfsFilePermissions.forValue(attrs));
+                add(entry);
+                return entry;
+            }
+        }
+
+        if (null != existing) {
+            return existing;
+        }
+
+        throw new NoSuchFileException(path);
     }
 
     /**
-     * Ask hidden attribute for a path.
+     * Creates the entry for a new file.
+     *
+     * With a {@link JvfsCircularFile} attribute the entry is a {@link JvfsRingBuffer ring buffer}, with a
+     * {@link JvfsPipeFile} attribute it is a {@link JvfsPipe pipe} and with a {@link JvfsGeneratedFile} attribute its
+     * content is {@link JvfsGeneratedContent generated}.
      *
      * @param path must not be {@literal null} or empty
-     * @return {@literal true} if file is hidden, else {@literal false}
-     * @throws IOException if file does not exist
+     * @param attrs an optional list of file attributes to set atomically when creating the file
+     * @return never {@literal null}
+     * @throws FileSystemException if the capacity of a circular file or pipe is too large
+     */
+    private static JvfsFileEntry newFile(final String path, final FileAttribute<?>... attrs)
+        throws FileSystemException {
+        final long ringCapacity = JvfsRingBuffer.capacityOf(attrs);
+
+        if (ringCapacity > -1) {
+            return JvfsFileEntry.newSpecial(path, new JvfsRingBuffer(checkCapacity(path, ringCapacity)));
+        }
+
+        final long pipeCapacity = JvfsPipe.capacityOf(attrs);
+
+        if (pipeCapacity > -1) {
+            return JvfsFileEntry.newSpecial(path, new JvfsPipe(checkCapacity(path, pipeCapacity)));
+        }
+
+        final JvfsGeneratedContent generated = JvfsGeneratedContent.forValue(attrs);
+
+        if (null != generated) {
+            return JvfsFileEntry.newSpecial(path, generated);
+        }
+
+        return JvfsFileEntry.newFile(path);
+    }
+
+    /**
+     * Checks that the capacity of a special file fits into an array.
+     *
+     * @param path must not be {@literal null} or empty
+     * @param capacity must not be negative
+     * @return the capacity
+     * @throws FileSystemException if too large
+     */
+    private static int checkCapacity(final String path, final long capacity) throws FileSystemException {
+        if (capacity > JvfsFileContent.MAX_ARRAY_SIZE) {
+            throw new FileSystemException(path, null, "File too large");
+        }
+
+        return (int) capacity;
+    }
+
+    /**
+     * Get the number of open channels and streams on a file.
+     *
+     * @param path must not be {@literal null} or empty
+     * @return non negative
+     * @throws IOException if path does not exist
+     */
+    int getOpenHandles(final String path) throws IOException {
+        checkClosed();
+        assertFileExists(path);
+        return get(path).getOpenHandles();
+    }
+
+    /**
+     * Reads all bytes of a file straight from its current content version.
+     *
+     * @param path must not be {@literal null} or empty
+     * @return never {@literal null}, always a new array owned by the caller
+     * @throws IOException if path does not exist or is a directory
+     */
+    byte[] readAllBytes(final String path) throws IOException {
+        final JvfsFileEntry entry = getFile(path);
+
+        if (entry.isSpecial()) {
+            return readAllBytes(entry);
+        }
+
+        return entry.getContent();
+    }
+
+    /**
+     * Reads a special file through one of its channels until the end.
+     *
+     * @param entry must not be {@literal null}
+     * @return never {@literal null}
+     * @throws IOException on any I/O error
+     */
+    private static byte[] readAllBytes(final JvfsFileEntry entry) throws IOException {
+        try (final SeekableByteChannel channel = entry.getSpecial().newChannel(entry, JvfsOpenFlags.READ_ONLY)) {
+            final int expected = (int) Math.min(JvfsFileContent.MAX_ARRAY_SIZE, Math.max(32, entry.size()));
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream(expected);
+            final ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+            while (channel.read(buffer) > -1) {
+                bytes.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * Copies several ranges of a file into their destination buffers.
+     *
+     * All ranges are served from the same content version.
+     *
+     * @see JvfsFileContent#read(java.util.List)
+     * @param path must not be {@literal null} or empty
+     * @param ranges must not be {@literal null}, each range must have a destination
+     * @return total number of bytes read
+     * @throws IOException if path does not exist or is a directory
+     */
+    long read(final String path, final List<JvfsReadRange> ranges) throws IOException {
+        JvfsAssertions.notNull(ranges, "ranges");
+        return getRegularFile(path).getContentVersion().read(ranges);
+    }
+
+    /**
+     * Exports several ranges of a file as read-only buffers without copying.
+     *
+     * All ranges are served from the same content version.
+     *
+     * @see JvfsFileContent#slice(java.util.List)
+     * @param path must not be {@literal null} or empty
+     * @param ranges must not be {@literal null}
+     * @return never {@literal null}
+     * @throws IOException if path does not exist or is a directory
+     */
+    List<ByteBuffer> slice(final String path, final List<JvfsReadRange> ranges) throws IOException {
+        JvfsAssertions.notNull(ranges, "ranges");
+        return getRegularFile(path).getContentVersion().slice(ranges);
+    }
+
+    /**
+     * Get the entry of a regular file.
+     *
+     * @param path must not be {@literal null} or empty
+     * @return never {@literal null}
+     * @throws FileSystemException if path does not exist or is a directory, or resolving links loops
+     */
+    private JvfsFileEntry getFile(final String path) throws FileSystemException {
+        final JvfsFileEntry entry = get(path);
+
+        if (null == entry || entry.isDirectory()) {
+            throw new NoSuchFileException(path);
+        }
+
+        return entry;
+    }
+
+    /**
+     * Get the entry of a regular file which holds its content as {@link JvfsFileContent versions}.
+     *
+     * @param path must not be {@literal null} or empty
+     * @return never {@literal null}
+     * @throws IOException if path does not exist, is a directory or a special file
+     */
+    private JvfsFileEntry getRegularFile(final String path) throws IOException {
+        final JvfsFileEntry entry = getFile(path);
+        assertNotSpecial(entry);
+        return entry;
+    }
+
+    /**
+     * Throws {@link FileSystemException} if the entry is a special file.
+     *
+     * @param entry must not be {@literal null}
+     * @throws FileSystemException if special
+     */
+    private static void assertNotSpecial(final JvfsFileEntry entry) throws FileSystemException {
+        if (entry.isSpecial()) {
+            throw new FileSystemException(entry.getPath(), null, "Not a regular file");
+        }
+    }
+
+    /**
+     * Replaces the whole content of a file, creating it if necessary.
+     *
+     * Behaves like {@link java.nio.file.Files#write(java.nio.file.Path, byte[], java.nio.file.OpenOption...)} with
+     * default options. Without ownership the bytes are copied once, else the array itself becomes the content and the
+     * caller must not modify it afterwards.
+     *
+     * @param path must not be {@literal null} or empty
+     * @param bytes must not be {@literal null}
+     * @param takeOwnership whether the array is handed over to the file system
+     * @throws IOException if path is a directory
+     */
+    void writeAllBytes(final String path, final byte[] bytes, final boolean takeOwnership) throws IOException {
+        JvfsAssertions.notNull(bytes, "bytes");
+        writeContent(path, JvfsFileContent.adopt(takeOwnership ? bytes : bytes.clone()));
+    }
+
+    /**
+     * Replaces the whole content of a file by the remaining bytes of a buffer, creating the file if necessary.
+     *
+     * @see JvfsFileContent#adopt(java.nio.ByteBuffer)
+     * @param path must not be {@literal null} or empty
+     * @param buffer must not be {@literal null}
+     * @throws IOException if path is a directory
+     */
+    void adopt(final String path, final ByteBuffer buffer) throws IOException {
+        JvfsAssertions.notNull(buffer, "buffer");
+        writeContent(path, JvfsFileContent.adopt(buffer));
+    }
+
+    /**
+     * Exports the current content of a file as read-only buffer without copying.
+     *
+     * The buffer is a snapshot: later writes to the file publish new versions and are not visible through it.
+     *
+     * @param path must not be {@literal null} or empty
+     * @return never {@literal null}
+     * @throws IOException if path does not exist or is a directory
+     */
+    ByteBuffer readOnlyView(final String path) throws IOException {
+        return getRegularFile(path).getContentVersion().asReadOnlyBuffer();
+    }
+
+    /**
+     * Publishes a version as the whole content of a file, creating the file if necessary.
+     *
+     * @param path must not be {@literal null} or empty
+     * @param content must not be {@literal null}
+     * @throws IOException if path is a directory
+     */
+    private void writeContent(final String path, final JvfsFileContent content) throws IOException {
+        checkClosed();
+
+        if (isReadOnly()) {
+            throw new ReadOnlyFileSystemException();
+        }
+
+        final String real = links.resolve(path, true);
+        final JvfsFileEntry entry = attic.get(real);
+
+        if (null == entry) {
+            final JvfsFileEntry file = JvfsFileEntry.newFile(real);
+            file.setPermissions(JvfsFilePermissions.forValue());
+            file.setContentVersion(content);
+            add(file);
+            return;
+        }
+
+        if (entry.isDirectory()) {
+            throw new FileAlreadyExistsException("directory <" + path + "> exists");
+        }
+
+        assertNotSealed(entry);
+
+        if (entry.isSpecial()) {
+            writeContent(entry, content);
+            return;
+        }
+
+        entry.setContentVersion(content);
+    }
+
+    /**
+     * Replaces the whole content of a special file through one of its channels.
+     *
+     * @param entry must not be {@literal null}
+     * @param content must not be {@literal null}
+     * @throws IOException on any I/O error
+     */
+    private static void writeContent(final JvfsFileEntry entry, final JvfsFileContent content) throws IOException {
+        final JvfsOpenFlags flags = JvfsOpenFlags.of(Collections.singleton(StandardOpenOption.WRITE));
+
+        try (final SeekableByteChannel channel = entry.getSpecial().newChannel(entry, flags)) {
+            final ByteBuffer source = content.asReadOnlyBuffer();
+            channel.truncate(0);
+
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+    }
+
+    /**
+     * Makes the content of a file immutable.
+     *
+     * @see JvfsFileEntry#seal()
+     * @param path must not be {@literal null} or empty
+     * @throws IOException if path does not exist or is a directory
+     */
+    void seal(final String path) throws IOException {
+        checkClosed();
+        getFile(path).seal();
+    }
+
+    /**
+     * Throws {@link AccessDeniedException} if the entry is sealed.
+     *
+     * @param entry must not be {@literal null}
+     * @throws AccessDeniedException if sealed
+     */
+    private static void assertNotSealed(final JvfsFileEntry entry) throws AccessDeniedException {
+        if (entry.isSealed()) {
+            throw new AccessDeniedException(entry.getPath(), null, "file is sealed");
+        }
+    }
+
+    /**
+     * check file permissions.
+     *
+     * @param path must not be {@literal null} or empty
+     * @param modes The access modes to check; may have zero elements
+     * @throws IOException if path does not exist
+     */
+    void checkAccess(final String path, final AccessMode... modes) throws IOException {
+        checkClosed();
+        checkAccess(path, get(path), modes);
+    }
+
+    /**
+     * check file permissions.
+     *
+     * @param path must not be {@literal null}
+     * @param modes The access modes to check; may have zero elements
+     * @throws IOException if path does not exist
+     */
+    void checkAccess(final JvfsPath path, final AccessMode... modes) throws IOException {
+        checkAccess(path.toString(), get(path, true), modes);
+    }
+
+    /**
+     * check file permissions of an entry.
+     *
+     * @param path path of the entry, for error messages
+     * @param entry may be {@literal null}
+     * @param modes The access modes to check; may have zero elements
+     * @throws IOException if entry does not exist
+     */
+    private void checkAccess(final String path, final JvfsFileEntry entry, final AccessMode... modes)
+        throws IOException {
+        if (null == entry) {
+            throw new NoSuchFileException(path);
+        }
+
+        boolean r = false;
+        boolean w = false;
+        boolean x = false;
+
+        for (AccessMode mode : modes) {
+            switch (mode) {
+                case READ:
+                    r = true;
+                    break;
+                case WRITE:
+                    w = true;
+                    break;
+                case EXECUTE:
+                    x = true;
+                    break;
+                default:
+                    throw new UnsupportedOperationException();
+            }
+        }
+
+        if (r && !entry.isReadable()) {
+            throw new AccessDeniedException(path);
+        }
+
+        if (w && (isReadOnly() || !entry.isWritable())) {
+            throw new AccessDeniedException(path);
+        }
+
+        if (x && !entry.isExecutable()) {
+            throw new AccessDeniedException(path);
+        }
+    }
+
+    /**
+     * Create a directory.
+     *
+     * @param path must not be {@literal null} or empty
+     * @param attrs an optional list of file attributes to set atomically when creating the directory
+     * @throws IOException if path does not exist
+     */
+    void createDirectory(final String path, final FileAttribute<?>... attrs) throws IOException {
+        checkClosed();
+        final JvfsFileEntry directory = JvfsFileEntry.newDir(links.resolve(path, false));
+        directory.setPermissions(JvfsFilePermissions.forValue(attrs));
+        add(directory);
+    }
+
+    /**
+     * Deletes a file.
+     *
+     * @param path must not be {@literal null} or empty
+     * @throws IOException if path does not exist
+     */
+    void delete(final String path) throws IOException {
+        checkClosed();
+        final JvfsFileEntry entry = get(path, false);
+
+        if (null == entry) {
+            throw new NoSuchFileException(path);
+        }
+
+        if (entry.isDirectory() && entry.hasChildren()) {
+            throw new DirectoryNotEmptyException(path);
+        }
+
+        attic.remove(entry.getPath());
+        entry.getInode().unlink();
+
+        if (entry.isSymbolicLink()) {
+            links.linkRemoved();
+        }
+
+        namespaceVersion.incrementAndGet();
+    }
+
+    /**
+     * Creates a symbolic link.
+     *
+     * The target is stored as given and resolved on each access, so it needs not exist.
+     *
+     * @param link must not be {@literal null} or empty
+     * @param target must not be {@literal null} or empty, relative targets are relative to the directory of link
+     * @param attrs an optional list of file attributes to set atomically when creating the link
+     * @throws IOException if link already exists
+     */
+    void createSymbolicLink(final String link, final String target, final FileAttribute<?>... attrs)
+        throws IOException {
+        checkClosed();
+        JvfsAssertions.notEmpty(target, "target");
+        final String real = links.resolve(link, false);
+
+        if (attic.containsKey(real)) {
+            throw new FileAlreadyExistsException(link);
+        }
+
+        final JvfsFileEntry entry = JvfsFileEntry.newSymbolicLink(real, target);
+        entry.setPermissions(JvfsFilePermissions.forValue(attrs));
+        add(entry);
+    }
+
+    /**
+     * Reads the target of a symbolic link.
+     *
+     * @param link must not be {@literal null} or empty
+     * @return the target as given on creation, never {@literal null}
+     * @throws IOException if link does not exist or is not a symbolic link
+     */
+    String readSymbolicLink(final String link) throws IOException {
+        final JvfsFileEntry entry = get(link, false);
+
+        if (null == entry) {
+            throw new NoSuchFileException(link);
+        }
+
+        if (!entry.isSymbolicLink()) {
+            throw new NotLinkException(link);
+        }
+
+        return entry.getLinkTarget();
+    }
+
+    /**
+     * Get the real path of an existing file: absolute, normalized and free of symbolic links.
+     *
+     * @param path must not be {@literal null} or empty
+     * @param followLinks whether to follow a symbolic link in the last component
+     * @return never {@literal null}
+     * @throws IOException if the file does not exist or resolving links loops
+     */
+    String toRealPath(final String path, final boolean followLinks) throws IOException {
+        final String real = scanner.normalize(resolve(path, followLinks));
+
+        if (!attic.containsKey(real)) {
+            throw new NoSuchFileException(path);
+        }
+
+        return real;
+    }
+
+    /**
+     * Finds all paths at or below a start path which match.
+     *
+     * Globs prune the walk: it begins at the {@link JvfsPathMatcher#getDirectoryPrefix() literal directory} of the
+     * glob if that is below start, and it carries the {@link JvfsGlob#advance(long[], java.lang.CharSequence, int)
+     * state} of the glob name by name down the hierarchy. So each name is checked against the constraints of its
+     * depth only once and no directory is entered if no path below it can match; the costs are proportional to the
+     * region which may contain matches instead of the whole tree. Regular expressions can't prune and are tested
+     * against every path.
+     *
+     * Symbolic links are not followed and the paths are those of the entries, i.e. without links.
+     *
+     * @param start must not be {@literal null} or empty, absolute and normalized
+     * @param matcher must not be {@literal null}
+     * @return never {@literal null}, in no particular order
+     * @throws IOException if start does not exist or resolving links loops
+     */
+    List<Path> find(final String start, final JvfsPathMatcher matcher) throws IOException {
+        JvfsAssertions.notEmpty(start, "start");
+        JvfsAssertions.notNull(matcher, "matcher");
+        checkClosed();
+        JvfsFileEntry entry = get(start, false);
+
+        if (null == entry) {
+            throw new NoSuchFileException(start);
+        }
+
+        final List<Path> found = JvfsCollections.newList();
+        final String prefix = matcher.getDirectoryPrefix();
+
+        if (isBelow(prefix, entry.getPath())) {
+            entry = attic.get(prefix);
+
+            if (null == entry) {
+                return found;
+            }
+        }
+
+        final JvfsGlob glob = matcher.getGlob();
+        final String root = entry.getPath();
+        long[] state = null;
+
+        if (null != glob) {
+            state = glob.advance(glob.getStartState(), root, 0);
+
+            if (null == state) {
+                return found;
+            }
+        }
+
+        final Deque<Visit> pending = new ArrayDeque<Visit>();
+        visit(entry, state, matcher, found, pending);
+
+        while (!pending.isEmpty()) {
+            final Visit dir = pending.pop();
+            final String path = dir.entry.getPath();
+            final int name = path.length() == 1 ? 1 : path.length() + 1;
+
+            for (final JvfsFileEntry child : dir.entry.getChildren().toArray(new JvfsFileEntry[0])) {
+                // Deleted and moved entries are not removed from their parent.
+                if (attic.get(child.getPath()) != child) {
+                    continue;
+                }
+
+                long[] childState = null;
+
+                if (null != glob) {
+                    childState = glob.advance(dir.state, child.getPath(), name);
+
+                    if (null == childState) {
+                        continue;
+                    }
+                }
+
+                visit(child, childState, matcher, found, pending);
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Collects an entry if it matches and schedules its children if any of them may match.
+     *
+     * @param entry must not be {@literal null}
+     * @param state state of the glob after the path of the entry, {@literal null} for Regex syntax
+     * @param matcher must not be {@literal null}
+     * @param found must not be {@literal null}, appended to
+     * @param pending must not be {@literal null}, appended to
+     */
+    private void visit(final JvfsFileEntry entry, final long[] state, final JvfsPathMatcher matcher,
+        final List<Path> found, final Deque<Visit> pending) {
+        final String path = entry.getPath();
+        final JvfsGlob glob = matcher.getGlob();
+
+        if (null == glob ? matcher.matches(path) : glob.isAccepting(state)) {
+            found.add(new JvfsPath(path, this));
+        }
+
+        if (!entry.isDirectory()) {
+            return;
+        }
+
+        if (null == glob) {
+            pending.push(new Visit(entry, null));
+            return;
+        }
+
+        final long[] below = path.length() == 1 ? state : glob.advance(state, JvfsFileSystems.DIR_SEP, 0);
+
+        if (null != below) {
+            pending.push(new Visit(entry, below));
+        }
+    }
+
+    /**
+     * Whether a path is below a directory.
+     *
+     * @param path must not be {@literal null}
+     * @param directory must not be {@literal null}, absolute
+     * @return {@literal true} if below, {@literal false} for the directory itself
+     */
+    private static boolean isBelow(final String path, final String directory) {
+        if (directory.length() == 1) {
+            return path.length() > 1 && path.startsWith(directory);
+        }
+
+        return path.length() > directory.length()
+                && path.startsWith(directory)
+                && path.charAt(directory.length()) == JvfsFileSystems.DIR_SEP.charAt(0);
+    }
+
+    /**
+     * Creates a hard link to an existing file.
+     *
+     * The link shares the content and metadata of the existing file, so nothing but the name is copied.
+     *
+     * @param link must not be {@literal null} or empty
+     * @param existing must not be {@literal null} or empty
+     * @throws IOException if existing does not exist or is a directory, or link already exists
+     */
+    void createLink(final String link, final String existing) throws IOException {
+        checkClosed();
+        assertFileExists(existing);
+        JvfsAssertions.notEmpty(link, "link");
+        final String real = links.resolve(link, false);
+
+        if (attic.containsKey(real)) {
+            throw new FileAlreadyExistsException(link);
+        }
+
+        final JvfsFileEntry entry = get(existing);
+
+        if (entry.isDirectory()) {
+            throw new FileSystemException(link, existing, "Can't link directory");
+        }
+
+        add(entry.link(real));
+    }
+
+    /**
+     * Whether two paths locate the same file, which is the case for hard links to each other.
+     *
+     * @param path must not be {@literal null} or empty
+     * @param other must not be {@literal null} or empty
+     * @return {@literal true} if both entries share their inode, else {@literal false}
+     * @throws IOException if any path does not exist
+     */
+    boolean isSameFile(final String path, final String other) throws IOException {
+        checkClosed();
+
+        if (path.equals(other)) {
+            return true;
+        }
+
+        assertFileExists(path);
+        assertFileExists(other);
+        return get(path).getInode() == get(other).getInode();
+    }
+
+    /**
+     * Get the file attributes.
+     *
+     * @param path must not be {@literal null} or empty
+     * @return never {@literal null}
+     * @throws IOException if path does not exist
+     */
+    JvfsFileAttributes getFileAttributes(final String path) throws IOException {
+        return getFileAttributes(path, true);
+    }
+
+    /**
+     * Get the file attributes.
+     *
+     * @param path must not be {@literal null} or empty
+     * @param followLinks whether to follow a symbolic link in the last component
+     * @return never {@literal null}
+     * @throws IOException if path does not exist
+     */
+    JvfsFileAttributes getFileAttributes(final String path, final boolean followLinks) throws IOException {
+        final JvfsFileEntry entry = get(path, followLinks);
+
+        if (null == entry) {
+            throw new NoSuchFileException(path);
+        }
+
+        return new JvfsFileAttributes(entry);
+    }
+
+    /**
+     * Get the file attributes.
+     *
+     * @param path must not be {@literal null}
+     * @param followLinks whether to follow a symbolic link in the last component
+     * @return never {@literal null}
+     * @throws IOException if path does not exist
+     */
+    JvfsFileAttributes getFileAttributes(final JvfsPath path, final boolean followLinks) throws IOException {
+        final JvfsFileEntry entry = get(path, followLinks);
+
+        if (null == entry) {
+            throw new NoSuchFileException(path.toString());
+        }
+
+        return new JvfsFileAttributes(entry);
+    }
+
+    /**
+     * Set the times.
+     *
+     * @param path must not be {@literal null} or empty
+     * @param mtime not changed if {@literal null}
+     * @param atime not changed if {@literal null}
+     * @param ctime not changed if {@literal null}
+     * @throws IOException if source does not exist
+     */
+    void setTimes(final String path, final FileTime mtime, final FileTime atime, final FileTime ctime)
+        throws IOException {
+        checkClosed();
+        assertFileExists(path);
+        final JvfsFileEntry entry = get(path);
+
+        if (null != mtime) {
+            entry.setLastModifiedTime(mtime.to(TimeUnit.SECONDS));
+        }
+
+        if (null != atime) {
+            entry.setLastAccessTime(atime.to(TimeUnit.SECONDS));
+        }
+
+        if (null != ctime) {
+            entry.setCreationTime(ctime.to(TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Copy a file from one path to an other one.
+     *
+     * @param source must not be {@literal null} or empty
+     * @param target must not be {@literal null} or empty
+     * @param options options specifying how the copy should be done
+     * @throws IOException if source does not exist
+     */
+    void copy(final String source, final String target, final CopyOption... options) throws IOException {
+        checkClosed();
+        assertFileExists(source);
+
+        final String real = links.resolve(target, false);
+
+        if (attic.containsKey(real)) {
+            throw new FileAlreadyExistsException(target);
+        }
+
+        add(get(source).copy(real));
+    }
+
+    /**
+     * Move a file from one path to an other one.
+     *
+     * @param source must not be {@literal null} or empty
+     * @param target must not be {@literal null} or empty
+     * @param options options specifying how the move should be done
+     * @throws IOException if source does not exist
+     */
+    void move(final String source, final String target, final CopyOption... options) throws IOException {
+        checkClosed();
+        JvfsAssertions.notEmpty(target, "target");
+        final JvfsFileEntry entry = get(source, false);
+
+        if (null == entry) {
+            throw new NoSuchFileException(source);
+        }
+
+        final String real = links.resolve(target, false);
+
+        if (attic.containsKey(real)) {
+            throw new FileAlreadyExistsException(target);
+        }
+
+        synchronized (attic) {
+            attic.remove(entry.getPath());
+
+            if (entry.isSymbolicLink()) {
+                // Re-added below.
+                links.linkRemoved();
+            }
+
+            add(entry.rename(real));
+        }
+
+        links.invalidate();
+    }
+
+    /**
+     * Get the file store.
+     *
+     * @return never {@literal null}
+     */
+    FileStore getFileStore() {
+        return fileStores.get(0);
+    }
+
+    /**
+     * Ask hidden attribute for a path.
+     *
+     * @param path must not be {@literal null} or empty
+     * @return {@literal true} if file is hidden, else {@literal false}
+     * @throws IOException if file does not exist
      */
     boolean isHidden(final String path) throws IOException {
         checkClosed();
@@ -572,21 +1577,28 @@ boolean isHidden(final String path) throws IOException {
     /**
      * Sums up the sizes of all non directory file entries.
      *
+     * Storage reserved by {@link JvfsPreallocation} counts as used even if not written yet. Hard links to the same
+     * file count once.
+     *
      * @return non negative
      */
     long getUsedSpace() {
         long usedBytes = 0L;
-
+        final Set<JvfsInode> linked = Collections.newSetFromMap(new IdentityHashMap<JvfsInode, Boolean>());
         final Iterator<Map.Entry<String, JvfsFileEntry>> it = attic.entrySet().iterator();
 
         while (it.hasNext()) {
             final JvfsFileEntry file = it.next().getValue();
 
             if (file.isDirectory()) {
-                break;
+                continue;
+            }
+
+            if (file.getLinkCount() > 1 && !linked.add(file.getInode())) {
+                continue;
             }
 
-            usedBytes += file.size();
+            usedBytes += file.allocatedSize();
         }
 
         return usedBytes;
@@ -597,5 +1609,79 @@ long getUsedSpace() {
      */
     void clear() {
         attic.clear();
+        links.clear();
+        namespaceVersion.incrementAndGet();
+    }
+
+    /**
+     * Directory scheduled by {@link #find(java.lang.String, de.weltraumschaf.jvfs.impl.JvfsPathMatcher)}.
+     */
+    private static final class Visit {
+
+        /**
+         * The directory.
+         */
+        private final JvfsFileEntry entry;
+        /**
+         * State of the glob after the path of the directory and a separator, {@literal null} for Regex syntax.
+         */
+        private final long[] state;
+
+        /**
+         * Dedicated constructor.
+         *
+         * @param entry must not be {@literal null}
+         * @param state may be {@literal null}
+         */
+        Visit(final JvfsFileEntry entry, final long[] state) {
+            super();
+            this.entry = entry;
+            this.state = state;
+        }
+    }
+
+    /**
+     * Entry a {@link JvfsPath} located, valid as long as the hierarchy is unchanged; immutable.
+     */
+    static final class EntryHint {
+
+        /**
+         * Located entry.
+         */
+        private final JvfsFileEntry entry;
+        /**
+         * {@link #namespaceVersion Version} of the hierarchy the entry was located in.
+         */
+        private final long version;
+        /**
+         * Whether symbolic links were followed.
+         */
+        private final boolean followLinks;
+
+        /**
+         * Dedicated constructor.
+         *
+         * @param entry must not be {@literal null}
+         * @param version version of the hierarchy
+         * @param followLinks whether symbolic links were followed
+         */
+        EntryHint(final JvfsFileEntry entry, final long version, final boolean followLinks) {
+            super();
+            assert null != entry : "entry must be defined";
+            this.entry = entry;
+            this.version = version;
+            this.followLinks = followLinks;
+        }
+
+        /**
+         * Whether the hint is valid for a lookup.
+         *
+         * @param currentVersion current version of the hierarchy
+         * @param follow whether the lookup follows symbolic links
+         * @return {@literal true} if valid, else {@literal false}
+         */
+        boolean matches(final long currentVersion, final boolean follow) {
+            return version == currentVersion && followLinks == follow;
+        }
     }
 }
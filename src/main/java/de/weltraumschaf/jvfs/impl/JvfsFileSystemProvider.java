@@ -14,9 +14,15 @@
 
 import de.weltraumschaf.jvfs.JvfsAssertions;
 import de.weltraumschaf.jvfs.JvfsFileSystems;
+import de.weltraumschaf.jvfs.JvfsIgnoreRules;
 import de.weltraumschaf.jvfs.JvfsOptions;
+import de.weltraumschaf.jvfs.JvfsPathMatcherSet;
+import de.weltraumschaf.jvfs.JvfsReadRange;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.AccessMode;
@@ -33,6 +39,7 @@
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.FileAttributeView;
 import java.nio.file.spi.FileSystemProvider;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -174,6 +181,16 @@ public SeekableByteChannel newByteChannel(
         return toJvfsPath(path).newByteChannel(options, attrs);
     }
 
+    @Override
+    public InputStream newInputStream(final Path path, final OpenOption... options) throws IOException {
+        return toJvfsPath(path).newInputStream(options);
+    }
+
+    @Override
+    public OutputStream newOutputStream(final Path path, final OpenOption... options) throws IOException {
+        return toJvfsPath(path).newOutputStream(options);
+    }
+
     @Override
     public DirectoryStream<Path> newDirectoryStream(
         final Path dir,
@@ -201,6 +218,22 @@ public void move(final Path source, final Path target, final CopyOption... optio
         toJvfsPath(source).move(toJvfsPath(target), options);
     }
 
+    @Override
+    public void createSymbolicLink(final Path link, final Path target, final FileAttribute<?>... attrs)
+        throws IOException {
+        toJvfsPath(link).createSymbolicLink(toJvfsPath(target), attrs);
+    }
+
+    @Override
+    public Path readSymbolicLink(final Path link) throws IOException {
+        return toJvfsPath(link).readSymbolicLink();
+    }
+
+    @Override
+    public void createLink(final Path link, final Path existing) throws IOException {
+        toJvfsPath(link).createLink(toJvfsPath(existing));
+    }
+
     @Override
     public boolean isSameFile(final Path path, final Path path2) throws IOException {
         return toJvfsPath(path).isSameFile(path2);
@@ -237,7 +270,7 @@ public <A extends BasicFileAttributes> A readAttributes(
             final Class<A> type,
             final LinkOption... options) throws IOException {
         if (type == BasicFileAttributes.class) {
-            return (A) toJvfsPath(path).getAttributes();
+            return (A) toJvfsPath(path).getAttributes(options);
         }
 
         return null;
@@ -260,6 +293,147 @@ public void setAttribute(
         toJvfsPath(path).setAttribute(attribute, value, options);
     }
 
+    /**
+     * Reads all bytes of a file without going through a channel.
+     *
+     * Fast path for {@link java.nio.file.Files#readAllBytes(java.nio.file.Path)}.
+     *
+     * @param path must not be {@literal null}
+     * @return never {@literal null}, always a new array
+     * @throws IOException if path does not exist or is a directory
+     */
+    public byte[] readAllBytes(final Path path) throws IOException {
+        return toJvfsPath(path).readAllBytes();
+    }
+
+    /**
+     * Replaces the whole content of a file without going through a channel, creating the file if necessary.
+     *
+     * Fast path for {@link java.nio.file.Files#write(java.nio.file.Path, byte[], java.nio.file.OpenOption...)}.
+     * The bytes are copied once.
+     *
+     * @param path must not be {@literal null}
+     * @param bytes must not be {@literal null}
+     * @throws IOException if path is a directory
+     */
+    public void writeAllBytes(final Path path, final byte[] bytes) throws IOException {
+        writeAllBytes(path, bytes, false);
+    }
+
+    /**
+     * Replaces the whole content of a file without going through a channel, creating the file if necessary.
+     *
+     * If the ownership is taken the array becomes the file content without any copy and the caller must not modify
+     * it afterwards.
+     *
+     * @param path must not be {@literal null}
+     * @param bytes must not be {@literal null}
+     * @param takeOwnership {@code true} to hand over the array, {@code false} to copy it
+     * @throws IOException if path is a directory
+     */
+    public void writeAllBytes(final Path path, final byte[] bytes, final boolean takeOwnership) throws IOException {
+        toJvfsPath(path).writeAllBytes(bytes, takeOwnership);
+    }
+
+    /**
+     * Replaces the whole content of a file by the remaining bytes of a buffer, creating the file if necessary.
+     *
+     * A heap buffer whose remaining bytes start at the beginning of its backing array becomes the file content
+     * without any copy and the caller must not modify it afterwards. Other buffers are copied once. The position of
+     * the buffer is not changed.
+     *
+     * @param path must not be {@literal null}
+     * @param buffer must not be {@literal null}
+     * @throws IOException if path is a directory
+     */
+    public void adopt(final Path path, final ByteBuffer buffer) throws IOException {
+        toJvfsPath(path).adopt(buffer);
+    }
+
+    /**
+     * Exports the current content of a file as read-only buffer without copying.
+     *
+     * The buffer is a snapshot of the content at the time of the call; later writes to the file are not visible
+     * through it.
+     *
+     * @param path must not be {@literal null}
+     * @return never {@literal null}
+     * @throws IOException if path does not exist or is a directory
+     */
+    public ByteBuffer readOnlyView(final Path path) throws IOException {
+        return toJvfsPath(path).readOnlyView();
+    }
+
+    /**
+     * Copies several ranges of a file into their destination buffers in one go.
+     *
+     * All ranges are served from the same snapshot of the content, in the order of their offsets. A range reaching
+     * behind the end of the file is read short. The positions of the destinations are moved behind the read bytes.
+     *
+     * @param path must not be {@literal null}
+     * @param ranges must not be {@literal null}, each range must have a destination
+     * @return total number of bytes read
+     * @throws IOException if path does not exist or is a directory
+     */
+    public long read(final Path path, final List<JvfsReadRange> ranges) throws IOException {
+        return toJvfsPath(path).read(ranges);
+    }
+
+    /**
+     * Exports several ranges of a file as read-only buffers without copying.
+     *
+     * All ranges are served from the same snapshot of the content. The slices are returned in the order of the given
+     * ranges; destinations of the ranges are ignored.
+     *
+     * @param path must not be {@literal null}
+     * @param ranges must not be {@literal null}
+     * @return never {@literal null}
+     * @throws IOException if path does not exist or is a directory
+     */
+    public List<ByteBuffer> slice(final Path path, final List<JvfsReadRange> ranges) throws IOException {
+        return toJvfsPath(path).slice(ranges);
+    }
+
+    /**
+     * Finds all paths at or below a start path which match a pattern, descending only where matches may be.
+     *
+     * @see JvfsFileSystem#find(java.lang.String, de.weltraumschaf.jvfs.impl.JvfsPathMatcher)
+     * @param start must not be {@literal null}
+     * @param syntaxAndPattern must not be {@literal null} or empty, as for
+     * {@link FileSystem#getPathMatcher(java.lang.String)}
+     * @return never {@literal null}, in no particular order
+     * @throws IOException if start does not exist
+     */
+    public List<Path> find(final Path start, final String syntaxAndPattern) throws IOException {
+        final JvfsPath path = toJvfsPath(start);
+        final JvfsFileSystem fs = (JvfsFileSystem) path.getFileSystem();
+        return fs.find(path.toAbsolutePath().normalize().toString(), JvfsPathMatcher.newMatcher(syntaxAndPattern));
+    }
+
+    /**
+     * Creates an evaluator of the ignore rules below a directory.
+     *
+     * @param root must not be {@literal null}
+     * @param fileName must not be {@literal null} or empty, name of the ignore files
+     * @return never {@literal null}
+     */
+    public JvfsIgnoreRules newIgnoreRules(final Path root, final String fileName) {
+        final JvfsPath dir = toJvfsPath(root);
+        final String absolute = dir.toAbsolutePath().normalize().toString();
+        return new JvfsIgnoreEngine((JvfsFileSystem) dir.getFileSystem(), absolute, fileName);
+    }
+
+    /**
+     * Creates a matcher evaluating many patterns in one pass.
+     *
+     * @param syntaxAndPatterns must not be {@literal null}, each pattern as for
+     * {@link java.nio.file.FileSystem#getPathMatcher(java.lang.String)}
+     * @return never {@literal null}
+     */
+    public static JvfsPathMatcherSet newPathMatcherSet(final List<String> syntaxAndPatterns) {
+        return JvfsMultiPathMatcher.newMatcher(syntaxAndPatterns);
+    }
+
     /**
      * Casts given path to {@link JvfsPath}.
      *
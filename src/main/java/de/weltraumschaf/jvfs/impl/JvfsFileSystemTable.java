@@ -13,19 +13,28 @@
 
 import de.weltraumschaf.jvfs.JvfsAssertions;
 import de.weltraumschaf.jvfs.JvfsCollections;
+import de.weltraumschaf.jvfs.JvfsFileSystems;
 import de.weltraumschaf.jvfs.JvfsObject;
 import java.io.IOException;
 import java.nio.file.FileSystemAlreadyExistsException;
 import java.nio.file.FileSystemNotFoundException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import org.apache.log4j.Logger;
 
 /**
  * Represents a file system table which maintains mount points and the associated file system.
  *
- * The class is thread safe.
+ * Besides the sorted table used for listing, the mount points are kept in a trie with one node per path name, so
+ * finding the file system of a path walks its names once and costs the depth of the path, not the number of mounts.
+ * Matching whole names never routes {@literal /foobar} to a file system mounted on {@literal /foo}.
+ *
+ * The class is thread safe: mounting and unmounting are serialized by a lock, looking up never locks.
  *
  * @author Sven Strittmatter <weltraumschaf@googlemail.com>
  */
@@ -39,10 +48,22 @@ final class JvfsFileSystemTable {
      * Holds the mount points with their file system.
      */
     private final Map<JvfsMountPoint, JvfsFileSystem> fstab = JvfsCollections.newConcurrentSortedMap();
+    /**
+     * Mounted file systems, to reject mounting one twice without scanning {@link #fstab}.
+     */
+    private final Set<JvfsFileSystem> mounted = JvfsCollections.newSet();
+    /**
+     * Root of the mount point trie; holds the root file system.
+     */
+    private final Node trie = new Node();
+    /**
+     * Serializes mounting and unmounting; guards {@link #mounted}.
+     */
+    private final Lock lock = new ReentrantLock();
     /**
      * Mount point of the root file system.
      */
-    private JvfsMountPoint root;
+    private volatile JvfsMountPoint root;
 
     /**
      * Mounts a file system on a path.
@@ -66,16 +87,29 @@ public void mount(final String path, final JvfsFileSystem fs) {
      */
     public void mount(final JvfsMountPoint path, final JvfsFileSystem fs) {
         JvfsAssertions.notNull(fs, "fs");
+        lock.lock();
 
-        if (fstab.containsKey(path) || fstab.containsValue(fs)) {
-            throw new FileSystemAlreadyExistsException(path.toString());
-        }
+        try {
+            if (fstab.containsKey(path) || mounted.contains(fs)) {
+                throw new FileSystemAlreadyExistsException(path.toString());
+            }
 
-        if (path.isRootFileSystem()) {
-            root = path;
-        }
+            if (path.isRootFileSystem()) {
+                root = path;
+            }
+
+            mounted.add(fs);
+            fstab.put(path, fs);
+            Node node = trie;
 
-        fstab.put(path, fs);
+            for (final String name : JvfsPathUtil.tokenize(path.getPath())) {
+                node = node.child(name);
+            }
+
+            node.fs = fs;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -104,21 +138,39 @@ public JvfsFileSystem get(final JvfsMountPoint path) {
      * @param path must not be {@code null} or empty
      */
     public void umount(final String path) {
-        final JvfsFileSystem fs = fstab.remove(new JvfsMountPoint(path));
+        final JvfsMountPoint mountPoint = new JvfsMountPoint(path);
+        final JvfsFileSystem fs;
+        lock.lock();
 
-        if (null != fs) {
-            try {
-                fs.close();
-            } catch (IOException e) {
-                LOG.error("Can't unmount fs correct " + path, e);
+        try {
+            fs = fstab.remove(mountPoint);
+
+            if (null == fs) {
+                return;
             }
+
+            mounted.remove(fs);
+            trie.remove(JvfsPathUtil.tokenize(mountPoint.getPath()), 0);
+
+            if (mountPoint.isRootFileSystem()) {
+                root = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            fs.close();
+        } catch (IOException e) {
+            LOG.error("Can't unmount fs correct " + path, e);
         }
     }
 
     /**
      * Find a mounted file system for given path.
      *
-     * Throws an {@link IllegalStateException} if no mount point matches.
+     * The file system mounted on the longest mount point being the path itself or one of its parent directories
+     * wins. Throws an {@link IllegalStateException} if no mount point matches.
      *
      * @param path must not be {@code null} or empty
      * @return never {@code null}
@@ -131,19 +183,30 @@ public JvfsFileSystem findMountedFilesystem(final String path) {
             throw new IllegalStateException("No file system mounted!");
         }
 
-        final Iterator<Map.Entry<JvfsMountPoint, JvfsFileSystem>> it = fstab.entrySet().iterator();
+        Node node = trie;
+        JvfsFileSystem found = node.fs;
+        int start = 1;
 
-        while (it.hasNext()) {
-            final Map.Entry<JvfsMountPoint, JvfsFileSystem> entry = it.next();
-            final String mountPoint = entry.getKey().getPath();
+        while (null != node && start < normalizedPath.length()) {
+            int end = normalizedPath.indexOf(JvfsFileSystems.DIR_SEP, start);
+
+            if (end < 0) {
+                end = normalizedPath.length();
+            }
+
+            if (end > start) {
+                node = node.children.get(normalizedPath.substring(start, end));
 
-            if (normalizedPath.startsWith(mountPoint)) {
-                return entry.getValue();
+                if (null != node && null != node.fs) {
+                    found = node.fs;
+                }
             }
+
+            start = end + 1;
         }
 
-        if (root != null) {
-            return fstab.get(root);
+        if (null != found) {
+            return found;
         }
 
         throw new IllegalStateException("No file system mounted for " + path);
@@ -215,5 +278,60 @@ public String toString() {
         return buffer.toString();
     }
 
+    /**
+     * Node of the mount point trie.
+     *
+     * Children are added and removed under {@link JvfsFileSystemTable#lock} only, but read without locking.
+     */
+    private static final class Node {
+
+        /**
+         * Child nodes by name.
+         */
+        private final Map<String, Node> children = JvfsCollections.newConcurrentMap();
+        /**
+         * File system mounted on this node, {@code null} if none.
+         */
+        private volatile JvfsFileSystem fs;
+
+        /**
+         * Get the child node with the given name, creating it if missing.
+         *
+         * @param name must not be {@code null} or empty
+         * @return never {@code null}
+         */
+        Node child(final String name) {
+            Node child = children.get(name);
+
+            if (null == child) {
+                child = new Node();
+                children.put(name, child);
+            }
+
+            return child;
+        }
+
+        /**
+         * Removes the file system mounted at the node reached by the given names and prunes nodes left empty.
+         *
+         * @param names names from this node to the mount point, must not be {@code null}
+         * @param index index of the next name to walk
+         * @return {@code true} if this node neither holds a file system nor has children any more
+         */
+        boolean remove(final List<String> names, final int index) {
+            if (index == names.size()) {
+                fs = null;
+            } else {
+                final String name = names.get(index);
+                final Node child = children.get(name);
+
+                if (null != child && child.remove(names, index + 1)) {
+                    children.remove(name);
+                }
+            }
+
+            return null == fs && children.isEmpty();
+        }
+    }
 
 }
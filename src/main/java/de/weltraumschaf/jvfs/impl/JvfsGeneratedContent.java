@@ -0,0 +1,314 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsContentProvider;
+import de.weltraumschaf.jvfs.JvfsGeneratedFile;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.attribute.FileAttribute;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Content of a {@link JvfsGeneratedFile generated file}; thread-safe.
+ *
+ * Without cache every read is passed to the {@link JvfsContentProvider provider} for exactly the read range. With
+ * cache the content is generated in blocks of {@link #BLOCK_SIZE} bytes, which are kept in least recently used order
+ * as long as they fit into the cache size. Blocks are generated outside of the lock, so a slow provider never blocks
+ * readers of cached blocks; two readers missing the same block may both generate it.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsGeneratedContent implements JvfsSpecialFile {
+
+    /**
+     * Size of cached blocks in bytes.
+     */
+    static final int BLOCK_SIZE = 64 * 1024;
+    /**
+     * Computes the content.
+     */
+    private final JvfsContentProvider provider;
+    /**
+     * Size of the content.
+     */
+    private final long size;
+    /**
+     * Maximum number of cached bytes, 0 disables the cache.
+     */
+    private final long cacheSize;
+    /**
+     * Guards {@link #blocks} and {@link #cachedBytes}.
+     */
+    private final Lock lock = new ReentrantLock();
+    /**
+     * Cached blocks by index in least recently used order.
+     */
+    private final Map<Long, byte[]> blocks = new LinkedHashMap<Long, byte[]>(16, 0.75f, true);
+    /**
+     * Number of bytes in {@link #blocks}.
+     */
+    private long cachedBytes;
+
+    /**
+     * Dedicated constructor.
+     *
+     * @param provider must not be {@code null}
+     * @param cacheSize must not be negative, 0 disables the cache
+     */
+    JvfsGeneratedContent(final JvfsContentProvider provider, final long cacheSize) {
+        super();
+        assert null != provider : "provider must be defined";
+        assert cacheSize >= 0 : "cacheSize must not be negative";
+        this.provider = provider;
+        this.size = provider.size();
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Finds a {@link JvfsGeneratedFile} in the attributes to create a file with.
+     *
+     * @param attributes may be {@code null}
+     * @return {@code null} if there is no such attribute
+     */
+    static JvfsGeneratedContent forValue(final FileAttribute<?>... attributes) {
+        if (attributes != null) {
+            for (final FileAttribute<?> attribute : attributes) {
+                if (attribute instanceof JvfsGeneratedFile) {
+                    final JvfsGeneratedFile generated = (JvfsGeneratedFile) attribute;
+                    return new JvfsGeneratedContent(generated.value(), generated.getCacheSize().value());
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public boolean isRegularFile() {
+        return true;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Get the number of cached bytes.
+     *
+     * @return non negative
+     */
+    @Override
+    public long allocatedSize() {
+        lock.lock();
+
+        try {
+            return cachedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates content with the same provider and an empty cache.
+     *
+     * @return never {@code null}
+     */
+    @Override
+    public JvfsSpecialFile copy() {
+        return new JvfsGeneratedContent(provider, cacheSize);
+    }
+
+    /**
+     * Opens a read-only channel.
+     *
+     * Creating the file opens it for writing, so {@link JvfsOpenFlags#CREATE_NEW} passes; writes on that channel
+     * fail nevertheless.
+     *
+     * @param entry entry holding this content, must not be {@code null}
+     * @param flags options the file was opened with, must not be {@code null}
+     * @return never {@code null}
+     * @throws IOException if opened for writing
+     */
+    @Override
+    public SeekableByteChannel newChannel(final JvfsFileEntry entry, final JvfsOpenFlags flags) throws IOException {
+        if (flags.hasAny(JvfsOpenFlags.WRITE | JvfsOpenFlags.APPEND) && !flags.has(JvfsOpenFlags.CREATE_NEW)) {
+            throw new AccessDeniedException(entry.getPath(), null, "file is generated");
+        }
+
+        return new Channel(entry);
+    }
+
+    /**
+     * Fills the destination with the content beginning at the given position.
+     *
+     * @param position must not be negative
+     * @param destination must not be {@code null}
+     * @param count must not be negative, greater than remaining bytes of destination or reach behind the size
+     * @throws IOException if the provider fails
+     */
+    void read(final long position, final ByteBuffer destination, final int count) throws IOException {
+        assert position >= 0 && position + count <= size : "range must be within size";
+
+        if (cacheSize == 0) {
+            final ByteBuffer range = destination.duplicate();
+            range.limit(range.position() + count);
+            generate(position, range);
+            destination.position(destination.position() + count);
+            return;
+        }
+
+        long current = position;
+        final long end = position + count;
+
+        while (current < end) {
+            final long index = current / BLOCK_SIZE;
+            final byte[] block = block(index);
+            final int offset = (int) (current - index * BLOCK_SIZE);
+            final int length = (int) Math.min(block.length - offset, end - current);
+            destination.put(block, offset, length);
+            current += length;
+        }
+    }
+
+    /**
+     * Get a block from the cache or generate it.
+     *
+     * @param index must not be negative
+     * @return never {@code null}
+     * @throws IOException if the provider fails
+     */
+    private byte[] block(final long index) throws IOException {
+        final Long key = index;
+        lock.lock();
+
+        try {
+            final byte[] cached = blocks.get(key);
+
+            if (null != cached) {
+                return cached;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        final long start = index * BLOCK_SIZE;
+        final byte[] block = new byte[(int) Math.min(BLOCK_SIZE, size - start)];
+        generate(start, ByteBuffer.wrap(block));
+        lock.lock();
+
+        try {
+            if (!blocks.containsKey(key)) {
+                cachedBytes += block.length;
+                blocks.put(key, block);
+                evict();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return block;
+    }
+
+    /**
+     * Drops least recently used blocks until the cached bytes fit into the cache size; must be called under the lock.
+     *
+     * One block may not be enough, because the last block of the content may be shorter than the one added.
+     */
+    private void evict() {
+        final Iterator<byte[]> eldest = blocks.values().iterator();
+
+        while (cachedBytes > cacheSize && eldest.hasNext()) {
+            cachedBytes -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Lets the provider fill the destination.
+     *
+     * @param position must not be negative
+     * @param destination must not be {@code null}
+     * @throws IOException if the provider fails or does not fill the destination
+     */
+    private void generate(final long position, final ByteBuffer destination) throws IOException {
+        provider.read(position, destination);
+
+        if (destination.hasRemaining()) {
+            throw new IOException("Content provider left " + destination.remaining() + " bytes at position "
+                    + position + " unfilled!");
+        }
+    }
+
+    /**
+     * Read-only channel on generated content.
+     */
+    private final class Channel extends JvfsSpecialChannel {
+
+        /**
+         * Dedicated constructor.
+         *
+         * @param entry must not be {@code null}
+         */
+        Channel(final JvfsFileEntry entry) {
+            super(entry);
+        }
+
+        @Override
+        public int read(final ByteBuffer destination) throws IOException {
+            checkClosed();
+
+            if (destination == null) {
+                throw new IllegalArgumentException("Destination buffer must be supplied");
+            }
+
+            while (true) {
+                final long current = position();
+
+                if (current >= size) {
+                    return -1;
+                }
+
+                final int count = (int) Math.min(destination.remaining(), size - current);
+
+                if (claim(current, current + count)) {
+                    JvfsGeneratedContent.this.read(current, destination, count);
+                    return count;
+                }
+            }
+        }
+
+        @Override
+        public int write(final ByteBuffer source) throws IOException {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public long size() throws IOException {
+            return size;
+        }
+
+        @Override
+        public SeekableByteChannel truncate(final long newSize) throws IOException {
+            throw new NonWritableChannelException();
+        }
+    }
+
+}
@@ -0,0 +1,763 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsCollections;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Compiled glob which matches paths without regular expressions; immutable and thread-safe.
+ *
+ * The glob is compiled into a position automaton (Glushkov construction): each character consuming element of the
+ * glob is a position and for each position the set of positions which may consume the next character is
+ * precomputed. Matching advances the set of active positions character by character as bit set, so it never
+ * backtracks and runs in time linear to the path length. Globs with less than 64 positions, which are nearly all,
+ * keep the set in a single {@code long} and match without allocating anything.
+ *
+ * The glob must be syntactically valid, as checked by {@link JvfsPathMatcher}; the semantics are those of the
+ * regular expression the matcher translates the glob to.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsGlob {
+
+    /**
+     * Position matching one given character.
+     */
+    private static final byte LITERAL = 0;
+    /**
+     * Position matching any character but the separator ({@literal ?}).
+     */
+    private static final byte ANY = 1;
+    /**
+     * Position matching a character class ({@literal [...]}), never the separator.
+     */
+    private static final byte CLASS = 2;
+    /**
+     * Position matching any number of characters but the separator ({@literal *}).
+     */
+    private static final byte STAR = 3;
+    /**
+     * Position matching any number of characters ({@literal **}).
+     */
+    private static final byte DOUBLE_STAR = 4;
+    /**
+     * Directory separator.
+     */
+    private static final char SEP = '/';
+    /**
+     * Bits per word of a bit set.
+     */
+    private static final int WORD_SIZE = 64;
+
+    /**
+     * Type of each position.
+     */
+    private final byte[] types;
+    /**
+     * Character of each {@link #LITERAL} position.
+     */
+    private final char[] literals;
+    /**
+     * Inclusive ranges as pairs of lower and upper bound of each {@link #CLASS} position.
+     */
+    private final char[][] ranges;
+    /**
+     * Whether the class of each {@link #CLASS} position is negated.
+     */
+    private final boolean[] negated;
+    /**
+     * Positions which may consume the character after the one consumed by each position, in words.
+     */
+    private final long[][] follow;
+    /**
+     * Positions which may consume the first character, in words.
+     */
+    private final long[] start;
+    /**
+     * Pseudo position set if the path may end; equals the number of positions.
+     */
+    private final int end;
+    /**
+     * Literal text every matching path ends with, may be empty.
+     */
+    private final String suffix;
+    /**
+     * Literal text at the begin of the glob; its characters are the positions 0 up to its length.
+     */
+    private final String prefix;
+
+    /**
+     * Use {@link #compile(java.lang.String)} to create instances.
+     *
+     * @param compiler must not be {@literal null}
+     */
+    private JvfsGlob(final Compiler compiler) {
+        super();
+        final int count = compiler.types.size();
+        end = count;
+        types = new byte[count];
+        literals = new char[count];
+        ranges = new char[count][];
+        negated = new boolean[count];
+        follow = new long[count][];
+        final int words = count / WORD_SIZE + 1;
+
+        for (int p = 0; p < count; ++p) {
+            types[p] = compiler.types.get(p);
+            literals[p] = compiler.literals.get(p);
+            ranges[p] = compiler.ranges.get(p);
+            negated[p] = compiler.negated.get(p);
+            follow[p] = words(compiler.follow.get(p), words);
+        }
+
+        start = words(compiler.start, words);
+        suffix = compiler.suffix.toString();
+        prefix = leadingLiterals(compiler.prefix);
+    }
+
+    /**
+     * Get the characters of the leading literal positions.
+     *
+     * @param count number of leading literal positions
+     * @return never {@literal null}
+     */
+    private String leadingLiterals(final int count) {
+        final StringBuilder buffer = new StringBuilder(count);
+
+        for (int p = 0; p < count; ++p) {
+            buffer.append(literals[p]);
+        }
+
+        return buffer.toString();
+    }
+
+    /**
+     * Converts an array of fixed size into the indices of its set bits.
+     *
+     * @param words must not be {@literal null}
+     * @return never {@literal null}, ascending
+     */
+    private static int[] positions(final long[] words) {
+        int count = 0;
+
+        for (final long word : words) {
+            count += Long.bitCount(word);
+        }
+
+        final int[] result = new int[count];
+        int i = 0;
+
+        for (int w = 0; w < words.length; ++w) {
+            long pending = words[w];
+
+            while (pending != 0L) {
+                result[i++] = w * WORD_SIZE + Long.numberOfTrailingZeros(pending);
+                pending &= pending - 1;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Converts a bit set into an array of fixed size.
+     *
+     * @param bits must not be {@literal null}
+     * @param words size of the array
+     * @return never {@literal null}
+     */
+    private static long[] words(final BitSet bits, final int words) {
+        final long[] result = new long[words];
+        final long[] used = bits.toLongArray();
+        System.arraycopy(used, 0, result, 0, used.length);
+        return result;
+    }
+
+    /**
+     * Compiles a glob.
+     *
+     * @param glob must not be {@literal null}, must be valid
+     * @return never {@literal null}
+     */
+    static JvfsGlob compile(final String glob) {
+        return new JvfsGlob(new Compiler(glob).compile());
+    }
+
+    /**
+     * Get the literal text every matching path ends with.
+     *
+     * @return never {@literal null}, may be empty
+     */
+    String getSuffix() {
+        return suffix;
+    }
+
+    /**
+     * Get the literal text every matching path starts with.
+     *
+     * Its characters are consumed by the positions 0 up to its length in this order.
+     *
+     * @return never {@literal null}, may be empty
+     */
+    String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Get the number of positions.
+     *
+     * The number itself denotes the end of the glob in {@link #getStart()} and {@link #getFollow(int)}.
+     *
+     * @return non negative
+     */
+    int getPositionCount() {
+        return end;
+    }
+
+    /**
+     * Get the positions which may consume the first character.
+     *
+     * @return never {@literal null}, contains the end if the glob matches the empty string
+     */
+    int[] getStart() {
+        return positions(start);
+    }
+
+    /**
+     * Get the positions which may consume the character following the one consumed by a position.
+     *
+     * @param p index of the position, must be less than {@link #getPositionCount()}
+     * @return never {@literal null}, contains the end if the glob may end after the position
+     */
+    int[] getFollow(final int p) {
+        return positions(follow[p]);
+    }
+
+    /**
+     * Whether the whole path matches the glob.
+     *
+     * @param path must not be {@literal null}
+     * @return {@literal true} if matches, else {@literal false}
+     */
+    boolean matches(final String path) {
+        if (!path.endsWith(suffix)) {
+            return false;
+        }
+
+        return start.length == 1 ? matchesSmall(path) : matchesLarge(path);
+    }
+
+    /**
+     * Matches with all positions in one word.
+     *
+     * @param path must not be {@literal null}
+     * @return {@literal true} if matches, else {@literal false}
+     */
+    private boolean matchesSmall(final String path) {
+        final long endBit = 1L << end;
+        final int length = path.length();
+        long state = start[0];
+
+        for (int i = 0; i < length; ++i) {
+            final char c = path.charAt(i);
+            long pending = state & ~endBit;
+            long next = 0L;
+
+            while (pending != 0L) {
+                final int p = Long.numberOfTrailingZeros(pending);
+                pending &= pending - 1;
+
+                if (accepts(p, c)) {
+                    next |= follow[p][0];
+                }
+            }
+
+            if (next == 0L) {
+                return false;
+            }
+
+            state = next;
+        }
+
+        return (state & endBit) != 0L;
+    }
+
+    /**
+     * Matches with positions in several words.
+     *
+     * @param path must not be {@literal null}
+     * @return {@literal true} if matches, else {@literal false}
+     */
+    private boolean matchesLarge(final String path) {
+        final long[] state = advance(start, path, 0);
+        return null != state && isAccepting(state);
+    }
+
+    /**
+     * Get the state before the first character.
+     *
+     * A state is the set of active positions as bit set, one bit per position and the end.
+     *
+     * @return never {@literal null}, must not be modified
+     */
+    long[] getStartState() {
+        return start;
+    }
+
+    /**
+     * Advances a state over characters.
+     *
+     * Matching can be split up this way: a path matches if advancing the start state over all its parts, e.g. name
+     * by name, gives an {@link #isAccepting(long[]) accepting} state. As each state is a fresh array, states can be
+     * shared by the continuations of a common prefix, which makes it the tool to prune directories no path below of
+     * can match.
+     *
+     * @param state must not be {@literal null}, not modified
+     * @param text must not be {@literal null}
+     * @param from index of the first character of text to consume
+     * @return {@literal null} if no position is active any more, which means no continuation can match
+     */
+    long[] advance(final long[] state, final CharSequence text, final int from) {
+        final int words = start.length;
+        final int length = text.length();
+        long[] current = state;
+        long[] next = new long[words];
+
+        for (int i = from; i < length; ++i) {
+            final char c = text.charAt(i);
+            boolean alive = false;
+
+            for (int w = 0; w < words; ++w) {
+                next[w] = 0L;
+            }
+
+            for (int w = 0; w < words; ++w) {
+                long pending = current[w];
+
+                while (pending != 0L) {
+                    final int bit = Long.numberOfTrailingZeros(pending);
+                    pending &= pending - 1;
+                    final int p = w * WORD_SIZE + bit;
+
+                    if (p != end && accepts(p, c)) {
+                        final long[] successors = follow[p];
+
+                        for (int s = 0; s < words; ++s) {
+                            next[s] |= successors[s];
+                        }
+
+                        alive = true;
+                    }
+                }
+            }
+
+            if (!alive) {
+                return null;
+            }
+
+            final long[] swap = current == state ? new long[words] : current;
+            current = next;
+            next = swap;
+        }
+
+        return current == state ? state.clone() : current;
+    }
+
+    /**
+     * Whether the characters a state was advanced over match the whole glob.
+     *
+     * @param state must not be {@literal null}
+     * @return {@literal true} if the end is active, else {@literal false}
+     */
+    boolean isAccepting(final long[] state) {
+        return (state[end / WORD_SIZE] & (1L << (end % WORD_SIZE))) != 0L;
+    }
+
+    /**
+     * Whether a position consumes a character.
+     *
+     * @param p index of the position, must be less than {@link #getPositionCount()}
+     * @param c any character
+     * @return {@literal true} if it consumes the character, else {@literal false}
+     */
+    boolean accepts(final int p, final char c) {
+        switch (types[p]) {
+            case LITERAL:
+                return literals[p] == c;
+            case DOUBLE_STAR:
+                return true;
+            case CLASS:
+                return c != SEP && negated[p] != inRanges(ranges[p], c);
+            default:
+                return c != SEP;
+        }
+    }
+
+    /**
+     * Whether a character is in one of the ranges.
+     *
+     * @param bounds must not be {@literal null}, pairs of lower and upper bound
+     * @param c any character
+     * @return {@literal true} if in range, else {@literal false}
+     */
+    private static boolean inRanges(final char[] bounds, final char c) {
+        for (int i = 0; i < bounds.length; i += 2) {
+            if (c >= bounds[i] && c <= bounds[i + 1]) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * First, last and nullable of a part of the glob.
+     */
+    private static final class Fragment {
+
+        /**
+         * Positions which may consume the first character of the part.
+         */
+        private final BitSet first = new BitSet();
+        /**
+         * Positions which may consume the last character of the part.
+         */
+        private final BitSet last = new BitSet();
+        /**
+         * Whether the part matches the empty string.
+         */
+        private boolean nullable;
+
+        /**
+         * Dedicated constructor.
+         *
+         * @param nullable whether the part matches the empty string
+         */
+        Fragment(final boolean nullable) {
+            super();
+            this.nullable = nullable;
+        }
+    }
+
+    /**
+     * Builds the positions of a glob; used once per compilation.
+     */
+    private static final class Compiler {
+
+        /**
+         * Glob to compile.
+         */
+        private final String glob;
+        /**
+         * Type of each position.
+         */
+        private final List<Byte> types = JvfsCollections.newList();
+        /**
+         * Character of each position.
+         */
+        private final List<Character> literals = JvfsCollections.newList();
+        /**
+         * Class ranges of each position.
+         */
+        private final List<char[]> ranges = JvfsCollections.newList();
+        /**
+         * Class negation of each position.
+         */
+        private final List<Boolean> negated = JvfsCollections.newList();
+        /**
+         * Follow set of each position.
+         */
+        private final List<BitSet> follow = JvfsCollections.newList();
+        /**
+         * Positions which may consume the first character.
+         */
+        private final BitSet start = new BitSet();
+        /**
+         * Literal text at the end of the top level sequence.
+         */
+        private final StringBuilder suffix = new StringBuilder();
+        /**
+         * Number of literal positions at the begin of the top level sequence.
+         */
+        private int prefix;
+
+        /**
+         * Dedicated constructor.
+         *
+         * @param glob must not be {@literal null}
+         */
+        Compiler(final String glob) {
+            super();
+            this.glob = glob;
+        }
+
+        /**
+         * Builds all positions.
+         *
+         * @return itself
+         */
+        Compiler compile() {
+            Fragment sequence = new Fragment(true);
+            Fragment alternatives = null;
+            Fragment alternative = null;
+            int i = 0;
+
+            while (i < glob.length()) {
+                final char c = glob.charAt(i++);
+                Fragment item = null;
+
+                switch (c) {
+                    case '\\':
+                        item = position(LITERAL, glob.charAt(i++), null, false);
+                        break;
+                    case '[':
+                        i = parseClass(i);
+                        item = lastPosition();
+                        break;
+                    case '{':
+                        alternatives = new Fragment(false);
+                        alternative = new Fragment(true);
+                        break;
+                    case ',':
+                        if (null == alternatives) {
+                            item = position(LITERAL, c, null, false);
+                        } else {
+                            union(alternatives, alternative);
+                            alternative = new Fragment(true);
+                        }
+
+                        break;
+                    case '}':
+                        if (null == alternatives) {
+                            item = position(LITERAL, c, null, false);
+                        } else {
+                            union(alternatives, alternative);
+                            sequence = concat(sequence, alternatives);
+                            suffix.setLength(0);
+                            alternatives = null;
+                            alternative = null;
+                        }
+
+                        break;
+                    case '*':
+                        if (i < glob.length() && glob.charAt(i) == '*') {
+                            item = position(DOUBLE_STAR, c, null, false);
+                            ++i;
+                        } else {
+                            item = position(STAR, c, null, false);
+                        }
+
+                        break;
+                    case '?':
+                        item = position(ANY, c, null, false);
+                        break;
+                    default:
+                        item = position(LITERAL, c, null, false);
+                }
+
+                if (null != item) {
+                    if (null == alternative) {
+                        sequence = concat(sequence, item);
+                        trackPrefix(item);
+                        trackSuffix(item);
+                    } else {
+                        alternative = concat(alternative, item);
+                    }
+                }
+            }
+
+            final int end = types.size();
+
+            for (int p = sequence.last.nextSetBit(0); p >= 0; p = sequence.last.nextSetBit(p + 1)) {
+                follow.get(p).set(end);
+            }
+
+            start.or(sequence.first);
+
+            if (sequence.nullable) {
+                start.set(end);
+            }
+
+            return this;
+        }
+
+        /**
+         * Extends the literal prefix by a position appended at top level as long as all positions are literals.
+         *
+         * @param item must not be {@literal null}, fragment of a single position
+         */
+        private void trackPrefix(final Fragment item) {
+            final int p = item.first.nextSetBit(0);
+
+            if (p == prefix && types.get(p) == LITERAL) {
+                ++prefix;
+            }
+        }
+
+        /**
+         * Extends the literal suffix by a position appended at top level, or resets it.
+         *
+         * @param item must not be {@literal null}, fragment of a single position
+         */
+        private void trackSuffix(final Fragment item) {
+            final int p = item.first.nextSetBit(0);
+
+            if (types.get(p) == LITERAL) {
+                suffix.append(literals.get(p));
+            } else {
+                suffix.setLength(0);
+            }
+        }
+
+        /**
+         * Parses a character class into a new position.
+         *
+         * @param begin index behind the opening bracket
+         * @return index behind the closing bracket
+         */
+        private int parseClass(final int begin) {
+            final StringBuilder bounds = new StringBuilder();
+            boolean negation = false;
+            int i = begin;
+
+            if (glob.charAt(i) == '^') {
+                bounds.append('^').append('^');
+                ++i;
+            } else {
+                if (glob.charAt(i) == '!') {
+                    negation = true;
+                    ++i;
+                }
+
+                if (glob.charAt(i) == '-') {
+                    bounds.append('-').append('-');
+                    ++i;
+                }
+            }
+
+            char last = 0;
+
+            while (i < glob.length()) {
+                final char c = glob.charAt(i++);
+
+                if (c == ']') {
+                    break;
+                }
+
+                if (c == '-') {
+                    final char upper = i < glob.length() ? glob.charAt(i++) : ']';
+
+                    if (upper == ']') {
+                        bounds.append('-').append('-');
+                        break;
+                    }
+
+                    bounds.append(last).append(upper);
+                    continue;
+                }
+
+                bounds.append(c).append(c);
+                last = c;
+            }
+
+            final char[] pairs = new char[bounds.length()];
+            bounds.getChars(0, pairs.length, pairs, 0);
+            position(CLASS, (char) 0, pairs, negation);
+            return i;
+        }
+
+        /**
+         * Adds a position.
+         *
+         * @param type one of the position types
+         * @param literal character of a literal
+         * @param bounds ranges of a class, {@literal null} else
+         * @param negation whether a class is negated
+         * @return fragment of the position, never {@literal null}
+         */
+        private Fragment position(final byte type, final char literal, final char[] bounds, final boolean negation) {
+            final int p = types.size();
+            types.add(type);
+            literals.add(literal);
+            ranges.add(bounds);
+            negated.add(negation);
+            final BitSet successors = new BitSet();
+            final boolean loop = type == STAR || type == DOUBLE_STAR;
+
+            if (loop) {
+                successors.set(p);
+            }
+
+            follow.add(successors);
+            final Fragment fragment = new Fragment(loop);
+            fragment.first.set(p);
+            fragment.last.set(p);
+            return fragment;
+        }
+
+        /**
+         * Get the fragment of the position added last.
+         *
+         * @return never {@literal null}
+         */
+        private Fragment lastPosition() {
+            final int p = types.size() - 1;
+            final Fragment fragment = new Fragment(false);
+            fragment.first.set(p);
+            fragment.last.set(p);
+            return fragment;
+        }
+
+        /**
+         * Concatenates two fragments.
+         *
+         * @param left must not be {@literal null}
+         * @param right must not be {@literal null}
+         * @return never {@literal null}
+         */
+        private Fragment concat(final Fragment left, final Fragment right) {
+            for (int p = left.last.nextSetBit(0); p >= 0; p = left.last.nextSetBit(p + 1)) {
+                follow.get(p).or(right.first);
+            }
+
+            final Fragment result = new Fragment(left.nullable && right.nullable);
+            result.first.or(left.first);
+
+            if (left.nullable) {
+                result.first.or(right.first);
+            }
+
+            result.last.or(right.last);
+
+            if (right.nullable) {
+                result.last.or(left.last);
+            }
+
+            return result;
+        }
+
+        /**
+         * Adds an alternative to a group.
+         *
+         * @param group must not be {@literal null}, changed
+         * @param alternative must not be {@literal null}
+         */
+        private static void union(final Fragment group, final Fragment alternative) {
+            group.first.or(alternative.first);
+            group.last.or(alternative.last);
+            group.nullable |= alternative.nullable;
+        }
+    }
+
+}
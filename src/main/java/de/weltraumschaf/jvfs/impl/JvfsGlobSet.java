@@ -0,0 +1,360 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsCollections;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Many compiled globs matched in one pass over the path; immutable and thread-safe.
+ *
+ * The position automatons of all {@link JvfsGlob globs} are united into one automaton which gives each glob an own
+ * accepting position, so a single run tells which globs match. Literal prefixes are factored into a trie: globs
+ * starting with the same text share the positions of their common prefix, so each character of a path is compared
+ * once per distinct prefix instead of once per glob. Paths not continuing any prefix leave no active position and
+ * are rejected at once, typically within the first name.
+ *
+ * Globs without prefix but with a literal suffix are only started if the path ends with the suffix. The active
+ * positions are kept in a list, so the costs per character are proportional to the active positions, not to the
+ * size of the automaton.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsGlobSet {
+
+    /**
+     * Marks positions which do not accept any glob.
+     */
+    private static final int NONE = -1;
+    /**
+     * Number of bits per word of {@link #match(java.lang.String) marks}.
+     */
+    private static final int WORD_SIZE = 64;
+    /**
+     * Glob owning each position, {@literal null} for prefix and accepting positions.
+     */
+    private final JvfsGlob[] owners;
+    /**
+     * Index of each position in its owner.
+     */
+    private final int[] locals;
+    /**
+     * Character of each prefix position.
+     */
+    private final char[] literals;
+    /**
+     * Index of the glob accepted by each position, {@link #NONE} if it is not accepting.
+     */
+    private final int[] accepting;
+    /**
+     * Follow set of each position.
+     */
+    private final int[][] follow;
+    /**
+     * Positions which may consume the first character of any path.
+     */
+    private final int[] start;
+    /**
+     * Literal suffixes of globs which are only started if the path ends with them.
+     */
+    private final String[] guards;
+    /**
+     * Positions which may consume the first character of a path ending with the according guard.
+     */
+    private final int[][] guarded;
+    /**
+     * Number of globs.
+     */
+    private final int size;
+
+    /**
+     * Use {@link #compile(java.util.List)} to create instances.
+     *
+     * @param builder must not be {@literal null}
+     */
+    private JvfsGlobSet(final Builder builder) {
+        super();
+        final int count = builder.owners.size();
+        owners = builder.owners.toArray(new JvfsGlob[count]);
+        locals = new int[count];
+        literals = new char[count];
+        accepting = new int[count];
+        follow = new int[count][];
+
+        for (int p = 0; p < count; ++p) {
+            locals[p] = builder.locals.get(p);
+            literals[p] = builder.literals.get(p);
+            accepting[p] = builder.accepting.get(p);
+            follow[p] = positions(builder.follow.get(p));
+        }
+
+        start = positions(builder.start);
+        guards = builder.guards.toArray(new String[builder.guards.size()]);
+        guarded = builder.guarded.toArray(new int[builder.guarded.size()][]);
+        size = builder.size;
+    }
+
+    /**
+     * Converts a bit set into the indices of its set bits.
+     *
+     * @param bits must not be {@literal null}
+     * @return never {@literal null}, ascending
+     */
+    private static int[] positions(final BitSet bits) {
+        final int[] result = new int[bits.cardinality()];
+        int i = 0;
+
+        for (int p = bits.nextSetBit(0); p >= 0; p = bits.nextSetBit(p + 1)) {
+            result[i++] = p;
+        }
+
+        return result;
+    }
+
+    /**
+     * Unites globs into one automaton.
+     *
+     * @param globs must not be {@literal null}
+     * @return never {@literal null}
+     */
+    static JvfsGlobSet compile(final List<JvfsGlob> globs) {
+        final Builder builder = new Builder();
+
+        for (final JvfsGlob glob : globs) {
+            builder.add(glob);
+        }
+
+        return new JvfsGlobSet(builder);
+    }
+
+    /**
+     * Get the number of globs.
+     *
+     * @return non negative
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of positions of the united automaton.
+     *
+     * @return non negative
+     */
+    int getPositionCount() {
+        return follow.length;
+    }
+
+    /**
+     * Matches the whole path against all globs.
+     *
+     * @param path must not be {@literal null}
+     * @return never {@literal null}, bit set of the indices of the matching globs
+     */
+    BitSet match(final String path) {
+        final int count = follow.length;
+        int[] current = new int[count];
+        int[] next = new int[count];
+        final long[] marks = new long[count / WORD_SIZE + 1];
+        int active = start.length;
+        System.arraycopy(start, 0, current, 0, active);
+
+        for (int g = 0; g < guards.length; ++g) {
+            if (path.endsWith(guards[g])) {
+                System.arraycopy(guarded[g], 0, current, active, guarded[g].length);
+                active += guarded[g].length;
+            }
+        }
+
+        final int length = path.length();
+
+        for (int i = 0; i < length && active > 0; ++i) {
+            final char c = path.charAt(i);
+            int reached = 0;
+
+            for (int j = 0; j < active; ++j) {
+                final int p = current[j];
+
+                if (!accepts(p, c)) {
+                    continue;
+                }
+
+                for (final int s : follow[p]) {
+                    final long bit = 1L << s;
+
+                    if ((marks[s / WORD_SIZE] & bit) == 0L) {
+                        marks[s / WORD_SIZE] |= bit;
+                        next[reached++] = s;
+                    }
+                }
+            }
+
+            for (int j = 0; j < reached; ++j) {
+                marks[next[j] / WORD_SIZE] = 0L;
+            }
+
+            final int[] swap = current;
+            current = next;
+            next = swap;
+            active = reached;
+        }
+
+        final BitSet matching = new BitSet(size);
+
+        for (int j = 0; j < active; ++j) {
+            final int glob = accepting[current[j]];
+
+            if (glob != NONE) {
+                matching.set(glob);
+            }
+        }
+
+        return matching;
+    }
+
+    /**
+     * Whether a position consumes a character.
+     *
+     * @param p index of the position
+     * @param c any character
+     * @return {@literal true} if it consumes the character, else {@literal false}
+     */
+    private boolean accepts(final int p, final char c) {
+        final JvfsGlob owner = owners[p];
+
+        if (null != owner) {
+            return owner.accepts(locals[p], c);
+        }
+
+        return accepting[p] == NONE && literals[p] == c;
+    }
+
+    /**
+     * Unites the positions of globs; used once per compilation.
+     */
+    private static final class Builder {
+
+        /**
+         * Glob owning each position.
+         */
+        private final List<JvfsGlob> owners = JvfsCollections.newList();
+        /**
+         * Index of each position in its owner.
+         */
+        private final List<Integer> locals = JvfsCollections.newList();
+        /**
+         * Character of each position.
+         */
+        private final List<Character> literals = JvfsCollections.newList();
+        /**
+         * Accepted glob of each position.
+         */
+        private final List<Integer> accepting = JvfsCollections.newList();
+        /**
+         * Follow set of each position.
+         */
+        private final List<BitSet> follow = JvfsCollections.newList();
+        /**
+         * Prefix positions by the prefix text up to and including their character.
+         */
+        private final Map<String, Integer> prefixes = JvfsCollections.newMap();
+        /**
+         * Positions which may consume the first character of any path.
+         */
+        private final BitSet start = new BitSet();
+        /**
+         * Literal suffixes guarding starts.
+         */
+        private final List<String> guards = JvfsCollections.newList();
+        /**
+         * Starts guarded by the according suffix.
+         */
+        private final List<int[]> guarded = JvfsCollections.newList();
+        /**
+         * Number of added globs.
+         */
+        private int size;
+
+        /**
+         * Adds the positions of a glob.
+         *
+         * @param glob must not be {@literal null}
+         */
+        void add(final JvfsGlob glob) {
+            final String prefix = glob.getPrefix();
+            final int count = glob.getPositionCount();
+            final int[] united = new int[count + 1];
+
+            for (int p = 0; p < prefix.length(); ++p) {
+                final String key = prefix.substring(0, p + 1);
+                Integer shared = prefixes.get(key);
+
+                if (null == shared) {
+                    shared = position(null, NONE, prefix.charAt(p), NONE);
+                    prefixes.put(key, shared);
+                }
+
+                united[p] = shared;
+            }
+
+            for (int p = prefix.length(); p < count; ++p) {
+                united[p] = position(glob, p, '\0', NONE);
+            }
+
+            united[count] = position(null, NONE, '\0', size);
+
+            for (int p = 0; p < count; ++p) {
+                final BitSet successors = follow.get(united[p]);
+
+                for (final int s : glob.getFollow(p)) {
+                    successors.set(united[s]);
+                }
+            }
+
+            final BitSet first = new BitSet();
+
+            for (final int s : glob.getStart()) {
+                first.set(united[s]);
+            }
+
+            if (prefix.isEmpty() && !glob.getSuffix().isEmpty()) {
+                guards.add(glob.getSuffix());
+                guarded.add(positions(first));
+            } else {
+                start.or(first);
+            }
+
+            ++size;
+        }
+
+        /**
+         * Adds a position.
+         *
+         * @param owner {@literal null} for prefix and accepting positions
+         * @param local index in the owner
+         * @param literal character of a prefix position
+         * @param glob index of the accepted glob, {@link #NONE} if not accepting
+         * @return index of the position
+         */
+        private int position(final JvfsGlob owner, final int local, final char literal, final int glob) {
+            owners.add(owner);
+            locals.add(local);
+            literals.add(literal);
+            accepting.add(glob);
+            follow.add(new BitSet());
+            return owners.size() - 1;
+        }
+    }
+
+}
@@ -0,0 +1,701 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsAssertions;
+import de.weltraumschaf.jvfs.JvfsCollections;
+import de.weltraumschaf.jvfs.JvfsIgnoreRules;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Evaluates ignore rules below a directory of a JVFS file system; thread-safe.
+ *
+ * Each rule is translated into a glob on absolute paths by prepending the directory of its ignore file. So all rules
+ * applying to a directory, its own and those of its ancestors, are united into one {@link JvfsGlobSet automaton}
+ * which matches a path in a single pass without computing any relative path. The directories share the prefix
+ * positions of the automaton, which rejects paths outside the directories of the rules at once.
+ *
+ * The united rules are cached per directory, together with whether the directory itself is ignored. Directories
+ * without ignore file share the rules of their parent, so only directories with an ignore file cost an own automaton.
+ * A cached directory stays valid as long as neither the {@link JvfsFileSystem#getNamespaceVersion() hierarchy} nor
+ * the content version of any of its ignore files changed; checking that costs no lookup. After a change the rules are
+ * recompiled only for ignore files which actually changed. The cache is bounded and evicts arbitrary directories.
+ *
+ * Invalid rules, e.g. with a separator in a character class, are skipped.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsIgnoreEngine implements JvfsIgnoreRules {
+
+    /**
+     * Maximum number of cached directories.
+     */
+    static final int CACHE_SIZE = 64 * 1024;
+    /**
+     * Separator of names.
+     */
+    private static final char SEP = '/';
+    /**
+     * Glob matching any number of leading directories.
+     */
+    private static final String ANY_DIRECTORIES = "{,**/}";
+    /**
+     * Characters which must be escaped to be literals in a glob.
+     */
+    private static final String GLOB_META_CHARACTERS = "\\*?[]{},";
+    /**
+     * File system the rules are read from.
+     */
+    private final JvfsFileSystem fs;
+    /**
+     * Absolute normalized path of the root directory.
+     */
+    private final String root;
+    /**
+     * Name of the ignore files.
+     */
+    private final String fileName;
+    /**
+     * Evaluated directories by absolute path.
+     */
+    private final JvfsBoundedMap<String, Directory> directories = new JvfsBoundedMap<String, Directory>(CACHE_SIZE);
+
+    /**
+     * Dedicated constructor.
+     *
+     * @param fs must not be {@code null}
+     * @param root must not be {@code null}, absolute and normalized
+     * @param fileName must not be {@code null} or empty
+     */
+    JvfsIgnoreEngine(final JvfsFileSystem fs, final String root, final String fileName) {
+        super();
+        JvfsAssertions.notNull(fs, "fs");
+        JvfsAssertions.notEmpty(root, "root");
+        JvfsAssertions.notEmpty(fileName, "fileName");
+        this.fs = fs;
+        this.root = root;
+        this.fileName = fileName;
+    }
+
+    /**
+     * Get the number of cached directories.
+     *
+     * @return non negative
+     */
+    int getCacheSize() {
+        return directories.size();
+    }
+
+    @Override
+    public boolean isIgnored(final Path path) throws IOException {
+        final JvfsPath absolute = absolute(path);
+        final JvfsFileEntry entry = fs.get(absolute, true);
+        return isIgnored(absolute.toString(), null != entry && entry.isDirectory());
+    }
+
+    @Override
+    public boolean isIgnored(final Path path, final boolean directory) throws IOException {
+        return isIgnored(absolute(path).toString(), directory);
+    }
+
+    /**
+     * Converts a path into an absolute JVFS path.
+     *
+     * @param path must not be {@code null}
+     * @return never {@code null}
+     */
+    private static JvfsPath absolute(final Path path) {
+        final JvfsPath jvfsPath = JvfsFileSystemProvider.toJvfsPath(path);
+        return jvfsPath.isAbsolute() ? jvfsPath : (JvfsPath) jvfsPath.toAbsolutePath();
+    }
+
+    /**
+     * Whether a path is ignored.
+     *
+     * @param path must not be {@code null}, absolute and normalized
+     * @param directory whether the path is a directory
+     * @return {@code true} if ignored, else {@code false}
+     * @throws IOException if an ignore file can't be read
+     */
+    boolean isIgnored(final String path, final boolean directory) throws IOException {
+        if (!isBelowRoot(path)) {
+            return false;
+        }
+
+        // Read the version first: a change racing with the evaluation then leaves a stale directory.
+        final Directory parent = directory(parent(path), fs.getNamespaceVersion());
+        return parent.excluded || parent.rules.ignores(path, directory);
+    }
+
+    @Override
+    public FileVisitor<Path> filter(final FileVisitor<Path> visitor) {
+        JvfsAssertions.notNull(visitor, "visitor");
+        return new Filter(visitor);
+    }
+
+    /**
+     * Whether a path is below the root directory.
+     *
+     * @param path must not be {@code null}
+     * @return {@code true} if below, {@code false} for the root itself
+     */
+    private boolean isBelowRoot(final String path) {
+        if (root.length() == 1) {
+            return path.length() > 1 && path.charAt(0) == SEP;
+        }
+
+        return path.length() > root.length() && path.startsWith(root) && path.charAt(root.length()) == SEP;
+    }
+
+    /**
+     * Get an evaluated directory from the cache or evaluate it.
+     *
+     * @param path must not be {@code null}, the root or below
+     * @param namespace version of the hierarchy read before
+     * @return never {@code null}
+     * @throws IOException if an ignore file can't be read
+     */
+    private Directory directory(final String path, final long namespace) throws IOException {
+        final Directory cached = directories.get(path);
+
+        if (null != cached && cached.namespace == namespace && cached.rules.isCurrent()) {
+            return cached;
+        }
+
+        final Directory parent = root.equals(path) ? null : directory(parent(path), namespace);
+        final RuleSet inherited = null == parent ? RuleSet.EMPTY : parent.rules;
+        final IgnoreFile own = read(path, null == cached ? null : cached.own);
+        final RuleSet rules;
+
+        if (null == own) {
+            rules = inherited;
+        } else if (null != cached && cached.own == own && cached.rules.parent == inherited) {
+            rules = cached.rules;
+        } else {
+            rules = new RuleSet(inherited, own);
+        }
+
+        final boolean excluded = null != parent && (parent.excluded || inherited.ignores(path, true));
+        final Directory evaluated = new Directory(rules, own, excluded, namespace);
+
+        directories.put(path, evaluated);
+        return evaluated;
+    }
+
+    /**
+     * Reads the ignore file of a directory, reusing the previous rules if the file is unchanged.
+     *
+     * @param directory must not be {@code null}
+     * @param previous rules read before, may be {@code null}
+     * @return {@code null} if there is no ignore file
+     * @throws IOException if the ignore file can't be read
+     */
+    private IgnoreFile read(final String directory, final IgnoreFile previous) throws IOException {
+        final JvfsFileEntry entry = fs.get(child(directory, fileName));
+
+        if (null == entry || entry.isDirectory() || entry.isSpecial()) {
+            return null;
+        }
+
+        final JvfsFileContent version = entry.getContentVersion();
+
+        if (null != previous && previous.entry == entry && previous.version == version) {
+            return previous;
+        }
+
+        final String text = new String(version.array(), 0, version.length(), StandardCharsets.UTF_8);
+        return new IgnoreFile(entry, version, parse(directory, text));
+    }
+
+    /**
+     * Parses the rules of an ignore file.
+     *
+     * @param directory must not be {@code null}, directory of the ignore file
+     * @param text must not be {@code null}
+     * @return never {@code null}
+     */
+    private static List<Rule> parse(final String directory, final String text) {
+        final StringBuilder base = new StringBuilder();
+        appendLiterals(base, directory);
+
+        if (directory.length() > 1) {
+            base.append(SEP);
+        }
+
+        final List<Rule> rules = JvfsCollections.newList();
+
+        for (final String line : text.split("\\n")) {
+            final Rule rule = parseLine(base, line);
+
+            if (null != rule) {
+                rules.add(rule);
+            }
+        }
+
+        return rules;
+    }
+
+    /**
+     * Parses a line of an ignore file.
+     *
+     * @param base must not be {@code null}, escaped directory of the ignore file including trailing separator
+     * @param line must not be {@code null}
+     * @return {@code null} if the line is blank, a comment or invalid
+     */
+    private static Rule parseLine(final CharSequence base, final String line) {
+        int begin = 0;
+        int end = line.length();
+
+        if (end > 0 && line.charAt(end - 1) == '\r') {
+            --end;
+        }
+
+        if (begin == end || line.charAt(begin) == '#') {
+            return null;
+        }
+
+        final boolean negated = line.charAt(begin) == '!';
+
+        if (negated) {
+            ++begin;
+        }
+
+        // Trailing spaces are dropped unless escaped.
+        while (end > begin && line.charAt(end - 1) == ' ' && (end - 2 < begin || line.charAt(end - 2) != '\\')) {
+            --end;
+        }
+
+        final boolean directoryOnly = end > begin && line.charAt(end - 1) == SEP;
+
+        if (directoryOnly) {
+            --end;
+        }
+
+        if (begin == end) {
+            return null;
+        }
+
+        final String pattern = line.substring(begin, end);
+        final boolean anchored = pattern.indexOf(SEP) >= 0;
+        final StringBuilder glob = new StringBuilder(base);
+
+        if (!anchored) {
+            glob.append(ANY_DIRECTORIES);
+        }
+
+        translate(pattern.charAt(0) == SEP ? pattern.substring(1) : pattern, glob);
+
+        try {
+            return new Rule(JvfsPathMatcher.compileGlob(glob.toString()), negated, directoryOnly);
+        } catch (final PatternSyntaxException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Translates a pattern of an ignore file into a glob.
+     *
+     * @param pattern must not be {@code null}
+     * @param glob must not be {@code null}, appended to
+     */
+    private static void translate(final String pattern, final StringBuilder glob) {
+        final int length = pattern.length();
+        int i = 0;
+
+        while (i < length) {
+            final char c = pattern.charAt(i);
+
+            switch (c) {
+                case '\\':
+                    if (i + 1 < length) {
+                        appendLiteral(glob, pattern.charAt(i + 1));
+                    }
+
+                    i += 2;
+                    break;
+                case '*':
+                    i = translateStars(pattern, i, glob);
+                    break;
+                case '?':
+                    glob.append(c);
+                    ++i;
+                    break;
+                case '[':
+                    final int close = pattern.indexOf(']', i + 1);
+
+                    if (close < 0 || close == i + 1) {
+                        appendLiteral(glob, c);
+                        ++i;
+                    } else {
+                        glob.append(c);
+                        // The glob negates with '!' only.
+                        glob.append(pattern.charAt(i + 1) == '^' ? '!' : pattern.charAt(i + 1));
+                        glob.append(pattern, i + 2, close + 1);
+                        i = close + 1;
+                    }
+
+                    break;
+                default:
+                    appendLiteral(glob, c);
+                    ++i;
+            }
+        }
+    }
+
+    /**
+     * Translates a run of asterisks.
+     *
+     * Two or more asterisks forming a whole name match any number of directories; any other run is a single
+     * asterisk.
+     *
+     * @param pattern must not be {@code null}
+     * @param begin index of the first asterisk
+     * @param glob must not be {@code null}, appended to
+     * @return index behind the translated characters
+     */
+    private static int translateStars(final String pattern, final int begin, final StringBuilder glob) {
+        final int length = pattern.length();
+        int end = begin;
+
+        while (end < length && pattern.charAt(end) == '*') {
+            ++end;
+        }
+
+        final boolean name = end - begin > 1
+                && (begin == 0 || pattern.charAt(begin - 1) == SEP)
+                && (end == length || pattern.charAt(end) == SEP);
+
+        if (!name) {
+            glob.append('*');
+            return end;
+        }
+
+        if (end == length) {
+            glob.append("**");
+            return end;
+        }
+
+        // Also consumes the following separator, which is part of the optional directories.
+        glob.append(ANY_DIRECTORIES);
+        return end + 1;
+    }
+
+    /**
+     * Appends characters which are matched literally.
+     *
+     * @param glob must not be {@code null}, appended to
+     * @param literals must not be {@code null}
+     */
+    private static void appendLiterals(final StringBuilder glob, final String literals) {
+        for (int i = 0; i < literals.length(); ++i) {
+            appendLiteral(glob, literals.charAt(i));
+        }
+    }
+
+    /**
+     * Appends a character which is matched literally.
+     *
+     * @param glob must not be {@code null}, appended to
+     * @param literal any character
+     */
+    private static void appendLiteral(final StringBuilder glob, final char literal) {
+        if (GLOB_META_CHARACTERS.indexOf(literal) >= 0) {
+            glob.append('\\');
+        }
+
+        glob.append(literal);
+    }
+
+    /**
+     * Appends a name to a directory.
+     *
+     * @param directory must not be {@code null} or empty
+     * @param name must not be {@code null} or empty
+     * @return never {@code null}
+     */
+    private static String child(final String directory, final String name) {
+        return directory.length() == 1 ? directory + name : directory + SEP + name;
+    }
+
+    /**
+     * Strips the last name of a path.
+     *
+     * @param path must not be {@code null}, absolute and not the root
+     * @return never {@code null}
+     */
+    private static String parent(final String path) {
+        final int separator = path.lastIndexOf(SEP);
+        return separator > 0 ? path.substring(0, separator) : String.valueOf(SEP);
+    }
+
+    /**
+     * A rule of an ignore file.
+     */
+    private static final class Rule {
+
+        /**
+         * Glob on absolute paths.
+         */
+        private final JvfsGlob glob;
+        /**
+         * Whether matching paths are included again.
+         */
+        private final boolean negated;
+        /**
+         * Whether the rule matches directories only.
+         */
+        private final boolean directoryOnly;
+
+        /**
+         * Dedicated constructor.
+         *
+         * @param glob must not be {@code null}
+         * @param negated whether matching paths are included again
+         * @param directoryOnly whether the rule matches directories only
+         */
+        Rule(final JvfsGlob glob, final boolean negated, final boolean directoryOnly) {
+            super();
+            this.glob = glob;
+            this.negated = negated;
+            this.directoryOnly = directoryOnly;
+        }
+    }
+
+    /**
+     * Rules read from an ignore file.
+     */
+    private static final class IgnoreFile {
+
+        /**
+         * The ignore file.
+         */
+        private final JvfsFileEntry entry;
+        /**
+         * Content version the rules were read from.
+         */
+        private final JvfsFileContent version;
+        /**
+         * Rules in the order of the file.
+         */
+        private final List<Rule> rules;
+
+        /**
+         * Dedicated constructor.
+         *
+         * @param entry must not be {@code null}
+         * @param version must not be {@code null}
+         * @param rules must not be {@code null}
+         */
+        IgnoreFile(final JvfsFileEntry entry, final JvfsFileContent version, final List<Rule> rules) {
+            super();
+            this.entry = entry;
+            this.version = version;
+            this.rules = rules;
+        }
+    }
+
+    /**
+     * All rules applying below a directory, united into one automaton.
+     */
+    private static final class RuleSet {
+
+        /**
+         * Rules of no ignore file.
+         */
+        static final RuleSet EMPTY = new RuleSet(null, null);
+        /**
+         * Rules inherited from the ancestors, {@code null} for {@link #EMPTY}.
+         */
+        private final RuleSet parent;
+        /**
+         * Rules of the ancestors followed by the own ones, so later rules take precedence.
+         */
+        private final List<Rule> rules;
+        /**
+         * All rules united.
+         */
+        private final JvfsGlobSet globs;
+        /**
+         * Ignore files the rules were read from, ancestors first.
+         */
+        private final IgnoreFile[] files;
+
+        /**
+         * Dedicated constructor.
+         *
+         * @param parent {@code null} for {@link #EMPTY}
+         * @param own {@code null} for {@link #EMPTY}
+         */
+        RuleSet(final RuleSet parent, final IgnoreFile own) {
+            super();
+            this.parent = parent;
+
+            if (null == own) {
+                rules = Collections.emptyList();
+                files = new IgnoreFile[0];
+            } else {
+                rules = JvfsCollections.newList(parent.rules.size() + own.rules.size());
+                rules.addAll(parent.rules);
+                rules.addAll(own.rules);
+                files = new IgnoreFile[parent.files.length + 1];
+                System.arraycopy(parent.files, 0, files, 0, parent.files.length);
+                files[parent.files.length] = own;
+            }
+
+            final List<JvfsGlob> compiled = JvfsCollections.newList(rules.size());
+
+            for (final Rule rule : rules) {
+                compiled.add(rule.glob);
+            }
+
+            globs = JvfsGlobSet.compile(compiled);
+        }
+
+        /**
+         * Whether no ignore file changed its content since the rules were read.
+         *
+         * @return {@code true} if current, else {@code false}
+         */
+        boolean isCurrent() {
+            for (final IgnoreFile file : files) {
+                if (file.entry.getContentVersion() != file.version) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Whether the last rule applying to a path ignores it.
+         *
+         * @param path must not be {@code null}, absolute
+         * @param directory whether the path is a directory
+         * @return {@code true} if ignored, else {@code false}
+         */
+        boolean ignores(final String path, final boolean directory) {
+            if (rules.isEmpty()) {
+                return false;
+            }
+
+            final BitSet matching = globs.match(path);
+
+            for (int i = matching.length() - 1; i >= 0; i = matching.previousSetBit(i - 1)) {
+                final Rule rule = rules.get(i);
+
+                if (directory || !rule.directoryOnly) {
+                    return !rule.negated;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Evaluated directory.
+     */
+    private static final class Directory {
+
+        /**
+         * Rules applying below the directory.
+         */
+        private final RuleSet rules;
+        /**
+         * Own ignore file, {@code null} if there is none.
+         */
+        private final IgnoreFile own;
+        /**
+         * Whether the directory itself or any of its ancestors is ignored.
+         */
+        private final boolean excluded;
+        /**
+         * Version of the hierarchy the directory was evaluated in.
+         */
+        private final long namespace;
+
+        /**
+         * Dedicated constructor.
+         *
+         * @param rules must not be {@code null}
+         * @param own may be {@code null}
+         * @param excluded whether the directory or an ancestor is ignored
+         * @param namespace version of the hierarchy
+         */
+        Directory(final RuleSet rules, final IgnoreFile own, final boolean excluded, final long namespace) {
+            super();
+            this.rules = rules;
+            this.own = own;
+            this.excluded = excluded;
+            this.namespace = namespace;
+        }
+    }
+
+    /**
+     * Visitor skipping ignored paths.
+     */
+    private final class Filter implements FileVisitor<Path> {
+
+        /**
+         * Visitor seeing the paths which are not ignored.
+         */
+        private final FileVisitor<Path> delegate;
+
+        /**
+         * Dedicated constructor.
+         *
+         * @param delegate must not be {@code null}
+         */
+        Filter(final FileVisitor<Path> delegate) {
+            super();
+            this.delegate = delegate;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
+            if (isIgnored(dir, true)) {
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+
+            return delegate.preVisitDirectory(dir, attrs);
+        }
+
+        @Override
+        public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+            if (isIgnored(file, attrs.isDirectory())) {
+                return FileVisitResult.CONTINUE;
+            }
+
+            return delegate.visitFile(file, attrs);
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(final Path file, final IOException exc) throws IOException {
+            return delegate.visitFileFailed(file, exc);
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(final Path dir, final IOException exc) throws IOException {
+            return delegate.postVisitDirectory(dir, exc);
+        }
+    }
+
+}
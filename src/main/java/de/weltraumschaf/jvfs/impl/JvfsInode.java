@@ -0,0 +1,468 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsAssertions;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds everything of a file which does not depend on its name: content, times, permissions and link count.
+ *
+ * {@link JvfsFileEntry Entries} only add the name and position in the hierarchy. Hard links are entries sharing one
+ * inode, so creating a link copies nothing but the name and all changes through one link are visible through the
+ * others. The identity of an inode is the identity of the file.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsInode {
+
+    /**
+     * Source of {@link #id}.
+     */
+    private static final AtomicLong IDS = new AtomicLong();
+    /**
+     * Unique number of the inode.
+     */
+    private final long id = IDS.incrementAndGet();
+    /**
+     * Serializes writers; readers never lock but work on a pinned {@link JvfsFileContent version}.
+     */
+    private final Lock writeLock = new ReentrantLock();
+    /**
+     * Holds the current version of the file data.
+     */
+    private volatile JvfsFileContent content;
+    /**
+     * Content of a special file, {@code null} for directories and regular files.
+     */
+    private final JvfsSpecialFile special;
+    /**
+     * Target of a symbolic link, {@code null} for all other files.
+     */
+    private final String linkTarget;
+    /**
+     * Number of bytes reserved up front; counts as used space even if not written yet.
+     */
+    private volatile int allocationHint;
+    /**
+     * Whether the content is immutable; once set it is never reset.
+     */
+    private volatile boolean sealed;
+    /**
+     * Number of open channels and streams on this inode.
+     */
+    private final AtomicInteger openHandles = new AtomicInteger();
+    /**
+     * Number of entries referring to this inode.
+     */
+    private final AtomicInteger links = new AtomicInteger(1);
+    /**
+     * Last modification time.
+     */
+    private volatile long lastModifiedTime;
+    /**
+     * Last access time.
+     */
+    private volatile long lastAccessTime;
+    /**
+     * Creation time.
+     */
+    private volatile long creationTime;
+    /**
+     * Whether it is hidden.
+     */
+    private volatile boolean hidden;
+    /**
+     * Holds the file permissions.
+     */
+    private volatile JvfsFilePermissions permissions = new JvfsFilePermissions();
+
+    /**
+     * Constructor for directories, regular and special files.
+     *
+     * @param content must not be {@code null}
+     * @param special {@code null} unless it is a special file
+     */
+    JvfsInode(final JvfsFileContent content, final JvfsSpecialFile special) {
+        this(content, special, null);
+    }
+
+    /**
+     * Dedicated constructor.
+     *
+     * @param content must not be {@code null}
+     * @param special {@code null} unless it is a special file
+     * @param linkTarget {@code null} unless it is a symbolic link
+     */
+    JvfsInode(final JvfsFileContent content, final JvfsSpecialFile special, final String linkTarget) {
+        super();
+        assert content != null : "content must not be null";
+        assert special == null || linkTarget == null : "link can't be special";
+        this.content = content;
+        this.special = special;
+        this.linkTarget = linkTarget;
+    }
+
+    /**
+     * Creates a deep copy with a link count of 1.
+     *
+     * The content version is shared, as versions are immutable.
+     *
+     * @return never {@code null}
+     */
+    JvfsInode copy() {
+        final JvfsInode copy = new JvfsInode(content.share(), null == special ? null : special.copy(), linkTarget);
+        copy.lastModifiedTime = lastModifiedTime;
+        copy.lastAccessTime = lastAccessTime;
+        copy.creationTime = creationTime;
+        copy.permissions = permissions.copy();
+        copy.hidden = hidden;
+        copy.allocationHint = allocationHint;
+        copy.sealed = sealed;
+        return copy;
+    }
+
+    /**
+     * Get the unique number of the inode.
+     *
+     * @return greater than 0
+     */
+    long getId() {
+        return id;
+    }
+
+    /**
+     * Get the number of entries referring to this inode.
+     *
+     * @return 0 if all entries were removed, else greater than 0
+     */
+    int getLinks() {
+        return links.get();
+    }
+
+    /**
+     * Registers a further entry referring to this inode.
+     */
+    void link() {
+        links.incrementAndGet();
+    }
+
+    /**
+     * Unregisters a removed entry; must be called exactly once per entry.
+     */
+    void unlink() {
+        links.decrementAndGet();
+    }
+
+    /**
+     * Get the content of a special file.
+     *
+     * @return {@literal null} unless it is a special file
+     */
+    JvfsSpecialFile getSpecial() {
+        return special;
+    }
+
+    /**
+     * Get the target of a symbolic link.
+     *
+     * @return {@literal null} unless it is a symbolic link
+     */
+    String getLinkTarget() {
+        return linkTarget;
+    }
+
+    /**
+     * Whether it is hidden.
+     *
+     * @return {@literal true} if it is hidden, else {@literal false}
+     */
+    boolean isHidden() {
+        return hidden;
+    }
+
+    /**
+     * Set hidden attribute.
+     *
+     * @param hidden {@code true} for hidden, else {@code false}
+     */
+    void setHidden(final boolean hidden) {
+        this.hidden = hidden;
+    }
+
+    /**
+     * Get last modification time in seconds.
+     *
+     * @return non negative number
+     */
+    long getLastModifiedTime() {
+        return lastModifiedTime;
+    }
+
+    /**
+     * Set last modification time in seconds.
+     *
+     * @param timestamp must be non negative
+     */
+    void setLastModifiedTime(final long timestamp) {
+        JvfsAssertions.greaterThanEqual(timestamp, 0, "timestamp");
+        this.lastModifiedTime = timestamp;
+    }
+
+    /**
+     * Get last access time in seconds.
+     *
+     * @return non negative number
+     */
+    long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    /**
+     * Set last access time in seconds.
+     *
+     * @param timestamp must be non negative
+     */
+    void setLastAccessTime(final long timestamp) {
+        JvfsAssertions.greaterThanEqual(timestamp, 0, "timestamp");
+        this.lastAccessTime = timestamp;
+    }
+
+    /**
+     * Get creation time in seconds.
+     *
+     * @return non negative number
+     */
+    long getCreationTime() {
+        return creationTime;
+    }
+
+    /**
+     * Set creation time in seconds.
+     *
+     * @param timestamp must be non negative
+     */
+    void setCreationTime(final long timestamp) {
+        JvfsAssertions.greaterThanEqual(timestamp, 0, "timestamp");
+        this.creationTime = timestamp;
+    }
+
+    /**
+     * Get the file permissions.
+     *
+     * @return never {@code null}
+     */
+    JvfsFilePermissions getPermissions() {
+        return permissions;
+    }
+
+    /**
+     * Set the file permissions.
+     *
+     * @param permissions must not be {@code null}
+     */
+    void setPermissions(final JvfsFilePermissions permissions) {
+        JvfsAssertions.notNull(permissions, "permissions");
+        this.permissions = permissions;
+    }
+
+    /**
+     * Get the current version of the file content.
+     *
+     * @return never {@literal null}
+     */
+    JvfsFileContent getContent() {
+        return content;
+    }
+
+    /**
+     * Publishes a new version of the file content which replaces the current one.
+     *
+     * @param version must not be {@code null}
+     */
+    void setContent(final JvfsFileContent version) {
+        assert version != null : "version must be defined";
+        beginWrite();
+
+        try {
+            checkNotSealed();
+            this.content = version;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Writes the source buffer at the given position and publishes the result as new version.
+     *
+     * @param position must not be negative
+     * @param source must not be {@code null}
+     * @return the published version, never {@code null}
+     */
+    JvfsFileContent write(final int position, final ByteBuffer source) {
+        beginWrite();
+
+        try {
+            checkNotSealed();
+            final JvfsFileContent version = content.write(position, source);
+            content = version;
+            return version;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Appends the source buffer at the end of the current version and publishes the result as new version.
+     *
+     * @param source must not be {@code null}
+     * @return the published version, never {@code null}
+     */
+    JvfsFileContent append(final ByteBuffer source) {
+        beginWrite();
+
+        try {
+            checkNotSealed();
+            final JvfsFileContent version = content.write(content.length(), source);
+            content = version;
+            return version;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Cuts the current version to the given size and publishes the result as new version.
+     *
+     * @param size must not be negative
+     * @return the current version, never {@code null}
+     */
+    JvfsFileContent truncate(final int size) {
+        beginWrite();
+
+        try {
+            checkNotSealed();
+            if (content.length() > size) {
+                content = content.truncate(size);
+            }
+
+            return content;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Reserves storage so that the file can grow up to the given size without reallocating its content.
+     *
+     * @param size must not be negative or greater than {@link JvfsFileContent#MAX_ARRAY_SIZE}
+     */
+    void reserve(final int size) {
+        beginWrite();
+
+        try {
+            checkNotSealed();
+            content = content.reserve(size);
+            allocationHint = size;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Get the number of bytes reserved by {@link #reserve(int)}.
+     *
+     * @return non negative
+     */
+    int getAllocationHint() {
+        return allocationHint;
+    }
+
+    /**
+     * Makes the content immutable.
+     */
+    void seal() {
+        beginWrite();
+
+        try {
+            sealed = true;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Whether the content is immutable.
+     *
+     * @return {@code true} if sealed, else {@code false}
+     */
+    boolean isSealed() {
+        return sealed;
+    }
+
+    /**
+     * Throws {@link NonWritableChannelException} if sealed; must be called under the write lock.
+     */
+    private void checkNotSealed() {
+        if (sealed) {
+            throw new NonWritableChannelException();
+        }
+    }
+
+    /**
+     * Registers a newly opened channel or stream.
+     */
+    void opened() {
+        openHandles.incrementAndGet();
+    }
+
+    /**
+     * Unregisters a closed channel or stream.
+     */
+    void closed() {
+        openHandles.decrementAndGet();
+    }
+
+    /**
+     * Get the number of open channels and streams.
+     *
+     * @return non negative
+     */
+    int getOpenHandles() {
+        return openHandles.get();
+    }
+
+    /**
+     * Acquire write lock.
+     */
+    void beginWrite() {
+        writeLock.lock();
+    }
+
+    /**
+     * Return write lock.
+     */
+    void endWrite() {
+        writeLock.unlock();
+    }
+
+    @Override
+    public String toString() {
+        return "inode:" + id;
+    }
+
+}
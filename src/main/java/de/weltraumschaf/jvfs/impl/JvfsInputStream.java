@@ -0,0 +1,153 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream which reads directly from a pinned {@link JvfsFileContent version} of a file entry.
+ *
+ * Reads copy straight from the backing array of the version without any buffer or lock in between. As most streams
+ * this one is not thread-safe.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsInputStream extends InputStream {
+
+    /**
+     * Entry the stream reads from.
+     */
+    private final JvfsFileEntry entry;
+    /**
+     * Pinned version; released on close.
+     */
+    private JvfsFileContent content;
+    /**
+     * Position of the next byte to read.
+     */
+    private int position;
+    /**
+     * Position set by {@link #mark(int)}.
+     */
+    private int mark;
+    /**
+     * Whether the stream is open.
+     */
+    private boolean open = true;
+
+    /**
+     * Dedicated constructor.
+     *
+     * @param entry must not be {@code null}
+     */
+    JvfsInputStream(final JvfsFileEntry entry) {
+        super();
+        assert null != entry : "entry must be defined";
+        this.entry = entry;
+        this.content = entry.getContentVersion();
+        entry.opened();
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+
+        if (position >= content.length()) {
+            return -1;
+        }
+
+        return content.array()[position++] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        checkClosed();
+
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (len == 0) {
+            return 0;
+        }
+
+        final int available = content.length() - position;
+
+        if (available <= 0) {
+            return -1;
+        }
+
+        final int count = Math.min(available, len);
+        System.arraycopy(content.array(), position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        checkClosed();
+
+        if (n <= 0) {
+            return 0;
+        }
+
+        final int skipped = (int) Math.min(n, Math.max(0, content.length() - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        checkClosed();
+        return Math.max(0, content.length() - position);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public void mark(final int readlimit) {
+        mark = position;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        checkClosed();
+        position = mark;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+
+        open = false;
+        content = JvfsFileContent.EMPTY;
+        entry.closed();
+    }
+
+    /**
+     * Checks if closed.
+     *
+     * @throws IOException if not open
+     */
+    private void checkClosed() throws IOException {
+        if (!open) {
+            throw new IOException("Stream closed!");
+        }
+    }
+
+}
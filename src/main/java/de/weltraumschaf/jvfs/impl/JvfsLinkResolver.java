@@ -0,0 +1,293 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsFileSystems;
+import java.nio.file.FileSystemException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resolves symbolic links in paths of a file system; thread-safe.
+ *
+ * Resolving walks the path component by component and replaces each symbolic link by its target. To spare deep
+ * lookups the walk over the same directories again and again, the resolved directory of a path is cached, keyed by
+ * the directory as given. The cache is bounded and must be {@link #invalidate() invalidated} whenever a change may
+ * resolve a cached directory differently: creating, deleting or moving entries which are or contain links.
+ *
+ * As long as the file system contains no symbolic link at all, paths are returned unchanged without any lookup.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsLinkResolver {
+
+    /**
+     * Maximum number of links followed while resolving one path.
+     */
+    static final int MAX_LINKS = 40;
+    /**
+     * Maximum number of cached directories.
+     */
+    static final int CACHE_SIZE = 1024;
+    /**
+     * Entries of the file system by absolute path.
+     */
+    private final Map<String, JvfsFileEntry> attic;
+    /**
+     * Number of symbolic links in the file system.
+     */
+    private final AtomicInteger links = new AtomicInteger();
+    /**
+     * Guards {@link #cache} and {@link #generation}.
+     */
+    private final Lock lock = new ReentrantLock();
+    /**
+     * Resolved directories by directory as given, in least recently used order.
+     */
+    private final Map<String, String> cache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    /**
+     * Incremented by each invalidation, so that walks racing with it don't cache stale results.
+     */
+    private long generation;
+
+    /**
+     * Dedicated constructor.
+     *
+     * @param attic must not be {@code null}
+     */
+    JvfsLinkResolver(final Map<String, JvfsFileEntry> attic) {
+        super();
+        assert null != attic : "attic must be defined";
+        this.attic = attic;
+    }
+
+    /**
+     * Registers a symbolic link added to the file system and drops all cached directories.
+     */
+    void linkAdded() {
+        links.incrementAndGet();
+        invalidate();
+    }
+
+    /**
+     * Unregisters a symbolic link removed from the file system and drops all cached directories.
+     */
+    void linkRemoved() {
+        links.decrementAndGet();
+        invalidate();
+    }
+
+    /**
+     * Drops all cached directories.
+     */
+    void invalidate() {
+        lock.lock();
+
+        try {
+            ++generation;
+            cache.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets all links; used if the file system is cleared.
+     */
+    void clear() {
+        links.set(0);
+        invalidate();
+    }
+
+    /**
+     * Get the number of cached directories.
+     *
+     * @return non negative
+     */
+    int getCacheSize() {
+        lock.lock();
+
+        try {
+            return cache.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Resolves all symbolic links in a path.
+     *
+     * The resulting path is absolute and contains neither links nor {@literal .} and {@literal ..}; it needs not
+     * exist. If the last component is not followed, a link there is kept.
+     *
+     * @param path must not be {@literal null} or empty
+     * @param followLast whether to follow a link in the last component
+     * @return never {@literal null}, path itself if the file system contains no links
+     * @throws FileSystemException if more than {@link #MAX_LINKS} links must be followed
+     */
+    String resolve(final String path, final boolean followLast) throws FileSystemException {
+        if (links.get() == 0) {
+            return path;
+        }
+
+        final int separator = path.lastIndexOf(JvfsFileSystems.DIR_SEP);
+        final String name = path.substring(separator + 1);
+        final String directory = resolveDirectory(separator > 0 ? path.substring(0, separator) : "");
+
+        if (name.isEmpty()) {
+            return directory;
+        }
+
+        final Deque<String> pending = new ArrayDeque<String>(1);
+        pending.add(name);
+        return walk(path, directory, pending, followLast);
+    }
+
+    /**
+     * Resolves a directory and caches the result.
+     *
+     * @param directory must not be {@literal null}, empty means root
+     * @return never {@literal null}
+     * @throws FileSystemException if more than {@link #MAX_LINKS} links must be followed
+     */
+    private String resolveDirectory(final String directory) throws FileSystemException {
+        if (directory.isEmpty()) {
+            return JvfsFileSystems.DIR_SEP;
+        }
+
+        final long expected;
+        lock.lock();
+
+        try {
+            final String cached = cache.get(directory);
+
+            if (null != cached) {
+                return cached;
+            }
+
+            expected = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        final String resolved = walk(
+            directory, JvfsFileSystems.DIR_SEP, new ArrayDeque<String>(JvfsPathUtil.tokenize(directory)), true);
+        lock.lock();
+
+        try {
+            if (generation == expected) {
+                cache.put(directory, resolved);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return resolved;
+    }
+
+    /**
+     * Walks names starting in a resolved directory, replacing each link by its target.
+     *
+     * @param path path being resolved, for error messages
+     * @param start resolved absolute directory to start in
+     * @param pending names to walk, consumed
+     * @param followLast whether to follow a link in the last name
+     * @return never {@literal null}
+     * @throws FileSystemException if more than {@link #MAX_LINKS} links must be followed
+     */
+    private String walk(final String path, final String start, final Deque<String> pending, final boolean followLast)
+        throws FileSystemException {
+        String current = start;
+        int followed = 0;
+
+        while (!pending.isEmpty()) {
+            final String name = pending.removeFirst();
+
+            if (JvfsPath.DIR_THIS.equals(name)) {
+                continue;
+            }
+
+            if (JvfsPath.DIR_UP.equals(name)) {
+                current = parent(current);
+                continue;
+            }
+
+            final String candidate = child(current, name);
+
+            if (pending.isEmpty() && !followLast) {
+                return candidate;
+            }
+
+            final JvfsFileEntry entry = attic.get(candidate);
+
+            if (null == entry || !entry.isSymbolicLink()) {
+                current = candidate;
+                continue;
+            }
+
+            if (++followed > MAX_LINKS) {
+                throw new FileSystemException(path, null, "Too many levels of symbolic links");
+            }
+
+            final String target = entry.getLinkTarget();
+            final List<String> names = JvfsPathUtil.tokenize(target);
+
+            for (int i = names.size() - 1; i >= 0; --i) {
+                pending.addFirst(names.get(i));
+            }
+
+            if (target.startsWith(JvfsFileSystems.DIR_SEP)) {
+                current = JvfsFileSystems.DIR_SEP;
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * Appends a name to a directory.
+     *
+     * @param directory must not be {@literal null} or empty
+     * @param name must not be {@literal null} or empty
+     * @return never {@literal null}
+     */
+    private static String child(final String directory, final String name) {
+        if (JvfsFileSystems.DIR_SEP.equals(directory)) {
+            return directory + name;
+        }
+
+        return directory + JvfsFileSystems.DIR_SEP + name;
+    }
+
+    /**
+     * Strips the last name of a directory; the parent of root is root.
+     *
+     * @param directory must not be {@literal null} or empty
+     * @return never {@literal null}
+     */
+    private static String parent(final String directory) {
+        final int separator = directory.lastIndexOf(JvfsFileSystems.DIR_SEP);
+        return separator > 0 ? directory.substring(0, separator) : JvfsFileSystems.DIR_SEP;
+    }
+
+}
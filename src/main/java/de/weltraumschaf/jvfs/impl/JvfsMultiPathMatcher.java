@@ -0,0 +1,162 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsAssertions;
+import de.weltraumschaf.jvfs.JvfsCollections;
+import de.weltraumschaf.jvfs.JvfsPathMatcherSet;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Implementation to match paths against many patterns at once.
+ *
+ * All globs are united into one {@link JvfsGlobSet automaton} and matched in a single pass. Regular expressions
+ * can't be united with it, as {@link java.util.regex.Pattern} gives no access to its automaton; they are matched one
+ * by one after the globs.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsMultiPathMatcher implements JvfsPathMatcherSet {
+
+    /**
+     * Syntax and pattern as given.
+     */
+    private final List<String> patterns;
+    /**
+     * United globs.
+     */
+    private final JvfsGlobSet globs;
+    /**
+     * Index of the pattern of each glob in {@link #globs}.
+     */
+    private final int[] globIndices;
+    /**
+     * Matchers for Regex syntax.
+     */
+    private final JvfsPathMatcher[] regexes;
+    /**
+     * Index of the pattern of each matcher in {@link #regexes}.
+     */
+    private final int[] regexIndices;
+
+    /**
+     * Dedicated constructor.
+     *
+     * Use {@link #newMatcher(java.util.List) factory method} to create matchers.
+     *
+     * @param patterns must not be {@code null}
+     * @param matchers must not be {@code null}, compiled patterns
+     */
+    private JvfsMultiPathMatcher(final List<String> patterns, final List<JvfsPathMatcher> matchers) {
+        super();
+        this.patterns = patterns;
+        final List<JvfsGlob> compiled = JvfsCollections.newList(matchers.size());
+        final List<Integer> globIndexList = JvfsCollections.newList(matchers.size());
+        final List<JvfsPathMatcher> regexList = JvfsCollections.newList();
+        final List<Integer> regexIndexList = JvfsCollections.newList();
+
+        for (int i = 0; i < matchers.size(); ++i) {
+            final JvfsPathMatcher matcher = matchers.get(i);
+
+            if (null == matcher.getGlob()) {
+                regexList.add(matcher);
+                regexIndexList.add(i);
+            } else {
+                compiled.add(matcher.getGlob());
+                globIndexList.add(i);
+            }
+        }
+
+        globs = JvfsGlobSet.compile(compiled);
+        globIndices = toArray(globIndexList);
+        regexes = regexList.toArray(new JvfsPathMatcher[regexList.size()]);
+        regexIndices = toArray(regexIndexList);
+    }
+
+    /**
+     * Converts a list of indices into an array.
+     *
+     * @param indices must not be {@code null}
+     * @return never {@code null}
+     */
+    private static int[] toArray(final List<Integer> indices) {
+        final int[] result = new int[indices.size()];
+
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = indices.get(i);
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates a new matcher.
+     *
+     * Each pattern has the syntax of {@link JvfsPathMatcher#newMatcher(java.lang.String)}.
+     *
+     * @param syntaxAndPatterns must not be {@code null}, patterns must not be {@code null} or empty
+     * @return never {@code null}
+     */
+    static JvfsMultiPathMatcher newMatcher(final List<String> syntaxAndPatterns) {
+        JvfsAssertions.notNull(syntaxAndPatterns, "syntaxAndPatterns");
+        final List<String> patterns = JvfsCollections.newList(syntaxAndPatterns);
+        final List<JvfsPathMatcher> matchers = JvfsCollections.newList(patterns.size());
+
+        for (final String syntaxAndPattern : patterns) {
+            matchers.add(JvfsPathMatcher.newMatcher(syntaxAndPattern));
+        }
+
+        return new JvfsMultiPathMatcher(patterns, matchers);
+    }
+
+    @Override
+    public int size() {
+        return patterns.size();
+    }
+
+    @Override
+    public String getPattern(final int index) {
+        return patterns.get(index);
+    }
+
+    @Override
+    public BitSet match(final Path path) {
+        JvfsAssertions.notNull(path, "path");
+        final BitSet matching = new BitSet(patterns.size());
+        final BitSet matchingGlobs = globs.match(path.toString());
+
+        for (int g = matchingGlobs.nextSetBit(0); g >= 0; g = matchingGlobs.nextSetBit(g + 1)) {
+            matching.set(globIndices[g]);
+        }
+
+        for (int r = 0; r < regexes.length; ++r) {
+            if (regexes[r].matches(path)) {
+                matching.set(regexIndices[r]);
+            }
+        }
+
+        return matching;
+    }
+
+    @Override
+    public boolean matches(final Path path) {
+        return !match(path).isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return patterns.toString();
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsOpenOption;
+import de.weltraumschaf.jvfs.JvfsPreallocation;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Open options folded into a bit mask.
+ *
+ * The options are scanned once per open; afterwards every check is a single bit test instead of a set lookup.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsOpenFlags {
+
+    /**
+     * {@link StandardOpenOption#READ}.
+     */
+    static final int READ = 1;
+    /**
+     * {@link StandardOpenOption#WRITE}.
+     */
+    static final int WRITE = 1 << 1;
+    /**
+     * {@link StandardOpenOption#APPEND}.
+     */
+    static final int APPEND = 1 << 2;
+    /**
+     * {@link StandardOpenOption#CREATE}.
+     */
+    static final int CREATE = 1 << 3;
+    /**
+     * {@link StandardOpenOption#CREATE_NEW}.
+     */
+    static final int CREATE_NEW = 1 << 4;
+    /**
+     * {@link StandardOpenOption#TRUNCATE_EXISTING}.
+     */
+    static final int TRUNCATE_EXISTING = 1 << 5;
+    /**
+     * {@link JvfsOpenOption#SEAL_ON_CLOSE}.
+     */
+    static final int SEAL_ON_CLOSE = 1 << 6;
+    /**
+     * {@link JvfsOpenOption#NON_BLOCKING}.
+     */
+    static final int NON_BLOCKING = 1 << 7;
+    /**
+     * Flags to open a file for reading only.
+     */
+    static final JvfsOpenFlags READ_ONLY = new JvfsOpenFlags(READ, -1L);
+    /**
+     * Set bits.
+     */
+    private final int bits;
+    /**
+     * Bytes to reserve by {@link JvfsPreallocation}, -1 if none.
+     */
+    private final long preallocation;
+
+    /**
+     * Dedicated constructor.
+     *
+     * @param bits any combination of the flag constants
+     * @param preallocation -1 or not negative
+     */
+    private JvfsOpenFlags(final int bits, final long preallocation) {
+        super();
+        this.bits = bits;
+        this.preallocation = preallocation;
+    }
+
+    /**
+     * Folds the given options into flags.
+     *
+     * Unknown options are ignored.
+     *
+     * @param options must not be {@code null}
+     * @return never {@code null}
+     */
+    static JvfsOpenFlags of(final Collection<? extends OpenOption> options) {
+        assert null != options : "options must be defined";
+        int bits = 0;
+        long preallocation = -1L;
+
+        for (final OpenOption option : options) {
+            if (option instanceof StandardOpenOption) {
+                bits |= bit((StandardOpenOption) option);
+            } else if (option instanceof JvfsOpenOption) {
+                bits |= bit((JvfsOpenOption) option);
+            } else if (option instanceof JvfsPreallocation) {
+                preallocation = ((JvfsPreallocation) option).getSize().value();
+            }
+        }
+
+        return new JvfsOpenFlags(bits, preallocation);
+    }
+
+    /**
+     * Maps a standard option to its flag.
+     *
+     * @param option must not be {@code null}
+     * @return 0 if the option has no flag
+     */
+    private static int bit(final StandardOpenOption option) {
+        switch (option) {
+            case READ:
+                return READ;
+            case WRITE:
+                return WRITE;
+            case APPEND:
+                return APPEND;
+            case CREATE:
+                return CREATE;
+            case CREATE_NEW:
+                return CREATE_NEW;
+            case TRUNCATE_EXISTING:
+                return TRUNCATE_EXISTING;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Maps a JVFS option to its flag.
+     *
+     * @param option must not be {@code null}
+     * @return 0 if the option has no flag
+     */
+    private static int bit(final JvfsOpenOption option) {
+        switch (option) {
+            case SEAL_ON_CLOSE:
+                return SEAL_ON_CLOSE;
+            case NON_BLOCKING:
+                return NON_BLOCKING;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Whether all given flags are set.
+     *
+     * @param flags any combination of the flag constants
+     * @return {@code true} if set, else {@code false}
+     */
+    boolean has(final int flags) {
+        return (bits & flags) == flags;
+    }
+
+    /**
+     * Whether any of the given flags is set.
+     *
+     * @param flags any combination of the flag constants
+     * @return {@code true} if at least one is set, else {@code false}
+     */
+    boolean hasAny(final int flags) {
+        return (bits & flags) != 0;
+    }
+
+    /**
+     * Get the number of bytes to reserve.
+     *
+     * @return -1 if nothing should be reserved, else non negative
+     */
+    long getPreallocation() {
+        return preallocation;
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.file.AccessDeniedException;
+
+/**
+ * Output stream which coalesces writes and publishes them to a file entry in batches.
+ *
+ * Small writes only fill an internal buffer. The buffer is published as a new {@link JvfsFileContent version} when
+ * it is full, on {@link #flush()} and on {@link #close()}, so readers see the written bytes not before that. Writes
+ * greater than the buffer are published directly. As most streams this one is not thread-safe.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsOutputStream extends OutputStream {
+
+    /**
+     * Size of the coalescing buffer in bytes.
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * Entry to publish to.
+     */
+    private final JvfsFileEntry entry;
+    /**
+     * Whether the batches are appended at the end of the file instead of written at {@link #position}.
+     */
+    private final boolean append;
+    /**
+     * Whether the entry is sealed when the stream is closed.
+     */
+    private final boolean sealOnClose;
+    /**
+     * Coalesces small writes.
+     */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    /**
+     * Number of bytes in {@link #buffer}.
+     */
+    private int count;
+    /**
+     * File position where the next batch is written if not in append mode.
+     */
+    private int position;
+    /**
+     * Whether the stream is open.
+     */
+    private boolean open = true;
+
+    /**
+     * Convenience constructor for a stream which does not seal the entry on close.
+     *
+     * @param entry must not be {@code null}
+     * @param append {@code true} to append every batch atomically at the end of the file
+     */
+    JvfsOutputStream(final JvfsFileEntry entry, final boolean append) {
+        this(entry, append, false);
+    }
+
+    /**
+     * Dedicated constructor.
+     *
+     * @param entry must not be {@code null}
+     * @param append {@code true} to append every batch atomically at the end of the file
+     * @param sealOnClose {@code true} to seal the entry on close
+     */
+    JvfsOutputStream(final JvfsFileEntry entry, final boolean append, final boolean sealOnClose) {
+        super();
+        assert null != entry : "entry must be defined";
+        this.entry = entry;
+        this.append = append;
+        this.sealOnClose = sealOnClose;
+        entry.opened();
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        checkClosed();
+
+        if (count == buffer.length) {
+            publish(buffer, 0, count);
+            count = 0;
+        }
+
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        checkClosed();
+
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (len >= buffer.length) {
+            // Not worth buffering: publish pending bytes and then the given ones.
+            flushBuffer();
+            publish(b, off, len);
+            return;
+        }
+
+        if (len > buffer.length - count) {
+            flushBuffer();
+        }
+
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        checkClosed();
+        flushBuffer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+
+        open = false;
+
+        try {
+            flushBuffer();
+        } finally {
+            entry.closed();
+        }
+
+        if (sealOnClose) {
+            entry.seal();
+        }
+    }
+
+    /**
+     * Publishes the buffered bytes, if any.
+     *
+     * @throws IOException if the entry is sealed
+     */
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            publish(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * Publishes bytes as new version of the entry.
+     *
+     * @param b must not be {@code null}
+     * @param off must not be negative
+     * @param len must not be negative
+     * @throws IOException if the entry is sealed
+     */
+    private void publish(final byte[] b, final int off, final int len) throws IOException {
+        final ByteBuffer source = ByteBuffer.wrap(b, off, len);
+
+        try {
+            if (append) {
+                entry.append(source);
+            } else {
+                entry.write(position, source);
+                position += len;
+            }
+        } catch (final NonWritableChannelException ex) {
+            throw new AccessDeniedException(entry.getPath(), null, "file is sealed");
+        }
+    }
+
+    /**
+     * Checks if closed.
+     *
+     * @throws IOException if not open
+     */
+    private void checkClosed() throws IOException {
+        if (!open) {
+            throw new IOException("Stream closed!");
+        }
+    }
+
+}
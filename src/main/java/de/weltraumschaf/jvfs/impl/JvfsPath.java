@@ -14,9 +14,13 @@
 import de.weltraumschaf.jvfs.JvfsObject;
 import de.weltraumschaf.jvfs.JvfsAssertions;
 import de.weltraumschaf.jvfs.JvfsFileSystems;
+import de.weltraumschaf.jvfs.JvfsReadRange;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.AccessMode;
@@ -24,6 +28,7 @@
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileStore;
 import java.nio.file.FileSystem;
+import java.nio.file.FileSystemException;
 import java.nio.file.LinkOption;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.OpenOption;
@@ -34,6 +39,7 @@
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -43,6 +49,13 @@
 /**
  * Represents a file's location in a file system.
  *
+ * The path is kept in a compact form without redundant separators, together with the offsets of its names. Both are
+ * computed once on construction, so names are accessed in constant time and derived paths like the parent or a
+ * subpath are cut out of the string without tokenizing it again.
+ *
+ * The hash code, the normalized form and the entry a path located last are computed on first use and kept, so that
+ * paths shared by {@link JvfsPathCache} pay for them only once.
+ *
  * @author Sven Strittmatter <weltraumschaf@googlemail.com>
  */
 class JvfsPath implements Path {
@@ -59,17 +72,45 @@ class JvfsPath implements Path {
      * The directory self.
      */
     static final String DIR_THIS = ".";
+    /**
+     * Directory separator as character.
+     */
+    private static final char SEP = '/';
+    /**
+     * Offsets of a path without names.
+     */
+    private static final int[] NO_NAMES = new int[0];
 
     /**
-     * Internal representation.
+     * Internal representation, without redundant separators.
      */
     private final String path;
 
+    /**
+     * Index of the first character of each name in {@link #path}.
+     */
+    private final int[] offsets;
+
     /**
      * Owning {@link JvfsFileSystem}.
      */
     private final JvfsFileSystem jvfs;
 
+    /**
+     * Hash code, 0 until computed.
+     */
+    private int hash;
+
+    /**
+     * Normalized form, {@literal null} until computed.
+     */
+    private volatile JvfsPath normalized;
+
+    /**
+     * Entry located by the last lookup, {@literal null} until looked up.
+     */
+    private volatile JvfsFileSystem.EntryHint hint;
+
     /**
      * Dedicated constructor.
      *
@@ -80,7 +121,8 @@ class JvfsPath implements Path {
         super();
         JvfsAssertions.notNull(path, "path");
         JvfsAssertions.notNull(fileSystem, "fileSystem");
-        this.path = path;
+        this.path = compact(path);
+        this.offsets = offsets(this.path);
         this.jvfs = fileSystem;
     }
 
@@ -95,6 +137,144 @@ class JvfsPath implements Path {
         this(DIR_SEP, fileSystem);
     }
 
+    /**
+     * Constructor for paths derived from other paths, which are already compact.
+     *
+     * @param path must not be {@literal null}, must be compact
+     * @param offsets must not be {@literal null}, must be the offsets of path
+     * @param fileSystem must not be {@literal null}
+     */
+    private JvfsPath(final String path, final int[] offsets, final JvfsFileSystem fileSystem) {
+        super();
+        assert path != null : "path must be defined";
+        assert offsets != null : "offsets must be defined";
+        this.path = path;
+        this.offsets = offsets;
+        this.jvfs = fileSystem;
+    }
+
+    /**
+     * Removes repeated and trailing separators.
+     *
+     * @param path must not be {@literal null}
+     * @return path itself if already compact, never {@literal null}
+     */
+    private static String compact(final String path) {
+        final int length = path.length();
+        int index = 0;
+
+        // Find the first redundant separator, most paths have none.
+        while (index < length) {
+            if (index > 0 && path.charAt(index) == SEP && (path.charAt(index - 1) == SEP || index == length - 1)) {
+                break;
+            }
+
+            ++index;
+        }
+
+        if (index == length) {
+            return path;
+        }
+
+        final StringBuilder buffer = new StringBuilder(length);
+        buffer.append(path, 0, index);
+        char previous = path.charAt(index - 1);
+
+        for (; index < length; ++index) {
+            final char current = path.charAt(index);
+
+            if (current != SEP || previous != SEP) {
+                buffer.append(current);
+            }
+
+            previous = current;
+        }
+
+        final int last = buffer.length() - 1;
+
+        if (last > 0 && buffer.charAt(last) == SEP) {
+            buffer.setLength(last);
+        }
+
+        return buffer.toString();
+    }
+
+    /**
+     * Computes the offsets of the names in a compact path.
+     *
+     * @param path must not be {@literal null}, must be compact
+     * @return never {@literal null}
+     */
+    private static int[] offsets(final String path) {
+        final int length = path.length();
+        int count = 0;
+
+        for (int i = 0; i < length; ++i) {
+            if (path.charAt(i) != SEP && (i == 0 || path.charAt(i - 1) == SEP)) {
+                ++count;
+            }
+        }
+
+        if (count == 0) {
+            return NO_NAMES;
+        }
+
+        final int[] result = new int[count];
+        int name = 0;
+
+        for (int i = 0; i < length; ++i) {
+            if (path.charAt(i) != SEP && (i == 0 || path.charAt(i - 1) == SEP)) {
+                result[name++] = i;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the index behind the last character of a name.
+     *
+     * @param index must be a valid name index
+     * @return index in {@link #path}
+     */
+    private int endOf(final int index) {
+        return index + 1 < offsets.length ? offsets[index + 1] - 1 : path.length();
+    }
+
+    /**
+     * Compares a name of this path with a name of another path without creating strings.
+     *
+     * @param index name index in this path
+     * @param other must not be {@literal null}
+     * @param otherIndex name index in other path
+     * @return {@literal true} if both names are equal, else {@literal false}
+     */
+    private boolean nameEquals(final int index, final JvfsPath other, final int otherIndex) {
+        final int begin = offsets[index];
+        final int length = endOf(index) - begin;
+        final int otherBegin = other.offsets[otherIndex];
+        return length == other.endOf(otherIndex) - otherBegin
+            && path.regionMatches(begin, other.path, otherBegin, length);
+    }
+
+    /**
+     * Creates the path consisting of the names from begin to end.
+     *
+     * @param beginIndex index of the first name
+     * @param endIndex index behind the last name
+     * @return never {@literal null}
+     */
+    private JvfsPath names(final int beginIndex, final int endIndex) {
+        final int base = offsets[beginIndex];
+        final int[] shifted = new int[endIndex - beginIndex];
+
+        for (int i = 0; i < shifted.length; ++i) {
+            shifted[i] = offsets[beginIndex + i] - base;
+        }
+
+        return new JvfsPath(path.substring(base, endOf(endIndex - 1)), shifted, jvfs);
+    }
+
     @Override
     public FileSystem getFileSystem() {
         return jvfs;
@@ -102,95 +282,47 @@ public FileSystem getFileSystem() {
 
     @Override
     public boolean isAbsolute() {
-        return this.path.startsWith(DIR_SEP);
+        return !path.isEmpty() && path.charAt(0) == SEP;
     }
 
     @Override
     public Path getRoot() {
-        return this.isAbsolute() ? new JvfsPath(jvfs) : null;
+        return this.isAbsolute() ? new JvfsPath(DIR_SEP, NO_NAMES, jvfs) : null;
     }
 
     @Override
     public Path getFileName() {
         // Root and empty String has no file name
-        if (path.isEmpty() || path.equals(DIR_SEP)) {
+        if (offsets.length == 0) {
             return null;
-        } else {
-            final List<String> tokens = tokenize(this);
-            return new JvfsPath(tokens.get(tokens.size() - 1), this.jvfs);
         }
+
+        if (offsets.length == 1 && !isAbsolute()) {
+            return this;
+        }
+
+        return names(offsets.length - 1, offsets.length);
     }
 
     @Override
     public Path getParent() {
-        final List<String> tokens = tokenize(this);
-        // No parent?
-        final int numTokens = tokens.size();
+        final int count = offsets.length;
 
-        if (numTokens == 0 || numTokens == 1 && !this.isAbsolute()) {
+        // No parent?
+        if (count == 0 || count == 1 && !this.isAbsolute()) {
             return null;
         }
 
-        // Iterate over all but the last token and build a new path
-        final StringBuffer sb = new StringBuffer();
-
-        if (this.isAbsolute()) {
-            sb.append(DIR_SEP);
-        }
-
-        for (int i = 0; i < numTokens - 1; i++) {
-            if (i >= 1) {
-                sb.append(DIR_SEP);
-            }
-            sb.append(tokens.get(i));
+        if (count == 1) {
+            return getRoot();
         }
 
-        final String parentPath = sb.toString();
-        return new JvfsPath(parentPath, jvfs);
+        return new JvfsPath(path.substring(0, offsets[count - 1] - 1), Arrays.copyOf(offsets, count - 1), jvfs);
     }
 
     @Override
     public int getNameCount() {
-        String context = this.path;
-
-        // Kill trailing slashes
-        if (context.endsWith(DIR_SEP)) {
-            context = context.substring(0, context.length() - 1);
-        }
-
-        // Kill preceding slashes
-        if (context.startsWith(DIR_SEP)) {
-            context = context.substring(1);
-        }
-
-        // Root
-        if (context.length() == 0) {
-            return 0;
-        }
-
-        // Else count names by using the separator
-        return this.countOccurrences(context, DIR_SEP, 0) + 1;
-    }
-
-    /**
-     * Returns the number of occurrences of the specified string in the specified {@link String}, starting at the
-     * specified offset.
-     *
-     * @param string must not be {@literal null}
-     * @param searchedFor must not be {@literal null}
-     * @param offset not negative
-     * @return non negative number
-     */
-    private int countOccurrences(final String string, final String searchedFor, int offset) {
-        assert string != null : "string must be specified";
-        assert searchedFor != null : "searchedFor must be specified";
-        assert offset >= 0 : "offset must not be negative";
-
-        if ((offset = string.indexOf(searchedFor, offset)) == -1) {
-            return 0;
-        } else {
-            return 1 + countOccurrences(string, searchedFor, offset + 1);
-        }
+        return offsets.length;
     }
 
     @Override
@@ -204,31 +336,19 @@ public Path subpath(int beginIndex, int endIndex) {
         JvfsAssertions.greaterThanEqual(beginIndex, 0, "beginIndex");
         JvfsAssertions.greaterThanEqual(endIndex, 0, "endIndex");
         JvfsAssertions.lessThan(beginIndex, endIndex, "beginIndex");
+        final int count = offsets.length;
 
-        final List<String> tokens = tokenize(this);
-        final int tokenCount = tokens.size();
-
-        if (beginIndex >= tokenCount) {
-            throw new IllegalArgumentException("Invalid begin index " + endIndex + " for " + this.toString()
-                    + "; must be between 0 and " + tokenCount + " exclusive");
+        if (beginIndex >= count) {
+            throw new IllegalArgumentException("Invalid begin index " + beginIndex + " for " + this.toString()
+                    + "; must be between 0 and " + count + " exclusive");
         }
 
-        if (endIndex > tokenCount) {
+        if (endIndex > count) {
             throw new IllegalArgumentException("Invalid end index " + endIndex + " for " + this.toString()
-                    + "; must be between 0 and " + tokenCount + " inclusive");
-        }
-
-        final StringBuilder buffer = new StringBuilder();
-
-        for (int i = beginIndex; i < endIndex; i++) {
-            if (i > beginIndex) {
-                buffer.append(DIR_SEP);
-            }
-
-            buffer.append(tokens.get(i));
+                    + "; must be between 0 and " + count + " inclusive");
         }
 
-        return this.fromString(buffer.toString());
+        return names(beginIndex, endIndex);
     }
 
     /**
@@ -250,23 +370,23 @@ public boolean startsWith(final Path other) {
             return false;
         }
 
-        final List<String> ourTokens = tokenize(this);
-        final List<String> otherTokens = tokenize((JvfsPath) other);
+        final JvfsPath that = (JvfsPath) other;
 
         // Inequal roots
-        if (other.isAbsolute() && !this.isAbsolute()) {
+        if (that.isAbsolute() && !this.isAbsolute()) {
             return false;
         }
 
         // More names in the other Path than we have
-        final int otherTokensSize = otherTokens.size();
-        if (otherTokensSize > ourTokens.size()) {
+        final int otherCount = that.offsets.length;
+
+        if (otherCount > offsets.length) {
             return false;
         }
 
         // Ensure each of the other name elements match ours
-        for (int i = 0; i < otherTokensSize; i++) {
-            if (!otherTokens.get(i).equals(ourTokens.get(i))) {
+        for (int i = 0; i < otherCount; i++) {
+            if (!nameEquals(i, that, i)) {
                 return false;
             }
         }
@@ -292,25 +412,25 @@ public boolean endsWith(final Path other) {
             return false;
         }
 
-        final List<String> ourTokens = tokenize(this);
-        final List<String> otherTokens = tokenize((JvfsPath) other);
+        final JvfsPath that = (JvfsPath) other;
 
         // Bigger than us, fails
-        final int numOtherTokens = otherTokens.size();
-        if (numOtherTokens > ourTokens.size()) {
+        final int otherCount = that.offsets.length;
+
+        if (otherCount > offsets.length) {
             return false;
         }
 
         // Difference in component size
-        final int differential = ourTokens.size() - numOtherTokens;
+        final int differential = offsets.length - otherCount;
         // Given an absolute? We must have the same number of elements.
-        if (other.isAbsolute() && differential != 0) {
+        if (that.isAbsolute() && differential != 0) {
             return false;
         }
 
         // Compare all components
-        for (int i = numOtherTokens - 1; i >= 0; i--) {
-            if (!ourTokens.get(i + differential).equals(otherTokens.get(i))) {
+        for (int i = otherCount - 1; i >= 0; i--) {
+            if (!nameEquals(i + differential, that, i)) {
                 // Any tokens don't match, punt
                 return false;
             }
@@ -328,8 +448,31 @@ public boolean endsWith(final String other) {
 
     @Override
     public Path normalize() {
-        final String normalizedString = JvfsPathUtil.normalize(tokenize(this), this.isAbsolute());
-        return new JvfsPath(normalizedString, this.jvfs);
+        JvfsPath result = normalized;
+
+        if (null == result) {
+            result = normalizeNames();
+            normalized = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes {@literal .} and resolves {@literal ..} by the {@link JvfsPathScanner}.
+     *
+     * @return this path if already normal, never {@literal null}
+     */
+    private JvfsPath normalizeNames() {
+        final String result = JvfsPathScanner.normalizeNames(path);
+
+        if (result == path) {
+            return this;
+        }
+
+        final JvfsPath normal = new JvfsPath(result, jvfs);
+        normal.normalized = normal;
+        return normal;
     }
 
     @Override
@@ -385,11 +528,42 @@ public Path relativize(final Path other) {
 
         // Equal paths, return empty Path
         if (this.equals(other)) {
-            return new JvfsPath("", this.jvfs);
+            return new JvfsPath("", NO_NAMES, this.jvfs);
         }
 
-        // Recursive relativization
-        return relativizeCommonRoot(this, this, other, other, 0);
+        final JvfsPath that = (JvfsPath) other;
+
+        if (isAbsolute() != that.isAbsolute()) {
+            throw new IllegalArgumentException("No common components");
+        }
+
+        // Length of the common prefix
+        final int limit = Math.min(offsets.length, that.offsets.length);
+        int common = 0;
+
+        while (common < limit && nameEquals(common, that, common)) {
+            ++common;
+        }
+
+        final StringBuilder sb = new StringBuilder();
+
+        for (int i = common; i < offsets.length; i++) {
+            if (sb.length() > 0) {
+                sb.append(SEP);
+            }
+
+            sb.append(DIR_UP);
+        }
+
+        if (common < that.offsets.length) {
+            if (sb.length() > 0) {
+                sb.append(SEP);
+            }
+
+            sb.append(that.path, that.offsets[common], that.path.length());
+        }
+
+        return new JvfsPath(sb.toString(), jvfs);
     }
 
     /**
@@ -443,8 +617,23 @@ public Path toAbsolutePath() {
 
     @Override
     public Path toRealPath(final LinkOption... options) throws IOException {
-        // TODO Implement real path.
-        throw new UnsupportedOperationException("Not supported yet.");
+        return new JvfsPath(jvfs.toRealPath(toAbsolutePath().toString(), followLinks(options)), jvfs);
+    }
+
+    /**
+     * Whether the given options allow to follow symbolic links.
+     *
+     * @param options must not be {@literal null}
+     * @return {@literal false} if {@link LinkOption#NOFOLLOW_LINKS} is given, else {@literal true}
+     */
+    static boolean followLinks(final LinkOption... options) {
+        for (final LinkOption option : options) {
+            if (option == LinkOption.NOFOLLOW_LINKS) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     @Override
@@ -462,12 +651,12 @@ public Iterator<Path> iterator() {
 
             @Override
             public boolean hasNext() {
-                return index < getNameCount();
+                return index < offsets.length;
             }
 
             @Override
             public Path next() {
-                if (index < getNameCount()) {
+                if (index < offsets.length) {
                     final Path result = getName(index);
                     index++;
                     return result;
@@ -496,88 +685,46 @@ public String toString() {
 
     @Override
     public int hashCode() {
-        return JvfsObject.hashCode(jvfs.hashCode(), path.hashCode());
-    }
+        int result = hash;
 
-    @Override
-    public boolean equals(final Object obj) {
-        if (!(obj instanceof JvfsPath)) {
-            return false;
+        if (result == 0) {
+            result = JvfsObject.hashCode(jvfs.hashCode(), path.hashCode());
+            hash = result;
         }
 
-        final JvfsPath other = (JvfsPath) obj;
-        return JvfsObject.equal(jvfs, other.jvfs) && JvfsObject.equal(path, other.path);
+        return result;
     }
 
     /**
-     * Returns the components of this path in order from root out.
+     * Get the entry located by the last lookup.
      *
-     * @param path must not be {@literal null}
-     * @return never {@literal null} may be empty collection
+     * @return {@literal null} until looked up
      */
-    static List<String> tokenize(final JvfsPath path) {
-        return JvfsPathUtil.tokenize(path.toString());
+    JvfsFileSystem.EntryHint getHint() {
+        return hint;
     }
 
     /**
-     * Relativizes the paths recursively.
+     * Remember the entry located by a lookup.
      *
-     * @param thisOriginal must not be {@literal null}
-     * @param thisCurrent must not be {@literal null}
-     * @param otherOriginal must not be {@literal null}
-     * @param otherCurrent must not be {@literal null}
-     * @param backupCount must not be negative
-     * @return never {@literal null}
+     * @param hint must not be {@literal null}
      */
-    private static JvfsPath relativizeCommonRoot(
-        final JvfsPath thisOriginal,
-        final Path thisCurrent,
-        final Path otherOriginal,
-        Path otherCurrent,
-        final int backupCount) {
-        // Preconditions
-        assert thisOriginal != null : "thisOriginal must be defined";
-        assert thisCurrent != null : "thisCurrent must be defined";
-        assert otherOriginal != null : "otherOriginal must be defined";
-        assert otherCurrent != null : "otherCurrent must be defined";
-        assert backupCount >= 0 : "backupCount must not be negative";
-
-        // Do we yet have a common root?
-        if (!otherCurrent.startsWith(thisCurrent)) {
-            // Back up until we do
-            final Path otherParent = otherCurrent.getParent();
-            final JvfsPath thisParent = (JvfsPath) thisCurrent.getParent();
-
-            if (otherParent != null && thisParent != null) {
-                return relativizeCommonRoot(thisOriginal, thisParent, otherOriginal, otherParent, backupCount + 1);
-            } else {
-                throw new IllegalArgumentException("No common components");
-            }
-        }
-
-        // Common root. Now relativize that.
-        final List<String> thisTokens = tokenize(thisOriginal);
-        final List<String> otherTokens = tokenize((JvfsPath) otherOriginal);
-        final int numOtherTokens = otherTokens.size();
-        final int numToTake = otherTokens.size() - thisTokens.size();
-        final StringBuilder sb = new StringBuilder();
+    void setHint(final JvfsFileSystem.EntryHint hint) {
+        this.hint = hint;
+    }
 
-        for (int i = 0; i < backupCount; i++) {
-            sb.append(DIR_UP);
-            sb.append(DIR_SEP);
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
         }
 
-        final int startCounter = numOtherTokens - numToTake - backupCount;
-        final int stopCounter = numOtherTokens - 1;
-
-        for (int i = startCounter; i <= stopCounter; i++) {
-            if (i > startCounter) {
-                sb.append(DIR_SEP);
-            }
-            sb.append(otherTokens.get(i));
+        if (!(obj instanceof JvfsPath)) {
+            return false;
         }
 
-        return new JvfsPath(sb.toString(), thisOriginal.jvfs);
+        final JvfsPath other = (JvfsPath) obj;
+        return JvfsObject.equal(jvfs, other.jvfs) && JvfsObject.equal(path, other.path);
     }
 
     /**
@@ -606,6 +753,110 @@ SeekableByteChannel newByteChannel(
         return jvfs.newByteChannel(path, options, attrs);
     }
 
+    /**
+     * Create new input stream.
+     *
+     * @param options options specifying how the file is opened
+     * @return never {@literal null}
+     * @throws IOException on any I/O error
+     */
+    InputStream newInputStream(final OpenOption... options) throws IOException {
+        return jvfs.newInputStream(path, options);
+    }
+
+    /**
+     * Create new output stream.
+     *
+     * @param options options specifying how the file is opened
+     * @return never {@literal null}
+     * @throws IOException on any I/O error
+     */
+    OutputStream newOutputStream(final OpenOption... options) throws IOException {
+        return jvfs.newOutputStream(path, options);
+    }
+
+    /**
+     * Makes the content of the file immutable.
+     *
+     * @throws IOException if path does not exist or is a directory
+     */
+    void seal() throws IOException {
+        jvfs.seal(path);
+    }
+
+    /**
+     * Reserves storage for the file.
+     *
+     * @param size must not be negative
+     * @throws IOException if path does not exist, or the store has not enough space left
+     */
+    void preallocate(final long size) throws IOException {
+        jvfs.preallocate(path, size);
+    }
+
+    /**
+     * Reads all bytes of the file.
+     *
+     * @return never {@literal null}
+     * @throws IOException if path does not exist
+     */
+    byte[] readAllBytes() throws IOException {
+        return jvfs.readAllBytes(path);
+    }
+
+    /**
+     * Replaces the whole content of the file.
+     *
+     * @param bytes must not be {@literal null}
+     * @param takeOwnership whether the array is handed over to the file system
+     * @throws IOException if path is a directory
+     */
+    void writeAllBytes(final byte[] bytes, final boolean takeOwnership) throws IOException {
+        jvfs.writeAllBytes(path, bytes, takeOwnership);
+    }
+
+    /**
+     * Copies several ranges of the file into their destination buffers.
+     *
+     * @param ranges must not be {@literal null}, each range must have a destination
+     * @return total number of bytes read
+     * @throws IOException if path does not exist or is a directory
+     */
+    long read(final List<JvfsReadRange> ranges) throws IOException {
+        return jvfs.read(path, ranges);
+    }
+
+    /**
+     * Exports several ranges of the file as read-only buffers.
+     *
+     * @param ranges must not be {@literal null}
+     * @return never {@literal null}
+     * @throws IOException if path does not exist or is a directory
+     */
+    List<ByteBuffer> slice(final List<JvfsReadRange> ranges) throws IOException {
+        return jvfs.slice(path, ranges);
+    }
+
+    /**
+     * Replaces the whole content of the file by the remaining bytes of a buffer.
+     *
+     * @param buffer must not be {@literal null}
+     * @throws IOException if path is a directory
+     */
+    void adopt(final ByteBuffer buffer) throws IOException {
+        jvfs.adopt(path, buffer);
+    }
+
+    /**
+     * Exports the current content of the file as read-only buffer.
+     *
+     * @return never {@literal null}
+     * @throws IOException if path does not exist or is a directory
+     */
+    ByteBuffer readOnlyView() throws IOException {
+        return jvfs.readOnlyView(path);
+    }
+
     /**
      * Create new directory channel.
      *
@@ -662,11 +913,61 @@ void move(final JvfsPath target, final CopyOption... options) throws IOException
     /**
      * Tests if two paths locate the same file.
      *
+     * Equal paths locate the same file without checking existence, paths of different file systems never do. Else
+     * both files must exist and are the same if they are hard links to each other.
+     *
      * @param other may be {@literal null}
-     * @return {@literal true} if {@link Object#equals(java.lang.Object) equal}, else {@literal false}
+     * @return {@literal true} if both paths locate the same file, else {@literal false}
+     * @throws IOException if any file does not exist
      */
-    boolean isSameFile(final Path other) {
-        return equals(other);
+    boolean isSameFile(final Path other) throws IOException {
+        if (equals(other)) {
+            return true;
+        }
+
+        if (!(other instanceof JvfsPath) || other.getFileSystem() != jvfs) {
+            return false;
+        }
+
+        return jvfs.isSameFile(path, other.toString());
+    }
+
+    /**
+     * Creates a symbolic link.
+     *
+     * @param target must not be {@literal null}
+     * @param attrs an optional list of file attributes to set atomically when creating the link
+     * @throws IOException if path already exists
+     */
+    void createSymbolicLink(final Path target, final FileAttribute<?>... attrs) throws IOException {
+        JvfsAssertions.notNull(target, "target");
+        jvfs.createSymbolicLink(path, target.toString(), attrs);
+    }
+
+    /**
+     * Reads the target of a symbolic link.
+     *
+     * @return never {@literal null}
+     * @throws IOException if path does not exist or is not a symbolic link
+     */
+    Path readSymbolicLink() throws IOException {
+        return new JvfsPath(jvfs.readSymbolicLink(path), jvfs);
+    }
+
+    /**
+     * Creates a hard link to an existing file.
+     *
+     * @param existing must not be {@literal null}
+     * @throws IOException if existing does not exist or is a directory, or this path already exists
+     */
+    void createLink(final JvfsPath existing) throws IOException {
+        JvfsAssertions.notNull(existing, "existing");
+
+        if (existing.jvfs != jvfs) {
+            throw new FileSystemException(path, existing.toString(), "Invalid cross-device link");
+        }
+
+        jvfs.createLink(path, existing.toString());
     }
 
     /**
@@ -695,7 +996,7 @@ FileStore getFileStore() {
      * @throws IOException if path does not exist
      */
     void checkAccess(final AccessMode... modes) throws IOException {
-        jvfs.checkAccess(path, modes);
+        jvfs.checkAccess(this, modes);
     }
 
     /**
@@ -718,7 +1019,18 @@ void setTimes(final FileTime mtime, final FileTime atime, final FileTime ctime)
      * @throws IOException if path does not exist
      */
     BasicFileAttributes getAttributes() throws IOException {
-        final JvfsFileAttributes attrs = jvfs.getFileAttributes(path);
+        return getAttributes(new LinkOption[0]);
+    }
+
+    /**
+     * Get all basic attributes.
+     *
+     * @param options {@link LinkOption#NOFOLLOW_LINKS} to get the attributes of a link instead of its target
+     * @return never {@literal null}
+     * @throws IOException if path does not exist
+     */
+    BasicFileAttributes getAttributes(final LinkOption... options) throws IOException {
+        final JvfsFileAttributes attrs = jvfs.getFileAttributes(this, followLinks(options));
 
         if (attrs == null) {
             throw new NoSuchFileException(path);
@@ -0,0 +1,86 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+/**
+ * Bounded cache of canonical {@link JvfsPath paths} by the string they were created from; thread-safe.
+ *
+ * Paths are immutable, so one instance per string can be shared by all callers. A shared instance keeps everything
+ * computed on it: the name offsets, the hash code, the normalized form and the entry it located last. Repeated lookups
+ * of the same path therefore skip validation and parsing, and as long as the hierarchy is unchanged also the lookup
+ * of the entry.
+ *
+ * Hits never lock. If the cache is full an arbitrary path is evicted for each new one, which is cheap and good enough
+ * for the typical working set of a few thousand hot paths.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsPathCache {
+
+    /**
+     * Default maximum number of cached paths.
+     */
+    static final int DEFAULT_CAPACITY = 4096;
+    /**
+     * Cached paths by string.
+     */
+    private final JvfsBoundedMap<String, JvfsPath> paths;
+
+    /**
+     * Dedicated constructor.
+     *
+     * @param capacity must not be negative, 0 disables the cache
+     */
+    JvfsPathCache(final int capacity) {
+        super();
+        assert capacity >= 0 : "capacity must not be negative";
+        this.paths = new JvfsBoundedMap<String, JvfsPath>(capacity);
+    }
+
+    /**
+     * Get the cached path for a string.
+     *
+     * @param key must not be {@literal null}
+     * @return {@literal null} if not cached
+     */
+    JvfsPath get(final String key) {
+        return paths.get(key);
+    }
+
+    /**
+     * Caches a path unless another thread cached one for the same string before.
+     *
+     * @param key must not be {@literal null}
+     * @param path must not be {@literal null}
+     * @return the path cached for the string, never {@literal null}
+     */
+    JvfsPath put(final String key, final JvfsPath path) {
+        return paths.putIfAbsent(key, path);
+    }
+
+    /**
+     * Get the number of cached paths.
+     *
+     * @return non negative
+     */
+    int size() {
+        return paths.size();
+    }
+
+    /**
+     * Drops all cached paths.
+     */
+    void clear() {
+        paths.clear();
+    }
+
+}
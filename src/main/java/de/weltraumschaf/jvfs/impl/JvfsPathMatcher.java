@@ -22,6 +22,11 @@
  *
  * Supported syntax is either the standard Unix glob or java Regex syntax.
  *
+ * Globs are translated to a regular expression, which defines their semantics and is available by
+ * {@link #getPattern()}, but they are matched by a {@link JvfsGlob compiled automaton}: it works on the path string
+ * directly without backtracking and rejects most paths by their literal suffix at once. Matchers are immutable, so
+ * {@link #newMatcher(java.lang.String)} caches them by syntax and pattern.
+ *
  * This class implements simple methods to scan glob syntax. Implementation is
  * copied from the Zip file example from Sun ({@code com.sun.nio.zipfs.ZipFileSystem}.
  *
@@ -51,9 +56,26 @@ final class JvfsPathMatcher implements PathMatcher {
      */
     private static final char EOL = 0;
     /**
-     * Ready to use compiled pattern.
+     * Maximum number of cached matchers.
+     */
+    static final int CACHE_SIZE = 256;
+    /**
+     * Compiled matchers by syntax and pattern.
+     */
+    private static final JvfsBoundedMap<String, JvfsPathMatcher> CACHE
+        = new JvfsBoundedMap<String, JvfsPathMatcher>(CACHE_SIZE);
+    /**
+     * Java Regex pattern.
+     */
+    private final String expr;
+    /**
+     * Compiled pattern, {@code null} for globs.
      */
     private final Pattern pattern;
+    /**
+     * Compiled glob, {@code null} for Regex syntax.
+     */
+    private final JvfsGlob glob;
 
     /**
      * Dedicated constructor.
@@ -61,15 +83,32 @@ final class JvfsPathMatcher implements PathMatcher {
      * Use {@link #newMatcher(java.lang.String) factory method} to create matchers.
      *
      * @param expr must not be {@code null} or empty
+     * @param glob {@code null} for Regex syntax
      */
-    private JvfsPathMatcher(final String expr) {
+    private JvfsPathMatcher(final String expr, final JvfsGlob glob) {
         super();
-        this.pattern = Pattern.compile(expr);
+        this.expr = expr;
+        this.glob = glob;
+        this.pattern = null == glob ? Pattern.compile(expr) : null;
     }
 
     @Override
     public boolean matches(final Path path) {
-        return pattern.matcher(path.toString()).matches();
+        return matches(path.toString());
+    }
+
+    /**
+     * Whether a path given as string matches.
+     *
+     * @param path must not be {@code null}
+     * @return {@code true} if matches, else {@code false}
+     */
+    boolean matches(final String path) {
+        if (null != glob) {
+            return glob.matches(path);
+        }
+
+        return pattern.matcher(path).matches();
     }
 
     /**
@@ -78,7 +117,40 @@ public boolean matches(final Path path) {
      * @return never {@code null}
      */
     String getPattern() {
-        return pattern.pattern();
+        return expr;
+    }
+
+    /**
+     * Get the compiled glob.
+     *
+     * @return {@code null} for Regex syntax
+     */
+    JvfsGlob getGlob() {
+        return glob;
+    }
+
+    /**
+     * Get the literal directory all matching paths are below.
+     *
+     * Together with the {@link JvfsGlob#advance(long[], java.lang.CharSequence, int) state} of the glob, which
+     * checks the names of each depth against the constraints of the glob, this allows walks to skip everything
+     * outside the region where matches may be.
+     *
+     * @return never {@code null}, empty for Regex syntax and globs not starting with a literal directory
+     */
+    String getDirectoryPrefix() {
+        if (null == glob) {
+            return "";
+        }
+
+        final String prefix = glob.getPrefix();
+        final int separator = prefix.lastIndexOf('/');
+
+        if (separator < 0) {
+            return "";
+        }
+
+        return separator == 0 ? "/" : prefix.substring(0, separator);
     }
 
     @Override
@@ -98,7 +170,7 @@ public boolean equals(final Object obj) {
 
     @Override
     public String toString() {
-        return pattern.toString();
+        return expr;
     }
 
     /**
@@ -112,6 +184,38 @@ public String toString() {
      */
     static JvfsPathMatcher newMatcher(final String syntaxAndPattern) {
         JvfsAssertions.notEmpty(syntaxAndPattern, "syntaxAndPattern");
+        final JvfsPathMatcher cached = CACHE.get(syntaxAndPattern);
+
+        if (null != cached) {
+            return cached;
+        }
+
+        return CACHE.putIfAbsent(syntaxAndPattern, compile(syntaxAndPattern));
+    }
+
+    /**
+     * Compiles a glob without caching it.
+     *
+     * For callers generating many globs which are used only once, so they don't flood the cache.
+     *
+     * @param globPattern must not be {@code null}
+     * @return never {@code null}
+     * @throws PatternSyntaxException if the glob is invalid
+     */
+    static JvfsGlob compileGlob(final String globPattern) {
+        JvfsAssertions.notNull(globPattern, "globPattern");
+        // Validates the glob.
+        toRegexPattern(globPattern);
+        return JvfsGlob.compile(globPattern);
+    }
+
+    /**
+     * Compiles a new matcher.
+     *
+     * @param syntaxAndPattern must not be {@code null} or empty
+     * @return never {@code null}
+     */
+    private static JvfsPathMatcher compile(final String syntaxAndPattern) {
         final int pos = syntaxAndPattern.indexOf(':');
 
         if (pos <= 0 || pos == syntaxAndPattern.length() - 1) {
@@ -121,10 +225,13 @@ static JvfsPathMatcher newMatcher(final String syntaxAndPattern) {
         final String syntax = syntaxAndPattern.substring(0, pos).trim();
         final String input = syntaxAndPattern.substring(pos + 1).trim();
         final String expr;
+        JvfsGlob glob = null;
 
         switch (syntax) {
             case GLOB_SYNTAX:
+                // Also validates the glob.
                 expr = toRegexPattern(input);
+                glob = JvfsGlob.compile(input);
                 break;
             case REGEX_SYNTAX:
                 expr = input;
@@ -134,7 +241,7 @@ static JvfsPathMatcher newMatcher(final String syntaxAndPattern) {
                         + "' not recognized");
         }
 
-        return new JvfsPathMatcher(expr);
+        return new JvfsPathMatcher(expr, glob);
     }
 
     /**
@@ -286,6 +393,11 @@ private static int handleClassStartCharacter(final StringBuilder regex, final St
                 position++;
             }
 
+            // Java Regex rejects empty classes
+            if (next(globPattern, position) == ']') {
+                throw new PatternSyntaxException("Empty class", globPattern, position);
+            }
+
             // hyphen allowed at start
             if (next(globPattern, position) == '-') {
                 regex.append('-');
@@ -0,0 +1,335 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsPathCharset;
+import java.nio.file.InvalidPathException;
+
+/**
+ * Validates and normalizes string paths in a single pass; immutable and thread-safe.
+ *
+ * ASCII characters are classified by a lookup table, all others by the rules of the {@link JvfsPathCharset}. The
+ * scanner works on the string itself without regular expressions or lists of names: paths which are already valid
+ * and normal, which is the common case, are returned as they are without allocating anything.
+ *
+ * It is the only place where paths are normalized: {@link JvfsPath#normalize()} uses it for paths which are already
+ * validated by their file system, so it skips the character checks.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsPathScanner {
+
+    /**
+     * Directory separator.
+     */
+    private static final char SEP = '/';
+    /**
+     * Scanners by ordinal of their charset.
+     */
+    private static final JvfsPathScanner[] SCANNERS;
+
+    static {
+        final JvfsPathCharset[] charsets = JvfsPathCharset.values();
+        SCANNERS = new JvfsPathScanner[charsets.length];
+
+        for (final JvfsPathCharset charset : charsets) {
+            SCANNERS[charset.ordinal()] = new JvfsPathScanner(charset);
+        }
+    }
+
+    /**
+     * Allowed characters in names by ASCII code.
+     */
+    private final boolean[] ascii = new boolean[128];
+    /**
+     * Rules for characters beyond ASCII.
+     */
+    private final JvfsPathCharset charset;
+
+    /**
+     * Use {@link #forCharset(de.weltraumschaf.jvfs.JvfsPathCharset)} to get an instance.
+     *
+     * @param charset must not be {@literal null}
+     */
+    private JvfsPathScanner(final JvfsPathCharset charset) {
+        super();
+        this.charset = charset;
+
+        for (char c = 0; c < ascii.length; ++c) {
+            if (charset == JvfsPathCharset.ANY) {
+                ascii[c] = !Character.isISOControl(c);
+            } else {
+                ascii[c] = c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+                    || c == '_' || c == '-' || c == '.';
+            }
+        }
+
+        ascii[SEP] = false;
+    }
+
+    /**
+     * Get the scanner for a charset.
+     *
+     * @param charset must not be {@literal null}
+     * @return never {@literal null}, same instance for same charset
+     */
+    static JvfsPathScanner forCharset(final JvfsPathCharset charset) {
+        return SCANNERS[charset.ordinal()];
+    }
+
+    /**
+     * Get the charset of the scanner.
+     *
+     * @return never {@literal null}
+     */
+    JvfsPathCharset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Finds the first character not allowed in a path.
+     *
+     * @param path must not be {@literal null}
+     * @return index of the character, -1 if the path is valid
+     */
+    int indexOfInvalid(final String path) {
+        final int length = path.length();
+        int index = 0;
+
+        while (index < length) {
+            final int count = accept(path, index);
+
+            if (count == 0) {
+                return index;
+            }
+
+            index += count;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Whether a path contains allowed characters only.
+     *
+     * @param path must not be {@literal null}
+     * @return {@literal true} if valid, else {@literal false}
+     */
+    boolean isValid(final String path) {
+        return indexOfInvalid(path) == -1;
+    }
+
+    /**
+     * Validates a path and normalizes it.
+     *
+     * The result has no repeated or trailing separators and no {@literal .} or {@literal ..} names.
+     *
+     * @param path must not be {@literal null}
+     * @return path itself if valid and normal, never {@literal null}
+     * @throws InvalidPathException if the path contains not allowed characters
+     * @throws IllegalArgumentException if {@literal ..} goes back past the root
+     */
+    String normalize(final String path) {
+        return normalize(path, true);
+    }
+
+    /**
+     * Normalizes a path without validating its characters.
+     *
+     * @param path must not be {@literal null}
+     * @return path itself if normal, never {@literal null}
+     * @throws IllegalArgumentException if {@literal ..} goes back past the root
+     */
+    static String normalizeNames(final String path) {
+        return SCANNERS[JvfsPathCharset.ANY.ordinal()].normalize(path, false);
+    }
+
+    /**
+     * Normalizes a path, optionally validating it.
+     *
+     * @param path must not be {@literal null}
+     * @param validate whether to check the characters
+     * @return path itself if normal, never {@literal null}
+     */
+    private String normalize(final String path, final boolean validate) {
+        final int length = path.length();
+        int index = 0;
+        int nameStart = 0;
+
+        // Scan as long as the path is normal.
+        while (index < length) {
+            final char c = path.charAt(index);
+
+            if (c == SEP) {
+                if (index > 0 && (index == nameStart || index == length - 1)) {
+                    break; // repeated or trailing separator
+                }
+
+                if (isDots(path, nameStart, index)) {
+                    break;
+                }
+
+                nameStart = ++index;
+                continue;
+            }
+
+            index += step(path, index, validate);
+        }
+
+        if (index == length && !isDots(path, nameStart, length)) {
+            return path;
+        }
+
+        return rewrite(path, validate);
+    }
+
+    /**
+     * Builds the normal form of a path which is not.
+     *
+     * @param path must not be {@literal null}
+     * @param validate whether to check the characters
+     * @return never {@literal null}
+     */
+    private String rewrite(final String path, final boolean validate) {
+        final int length = path.length();
+        final char[] result = new char[length];
+        // Length of the result before each kept name, used as stack.
+        final int[] marks = new int[length / 2 + 1];
+        int size = 0;
+        int depth = 0;
+        final boolean absolute = length > 0 && path.charAt(0) == SEP;
+
+        if (absolute) {
+            result[size++] = SEP;
+        }
+
+        int index = 0;
+
+        while (index < length) {
+            if (path.charAt(index) == SEP) {
+                ++index;
+                continue;
+            }
+
+            final int begin = index;
+
+            while (index < length && path.charAt(index) != SEP) {
+                index += step(path, index, validate);
+            }
+
+            final int nameLength = index - begin;
+
+            if (nameLength == 1 && path.charAt(begin) == '.') {
+                continue;
+            }
+
+            if (nameLength == 2 && path.charAt(begin) == '.' && path.charAt(begin + 1) == '.') {
+                if (depth == 0) {
+                    throw new IllegalArgumentException("Cannot specify to go back \"../\" past the root");
+                }
+
+                size = marks[--depth];
+                continue;
+            }
+
+            marks[depth++] = size;
+
+            if (size > (absolute ? 1 : 0)) {
+                result[size++] = SEP;
+            }
+
+            path.getChars(begin, index, result, size);
+            size += nameLength;
+        }
+
+        return new String(result, 0, size);
+    }
+
+    /**
+     * Steps over the character at an index of a name.
+     *
+     * @param path must not be {@literal null}
+     * @param index must be a valid index
+     * @param validate whether to check the character
+     * @return number of chars stepped over, never 0
+     * @throws InvalidPathException if validated and the character is not allowed
+     */
+    private int step(final String path, final int index, final boolean validate) {
+        if (!validate) {
+            return 1;
+        }
+
+        final int count = accept(path, index);
+
+        if (count == 0) {
+            throw new InvalidPathException(path, "Invalid character", index);
+        }
+
+        return count;
+    }
+
+    /**
+     * Whether a name is {@literal .} or {@literal ..}.
+     *
+     * @param path must not be {@literal null}
+     * @param begin index of the first character of the name
+     * @param end index behind the last character of the name
+     * @return {@literal true} if it is a dot name, else {@literal false}
+     */
+    private static boolean isDots(final String path, final int begin, final int end) {
+        final int length = end - begin;
+        return (length == 1 || length == 2) && path.charAt(begin) == '.' && path.charAt(end - 1) == '.';
+    }
+
+    /**
+     * Checks the character at an index of a name.
+     *
+     * @param path must not be {@literal null}
+     * @param index must be a valid index
+     * @return number of chars of the accepted character, 2 for surrogate pairs, 0 if not allowed
+     */
+    private int accept(final String path, final int index) {
+        final char c = path.charAt(index);
+
+        if (c < ascii.length) {
+            return ascii[c] || c == SEP ? 1 : 0;
+        }
+
+        switch (charset) {
+            case PORTABLE:
+                return 0;
+            case ANY:
+                return Character.isISOControl(c) ? 0 : 1;
+            default:
+                final int codePoint = path.codePointAt(index);
+                return isUnicodeNameCharacter(codePoint) ? Character.charCount(codePoint) : 0;
+        }
+    }
+
+    /**
+     * Whether a code point is a letter, digit or combining mark.
+     *
+     * @param codePoint any code point
+     * @return {@literal true} if allowed by {@link JvfsPathCharset#UNICODE}, else {@literal false}
+     */
+    private static boolean isUnicodeNameCharacter(final int codePoint) {
+        if (Character.isLetterOrDigit(codePoint)) {
+            return true;
+        }
+
+        final int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK
+            || type == Character.COMBINING_SPACING_MARK
+            || type == Character.ENCLOSING_MARK;
+    }
+
+}
@@ -13,8 +13,8 @@
 
 import de.weltraumschaf.jvfs.JvfsAssertions;
 import de.weltraumschaf.jvfs.JvfsCollections;
+import de.weltraumschaf.jvfs.JvfsPathCharset;
 import java.util.List;
-import java.util.StringTokenizer;
 
 /**
  * Helpers to deal with string paths.
@@ -39,60 +39,25 @@ private JvfsPathUtil() {
      */
     static List<String> tokenize(final String path) {
         JvfsAssertions.notNull(path, "path");
-        final StringTokenizer tokenizer = new StringTokenizer(path, JvfsPath.DIR_SEP);
         final List<String> tokens = JvfsCollections.newList();
+        final int length = path.length();
+        int begin = 0;
 
-        while (tokenizer.hasMoreTokens()) {
-            tokens.add(tokenizer.nextToken());
-        }
-
-        return tokens;
-    }
-
-    /**
-     * Normalizes the tokenized view of the path.
-     *
-     * @param tokens must not be {@literal null}
-     * @param absolute whether the tokenized path was absolute or not
-     * @return never {@literal null}
-     */
-    static String normalize(final List<String> tokens, boolean absolute) {
-        assert tokens != null : "path must be specified";
+        while (begin < length) {
+            int end = path.indexOf(JvfsPath.DIR_SEP, begin);
 
-        // Remove unnecessary references to this dir
-        if (tokens.contains(JvfsPath.DIR_THIS)) {
-            tokens.remove(JvfsPath.DIR_THIS);
-            normalize(tokens, absolute);
-        }
-
-        // Remove unnecessary references to the back dir, and its parent
-        final int indexDirBack = tokens.indexOf(JvfsPath.DIR_UP);
-
-        if (indexDirBack != -1) {
-            if (indexDirBack > 0) {
-                tokens.remove(indexDirBack);
-                tokens.remove(indexDirBack - 1);
-                normalize(tokens, absolute);
-            } else {
-                throw new IllegalArgumentException("Cannot specify to go back \"../\" past the root");
+            if (end == -1) {
+                end = length;
             }
-        }
-
-        // Nothing left to do; reconstruct
-        final StringBuilder sb = new StringBuilder();
 
-        if (absolute) {
-            sb.append(JvfsPath.DIR_SEP);
-        }
-
-        for (int i = 0; i < tokens.size(); i++) {
-            if (i > 0) {
-                sb.append(JvfsPath.DIR_SEP);
+            if (end > begin) {
+                tokens.add(path.substring(begin, end));
             }
-            sb.append(tokens.get(i));
+
+            begin = end + 1;
         }
 
-        return sb.toString();
+        return tokens;
     }
 
     /**
@@ -114,13 +79,13 @@ static boolean isValid(final String... paths) {
     }
 
     /**
-     * Validates a path for valid characters.
+     * Validates a path for valid characters of the {@link JvfsPathCharset#PORTABLE portable} charset.
      *
      * @param path must not be {@code null}
      * @return {@code true} if path is valid, else {@code false}
      */
     static boolean isValid(final String path) {
         JvfsAssertions.notNull(path, "path");
-        return path.matches("[\\w-_./]*"); // path is all word-characters plus - or . or _
+        return JvfsPathScanner.forCharset(JvfsPathCharset.PORTABLE).isValid(path);
     }
 }
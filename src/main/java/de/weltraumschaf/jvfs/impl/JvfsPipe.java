@@ -0,0 +1,446 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsPipeFile;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.attribute.FileAttribute;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Content of a {@link JvfsPipeFile named pipe}; thread-safe.
+ *
+ * The bytes are buffered in an array used as ring between the channels of producers and consumers. Both sides copy
+ * as many bytes as possible per lock round trip and a side is only signalled if it actually waits, so passing many
+ * small messages costs one uncontended lock per read or write.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsPipe implements JvfsSpecialFile {
+
+    /**
+     * Guards all fields.
+     */
+    private final Lock lock = new ReentrantLock();
+    /**
+     * Signalled when bytes were written or the last producer has gone.
+     */
+    private final Condition notEmpty = lock.newCondition();
+    /**
+     * Signalled when bytes were read or the last consumer has gone.
+     */
+    private final Condition notFull = lock.newCondition();
+    /**
+     * The ring.
+     */
+    private final byte[] data;
+    /**
+     * Index of the next byte to read.
+     */
+    private int head;
+    /**
+     * Number of buffered bytes.
+     */
+    private int size;
+    /**
+     * Number of open producer channels.
+     */
+    private int producers;
+    /**
+     * Number of open consumer channels.
+     */
+    private int consumers;
+    /**
+     * Whether bytes were ever written; until then an empty pipe is not at its end.
+     *
+     * Opening a producer is not sufficient, because creating the file opens and closes one.
+     */
+    private boolean written;
+    /**
+     * Whether a consumer was ever opened; until then writes never break.
+     */
+    private boolean consumerSeen;
+    /**
+     * Number of threads waiting in {@link #notEmpty}.
+     */
+    private int waitingConsumers;
+    /**
+     * Number of threads waiting in {@link #notFull}.
+     */
+    private int waitingProducers;
+
+    /**
+     * Dedicated constructor.
+     *
+     * @param capacity must be between 1 and {@link JvfsFileContent#MAX_ARRAY_SIZE}
+     */
+    JvfsPipe(final int capacity) {
+        super();
+        assert capacity > 0 && capacity <= JvfsFileContent.MAX_ARRAY_SIZE : "capacity must be between 1 and max";
+        this.data = new byte[capacity];
+    }
+
+    /**
+     * Finds the capacity of a pipe in the attributes to create a file with.
+     *
+     * @param attributes may be {@code null}
+     * @return the capacity, -1 if there is no {@link JvfsPipeFile} attribute
+     */
+    static long capacityOf(final FileAttribute<?>... attributes) {
+        if (attributes != null) {
+            for (final FileAttribute<?> attribute : attributes) {
+                if (attribute instanceof JvfsPipeFile) {
+                    return ((JvfsPipeFile) attribute).value().value();
+                }
+            }
+        }
+
+        return -1L;
+    }
+
+    @Override
+    public boolean isRegularFile() {
+        return false;
+    }
+
+    @Override
+    public long size() {
+        lock.lock();
+
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long allocatedSize() {
+        return data.length;
+    }
+
+    /**
+     * Creates an empty pipe with the same capacity; buffered bytes belong to the consumers of this pipe.
+     *
+     * @return never {@code null}
+     */
+    @Override
+    public JvfsSpecialFile copy() {
+        return new JvfsPipe(data.length);
+    }
+
+    @Override
+    public SeekableByteChannel newChannel(final JvfsFileEntry entry, final JvfsOpenFlags flags) {
+        final boolean producer = flags.hasAny(JvfsOpenFlags.WRITE | JvfsOpenFlags.APPEND);
+        lock.lock();
+
+        try {
+            if (producer) {
+                ++producers;
+            } else {
+                ++consumers;
+                consumerSeen = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return new Channel(entry, producer, flags.has(JvfsOpenFlags.NON_BLOCKING));
+    }
+
+    /**
+     * Moves bytes from the pipe into the destination.
+     *
+     * @param destination must not be {@code null}
+     * @param blocking whether to wait while the pipe is empty
+     * @return number of bytes read, -1 at the end of the stream
+     * @throws IOException if interrupted while waiting
+     */
+    private int read(final ByteBuffer destination, final boolean blocking) throws IOException {
+        if (!destination.hasRemaining()) {
+            return 0;
+        }
+
+        lock.lock();
+
+        try {
+            while (size == 0) {
+                if (written && producers == 0) {
+                    return -1;
+                }
+
+                if (!blocking) {
+                    return 0;
+                }
+
+                ++waitingConsumers;
+
+                try {
+                    notEmpty.await();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for data");
+                } finally {
+                    --waitingConsumers;
+                }
+            }
+
+            final int count = Math.min(size, destination.remaining());
+            final int first = Math.min(count, data.length - head);
+            destination.put(data, head, first);
+            destination.put(data, 0, count - first);
+            head = (head + count) % data.length;
+            size -= count;
+
+            if (waitingProducers > 0) {
+                notFull.signalAll();
+            }
+
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves bytes from the source into the pipe.
+     *
+     * @param source must not be {@code null}
+     * @param blocking whether to wait until all bytes are written
+     * @return number of bytes written
+     * @throws IOException if all consumers have gone or interrupted while waiting
+     */
+    private int write(final ByteBuffer source, final boolean blocking) throws IOException {
+        int total = 0;
+        lock.lock();
+
+        try {
+            while (source.hasRemaining()) {
+                if (consumerSeen && consumers == 0) {
+                    throw new IOException("Broken pipe");
+                }
+
+                if (size == data.length) {
+                    if (!blocking) {
+                        break;
+                    }
+
+                    ++waitingProducers;
+
+                    try {
+                        notFull.await();
+                    } catch (final InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting for space");
+                    } finally {
+                        --waitingProducers;
+                    }
+
+                    continue;
+                }
+
+                final int count = Math.min(data.length - size, source.remaining());
+                final int tail = (head + size) % data.length;
+                final int first = Math.min(count, data.length - tail);
+                source.get(data, tail, first);
+                source.get(data, 0, count - first);
+                size += count;
+                total += count;
+                written = true;
+
+                if (waitingConsumers > 0) {
+                    notEmpty.signalAll();
+                }
+            }
+
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Unregisters a closed channel and wakes up the other side if it has gone for good.
+     *
+     * @param producer whether the channel was a producer
+     */
+    private void release(final boolean producer) {
+        lock.lock();
+
+        try {
+            if (producer) {
+                if (--producers == 0) {
+                    notEmpty.signalAll();
+                }
+            } else {
+                if (--consumers == 0) {
+                    notFull.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Channel on one end of a pipe.
+     *
+     * The position is the number of bytes transferred through this channel; it can't be set.
+     */
+    private final class Channel implements SeekableByteChannel {
+
+        /**
+         * Associated file entry.
+         */
+        private final JvfsFileEntry entry;
+        /**
+         * Whether it is the writing end.
+         */
+        private final boolean producer;
+        /**
+         * Whether reads and writes wait.
+         */
+        private final boolean blocking;
+        /**
+         * Number of bytes transferred; only changed by the thread using the channel.
+         */
+        private volatile long position;
+        /**
+         * Whether or not this channel is open.
+         */
+        private volatile boolean open = true;
+
+        /**
+         * Dedicated constructor.
+         *
+         * @param entry must not be {@code null}
+         * @param producer whether it is the writing end
+         * @param nonBlocking whether reads and writes must not wait
+         */
+        Channel(final JvfsFileEntry entry, final boolean producer, final boolean nonBlocking) {
+            super();
+            assert null != entry : "entry must be defined";
+            this.entry = entry;
+            this.producer = producer;
+            this.blocking = !nonBlocking;
+            entry.opened();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            lock.lock();
+
+            try {
+                if (!open) {
+                    return;
+                }
+
+                open = false;
+            } finally {
+                lock.unlock();
+            }
+
+            release(producer);
+            entry.closed();
+        }
+
+        @Override
+        public int read(final ByteBuffer destination) throws IOException {
+            checkClosed();
+
+            if (destination == null) {
+                throw new IllegalArgumentException("Destination buffer must be supplied");
+            }
+
+            if (producer) {
+                throw new NonReadableChannelException();
+            }
+
+            final int count = JvfsPipe.this.read(destination, blocking);
+
+            if (count > 0) {
+                position += count;
+            }
+
+            return count;
+        }
+
+        @Override
+        public int write(final ByteBuffer source) throws IOException {
+            checkClosed();
+
+            if (source == null) {
+                throw new IllegalArgumentException("Source buffer must be supplied");
+            }
+
+            if (!producer) {
+                throw new NonWritableChannelException();
+            }
+
+            final int count = JvfsPipe.this.write(source, blocking);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public long position() throws IOException {
+            return position;
+        }
+
+        @Override
+        public SeekableByteChannel position(final long newPosition) throws IOException {
+            throw new UnsupportedOperationException("Pipes are not seekable!");
+        }
+
+        @Override
+        public long size() throws IOException {
+            return JvfsPipe.this.size();
+        }
+
+        /**
+         * Does nothing, as truncating a pipe has no meaning.
+         *
+         * @param size ignored
+         * @return this channel
+         */
+        @Override
+        public SeekableByteChannel truncate(final long size) throws IOException {
+            checkClosed();
+            return this;
+        }
+
+        /**
+         * Checks if closed.
+         *
+         * @throws ClosedChannelException if not open
+         */
+        private void checkClosed() throws ClosedChannelException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+        }
+    }
+
+}
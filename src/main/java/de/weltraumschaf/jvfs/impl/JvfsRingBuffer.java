@@ -0,0 +1,457 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsCircularFile;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.attribute.FileAttribute;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Content of a {@link JvfsCircularFile circular file}; thread-safe.
+ *
+ * The bytes are held in an array used as ring: {@link #head} is the index of the oldest byte, which is position 0 of
+ * the file. Appending behind a full ring overwrites the oldest bytes and moves the head, so appending only copies the
+ * appended bytes. The array grows by doubling up to the capacity; as long as it is smaller than the capacity the ring
+ * never wrapped and the head is always 0.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+final class JvfsRingBuffer implements JvfsSpecialFile {
+
+    /**
+     * Initial array size if the capacity is greater.
+     */
+    private static final int INITIAL_SIZE = 256;
+    /**
+     * Guards all fields.
+     */
+    private final Lock lock = new ReentrantLock();
+    /**
+     * Maximum number of bytes held.
+     */
+    private final int capacity;
+    /**
+     * The ring; never greater than {@link #capacity}.
+     */
+    private byte[] data;
+    /**
+     * Index of the oldest byte.
+     */
+    private int head;
+    /**
+     * Number of bytes held.
+     */
+    private int size;
+
+    /**
+     * Dedicated constructor.
+     *
+     * @param capacity must be between 1 and {@link JvfsFileContent#MAX_ARRAY_SIZE}
+     */
+    JvfsRingBuffer(final int capacity) {
+        super();
+        assert capacity > 0 && capacity <= JvfsFileContent.MAX_ARRAY_SIZE : "capacity must be between 1 and max";
+        this.capacity = capacity;
+        this.data = new byte[Math.min(capacity, INITIAL_SIZE)];
+    }
+
+    /**
+     * Finds the capacity of a circular file in the attributes to create a file with.
+     *
+     * @param attributes may be {@code null}
+     * @return the capacity, -1 if there is no {@link JvfsCircularFile} attribute
+     */
+    static long capacityOf(final FileAttribute<?>... attributes) {
+        if (attributes != null) {
+            for (final FileAttribute<?> attribute : attributes) {
+                if (attribute instanceof JvfsCircularFile) {
+                    return ((JvfsCircularFile) attribute).value().value();
+                }
+            }
+        }
+
+        return -1L;
+    }
+
+    /**
+     * Get the maximum number of bytes held.
+     *
+     * @return greater than 0
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public boolean isRegularFile() {
+        return true;
+    }
+
+    @Override
+    public long size() {
+        lock.lock();
+
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long allocatedSize() {
+        lock.lock();
+
+        try {
+            return data.length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public JvfsSpecialFile copy() {
+        lock.lock();
+
+        try {
+            final JvfsRingBuffer copy = new JvfsRingBuffer(capacity);
+            copy.append(ByteBuffer.wrap(toByteArray()));
+            return copy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public SeekableByteChannel newChannel(final JvfsFileEntry entry, final JvfsOpenFlags flags) {
+        return new Channel(entry, flags);
+    }
+
+    /**
+     * Appends the remaining bytes of the source, overwriting the oldest bytes if the ring is full.
+     *
+     * If the source holds more bytes than the capacity only its last bytes are copied.
+     *
+     * @param source must not be {@code null}
+     * @return number of bytes consumed from source
+     */
+    int append(final ByteBuffer source) {
+        assert null != source : "source must be defined";
+        final int count = source.remaining();
+
+        if (count == 0) {
+            return 0;
+        }
+
+        lock.lock();
+
+        try {
+            if (count >= capacity) {
+                // Nothing held survives, neither do the first bytes of the source.
+                grow(capacity);
+                source.position(source.position() + count - capacity);
+                source.get(data, 0, capacity);
+                head = 0;
+                size = capacity;
+                return count;
+            }
+
+            grow(Math.min(capacity, size + count));
+            final int tail = (head + size) % data.length;
+            final int first = Math.min(count, data.length - tail);
+            source.get(data, tail, first);
+            source.get(data, 0, count - first);
+            final int overwritten = size + count - data.length;
+
+            if (overwritten > 0) {
+                head = (head + overwritten) % data.length;
+                size = data.length;
+            } else {
+                size += count;
+            }
+
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads bytes beginning at the given position into the destination buffer.
+     *
+     * @param position position relative to the oldest byte, must not be negative
+     * @param destination must not be {@code null}
+     * @return number of bytes read, -1 if position is at or behind the end
+     */
+    int read(final long position, final ByteBuffer destination) {
+        assert position >= 0 : "position must not be negative";
+        assert null != destination : "destination must be defined";
+        lock.lock();
+
+        try {
+            if (position >= size) {
+                return -1;
+            }
+
+            final int count = (int) Math.min(size - position, destination.remaining());
+            final int start = (int) ((head + position) % data.length);
+            final int first = Math.min(count, data.length - start);
+            destination.put(data, start, first);
+            destination.put(data, 0, count - first);
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Discards the newest bytes so that at most the given number of bytes is held.
+     *
+     * @param newSize must not be negative
+     */
+    void truncate(final long newSize) {
+        assert newSize >= 0 : "newSize must not be negative";
+        lock.lock();
+
+        try {
+            if (newSize < size) {
+                size = (int) newSize;
+            }
+
+            if (size == 0) {
+                head = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copies the bytes held, oldest first.
+     *
+     * @return never {@code null}
+     */
+    byte[] toByteArray() {
+        lock.lock();
+
+        try {
+            final byte[] copy = new byte[size];
+            read(0, ByteBuffer.wrap(copy));
+            return copy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Grows the array to hold at least the given number of bytes; must be called under {@link #lock}.
+     *
+     * @param minSize must not be greater than {@link #capacity}
+     */
+    private void grow(final int minSize) {
+        if (data.length >= minSize) {
+            return;
+        }
+
+        assert head == 0 : "ring must not have wrapped";
+        final int doubled = data.length << 1;
+        final int newSize = doubled < 0 || doubled > capacity ? capacity : Math.max(minSize, doubled);
+        final byte[] copy = new byte[newSize];
+        System.arraycopy(data, 0, copy, 0, size);
+        data = copy;
+    }
+
+    /**
+     * Channel on a ring buffer.
+     *
+     * All writes are appended regardless of the position. The position is relative to the oldest byte, so it
+     * refers to other bytes after appends overwrote the oldest ones.
+     */
+    private final class Channel implements SeekableByteChannel {
+
+        /**
+         * Associated file entry.
+         */
+        private final JvfsFileEntry entry;
+        /**
+         * Whether the entry is sealed when the channel is closed.
+         */
+        private final boolean sealOnClose;
+        /**
+         * Current position; guarded by the lock of the ring.
+         */
+        private long position;
+        /**
+         * Whether or not this channel is open.
+         */
+        private volatile boolean open = true;
+
+        /**
+         * Dedicated constructor.
+         *
+         * @param entry must not be {@code null}
+         * @param flags must not be {@code null}
+         */
+        Channel(final JvfsFileEntry entry, final JvfsOpenFlags flags) {
+            super();
+            assert null != entry : "entry must be defined";
+            this.entry = entry;
+            this.sealOnClose = flags.has(JvfsOpenFlags.SEAL_ON_CLOSE);
+            entry.opened();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            lock.lock();
+
+            try {
+                if (!open) {
+                    return;
+                }
+
+                open = false;
+            } finally {
+                lock.unlock();
+            }
+
+            entry.closed();
+
+            if (sealOnClose) {
+                entry.seal();
+            }
+        }
+
+        @Override
+        public int read(final ByteBuffer destination) throws IOException {
+            checkClosed();
+
+            if (destination == null) {
+                throw new IllegalArgumentException("Destination buffer must be supplied");
+            }
+
+            lock.lock();
+
+            try {
+                final int count = JvfsRingBuffer.this.read(position, destination);
+
+                if (count > 0) {
+                    position += count;
+                }
+
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int write(final ByteBuffer source) throws IOException {
+            checkClosed();
+
+            if (source == null) {
+                throw new IllegalArgumentException("Source buffer must be supplied");
+            }
+
+            if (entry.isSealed()) {
+                throw new NonWritableChannelException();
+            }
+
+            lock.lock();
+
+            try {
+                final int count = append(source);
+                position = size;
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public long position() throws IOException {
+            lock.lock();
+
+            try {
+                return position;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public SeekableByteChannel position(final long newPosition) throws IOException {
+            if (newPosition < 0) {
+                throw new IllegalArgumentException("Position must not be negative");
+            }
+
+            lock.lock();
+
+            try {
+                position = newPosition;
+            } finally {
+                lock.unlock();
+            }
+
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return JvfsRingBuffer.this.size();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(final long newSize) throws IOException {
+            if (newSize < 0) {
+                throw new IllegalArgumentException("Size must not be negative");
+            }
+
+            if (entry.isSealed()) {
+                throw new NonWritableChannelException();
+            }
+
+            lock.lock();
+
+            try {
+                JvfsRingBuffer.this.truncate(newSize);
+                position = Math.min(position, newSize);
+            } finally {
+                lock.unlock();
+            }
+
+            return this;
+        }
+
+        /**
+         * Checks if closed.
+         *
+         * @throws ClosedChannelException if not open
+         */
+        private void checkClosed() throws ClosedChannelException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+        }
+    }
+
+}
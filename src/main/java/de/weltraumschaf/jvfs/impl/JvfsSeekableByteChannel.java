@@ -21,10 +21,26 @@
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
 import java.nio.channels.SeekableByteChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * {@link SeekableByteChannel} implementation backed by an auto-resizing byte array; thread-safe.
+ * {@link SeekableByteChannel} implementation backed by the versioned content of a file entry; thread-safe.
+ *
+ * The channel pins the {@link JvfsFileContent version} which was current when it was opened. Reads are served from
+ * that version without taking the lock of the entry, so readers never block writers nor see partial writes. Writes
+ * are applied to the current version of the entry under its write lock and published as a new version, which then
+ * becomes the pinned version of the writing channel.
+ *
+ * If the entry was {@link JvfsFileEntry#seal() sealed} when the channel was opened, the pinned version is final and
+ * reads only update the position atomically without taking any lock. Writes to a sealed entry are rejected with
+ * {@link NonWritableChannelException}.
+ *
+ * State of the channel is guarded by a {@link ReentrantLock} instead of the monitor of the channel, so that callers on
+ * virtual threads are parked instead of pinning their carrier thread while they wait.
  *
  * Can hold a maxiumum of {@link Integer#MAX_VALUE} bytes.
  *
@@ -33,9 +49,13 @@
 class JvfsSeekableByteChannel implements SeekableByteChannel {
 
     /**
-     * Current position; guarded by "this".
+     * Guards compound updates of {@link #position} and {@link #contents}.
+     */
+    private final Lock lock = new ReentrantLock();
+    /**
+     * Current position; compound updates are guarded by {@link #lock}, except reads of a sealed entry.
      */
-    private int position;
+    private final AtomicInteger position = new AtomicInteger();
 
     /**
      * Whether or not this {@link SeekableByteChannel} is open; volatile instead of sync is acceptable because this
@@ -44,30 +64,68 @@ class JvfsSeekableByteChannel implements SeekableByteChannel {
     private volatile boolean open;
 
     /**
-     * Internal buffer for contents; guarded by "this".
+     * Pinned version of the contents; changed only under {@link #lock}.
+     *
+     * Released on {@link #close()} so that superseded versions can be reclaimed.
      */
-    private byte[] contents;
+    private volatile JvfsFileContent contents;
     /**
      * Associated file entry.
      */
     private final JvfsFileEntry entry;
+    /**
+     * Whether all writes go to the end of the file regardless of the position.
+     */
+    private final boolean append;
+    /**
+     * Whether the entry was sealed when the channel was opened.
+     */
+    private final boolean sealed;
+    /**
+     * Whether the entry is sealed when the channel is closed.
+     */
+    private final boolean sealOnClose;
 
     /**
-     * Dedicated constructor.
+     * Convenience constructor for a channel which writes at its position.
      *
      * @param entry must not be {@code null}
      */
     JvfsSeekableByteChannel(final JvfsFileEntry entry) {
+        this(entry, false);
+    }
+
+    /**
+     * Convenience constructor for a channel which does not seal the entry on close.
+     *
+     * @param entry must not be {@code null}
+     * @param append {@code true} for append mode
+     */
+    JvfsSeekableByteChannel(final JvfsFileEntry entry, final boolean append) {
+        this(entry, append, false);
+    }
+
+    /**
+     * Dedicated constructor.
+     *
+     * In append mode every write atomically reserves its range at the end of the file, as with
+     * {@link java.nio.file.StandardOpenOption#APPEND}. The position is moved behind the written bytes.
+     *
+     * @param entry must not be {@code null}
+     * @param append {@code true} for append mode
+     * @param sealOnClose {@code true} to seal the entry on close
+     */
+    JvfsSeekableByteChannel(final JvfsFileEntry entry, final boolean append, final boolean sealOnClose) {
         super();
         assert null != entry : "entry must be defined";
         this.open = true;
-
-        // Set fields
-        synchronized (this) {
-            this.position = 0;
-            this.contents = entry.getContent();
-            this.entry = entry;
-        }
+        this.append = append;
+        this.sealOnClose = sealOnClose;
+        this.sealed = entry.isSealed();
+        this.contents = entry.getContentVersion();
+        this.position.set(append ? this.contents.length() : 0);
+        this.entry = entry;
+        entry.opened();
     }
 
     @Override
@@ -77,7 +135,26 @@ public boolean isOpen() {
 
     @Override
     public void close() throws IOException {
-        this.open = false;
+        final boolean wasOpen;
+        lock.lock();
+
+        try {
+            wasOpen = this.open;
+            this.open = false;
+            this.contents = JvfsFileContent.EMPTY;
+        } finally {
+            lock.unlock();
+        }
+
+        if (!wasOpen) {
+            return;
+        }
+
+        entry.closed();
+
+        if (sealOnClose) {
+            entry.seal();
+        }
     }
 
     @Override
@@ -88,34 +165,54 @@ public int read(final ByteBuffer destination) throws IOException {
             throw new IllegalArgumentException("Destination buffer must be supplied");
         }
 
-        // Init
-        final int spaceInBuffer = destination.remaining();
-        final int numBytesRemainingInContent;
-        final int numBytesToRead;
+        if (sealed) {
+            return readSealed(destination);
+        }
+
+        // Lock before getting at shared mutable state; the pinned version itself never changes.
+        lock.lock();
 
-        // Sync up before getting at shared mutable state
-        synchronized (this) {
-            entry.beginRead();
-            numBytesRemainingInContent = this.contents.length - this.position;
+        try {
+            final int numBytesRead = this.contents.read(this.position.get(), destination);
 
             // Set position was greater than the size? Just return.
-            if (numBytesRemainingInContent <= 0) {
+            if (numBytesRead < 0) {
                 return -1;
             }
 
-            // We'll read in either the number of bytes remaining in content or the amount of space in the buffer,
-            // whichever is smaller
-            numBytesToRead = numBytesRemainingInContent >= spaceInBuffer ? spaceInBuffer : numBytesRemainingInContent;
-            // Copy a sub-array of the bytes we'll put into the buffer
-            destination.put(this.contents, this.position, numBytesToRead);
-
             // Set the new position
-            this.position += numBytesToRead;
-            entry.endRead();
+            this.position.addAndGet(numBytesRead);
+            return numBytesRead;
+        } finally {
+            lock.unlock();
         }
+    }
+
+    /**
+     * Reads from the pinned version of a sealed entry without locking.
+     *
+     * The version never changes, so it is sufficient to claim the range to read by moving the position atomically.
+     *
+     * @param destination must not be {@code null}
+     * @return number of bytes read, -1 if the position is at or behind the end
+     */
+    private int readSealed(final ByteBuffer destination) {
+        final JvfsFileContent version = this.contents;
+
+        while (true) {
+            final int current = this.position.get();
+            final int available = version.length() - current;
+
+            if (available <= 0) {
+                return -1;
+            }
+
+            final int count = Math.min(available, destination.remaining());
 
-        // Return the number of bytes read
-        return numBytesToRead;
+            if (this.position.compareAndSet(current, current + count)) {
+                return count == 0 ? 0 : version.read(current, destination);
+            }
+        }
     }
 
     @Override
@@ -126,55 +223,35 @@ public int write(final ByteBuffer source) throws IOException {
             throw new IllegalArgumentException("Source buffer must be supplied");
         }
 
-        // Put the bytes to be written into a byte[]
+        this.checkNotSealed();
+
         final int totalBytes = source.remaining();
-        final byte[] readContents = new byte[totalBytes];
-        source.get(readContents);
-
-        // Sync up, we're gonna access shared mutable state.
-        synchronized (this) {
-            entry.beginWrite();
-            // Append the read contents to our internal contents.
-            this.contents = this.concat(this.contents, readContents, this.position);
-            // Increment the position of this channel.
-            this.position += totalBytes;
-            entry.setContent(contents);
-            entry.endWrite();
+
+        // Lock, we're gonna access shared mutable state.
+        lock.lock();
+
+        try {
+            if (append) {
+                // The range is reserved at the end of the latest version, not at our position.
+                this.contents = entry.append(source);
+                this.position.set(this.contents.length());
+            } else {
+                // Apply the bytes to the latest version and publish the result.
+                this.contents = entry.write(this.position.get(), source);
+                // Increment the position of this channel.
+                this.position.addAndGet(totalBytes);
+            }
+        } finally {
+            lock.unlock();
         }
 
         // Return the number of bytes read.
         return totalBytes;
     }
 
-    /**
-     * Creates a new array which is the concatenated result of the two inputs, at the designated position (to be filled
-     * with 0x00) in the case of a gap).
-     *
-     * @param input1 must not be null
-     * @param input2 must not be null
-     * @param pos non negative number
-     * @return never null
-     */
-    private byte[] concat(final byte[] input1, final byte[] input2, final int pos) {
-        // Preconition checks
-        assert input1 != null : "Input 1 must be specified";
-        assert input2 != null : "Input 2 must be specified";
-        assert pos >= 0 : "Position must be 0 or higher";
-        // Allocate a new array of enough space (either current size or position + input2.length, whichever is greater)
-        final int newSize = pos < input1.length ? input1.length + input2.length : pos + input2.length;
-        final byte[] merged = new byte[newSize];
-        // Copy in the contents of input 1 with 0 offset
-        System.arraycopy(input1, 0, merged, 0, input1.length);
-        // Copy in the contents of input2 with offset the length of input 1
-        System.arraycopy(input2, 0, merged, pos, input2.length);
-        return merged;
-    }
-
     @Override
     public long position() throws IOException {
-        synchronized (this) {
-            return this.position;
-        }
+        return this.position.get();
     }
 
     @Override
@@ -184,8 +261,12 @@ public SeekableByteChannel position(final long newPosition) throws IOException {
             throw new IllegalArgumentException("Valid position for this channel is between 0 and " + Integer.MAX_VALUE);
         }
 
-        synchronized (this) {
-            this.position = (int) newPosition;
+        lock.lock();
+
+        try {
+            this.position.set((int) newPosition);
+        } finally {
+            lock.unlock();
         }
 
         return this;
@@ -193,9 +274,7 @@ public SeekableByteChannel position(final long newPosition) throws IOException {
 
     @Override
     public long size() throws IOException {
-        synchronized (this) {
-            return this.contents.length;
-        }
+        return this.contents.length();
     }
 
     @Override
@@ -206,31 +285,33 @@ public SeekableByteChannel truncate(final long size) throws IOException {
                     + " inclusive");
         }
 
-        // Sync up for mucking w/ shared mutable state
-        synchronized (this) {
+        this.checkNotSealed();
+
+        // Lock for mucking w/ shared mutable state
+        lock.lock();
+
+        try {
             final int newSize = (int) size;
             final int currentSize = (int) this.size();
 
             // If the current position is greater than the given size, set to the given size (by API spec)
-            if (this.position > newSize) {
-                this.position = newSize;
+            if (this.position.get() > newSize) {
+                this.position.set(newSize);
             }
 
             // If we've been given a size smaller than we currently are
             if (currentSize > newSize) {
-                // Make new array
-                final byte[] newContents = new byte[newSize];
-                // Copy in the contents up to the new size
-                System.arraycopy(this.contents, 0, newContents, 0, newSize);
-                // Set the new array as our contents
-                this.contents = newContents;
+                // Cut the latest version, the bytes behind the new size are shared but no longer visible.
+                this.contents = entry.truncate(newSize);
             }
 
             // If we've been given a size greater than we are
             if (newSize > currentSize) {
                 // Reset the position only
-                this.position = newSize;
+                this.position.set(newSize);
             }
+        } finally {
+            lock.unlock();
         }
 
         // Return this reference
@@ -243,15 +324,9 @@ public SeekableByteChannel truncate(final long size) throws IOException {
      * @return never {@code null}
      */
     InputStream getContents() {
-        final byte[] copy;
-
-        synchronized (this) {
-            final int length = this.contents.length;
-            copy = new byte[length];
-            System.arraycopy(this.contents, 0, copy, 0, this.contents.length);
-        }
-
-        return new ByteArrayInputStream(copy);
+        final JvfsFileContent version = this.contents;
+        // Versions are immutable, no need to copy.
+        return new ByteArrayInputStream(version.array(), 0, version.length());
     }
 
     /**
@@ -265,4 +340,15 @@ private void checkClosed() throws ClosedChannelException {
         }
     }
 
+    /**
+     * Checks if the entry is sealed.
+     *
+     * @throws NonWritableChannelException if sealed
+     */
+    private void checkNotSealed() {
+        if (this.entry.isSealed()) {
+            throw new NonWritableChannelException();
+        }
+    }
+
 }
@@ -0,0 +1,114 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base of channels on {@link JvfsSpecialFile special files} which are seekable but hold no state besides position.
+ *
+ * The position is claimed atomically, so subclasses are thread-safe without locking as long as they move the
+ * position by {@link #claim(long, long)} or {@link #advance(long)} only. Opening and closing are registered at the
+ * entry exactly once.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+abstract class JvfsSpecialChannel implements SeekableByteChannel {
+
+    /**
+     * Associated file entry.
+     */
+    private final JvfsFileEntry entry;
+    /**
+     * Current position.
+     */
+    private final AtomicLong position = new AtomicLong();
+    /**
+     * Whether or not this channel is open.
+     */
+    private final AtomicBoolean open = new AtomicBoolean(true);
+
+    /**
+     * Dedicated constructor.
+     *
+     * @param entry must not be {@code null}
+     */
+    JvfsSpecialChannel(final JvfsFileEntry entry) {
+        super();
+        assert null != entry : "entry must be defined";
+        this.entry = entry;
+        entry.opened();
+    }
+
+    @Override
+    public final boolean isOpen() {
+        return open.get();
+    }
+
+    @Override
+    public final void close() throws IOException {
+        if (open.compareAndSet(true, false)) {
+            entry.closed();
+        }
+    }
+
+    @Override
+    public final long position() {
+        return position.get();
+    }
+
+    @Override
+    public final SeekableByteChannel position(final long newPosition) throws IOException {
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Position must not be negative");
+        }
+
+        position.set(newPosition);
+        return this;
+    }
+
+    /**
+     * Moves the position from the expected one to the updated one, unless another thread moved it meanwhile.
+     *
+     * @param expected position the caller read
+     * @param update new position
+     * @return {@code true} if moved, {@code false} if the caller must retry with the current position
+     */
+    final boolean claim(final long expected, final long update) {
+        return position.compareAndSet(expected, update);
+    }
+
+    /**
+     * Moves the position forward unconditionally.
+     *
+     * @param count must not be negative
+     */
+    final void advance(final long count) {
+        position.addAndGet(count);
+    }
+
+    /**
+     * Checks if closed.
+     *
+     * @throws ClosedChannelException if not open
+     */
+    final void checkClosed() throws ClosedChannelException {
+        if (!open.get()) {
+            throw new ClosedChannelException();
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Content of a file entry which is not held as {@link JvfsFileContent versions}.
+ *
+ * A special file brings its own channels. All I/O on the entry goes through them, operations which need the content
+ * as byte array (views, ranges, preallocation) are not available.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+interface JvfsSpecialFile {
+
+    /**
+     * Opens a channel on the content.
+     *
+     * The channel must register itself by {@link JvfsFileEntry#opened()} and {@link JvfsFileEntry#closed()}.
+     *
+     * @param entry entry holding this content, must not be {@code null}
+     * @param flags options the file was opened with, must not be {@code null}
+     * @return never {@code null}
+     * @throws IOException on any I/O error
+     */
+    SeekableByteChannel newChannel(JvfsFileEntry entry, JvfsOpenFlags flags) throws IOException;
+
+    /**
+     * Whether the content behaves like a regular file, else it is reported as other file.
+     *
+     * @return {@code true} for regular files, else {@code false}
+     */
+    boolean isRegularFile();
+
+    /**
+     * Get the number of readable bytes.
+     *
+     * @return non negative
+     */
+    long size();
+
+    /**
+     * Get the number of bytes the content occupies in its store.
+     *
+     * @return non negative
+     */
+    long allocatedSize();
+
+    /**
+     * Creates the content for a copy of the entry.
+     *
+     * @return never {@code null}
+     */
+    JvfsSpecialFile copy();
+
+}
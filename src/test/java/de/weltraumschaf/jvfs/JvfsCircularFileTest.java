@@ -0,0 +1,64 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link JvfsCircularFile}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsCircularFileTest {
+
+    @Rule
+    //CHECKSTYLE:OFF
+    public final ExpectedException thrown = ExpectedException.none();
+    //CHECKSTYLE:ON
+
+    @Test
+    public void forValue() {
+        final JvfsCircularFile sut = JvfsCircularFile.forValue("2k");
+        assertThat(sut.name(), is(equalTo("jvfs:circular")));
+        assertThat(sut.value(), is(equalTo(JvfsQuantity.forValue(2048L))));
+        assertThat(JvfsCircularFile.forValue(2048L), is(equalTo(sut)));
+    }
+
+    @Test
+    public void forValue_throwsExceptionIfZero() {
+        thrown.expect(IllegalArgumentException.class);
+        JvfsCircularFile.forValue(0L);
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        final JvfsCircularFile one = JvfsCircularFile.forValue(1024L);
+        final JvfsCircularFile two = JvfsCircularFile.forValue("1k");
+        final JvfsCircularFile three = JvfsCircularFile.forValue(1L);
+        assertThat(one, is(equalTo(two)));
+        assertThat(one.hashCode(), is(two.hashCode()));
+        assertThat(one, is(not(equalTo(three))));
+        assertThat(one.equals(null), is(false));
+    }
+
+    @Test
+    public void testToString() {
+        assertThat(JvfsCircularFile.forValue(1L).toString(), is(equalTo("JvfsCircularFile{capacity=1}")));
+    }
+
+}
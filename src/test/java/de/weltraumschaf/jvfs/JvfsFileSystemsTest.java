@@ -12,14 +12,21 @@
 
 package de.weltraumschaf.jvfs;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.spi.FileSystemProvider;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.Test;
 import static org.junit.Assert.assertThat;
 import static org.hamcrest.Matchers.*;
 import org.junit.Rule;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Tests for {@link JvfsFileSystems}.
@@ -31,6 +38,8 @@ public class JvfsFileSystemsTest {
     @Rule
     //CHECKSTYLE:OFF
     public final ExpectedException thrown = ExpectedException.none();
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
     //CHECKSTYLE:ON
 
     @Test
@@ -63,10 +72,51 @@ public void registerAsDefault() {
             is(anyOf(nullValue(), equalTo((Object) ""))));
         JvfsFileSystems.registerUnixAsDefault();
         assertThat(System.getProperty("java.nio.file.spi.DefaultFileSystemProvider"),
-            is(equalTo("de.weltraumschaf.jvfs.impl.JvfsFileSystemProviderOld")));
+            is(equalTo("de.weltraumschaf.jvfs.impl.JvfsDefaultFileSystemProvider")));
         JvfsFileSystems.unregisterDefault();
         assertThat(System.getProperty(
             "java.nio.file.spi.DefaultFileSystemProvider"),
             is(anyOf(nullValue(), equalTo((Object) ""))));
     }
+
+    @Test
+    public void readAndSliceRanges_otherFileSystem() throws IOException {
+        final Path file = tmp.newFile().toPath();
+        Files.write(file, "0123456789".getBytes());
+        final ByteBuffer destination = ByteBuffer.allocate(3);
+        assertThat(JvfsFileSystems.read(file, Arrays.asList(JvfsReadRange.of(8, destination))), is(2L));
+        assertThat(destination.position(), is(2));
+        assertThat(destination.get(0), is((byte) '8'));
+
+        final List<ByteBuffer> slices = JvfsFileSystems.slice(file, Arrays.asList(JvfsReadRange.of(2, 3)));
+        assertThat(slices.get(0).isReadOnly(), is(true));
+        assertThat(slices.get(0).remaining(), is(3));
+        assertThat(slices.get(0).get(0), is((byte) '2'));
+    }
+
+    @Test
+    public void newPathMatcherSet() throws IOException {
+        final JvfsPathMatcherSet set = JvfsFileSystems.newPathMatcherSet("glob:**/*.txt", "glob:**/b*", "regex:.*/a.*");
+        final Path file = tmp.newFile("bar.txt").toPath();
+
+        assertThat(set.size(), is(3));
+        assertThat(set.matches(file), is(true));
+        assertThat(set.match(file).cardinality(), is(2));
+        assertThat(set.match(file).get(2), is(false));
+    }
+
+    @Test
+    public void newIgnoreRules_throwsExceptionIfNotJvfsPath() throws IOException {
+        thrown.expect(UnsupportedOperationException.class);
+        JvfsFileSystems.newIgnoreRules(tmp.getRoot().toPath());
+    }
+
+    @Test
+    public void find_fallsBackToWalkForOtherPaths() throws IOException {
+        tmp.newFolder("a", "b");
+        tmp.newFile("a/b/c.txt");
+        tmp.newFile("a/d.log");
+        final List<Path> found = JvfsFileSystems.find(tmp.getRoot().toPath(), "glob:**.txt");
+        assertThat(found, contains(tmp.getRoot().toPath().resolve("a/b/c.txt")));
+    }
 }
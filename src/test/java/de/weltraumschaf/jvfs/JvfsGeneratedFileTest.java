@@ -0,0 +1,76 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs;
+
+import java.nio.ByteBuffer;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link JvfsGeneratedFile}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsGeneratedFileTest {
+
+    @Rule
+    //CHECKSTYLE:OFF
+    public final ExpectedException thrown = ExpectedException.none();
+    //CHECKSTYLE:ON
+
+    private static JvfsContentProvider provider(final long size) {
+        return new JvfsContentProvider() {
+            @Override
+            public long size() {
+                return size;
+            }
+
+            @Override
+            public void read(final long position, final ByteBuffer destination) {
+                destination.position(destination.limit());
+            }
+        };
+    }
+
+    @Test
+    public void forValue() {
+        final JvfsContentProvider provider = provider(42L);
+        final JvfsGeneratedFile sut = JvfsGeneratedFile.forValue(provider);
+        assertThat(sut.name(), is(equalTo("jvfs:generated")));
+        assertThat(sut.value(), is(sameInstance(provider)));
+        assertThat(sut.getCacheSize(), is(sameInstance(JvfsQuantity.EMPTY)));
+    }
+
+    @Test
+    public void forValue_withCacheSize() {
+        assertThat(JvfsGeneratedFile.forValue(provider(42L), "1M").getCacheSize(),
+            is(equalTo(JvfsQuantity.forValue(1024L * 1024L))));
+    }
+
+    @Test
+    public void forValue_throwsExceptionIfProviderIsNull() {
+        thrown.expect(NullPointerException.class);
+        JvfsGeneratedFile.forValue(null);
+    }
+
+    @Test
+    public void forValue_throwsExceptionIfSizeIsNegative() {
+        thrown.expect(IllegalArgumentException.class);
+        JvfsGeneratedFile.forValue(provider(-1L));
+    }
+
+}
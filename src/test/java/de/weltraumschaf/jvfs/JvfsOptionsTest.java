@@ -272,11 +272,95 @@ public void optionNames() {
         assertThat(Arrays.asList(JvfsOptions.Option.values()), containsInAnyOrder(
                 JvfsOptions.Option.CAPACITY,
                 JvfsOptions.Option.READONLY,
-                JvfsOptions.Option.ID
+                JvfsOptions.Option.ID,
+                JvfsOptions.Option.DEVICES,
+                JvfsOptions.Option.DEVICE_SIZE,
+                JvfsOptions.Option.RANDOM_SEED,
+                JvfsOptions.Option.PATH_CACHE_SIZE,
+                JvfsOptions.Option.PATH_CHARSET
         ));
         assertThat(JvfsOptions.Option.CAPACITY.key(), is(equalTo("capacity")));
         assertThat(JvfsOptions.Option.READONLY.key(), is(equalTo("readonly")));
         assertThat(JvfsOptions.Option.ID.key(), is(equalTo("id")));
+        assertThat(JvfsOptions.Option.DEVICES.key(), is(equalTo("devices")));
+        assertThat(JvfsOptions.Option.DEVICE_SIZE.key(), is(equalTo("deviceSize")));
+        assertThat(JvfsOptions.Option.RANDOM_SEED.key(), is(equalTo("randomSeed")));
+        assertThat(JvfsOptions.Option.PATH_CACHE_SIZE.key(), is(equalTo("pathCacheSize")));
+        assertThat(JvfsOptions.Option.PATH_CHARSET.key(), is(equalTo("pathCharset")));
+    }
+
+    @Test
+    public void devices() {
+        assertThat(JvfsOptions.DEFAULT.getDevices(), is(equalTo("")));
+        assertThat(JvfsOptions.DEFAULT.getDeviceSize(), is(equalTo(JvfsQuantity.EMPTY)));
+        assertThat(JvfsOptions.DEFAULT.getRandomSeed(), is(0L));
+        assertThat(JvfsOptions.DEFAULT.getEnv().containsKey(JvfsOptions.Option.DEVICES.key()), is(false));
+
+        final JvfsOptions sut = JvfsOptions.builder()
+                .devices("/dev")
+                .deviceSize("1k")
+                .randomSeed(42L)
+                .create();
+        assertThat(sut.getDevices(), is(equalTo("/dev")));
+        assertThat(sut.getDeviceSize(), is(equalTo(JvfsQuantity.forValue(1024L))));
+        assertThat(sut.getRandomSeed(), is(42L));
+    }
+
+    @Test
+    public void getRandomSeed_fromString() {
+        final Map<String, Object> env = JvfsCollections.newMap();
+        env.put(JvfsOptions.Option.RANDOM_SEED.key(), (Object) "23");
+        assertThat(new JvfsOptions(env).getRandomSeed(), is(23L));
+    }
+
+    @Test
+    public void getRandomSeed_elseThrowsException() {
+        final Map<String, Object> env = JvfsCollections.newMap();
+        env.put(JvfsOptions.Option.RANDOM_SEED.key(), (Object) "snafu");
+        final JvfsOptions sut = new JvfsOptions(env);
+        thrown.expect(IllegalArgumentException.class);
+        sut.getRandomSeed();
+    }
+
+    @Test
+    public void pathCacheSize() {
+        assertThat(JvfsOptions.DEFAULT.getPathCacheSize(), is(4096));
+        assertThat(JvfsOptions.DEFAULT.getEnv().containsKey(JvfsOptions.Option.PATH_CACHE_SIZE.key()), is(false));
+        assertThat(JvfsOptions.builder().pathCacheSize(0).create().getPathCacheSize(), is(0));
+
+        final Map<String, Object> env = JvfsCollections.newMap();
+        env.put(JvfsOptions.Option.PATH_CACHE_SIZE.key(), (Object) "128");
+        assertThat(new JvfsOptions(env).getPathCacheSize(), is(128));
+    }
+
+    @Test
+    public void getPathCacheSize_throwsExceptionIfNegative() {
+        final Map<String, Object> env = JvfsCollections.newMap();
+        env.put(JvfsOptions.Option.PATH_CACHE_SIZE.key(), (Object) (-1));
+        final JvfsOptions sut = new JvfsOptions(env);
+        thrown.expect(IllegalArgumentException.class);
+        sut.getPathCacheSize();
+    }
+
+    @Test
+    public void pathCharset() {
+        assertThat(JvfsOptions.DEFAULT.getPathCharset(), is(JvfsPathCharset.PORTABLE));
+        assertThat(JvfsOptions.DEFAULT.getEnv().containsKey(JvfsOptions.Option.PATH_CHARSET.key()), is(false));
+        assertThat(JvfsOptions.builder().pathCharset(JvfsPathCharset.UNICODE).create().getPathCharset(),
+                is(JvfsPathCharset.UNICODE));
+
+        final Map<String, Object> env = JvfsCollections.newMap();
+        env.put(JvfsOptions.Option.PATH_CHARSET.key(), (Object) "any");
+        assertThat(new JvfsOptions(env).getPathCharset(), is(JvfsPathCharset.ANY));
+    }
+
+    @Test
+    public void getPathCharset_throwsExceptionIfUnknown() {
+        final Map<String, Object> env = JvfsCollections.newMap();
+        env.put(JvfsOptions.Option.PATH_CHARSET.key(), (Object) "ebcdic");
+        final JvfsOptions sut = new JvfsOptions(env);
+        thrown.expect(IllegalArgumentException.class);
+        sut.getPathCharset();
     }
 
 }
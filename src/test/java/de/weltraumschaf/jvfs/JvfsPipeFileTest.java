@@ -0,0 +1,64 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link JvfsPipeFile}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsPipeFileTest {
+
+    @Rule
+    //CHECKSTYLE:OFF
+    public final ExpectedException thrown = ExpectedException.none();
+    //CHECKSTYLE:ON
+
+    @Test
+    public void forValue() {
+        final JvfsPipeFile sut = JvfsPipeFile.forValue("2k");
+        assertThat(sut.name(), is(equalTo("jvfs:pipe")));
+        assertThat(sut.value(), is(equalTo(JvfsQuantity.forValue(2048L))));
+        assertThat(JvfsPipeFile.forValue(2048L), is(equalTo(sut)));
+    }
+
+    @Test
+    public void forValue_throwsExceptionIfZero() {
+        thrown.expect(IllegalArgumentException.class);
+        JvfsPipeFile.forValue(0L);
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        final JvfsPipeFile one = JvfsPipeFile.forValue(1024L);
+        final JvfsPipeFile two = JvfsPipeFile.forValue("1k");
+        final JvfsPipeFile three = JvfsPipeFile.forValue(1L);
+        assertThat(one, is(equalTo(two)));
+        assertThat(one.hashCode(), is(two.hashCode()));
+        assertThat(one, is(not(equalTo(three))));
+        assertThat(one.equals(null), is(false));
+    }
+
+    @Test
+    public void testToString() {
+        assertThat(JvfsPipeFile.forValue(1L).toString(), is(equalTo("JvfsPipeFile{capacity=1}")));
+    }
+
+}
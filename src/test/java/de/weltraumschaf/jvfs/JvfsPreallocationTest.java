@@ -0,0 +1,49 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JvfsPreallocation}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsPreallocationTest {
+
+    @Test
+    public void forValue() {
+        assertThat(JvfsPreallocation.forValue(2048L).getSize(), is(equalTo(JvfsQuantity.forValue(2048L))));
+        assertThat(JvfsPreallocation.forValue("2k").getSize(), is(equalTo(JvfsQuantity.forValue(2048L))));
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        final JvfsPreallocation one = JvfsPreallocation.forValue(1024L);
+        final JvfsPreallocation two = JvfsPreallocation.forValue("1k");
+        final JvfsPreallocation three = JvfsPreallocation.forValue(1L);
+        assertThat(one, is(equalTo(two)));
+        assertThat(one.hashCode(), is(two.hashCode()));
+        assertThat(one, is(not(equalTo(three))));
+        assertThat(one.equals(null), is(false));
+    }
+
+    @Test
+    public void testToString() {
+        assertThat(JvfsPreallocation.forValue(1L).toString(), is(equalTo("JvfsPreallocation{size=1}")));
+    }
+
+}
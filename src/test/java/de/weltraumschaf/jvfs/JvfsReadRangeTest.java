@@ -0,0 +1,87 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs;
+
+import java.nio.ByteBuffer;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link JvfsReadRange}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsReadRangeTest {
+
+    @Rule
+    //CHECKSTYLE:OFF
+    public final ExpectedException thrown = ExpectedException.none();
+    //CHECKSTYLE:ON
+
+    @Test
+    public void ofDestination() {
+        final ByteBuffer destination = ByteBuffer.allocate(8);
+        destination.position(3);
+        final JvfsReadRange sut = JvfsReadRange.of(42L, destination);
+        assertThat(sut.getOffset(), is(42L));
+        assertThat(sut.getLength(), is(5));
+        assertThat(sut.hasDestination(), is(true));
+        assertThat(sut.getDestination(), is(sameInstance(destination)));
+    }
+
+    @Test
+    public void ofLength() {
+        final JvfsReadRange sut = JvfsReadRange.of(42L, 5);
+        assertThat(sut.getOffset(), is(42L));
+        assertThat(sut.getLength(), is(5));
+        assertThat(sut.hasDestination(), is(false));
+        assertThat(sut.getDestination(), is(nullValue()));
+    }
+
+    @Test
+    public void of_throwsExceptionIfNegativeOffset() {
+        thrown.expect(IllegalArgumentException.class);
+        JvfsReadRange.of(-1L, 5);
+    }
+
+    @Test
+    public void of_throwsExceptionIfNegativeLength() {
+        thrown.expect(IllegalArgumentException.class);
+        JvfsReadRange.of(0L, -1);
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        final JvfsReadRange one = JvfsReadRange.of(1L, 2);
+        final JvfsReadRange two = JvfsReadRange.of(1L, 2);
+        assertThat(one, is(equalTo(two)));
+        assertThat(one.hashCode(), is(two.hashCode()));
+        assertThat(one, is(not(equalTo(JvfsReadRange.of(1L, 3)))));
+        final ByteBuffer buffer = ByteBuffer.allocate(2);
+        assertThat(JvfsReadRange.of(1L, buffer), is(equalTo(JvfsReadRange.of(1L, buffer))));
+        assertThat(JvfsReadRange.of(1L, buffer), is(not(equalTo(JvfsReadRange.of(1L, ByteBuffer.allocate(2))))));
+    }
+
+    @Test
+    public void testToString() {
+        assertThat(JvfsReadRange.of(1L, 2).toString(),
+            is(equalTo("JvfsReadRange{offset=1, length=2, destination=null}")));
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JvfsBoundedMap}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsBoundedMapTest {
+
+    @Test
+    public void putIfAbsent_keepsFirstValue() {
+        final JvfsBoundedMap<String, String> sut = new JvfsBoundedMap<String, String>(2);
+        assertThat(sut.get("foo"), is(nullValue()));
+        assertThat(sut.putIfAbsent("foo", "bar"), is(equalTo("bar")));
+        assertThat(sut.putIfAbsent("foo", "baz"), is(equalTo("bar")));
+        assertThat(sut.get("foo"), is(equalTo("bar")));
+        assertThat(sut.size(), is(1));
+    }
+
+    @Test
+    public void put_replacesValue() {
+        final JvfsBoundedMap<String, String> sut = new JvfsBoundedMap<String, String>(2);
+        sut.put("foo", "bar");
+        sut.put("foo", "baz");
+        assertThat(sut.get("foo"), is(equalTo("baz")));
+        assertThat(sut.size(), is(1));
+    }
+
+    @Test
+    public void isBounded() {
+        final JvfsBoundedMap<Integer, Integer> sut = new JvfsBoundedMap<Integer, Integer>(3);
+
+        for (int i = 0; i < 10; ++i) {
+            sut.putIfAbsent(i, i);
+            sut.put(-i - 1, i);
+        }
+
+        assertThat(sut.size(), is(3));
+        sut.clear();
+        assertThat(sut.size(), is(0));
+    }
+
+    @Test
+    public void capacityZeroDisablesMap() {
+        final JvfsBoundedMap<String, String> sut = new JvfsBoundedMap<String, String>(0);
+        assertThat(sut.putIfAbsent("foo", "bar"), is(equalTo("bar")));
+        sut.put("baz", "bar");
+        assertThat(sut.get("foo"), is(nullValue()));
+        assertThat(sut.size(), is(0));
+    }
+}
@@ -12,14 +12,26 @@
 
 package de.weltraumschaf.jvfs.impl;
 
-import de.weltraumschaf.jvfs.JvfsCollections;
-import java.nio.file.FileSystem;
+import de.weltraumschaf.jvfs.JvfsFileSystems;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.file.AccessMode;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.spi.FileSystemProvider;
-import java.util.Collections;
-import java.util.Map;
-import static org.hamcrest.Matchers.is;
+import org.apache.log4j.Logger;
+import static org.hamcrest.Matchers.*;
+import org.junit.After;
 import static org.junit.Assert.assertThat;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import static org.mockito.Mockito.*;
 
 /**
@@ -29,14 +41,24 @@
  */
 public class JvfsDefaultFileSystemProviderTest {
 
+    @Rule
+    //CHECKSTYLE:OFF
+    public final ExpectedException thrown = ExpectedException.none();
+    //CHECKSTYLE:ON
+    private final JvfsFileSystems mounts = JvfsFileSystems.getInstance();
+    private final FileSystemProvider parent = mock(FileSystemProvider.class);
+    private final FileSystemProvider jvfs = mock(FileSystemProvider.class);
+    private final JvfsDefaultFileSystemProvider sut = new JvfsDefaultFileSystemProvider(parent, mounts, jvfs);
+
+    @After
+    public void umountAll() {
+        for (final String path : mounts.getFstab().keySet().toArray(new String[0])) {
+            mounts.umount(path);
+        }
+    }
+
     @Test
     public void isMounted() {
-        final Map<String, FileSystem> fstab = JvfsCollections.newMap();
-        final JvfsDefaultFileSystemProvider sut = new JvfsDefaultFileSystemProvider(
-            mock(FileSystemProvider.class),
-            Collections.unmodifiableMap(fstab),
-            mock(FileSystemProvider.class));
-
         assertThat(sut.isMounted(new JvfsPath("/foo/bar/baz/snafu", mock(JvfsFileSystem.class))), is(false));
         assertThat(sut.isMounted(new JvfsPath("/foo/bar/baz/snafu/blub", mock(JvfsFileSystem.class))), is(false));
         assertThat(sut.isMounted(new JvfsPath("/foo/bar/baz/", mock(JvfsFileSystem.class))), is(false));
@@ -52,8 +74,8 @@ public void isMounted() {
         assertThat(sut.isMounted(new JvfsPath("/tmp", mock(JvfsFileSystem.class))), is(false));
         assertThat(sut.isMounted(new JvfsPath("/", mock(JvfsFileSystem.class))), is(false));
 
-        fstab.put("/foo/bar/baz", mock(FileSystem.class));
-        fstab.put("/tmp", mock(FileSystem.class));
+        mounts.mount("/foo/bar/baz");
+        mounts.mount("/tmp");
         assertThat(sut.isMounted(new JvfsPath("/foo/bar/baz/snafu", mock(JvfsFileSystem.class))), is(true));
         assertThat(sut.isMounted(new JvfsPath("/foo/bar/baz/snafu/blub", mock(JvfsFileSystem.class))), is(true));
         assertThat(sut.isMounted(new JvfsPath("/foo/bar/baz/", mock(JvfsFileSystem.class))), is(true));
@@ -69,8 +91,9 @@ public void isMounted() {
         assertThat(sut.isMounted(new JvfsPath("/tmp", mock(JvfsFileSystem.class))), is(true));
         assertThat(sut.isMounted(new JvfsPath("/", mock(JvfsFileSystem.class))), is(false));
 
-        fstab.clear();
-        fstab.put("/", mock(FileSystem.class));
+        mounts.umount("/foo/bar/baz");
+        mounts.umount("/tmp");
+        mounts.mount("/");
         assertThat(sut.isMounted(new JvfsPath("/foo/bar/baz/snafu", mock(JvfsFileSystem.class))), is(true));
         assertThat(sut.isMounted(new JvfsPath("/foo/bar/baz/snafu/blub", mock(JvfsFileSystem.class))), is(true));
         assertThat(sut.isMounted(new JvfsPath("/foo/bar/baz/", mock(JvfsFileSystem.class))), is(true));
@@ -87,4 +110,230 @@ public void isMounted() {
         assertThat(sut.isMounted(new JvfsPath("/", mock(JvfsFileSystem.class))), is(true));
     }
 
+    @Test
+    public void isMounted_matchesWholeNames() {
+        mounts.mount("/tmp/foo");
+        assertThat(sut.isMounted(Paths.get("/tmp/foo/bar")), is(true));
+        assertThat(sut.isMounted(Paths.get("/tmp/foobar")), is(false));
+        assertThat(sut.isMounted(Paths.get("/tmp/fo")), is(false));
+        assertThat(sut.isMounted(Paths.get("tmp/foo")), is(false));
+    }
+
+    @Test
+    public void translate() {
+        mounts.mount("/tmp/foo");
+        final Path translated = sut.translate(Paths.get("/tmp/foo/bar"));
+
+        assertThat(translated, is(instanceOf(JvfsPath.class)));
+        assertThat(translated.toString(), is(equalTo("/tmp/foo/bar")));
+        assertThat(translated.getFileSystem().provider().getScheme(), is(equalTo(JvfsFileSystems.PROTOCOL_JVFS)));
+        assertThat(sut.translate(Paths.get("/tmp/foobar")), is(nullValue()));
+    }
+
+    @Test
+    public void translate_isCachedUntilMountPointsChange() {
+        mounts.mount("/tmp/foo");
+        final Path translated = sut.translate(Paths.get("/tmp/foo/bar"));
+
+        assertThat(sut.getCacheSize(), is(1));
+        assertThat(sut.translate(Paths.get("/tmp/foo/bar")), is(sameInstance(translated)));
+        assertThat(sut.getCacheSize(), is(1));
+
+        mounts.umount("/tmp/foo");
+        assertThat(sut.translate(Paths.get("/tmp/foo/bar")), is(nullValue()));
+        assertThat(sut.getCacheSize(), is(0));
+    }
+
+    @Test
+    public void translate_cacheIsBounded() {
+        mounts.mount("/tmp");
+
+        for (int i = 0; i < JvfsDefaultFileSystemProvider.CACHE_SIZE + 10; ++i) {
+            sut.translate(Paths.get("/tmp/file" + i));
+        }
+
+        assertThat(sut.getCacheSize(), is(JvfsDefaultFileSystemProvider.CACHE_SIZE));
+    }
+
+    @Test
+    public void checkAccess_mountedPathIsNotPassedToParent() throws IOException {
+        mounts.mount("/tmp/foo");
+        final Path path = Paths.get("/tmp/foo/bar");
+        sut.checkAccess(path, AccessMode.READ);
+
+        verify(jvfs, times(1)).checkAccess(sut.translate(path), AccessMode.READ);
+        verifyZeroInteractions(parent);
+    }
+
+    @Test
+    public void setAttribute_mountedPathIsNotPassedToParent() throws IOException {
+        mounts.mount("/tmp/foo");
+        final Path path = Paths.get("/tmp/foo/bar");
+        sut.setAttribute(path, "basic:lastModifiedTime", null);
+
+        verify(jvfs, times(1)).setAttribute(sut.translate(path), "basic:lastModifiedTime", null);
+        verifyZeroInteractions(parent);
+    }
+
+    @Test
+    public void isSameFile_passesBothPaths() throws IOException {
+        final Path path1 = Paths.get("/tmp/foo");
+        final Path path2 = Paths.get("/tmp/bar");
+        sut.isSameFile(path1, path2);
+        verify(parent, times(1)).isSameFile(path1, path2);
+
+        mounts.mount("/tmp");
+        sut.isSameFile(path1, path2);
+        verify(jvfs, times(1)).isSameFile(sut.translate(path1), sut.translate(path2));
+    }
+
+    @Test
+    public void isSameFile_mountedAndNotMountedPath() throws IOException {
+        mounts.mount("/tmp/foo");
+        assertThat(sut.isSameFile(Paths.get("/tmp/foo"), Paths.get("/tmp/bar")), is(false));
+        verifyZeroInteractions(parent, jvfs);
+    }
+
+    @Test
+    public void notMountedPathsArePassedToParent() throws IOException {
+        mounts.mount("/tmp/foo");
+        final Path path = Paths.get("/tmp/foobar");
+        sut.delete(path);
+        sut.checkAccess(path);
+
+        verify(parent, times(1)).delete(path);
+        verify(parent, times(1)).checkAccess(path);
+        verifyZeroInteractions(jvfs);
+        assertThat(sut.getCacheSize(), is(0));
+    }
+
+    @Test
+    public void createSymbolicLink_translatesAbsoluteTarget() throws IOException {
+        mounts.mount("/tmp/foo");
+        final Path link = Paths.get("/tmp/foo/link");
+        final Path target = Paths.get("/tmp/foo/target");
+        sut.createSymbolicLink(link, target);
+
+        verify(jvfs, times(1)).createSymbolicLink(sut.translate(link), sut.translate(target));
+        verifyZeroInteractions(parent);
+    }
+
+    @Test
+    public void createSymbolicLink_keepsRelativeTarget() throws IOException {
+        mounts.mount("/tmp/foo");
+        final Path link = Paths.get("/tmp/foo/link");
+        sut.createSymbolicLink(link, Paths.get("target"));
+
+        final Path translated = sut.translate(link);
+        verify(jvfs, times(1)).createSymbolicLink(translated, translated.getFileSystem().getPath("target"));
+    }
+
+    @Test
+    public void createSymbolicLink_throwsExceptionIfAbsoluteTargetIsNotMounted() throws IOException {
+        mounts.mount("/tmp/foo");
+        thrown.expect(UnsupportedOperationException.class);
+        sut.createSymbolicLink(Paths.get("/tmp/foo/link"), Paths.get("/tmp/bar/target"));
+    }
+
+    @Test
+    public void readSymbolicLink_mapsMountedTargetBack() throws IOException {
+        mounts.mount("/tmp/foo");
+        final Path link = Paths.get("/tmp/foo/link");
+        final Path translated = sut.translate(link);
+        when(jvfs.readSymbolicLink(translated)).thenReturn(translated.getFileSystem().getPath("/tmp/foo/target"));
+
+        final Path target = sut.readSymbolicLink(link);
+        assertThat(target, is(equalTo(Paths.get("/tmp/foo/target"))));
+        assertThat(target.getFileSystem(), is(sameInstance(link.getFileSystem())));
+    }
+
+    @Test
+    public void readSymbolicLink_keepsRelativeTarget() throws IOException {
+        mounts.mount("/tmp/foo");
+        final Path link = Paths.get("/tmp/foo/link");
+        final Path translated = sut.translate(link);
+        when(jvfs.readSymbolicLink(translated)).thenReturn(translated.getFileSystem().getPath("target"));
+
+        assertThat(sut.readSymbolicLink(link), is(equalTo(Paths.get("target"))));
+    }
+
+    @Test
+    public void readSymbolicLink_returnsJvfsPathIfTargetIsNotMounted() throws IOException {
+        mounts.mount("/tmp/foo");
+        final Path link = Paths.get("/tmp/foo/link");
+        final Path translated = sut.translate(link);
+        final Path internal = translated.getFileSystem().getPath("/internal/target");
+        when(jvfs.readSymbolicLink(translated)).thenReturn(internal);
+
+        assertThat(sut.readSymbolicLink(link), is(sameInstance(internal)));
+    }
+
+
+    @Test
+    public void publicConstructor_resolvesMountsAndJvfsOnFirstRoutedUse() throws IOException {
+        final JvfsDefaultFileSystemProvider lazy = new JvfsDefaultFileSystemProvider(parent);
+        final Path path = Paths.get("/foo/bar");
+        lazy.checkAccess(path);
+        verify(parent, times(1)).checkAccess(path);
+
+        mounts.mount("/foo");
+        assertThat(lazy.translate(path).getFileSystem(), is(instanceOf(JvfsFileSystem.class)));
+        thrown.expect(NoSuchFileException.class);
+        lazy.isHidden(path);
+    }
+
+    @Test
+    public void installedAsDefaultProvider_bootsForkedJvm() throws IOException, InterruptedException,
+        URISyntaxException {
+        final String classPath = location(JvfsDefaultFileSystemProvider.class)
+            + File.pathSeparator + location(Boot.class)
+            + File.pathSeparator + location(Logger.class);
+        final Process process = new ProcessBuilder(
+            System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+            "-verbose:class",
+            "-D" + JvfsFileSystems.IMPLEMENTATION_PROPERTY_NAME + "=" + JvfsFileSystems.IMPLEMENTATION_CLASS_NAME,
+            "-cp", classPath,
+            Boot.class.getName()).redirectErrorStream(true).start();
+        final StringBuilder output = new StringBuilder();
+        final BufferedReader reader = new BufferedReader(
+            new InputStreamReader(process.getInputStream(), Charset.defaultCharset()));
+
+        try {
+            String line;
+
+            while (null != (line = reader.readLine())) {
+                output.append(line).append('\n');
+            }
+        } finally {
+            reader.close();
+        }
+
+        assertThat(output.toString(), process.waitFor(), is(0));
+        assertThat(output.toString(), containsString(JvfsFileSystems.IMPLEMENTATION_CLASS_NAME));
+        assertThat(output.toString(), containsString(Boot.BOOTED));
+        assertThat(output.toString(), not(containsString(Logger.class.getName())));
+    }
+
+    private static String location(final Class<?> type) throws URISyntaxException {
+        return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    }
+
+    /**
+     * Main class of the forked JVM, which touches the default file system without mounting anything.
+     */
+    public static final class Boot {
+
+        static final String BOOTED = "Booted with temporary directory.";
+
+        private Boot() {
+            super();
+        }
+
+        public static void main(final String[] args) {
+            if (Files.isDirectory(Paths.get(System.getProperty("java.io.tmpdir")))) {
+                System.out.println(BOOTED);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,107 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Arrays;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JvfsDevice}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsDeviceTest {
+
+    private static SeekableByteChannel open(final JvfsDevice device) {
+        return device.newChannel(JvfsFileEntry.newSpecial("/dev/" + device.getType().fileName(), device),
+            JvfsOpenFlags.READ_ONLY);
+    }
+
+    private static byte[] read(final JvfsDevice device, final long position, final int count) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(count);
+        final SeekableByteChannel channel = open(device);
+        channel.position(position);
+        channel.read(buffer);
+        return buffer.array();
+    }
+
+    @Test
+    public void nullDevice() throws IOException {
+        final JvfsDevice sut = new JvfsDevice(JvfsDevice.Type.NULL, 1024L, 0L);
+        final SeekableByteChannel channel = open(sut);
+        final ByteBuffer source = ByteBuffer.wrap("foobar".getBytes());
+        assertThat(channel.write(source), is(6));
+        assertThat(source.hasRemaining(), is(false));
+        assertThat(channel.position(), is(6L));
+        assertThat(channel.read(ByteBuffer.allocate(1)), is(-1));
+        assertThat(channel.size(), is(0L));
+        assertThat(sut.allocatedSize(), is(0L));
+        assertThat(sut.isRegularFile(), is(false));
+    }
+
+    @Test
+    public void zeroDevice() throws IOException {
+        final SeekableByteChannel channel = open(new JvfsDevice(JvfsDevice.Type.ZERO, 0L, 0L));
+        final ByteBuffer buffer = ByteBuffer.allocate(10000);
+        Arrays.fill(buffer.array(), (byte) 1);
+        assertThat(channel.read(buffer), is(10000));
+        assertThat(buffer.array(), is(equalTo(new byte[10000])));
+        buffer.clear();
+        assertThat(channel.read(buffer), is(10000));
+    }
+
+    @Test
+    public void sizedSource() throws IOException {
+        final JvfsDevice sut = new JvfsDevice(JvfsDevice.Type.ZERO, 5L, 0L);
+        final SeekableByteChannel channel = open(sut);
+        final ByteBuffer buffer = ByteBuffer.allocate(4);
+        assertThat(channel.size(), is(5L));
+        assertThat(channel.read(buffer), is(4));
+        buffer.clear();
+        assertThat(channel.read(buffer), is(1));
+        assertThat(channel.read(buffer), is(-1));
+    }
+
+    @Test
+    public void randomDevice_isSeekableAndSeeded() throws IOException {
+        final JvfsDevice sut = new JvfsDevice(JvfsDevice.Type.RANDOM, 0L, 42L);
+        final byte[] all = read(sut, 0, 64);
+        assertThat(all, is(not(equalTo(new byte[64]))));
+        assertThat(read(new JvfsDevice(JvfsDevice.Type.RANDOM, 0L, 42L), 0, 64), is(equalTo(all)));
+        assertThat(read(new JvfsDevice(JvfsDevice.Type.RANDOM, 0L, 43L), 0, 64), is(not(equalTo(all))));
+        assertThat(read(sut, 5, 30), is(equalTo(Arrays.copyOfRange(all, 5, 35))));
+    }
+
+    @Test
+    public void randomDevice_independentOfByteOrder() throws IOException {
+        final JvfsDevice sut = new JvfsDevice(JvfsDevice.Type.RANDOM, 0L, 7L);
+        final ByteBuffer buffer = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+        open(sut).read(buffer);
+        assertThat(buffer.array(), is(equalTo(read(sut, 0, 32))));
+    }
+
+    @Test
+    public void copyIsSame() {
+        final JvfsDevice sut = new JvfsDevice(JvfsDevice.Type.ZERO, 0L, 0L);
+        assertThat(sut.copy(), is(sameInstance((JvfsSpecialFile) sut)));
+    }
+
+}
@@ -51,7 +51,7 @@ public class JvfsFileAttributeViewTest {
 
     @Before
     public void setUpMocks() throws IOException {
-        when(fs.getFileAttributes(pathname)).thenReturn(attributes);
+        when(fs.getFileAttributes(path, true)).thenReturn(attributes);
     }
 
     @Test
@@ -174,7 +174,7 @@ public void readAttributes_byNames_wildcard() throws IOException {
         assertThat(attrs.size(), is(9));
         assertThat(attrs, allOf(
             hasEntry("lastModifiedTime", (Object) FileTime.from(0L, TimeUnit.SECONDS)),
-            hasEntry("fileKey", (Object) "/foo/bar"),
+            hasEntry("fileKey", attributes.fileKey()),
             hasEntry("isDirectory", (Object) false),
             hasEntry("lastAccessTime", (Object) FileTime.from(0L, TimeUnit.SECONDS)),
             hasEntry("isOther", (Object) false),
@@ -217,4 +217,30 @@ public void readAttributes_byNames_multipleNames() throws IOException {
     public void attribute_returnsNullIfUnknown() {
         assertThat(sut.attribute(JvfsFileAttributeView.Names._unknown, attributes), is(nullValue()));
     }
+
+    @Test
+    public void setAttribute_withViewName() throws IOException {
+        sut.setAttribute("basic:lastModifiedTime", FileTime.from(1L, TimeUnit.SECONDS));
+        verify(path, times(1)).setTimes(FileTime.from(1L, TimeUnit.SECONDS), null, null);
+    }
+
+    @Test
+    public void setAttribute_allocationHint() throws IOException {
+        sut.setAttribute("jvfs:allocationHint", 42);
+        verify(fs, times(1)).preallocate(pathname, 42L);
+    }
+
+    @Test
+    public void setAttribute_allocationHint_throwsExceptionIfNotNumber() throws IOException {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Attribute 'allocationHint' must be a number or quantity!");
+        sut.setAttribute("jvfs:allocationHint", "42");
+    }
+
+    @Test
+    public void setAttribute_throwsExceptionForUnsupportedView() throws IOException {
+        thrown.expect(UnsupportedOperationException.class);
+        thrown.expectMessage("View 'posix' is not supported!");
+        sut.setAttribute("posix:permissions", "foobar");
+    }
 }
@@ -16,6 +16,7 @@
 import java.util.concurrent.TimeUnit;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
 import org.junit.Test;
 
@@ -78,6 +79,12 @@ public void isRegularFile() {
         assertThat(
             new JvfsFileAttributes(JvfsFileEntry.newDir(PATH)).isRegularFile(),
             is(false));
+        assertThat(
+            new JvfsFileAttributes(JvfsFileEntry.newSpecial(PATH, new JvfsRingBuffer(1))).isRegularFile(),
+            is(true));
+        assertThat(
+            new JvfsFileAttributes(JvfsFileEntry.newSpecial(PATH, new JvfsPipe(1))).isRegularFile(),
+            is(false));
     }
 
     @Test
@@ -108,6 +115,9 @@ public void isOther() {
         assertThat(
             new JvfsFileAttributes(JvfsFileEntry.newDir(PATH)).isOther(),
             is(false));
+        assertThat(
+            new JvfsFileAttributes(JvfsFileEntry.newSpecial(PATH, new JvfsPipe(1))).isOther(),
+            is(true));
     }
 
     @Test
@@ -122,12 +132,15 @@ public void size() {
 
     @Test
     public void fileKey() {
+        final JvfsFileEntry file = JvfsFileEntry.newFile(PATH);
+        final JvfsFileEntry link = file.link(PATH + "2");
+        assertThat(new JvfsFileAttributes(file).fileKey(), is(equalTo(new JvfsFileAttributes(link).fileKey())));
         assertThat(
-            new JvfsFileAttributes(JvfsFileEntry.newFile(PATH)).fileKey(),
-            is(equalTo((Object) PATH)));
+            new JvfsFileAttributes(file).fileKey(),
+            is(not(equalTo(new JvfsFileAttributes(JvfsFileEntry.newFile(PATH)).fileKey()))));
         assertThat(
-            new JvfsFileAttributes(JvfsFileEntry.newDir(PATH)).fileKey(),
-            is(equalTo((Object) PATH)));
+            new JvfsFileAttributes(file).fileKey(),
+            is(not(equalTo(new JvfsFileAttributes(file.copy()).fileKey()))));
     }
 
 
@@ -0,0 +1,224 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsReadRange;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link JvfsFileContent}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsFileContentTest {
+
+    @Rule
+    //CHECKSTYLE:OFF
+    public final ExpectedException thrown = ExpectedException.none();
+    //CHECKSTYLE:ON
+
+    private static String asString(final JvfsFileContent content) {
+        return new String(content.toByteArray());
+    }
+
+    @Test
+    public void empty() {
+        assertThat(JvfsFileContent.EMPTY.length(), is(0));
+        assertThat(JvfsFileContent.EMPTY.toByteArray().length, is(0));
+    }
+
+    @Test
+    public void adopt() {
+        final byte[] data = "foo".getBytes();
+        final JvfsFileContent sut = JvfsFileContent.adopt(data);
+        assertThat(sut.length(), is(3));
+        assertThat(sut.array(), is(sameInstance(data)));
+    }
+
+    @Test
+    public void read() {
+        final JvfsFileContent sut = JvfsFileContent.adopt("abcdef".getBytes());
+        final ByteBuffer buffer = ByteBuffer.allocate(3);
+        assertThat(sut.read(2, buffer), is(3));
+        assertThat(new String(buffer.array()), is(equalTo("cde")));
+        buffer.clear();
+        assertThat(sut.read(4, buffer), is(2));
+        buffer.clear();
+        assertThat(sut.read(6, buffer), is(-1));
+    }
+
+    @Test
+    public void write_doesNotChangeOldVersion() {
+        final JvfsFileContent first = JvfsFileContent.adopt("abcdef".getBytes());
+        final JvfsFileContent second = first.write(1, ByteBuffer.wrap("XY".getBytes()));
+        assertThat(asString(first), is(equalTo("abcdef")));
+        assertThat(asString(second), is(equalTo("aXYdef")));
+    }
+
+    @Test
+    public void write_appendsInPlace() {
+        final JvfsFileContent first = JvfsFileContent.EMPTY.write(0, ByteBuffer.wrap("abc".getBytes()));
+        final JvfsFileContent second = first.write(3, ByteBuffer.wrap("d".getBytes()));
+        final JvfsFileContent third = second.write(4, ByteBuffer.wrap("e".getBytes()));
+        assertThat(third.array(), is(sameInstance(second.array())));
+        assertThat(asString(first), is(equalTo("abc")));
+        assertThat(asString(second), is(equalTo("abcd")));
+        assertThat(asString(third), is(equalTo("abcde")));
+    }
+
+    @Test
+    public void write_fillsGapWithZeros() {
+        final JvfsFileContent sut = JvfsFileContent.adopt("ab".getBytes()).write(4, ByteBuffer.wrap("c".getBytes()));
+        assertThat(sut.toByteArray(), is(equalTo(new byte[] {'a', 'b', 0, 0, 'c'})));
+    }
+
+    @Test
+    public void truncate_neverAppendsInPlace() {
+        final JvfsFileContent first = JvfsFileContent.EMPTY.write(0, ByteBuffer.wrap("abcd".getBytes()));
+        final JvfsFileContent truncated = first.truncate(2);
+        final JvfsFileContent appended = truncated.write(2, ByteBuffer.wrap("XY".getBytes()));
+        assertThat(appended.array(), is(not(sameInstance(first.array()))));
+        assertThat(asString(first), is(equalTo("abcd")));
+        assertThat(asString(truncated), is(equalTo("ab")));
+        assertThat(asString(appended), is(equalTo("abXY")));
+    }
+
+    @Test
+    public void share_neverAppendsInPlace() {
+        final JvfsFileContent first = JvfsFileContent.EMPTY.write(0, ByteBuffer.wrap("abcd".getBytes()));
+        final JvfsFileContent shared = first.share();
+        assertThat(shared.array(), is(sameInstance(first.array())));
+        shared.write(4, ByteBuffer.wrap("XY".getBytes()));
+        final JvfsFileContent appended = first.write(4, ByteBuffer.wrap("ef".getBytes()));
+        assertThat(asString(shared), is(equalTo("abcd")));
+        assertThat(asString(appended), is(equalTo("abcdef")));
+    }
+
+    @Test
+    public void reserve_appendsInPlaceUpToCapacity() {
+        final JvfsFileContent reserved = JvfsFileContent.adopt("ab".getBytes()).reserve(16);
+        assertThat(reserved.length(), is(2));
+        assertThat(reserved.array().length, is(16));
+        final JvfsFileContent appended = reserved.write(2, ByteBuffer.wrap("cdefgh".getBytes()));
+        assertThat(appended.array(), is(sameInstance(reserved.array())));
+        assertThat(asString(appended), is(equalTo("abcdefgh")));
+        assertThat(appended.reserve(16), is(sameInstance(appended)));
+    }
+
+    @Test
+    public void reserve_doesNothingIfSmallerThanLength() {
+        final JvfsFileContent sut = JvfsFileContent.adopt("abc".getBytes());
+        assertThat(sut.reserve(2), is(sameInstance(sut)));
+    }
+
+    @Test
+    public void adopt_heapBuffer() {
+        final byte[] data = "foobar".getBytes();
+        final ByteBuffer buffer = ByteBuffer.wrap(data, 0, 3);
+        final JvfsFileContent sut = JvfsFileContent.adopt(buffer);
+        assertThat(sut.array(), is(sameInstance(data)));
+        assertThat(asString(sut), is(equalTo("foo")));
+        assertThat(buffer.position(), is(0));
+    }
+
+    @Test
+    public void adopt_copiesBufferWithoutAccessibleArray() {
+        final ByteBuffer direct = ByteBuffer.allocateDirect(3);
+        direct.put("foo".getBytes()).flip();
+        assertThat(asString(JvfsFileContent.adopt(direct)), is(equalTo("foo")));
+        assertThat(direct.position(), is(0));
+
+        final byte[] data = "foobar".getBytes();
+        final ByteBuffer sliced = ByteBuffer.wrap(data, 3, 3);
+        final JvfsFileContent sut = JvfsFileContent.adopt(sliced);
+        assertThat(sut.array(), is(not(sameInstance(data))));
+        assertThat(asString(sut), is(equalTo("bar")));
+        assertThat(asString(JvfsFileContent.adopt(ByteBuffer.wrap(data).asReadOnlyBuffer())), is(equalTo("foobar")));
+    }
+
+    @Test
+    public void asReadOnlyBuffer() {
+        final JvfsFileContent first = JvfsFileContent.EMPTY.write(0, ByteBuffer.wrap("abc".getBytes()));
+        final ByteBuffer view = first.asReadOnlyBuffer();
+        first.write(3, ByteBuffer.wrap("def".getBytes()));
+        assertThat(view.isReadOnly(), is(true));
+        assertThat(view.capacity(), is(3));
+        final byte[] bytes = new byte[view.remaining()];
+        view.get(bytes);
+        assertThat(new String(bytes), is(equalTo("abc")));
+    }
+
+    @Test
+    public void readRanges() {
+        final JvfsFileContent sut = JvfsFileContent.adopt("abcdefgh".getBytes());
+        final ByteBuffer first = ByteBuffer.allocate(2);
+        final ByteBuffer second = ByteBuffer.allocate(3);
+        final ByteBuffer third = ByteBuffer.allocate(4);
+        final ByteBuffer fourth = ByteBuffer.allocate(1);
+        final long read = sut.read(Arrays.asList(
+            JvfsReadRange.of(6, first),
+            JvfsReadRange.of(1, second),
+            JvfsReadRange.of(6, third),
+            JvfsReadRange.of(8, fourth)));
+        assertThat(read, is(7L));
+        assertThat(new String(first.array()), is(equalTo("gh")));
+        assertThat(new String(second.array()), is(equalTo("bcd")));
+        assertThat(third.position(), is(2));
+        assertThat(fourth.position(), is(0));
+    }
+
+    @Test
+    public void readRanges_throwsExceptionIfNoDestination() {
+        thrown.expect(IllegalArgumentException.class);
+        JvfsFileContent.EMPTY.read(Arrays.asList(JvfsReadRange.of(0, 1)));
+    }
+
+    @Test
+    public void slice() {
+        final byte[] data = "abcdefgh".getBytes();
+        final JvfsFileContent sut = JvfsFileContent.adopt(data);
+        final List<ByteBuffer> slices = sut.slice(Arrays.asList(
+            JvfsReadRange.of(6, 4),
+            JvfsReadRange.of(1, 3),
+            JvfsReadRange.of(9, 1)));
+        assertThat(slices.size(), is(3));
+        assertThat(slices.get(0).isReadOnly(), is(true));
+        assertThat(slices.get(0).remaining(), is(2));
+        assertThat(slices.get(0).get(0), is((byte) 'g'));
+        assertThat(slices.get(1).remaining(), is(3));
+        assertThat(slices.get(1).get(0), is((byte) 'b'));
+        assertThat(slices.get(2).remaining(), is(0));
+        data[1] = 'X';
+        assertThat("slices share the array", slices.get(1).get(0), is((byte) 'X'));
+    }
+
+    @Test
+    public void slice_ignoresFullDestination() {
+        final JvfsFileContent sut = JvfsFileContent.adopt("abcdefgh".getBytes());
+        final ByteBuffer destination = ByteBuffer.allocate(3);
+        final JvfsReadRange range = JvfsReadRange.of(2, destination);
+        destination.put("xyz".getBytes());
+        final List<ByteBuffer> slices = sut.slice(Arrays.asList(range));
+        assertThat(slices.get(0).remaining(), is(3));
+        assertThat(slices.get(0).get(0), is((byte) 'c'));
+    }
+}
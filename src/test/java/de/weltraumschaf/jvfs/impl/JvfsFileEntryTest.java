@@ -11,6 +11,8 @@
  */
 package de.weltraumschaf.jvfs.impl;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
 import org.junit.Test;
 import static org.junit.Assert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -226,4 +228,88 @@ public void setParent() {
         sut.setParent(parent);
         assertThat(sut.getParent(), is(sameInstance(parent)));
     }
+
+    @Test
+    public void reserveAndAllocatedSize() {
+        final JvfsFileEntry sut = JvfsFileEntry.newFile("foo");
+        assertThat(sut.allocatedSize(), is(0L));
+        sut.reserve(10);
+        assertThat(sut.getAllocationHint(), is(10));
+        assertThat(sut.size(), is(0L));
+        assertThat(sut.allocatedSize(), is(10L));
+        sut.setContent(new byte[12]);
+        assertThat(sut.allocatedSize(), is(12L));
+        assertThat(JvfsFileEntry.newDir("bar").allocatedSize(), is(0L));
+    }
+
+    @Test
+    public void seal() {
+        final JvfsFileEntry sut = JvfsFileEntry.newFile("foo");
+        sut.setContent("foo".getBytes());
+        assertThat(sut.isSealed(), is(false));
+        sut.seal();
+        sut.seal();
+        assertThat(sut.isSealed(), is(true));
+        assertThat(sut.copy("bar").isSealed(), is(true));
+        thrown.expect(NonWritableChannelException.class);
+        sut.write(0, ByteBuffer.wrap("bar".getBytes()));
+    }
+
+    @Test
+    public void seal_rejectsTruncate() {
+        final JvfsFileEntry sut = JvfsFileEntry.newFile("foo");
+        sut.seal();
+        thrown.expect(NonWritableChannelException.class);
+        sut.truncate(0);
+    }
+
+    @Test
+    public void link() {
+        final JvfsFileEntry original = JvfsFileEntry.newFile("/foo");
+        original.setContent("foo".getBytes());
+        assertThat(original.getLinkCount(), is(1));
+
+        final JvfsFileEntry link = original.link("/bar");
+        assertThat(link.getPath(), is(equalTo("/bar")));
+        assertThat(link.getInode(), is(sameInstance(original.getInode())));
+        assertThat(original.getLinkCount(), is(2));
+        assertThat(link.getLinkCount(), is(2));
+
+        link.setContent("bar".getBytes());
+        link.setLastModifiedTime(5L);
+        link.setExecutable(true);
+        assertThat(original.getContent(), is(equalTo("bar".getBytes())));
+        assertThat(original.getLastModifiedTime(), is(5L));
+        assertThat(original.isExecutable(), is(true));
+        assertThat(original.copy().getLinkCount(), is(1));
+    }
+
+    @Test
+    public void link_throwsExceptionIfDirectory() {
+        thrown.expect(IllegalStateException.class);
+        JvfsFileEntry.newDir("/foo").link("/bar");
+    }
+
+    @Test
+    public void rename() {
+        final JvfsFileEntry original = JvfsFileEntry.newDir("/foo");
+        original.addChild(JvfsFileEntry.newFile("/foo/bar"));
+        final JvfsFileEntry renamed = original.rename("/baz");
+        assertThat(renamed.getPath(), is(equalTo("/baz")));
+        assertThat(renamed.isDirectory(), is(true));
+        assertThat(renamed.getInode(), is(sameInstance(original.getInode())));
+        assertThat(renamed.getLinkCount(), is(1));
+        assertThat(renamed.getChildren().size(), is(1));
+    }
+
+    @Test
+    public void newSymbolicLink() {
+        final JvfsFileEntry sut = JvfsFileEntry.newSymbolicLink("/foo", "../bar");
+        assertThat(sut.isSymbolicLink(), is(true));
+        assertThat(sut.getLinkTarget(), is(equalTo("../bar")));
+        assertThat(sut.size(), is(6L));
+        assertThat(sut.isDirectory(), is(false));
+        assertThat(sut.copy("/baz").getLinkTarget(), is(equalTo("../bar")));
+        assertThat(JvfsFileEntry.newFile("/foo").isSymbolicLink(), is(false));
+    }
 }
@@ -19,6 +19,7 @@
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.LinkOption;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.ProviderMismatchException;
@@ -36,7 +37,7 @@
 import static org.mockito.Mockito.*;
 
 /**
- * Tests for {@link JvfsFileSystemProviderOld}.
+ * Tests for {@link JvfsFileSystemProvider}.
  *
  * @author Sven Strittmatter <weltraumschaf@googlemail.com>
  */
@@ -164,6 +165,15 @@ public void move() throws IOException {
         verify(src, times(1)).move(dst);
     }
 
+    @Test
+    public void createLink() throws IOException {
+        final JvfsPath link = spy(new JvfsPath(mock(JvfsFileSystem.class)));
+        final JvfsPath existing = new JvfsPath(mock(JvfsFileSystem.class));
+        doNothing().when(link).createLink(existing);
+        sut.createLink(link, existing);
+        verify(link, times(1)).createLink(existing);
+    }
+
     @Test
     public void isSameFile() throws IOException {
         final JvfsPath path = spy(new JvfsPath(mock(JvfsFileSystem.class)));
@@ -213,12 +223,12 @@ public void readAttributes_returnsBasicFileAttribute() throws IOException {
         final JvfsFileSystem fs = mock(JvfsFileSystem.class);
         final JvfsPath path = spy(new JvfsPath(fs));
         final JvfsFileAttributes expectedAttrs = new JvfsFileAttributes(JvfsFileEntry.newFile("/"));
-        when(fs.getFileAttributes(anyString())).thenReturn(expectedAttrs);
+        when(fs.getFileAttributes(path, true)).thenReturn(expectedAttrs);
         final BasicFileAttributes attrs = sut.readAttributes(path, BasicFileAttributes.class);
         assertThat(attrs, is(not(nullValue())));
         assertThat(attrs, is(instanceOf(JvfsFileAttributes.class)));
         assertThat(attrs, is(sameInstance((BasicFileAttributes) expectedAttrs)));
-        verify(path, times(1)).getAttributes();
+        verify(path, times(1)).getAttributes(new LinkOption[0]);
     }
 
     @Test
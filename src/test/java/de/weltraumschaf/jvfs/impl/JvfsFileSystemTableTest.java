@@ -106,6 +106,56 @@ public void findMountedFilesystem() {
         assertThat(sut.findMountedFilesystem("/snafu/baz/bar/foo.txt"), is(sameInstance(fs4)));
     }
 
+    @Test
+    public void findMountedFilesystem_matchesWholeNames() {
+        final JvfsFileSystem fs1 = createFs("1");
+        sut.mount("/", fs1);
+        final JvfsFileSystem fs2 = createFs("2");
+        sut.mount("/foo", fs2);
+
+        assertThat(sut.findMountedFilesystem("/foo"), is(sameInstance(fs2)));
+        assertThat(sut.findMountedFilesystem("/foo/bar"), is(sameInstance(fs2)));
+        assertThat(sut.findMountedFilesystem("/foobar"), is(sameInstance(fs1)));
+        assertThat(sut.findMountedFilesystem("/fo"), is(sameInstance(fs1)));
+    }
+
+    @Test
+    public void findMountedFilesystem_throwsExceptionIfNoMountPointMatches() {
+        sut.mount("/foo", createFs("1"));
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("No file system mounted for /foobar");
+        sut.findMountedFilesystem("/foobar");
+    }
+
+    @Test
+    public void findMountedFilesystem_afterUmount() {
+        final JvfsFileSystem fs1 = createFs("1");
+        sut.mount("/", fs1);
+        final JvfsFileSystem fs2 = createFs("2");
+        sut.mount("/foo", fs2);
+        final JvfsFileSystem fs3 = createFs("3");
+        sut.mount("/foo/bar/baz", fs3);
+
+        assertThat(sut.findMountedFilesystem("/foo/bar/baz/snafu"), is(sameInstance(fs3)));
+        sut.umount("/foo/bar/baz");
+        assertThat(sut.size(), is(2));
+        assertThat(sut.findMountedFilesystem("/foo/bar/baz/snafu"), is(sameInstance(fs2)));
+        sut.umount("/foo");
+        assertThat(sut.findMountedFilesystem("/foo/bar/baz/snafu"), is(sameInstance(fs1)));
+        sut.mount("/foo/bar", fs2);
+        assertThat(sut.findMountedFilesystem("/foo/bar/baz/snafu"), is(sameInstance(fs2)));
+    }
+
+    @Test
+    public void mount_againAfterUmount() {
+        final JvfsFileSystem fs = mock(JvfsFileSystem.class);
+        sut.mount("/foo", fs);
+        sut.umount("/foo");
+        sut.mount("/bar", fs);
+        assertThat(sut.size(), is(1));
+        assertThat(sut.findMountedFilesystem("/bar/baz"), is(sameInstance(fs)));
+    }
+
     @Test
     public void testHashCode() {
         final JvfsFileSystemTable sut1 = new JvfsFileSystemTable();
@@ -11,21 +11,37 @@
  */
 package de.weltraumschaf.jvfs.impl;
 
+import de.weltraumschaf.jvfs.JvfsCollections;
 import de.weltraumschaf.jvfs.JvfsFileSystems;
 import de.weltraumschaf.jvfs.JvfsOptions;
+import de.weltraumschaf.jvfs.JvfsPathCharset;
+import de.weltraumschaf.jvfs.JvfsPreallocation;
 import java.io.IOException;
 import java.nio.file.ClosedFileSystemException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileStore;
 import java.nio.file.FileSystem;
+import java.nio.file.FileSystemException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotLinkException;
+import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.spi.FileSystemProvider;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
@@ -142,6 +158,64 @@ public void getPath() {
         assertThat(path.getFileSystem(), is(sameInstance((FileSystem) sut)));
     }
 
+    @Test
+    public void getPath_sharesInstances() {
+        final Path path = sut.getPath("/foo/bar");
+        assertThat(sut.getPath("/foo/bar"), is(sameInstance(path)));
+        assertThat(sut.getPath("/foo", "bar"), is(sameInstance(path)));
+        assertThat(path.normalize(), is(sameInstance(path)));
+
+        final JvfsFileSystem uncached = new JvfsFileSystem(provider, JvfsOptions.builder().pathCacheSize(0).create());
+        assertThat(uncached.getPath("/foo/bar"), is(not(sameInstance(uncached.getPath("/foo/bar")))));
+    }
+
+    @Test
+    public void getPath_throwsExceptionIfInvalid() {
+        thrown.expect(InvalidPathException.class);
+        sut.getPath("/foo", "b*r");
+    }
+
+    @Test
+    public void getPath_allowsConfiguredCharset() throws IOException {
+        final JvfsFileSystem unicode = new JvfsFileSystem(
+            provider, JvfsOptions.builder().pathCharset(JvfsPathCharset.UNICODE).create());
+        final Path path = unicode.getPath("/\u00fcber", "\u65e5\u672c.txt");
+        assertThat(path.getNameCount(), is(2));
+        unicode.add(JvfsFileEntry.newFile(path.toString()));
+        assertThat(unicode.toRealPath("/./\u00fcber/../\u00fcber/\u65e5\u672c.txt", true),
+            is(equalTo(path.toString())));
+        thrown.expect(InvalidPathException.class);
+        unicode.getPath("/foo bar");
+    }
+
+    @Test
+    public void get_reusesHintUntilHierarchyChanges() throws IOException {
+        final JvfsFileEntry file = JvfsFileEntry.newFile("/foo/bar");
+        sut.add(file);
+        final JvfsPath path = (JvfsPath) sut.getPath("/foo/bar");
+        assertThat(sut.get(path, true), is(sameInstance(file)));
+        assertThat(path.getHint(), is(not(nullValue())));
+        assertThat(sut.getFileAttributes(path, true).isRegularFile(), is(true));
+        sut.checkAccess(path);
+
+        sut.delete("/foo/bar");
+        assertThat(sut.get(path, true), is(nullValue()));
+        thrown.expect(NoSuchFileException.class);
+        sut.checkAccess(path);
+    }
+
+    @Test
+    public void get_hintFollowsLinkChanges() throws IOException {
+        sut.add(JvfsFileEntry.newFile("/a/f"));
+        sut.add(JvfsFileEntry.newFile("/b/f"));
+        sut.createSymbolicLink("/l", "/a");
+        final JvfsPath path = (JvfsPath) sut.getPath("/l/f");
+        assertThat(sut.get(path, true).getPath(), is(equalTo("/a/f")));
+        sut.delete("/l");
+        sut.createSymbolicLink("/l", "/b");
+        assertThat(sut.get(path, true).getPath(), is(equalTo("/b/f")));
+    }
+
     @Test
     public void getPathMatcher_glob() {
         final String regex = "glob:*.java";
@@ -157,7 +231,7 @@ public void getPathMatcher_java() {
     }
 
     @Test
-    public void add() {
+    public void add() throws IOException {
         final JvfsFileEntry baz = JvfsFileEntry.newFile("/foo/bar/baz");
         baz.setReadable(true);
         baz.setWritable(true);
@@ -203,4 +277,294 @@ public void add() {
         assertThat(baz.hasParent(), is(true));
         assertThat(baz.getParent(), is(sameInstance(bar)));
     }
+
+    @Test
+    public void getUsedSpace_countsReservedSpaceAndSkipsDirectories() throws IOException {
+        sut.add(JvfsFileEntry.newDir("/a"));
+        sut.add(new JvfsFileEntry("/a/b", false, new byte[3]));
+        final Set<OpenOption> options = JvfsCollections.newSet();
+        options.add(StandardOpenOption.CREATE);
+        options.add(StandardOpenOption.WRITE);
+        options.add(JvfsPreallocation.forValue("1k"));
+        sut.newByteChannel("/c", options).close();
+        assertThat(sut.get("/c").size(), is(0L));
+        assertThat(sut.getUsedSpace(), is(1027L));
+    }
+
+    @Test
+    public void newByteChannel_appendDoesNotCreateMissingFile() throws IOException {
+        final Set<OpenOption> options = JvfsCollections.newSet();
+        options.add(StandardOpenOption.APPEND);
+        thrown.expect(NoSuchFileException.class);
+        thrown.expectMessage("/foo");
+
+        try {
+            sut.newByteChannel("/foo", options);
+        } finally {
+            assertThat(sut.contains("/foo"), is(false));
+        }
+    }
+
+    @Test
+    public void newByteChannel_appendCreatesMissingFileOnlyWithCreate() throws IOException {
+        final Set<OpenOption> options = JvfsCollections.newSet();
+        options.add(StandardOpenOption.APPEND);
+        options.add(StandardOpenOption.CREATE);
+        sut.newByteChannel("/foo", options).close();
+        assertThat(sut.contains("/foo"), is(true));
+    }
+
+    @Test
+    public void createLink() throws IOException {
+        sut.add(new JvfsFileEntry("/a/b", false, new byte[3]));
+        sut.createLink("/c/d", "/a/b");
+        assertThat(sut.get("/c/d").getInode(), is(sameInstance(sut.get("/a/b").getInode())));
+        assertThat(sut.get("/c/d").getLinkCount(), is(2));
+        assertThat(sut.isSameFile("/a/b", "/c/d"), is(true));
+        assertThat(sut.getUsedSpace(), is(3L));
+
+        sut.delete("/a/b");
+        assertThat(sut.get("/c/d").getLinkCount(), is(1));
+        assertThat(sut.readAllBytes("/c/d"), is(equalTo(new byte[3])));
+    }
+
+    @Test
+    public void createLink_throwsExceptionIfLinkExists() throws IOException {
+        sut.add(JvfsFileEntry.newFile("/a"));
+        sut.add(JvfsFileEntry.newFile("/b"));
+        thrown.expect(FileAlreadyExistsException.class);
+        sut.createLink("/b", "/a");
+    }
+
+    @Test
+    public void createLink_throwsExceptionIfDirectory() throws IOException {
+        sut.add(JvfsFileEntry.newDir("/a"));
+        thrown.expect(FileSystemException.class);
+        thrown.expectMessage("Can't link directory");
+        sut.createLink("/b", "/a");
+    }
+
+    @Test
+    public void isSameFile() throws IOException {
+        sut.add(JvfsFileEntry.newFile("/a"));
+        sut.add(JvfsFileEntry.newFile("/b"));
+        assertThat(sut.isSameFile("/a", "/a"), is(true));
+        assertThat(sut.isSameFile("/a", "/b"), is(false));
+        sut.move("/a", "/c");
+        assertThat(sut.get("/c").getLinkCount(), is(1));
+        thrown.expect(NoSuchFileException.class);
+        sut.isSameFile("/a", "/b");
+    }
+
+    @Test
+    public void createSymbolicLink() throws IOException {
+        sut.add(new JvfsFileEntry("/a/b", false, "foo".getBytes()));
+        sut.createSymbolicLink("/c", "a");
+        assertThat(sut.readSymbolicLink("/c"), is(equalTo("a")));
+        assertThat(sut.getFileAttributes("/c", false).isSymbolicLink(), is(true));
+        assertThat(sut.getFileAttributes("/c").isDirectory(), is(true));
+        assertThat(sut.readAllBytes("/c/b"), is(equalTo("foo".getBytes())));
+        assertThat(sut.toRealPath("/c/b", true), is(equalTo("/a/b")));
+        assertThat(sut.toRealPath("/c", false), is(equalTo("/c")));
+
+        sut.writeAllBytes("/c/d", "bar".getBytes(), false);
+        assertThat(sut.contains("/a/d"), is(true));
+        sut.delete("/c");
+        assertThat(sut.contains("/c"), is(false));
+        assertThat(sut.contains("/a/b"), is(true));
+    }
+
+    @Test
+    public void createSymbolicLink_throwsExceptionIfExists() throws IOException {
+        sut.createSymbolicLink("/a", "/dangling");
+        thrown.expect(FileAlreadyExistsException.class);
+        sut.createSymbolicLink("/a", "/b");
+    }
+
+    @Test
+    public void readSymbolicLink_throwsExceptionIfNoLink() throws IOException {
+        sut.add(JvfsFileEntry.newFile("/a"));
+        thrown.expect(NotLinkException.class);
+        sut.readSymbolicLink("/a");
+    }
+
+    @Test
+    public void symbolicLink_isRetargetedByMove() throws IOException {
+        sut.add(JvfsFileEntry.newFile("/x/f"));
+        sut.add(JvfsFileEntry.newFile("/y/f"));
+        sut.createSymbolicLink("/l", "/x");
+        assertThat(sut.toRealPath("/l/f", true), is(equalTo("/x/f")));
+        sut.move("/l", "/m");
+        sut.createSymbolicLink("/l", "/y");
+        assertThat(sut.toRealPath("/l/f", true), is(equalTo("/y/f")));
+        assertThat(sut.toRealPath("/m/f", true), is(equalTo("/x/f")));
+    }
+
+    @Test
+    public void toRealPath_throwsExceptionIfNotExists() throws IOException {
+        sut.createSymbolicLink("/a", "/dangling");
+        assertThat(sut.toRealPath("/a", false), is(equalTo("/a")));
+        thrown.expect(NoSuchFileException.class);
+        sut.toRealPath("/a", true);
+    }
+
+    @Test
+    public void preallocate_throwsExceptionIfNotEnoughSpace() throws IOException {
+        sut.add(new JvfsFileEntry("/a", false, new byte[1024]));
+        sut.preallocate("/a", 1024 * 1024);
+        thrown.expect(FileSystemException.class);
+        thrown.expectMessage("No space left on device");
+        sut.preallocate("/a", 1024 * 1024 + 1);
+    }
+
+    @Test
+    public void preallocate_leavesNoFileBehindIfNotEnoughSpace() throws IOException {
+        final Set<OpenOption> options = JvfsCollections.newSet();
+        options.add(StandardOpenOption.CREATE);
+        options.add(StandardOpenOption.WRITE);
+        options.add(JvfsPreallocation.forValue("2M"));
+
+        try {
+            sut.newByteChannel("/a", options);
+        } catch (final FileSystemException ex) {
+            assertThat(ex.getReason(), is(equalTo("No space left on device")));
+        }
+
+        assertThat(sut.contains("/a"), is(false));
+    }
+
+    @Test
+    public void preallocate_concurrentPreallocationsDoNotOvercommit() throws Exception {
+        final long capacity = sut.getFileStore().getTotalSpace();
+        final long size = capacity / 3;
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger reserved = new AtomicInteger();
+        final List<Thread> workers = JvfsCollections.newList();
+
+        for (int i = 0; i < threads; ++i) {
+            final String path = "/file" + i;
+            sut.add(JvfsFileEntry.newFile(path));
+            final Thread worker = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        sut.preallocate(path, size);
+                        reserved.incrementAndGet();
+                    } catch (final InterruptedException | IOException ex) {
+                        // Not enough space left.
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+
+        start.countDown();
+
+        for (final Thread worker : workers) {
+            worker.join();
+        }
+
+        assertThat(reserved.get(), is(3));
+        assertThat(sut.getUsedSpace() <= capacity, is(true));
+    }
+
+    @Test
+    public void preallocate_throwsExceptionIfDirectory() throws IOException {
+        sut.add(JvfsFileEntry.newDir("/a"));
+        thrown.expect(FileSystemException.class);
+        thrown.expectMessage("Is a directory");
+        sut.preallocate("/a", 1);
+    }
+
+    @Test
+    public void mountsDevices() throws IOException {
+        final JvfsFileSystem fs = new JvfsFileSystem(provider, JvfsOptions.builder()
+            .devices("/dev")
+            .deviceSize("1k")
+            .create());
+        assertThat(fs.contains("/dev/null"), is(true));
+        assertThat(fs.contains("/dev/zero"), is(true));
+        assertThat(fs.contains("/dev/random"), is(true));
+        assertThat(fs.getFileAttributes("/dev/zero").isOther(), is(true));
+        assertThat(fs.getFileAttributes("/dev/zero").size(), is(1024L));
+        assertThat(fs.readAllBytes("/dev/zero"), is(equalTo(new byte[1024])));
+        assertThat(fs.readAllBytes("/dev/null").length, is(0));
+        fs.writeAllBytes("/dev/null", new byte[1024], false);
+        assertThat(fs.getUsedSpace(), is(0L));
+    }
+
+    @Test
+    public void mountDevices_throwsExceptionIfDirectoryIsRelative() {
+        thrown.expect(IllegalArgumentException.class);
+        new JvfsFileSystem(provider, JvfsOptions.builder().devices("dev").create());
+    }
+
+    private List<String> find(final String start, final String syntaxAndPattern) throws IOException {
+        final List<String> found = JvfsCollections.newList();
+
+        for (final Path path : sut.find(start, JvfsPathMatcher.newMatcher(syntaxAndPattern))) {
+            found.add(path.toString());
+        }
+
+        Collections.sort(found);
+        return found;
+    }
+
+    private void createTree() {
+        sut.add(new JvfsFileEntry("/src/main/java/a/A.java", false, new byte[0]));
+        sut.add(new JvfsFileEntry("/src/main/java/a/B.java", false, new byte[0]));
+        sut.add(new JvfsFileEntry("/src/test/java/a/ATest.java", false, new byte[0]));
+        sut.add(new JvfsFileEntry("/src/test/java/b/c/BTest.java", false, new byte[0]));
+        sut.add(new JvfsFileEntry("/src/test/resources/ATest.java", false, new byte[0]));
+        sut.add(new JvfsFileEntry("/doc/ATest.java", false, new byte[0]));
+    }
+
+    @Test
+    public void find_glob() throws IOException {
+        createTree();
+        assertThat(find("/", "glob:/src/test/java/**/*Test.java"),
+            contains("/src/test/java/a/ATest.java", "/src/test/java/b/c/BTest.java"));
+        assertThat(find("/", "glob:**/ATest.java"),
+            contains("/doc/ATest.java", "/src/test/java/a/ATest.java", "/src/test/resources/ATest.java"));
+        assertThat(find("/", "glob:/src/*/java"), contains("/src/main/java", "/src/test/java"));
+        assertThat(find("/", "glob:/src/{main,test}/java/a/*"),
+            contains("/src/main/java/a/A.java", "/src/main/java/a/B.java", "/src/test/java/a/ATest.java"));
+        assertThat(find("/", "glob:/"), contains("/"));
+        assertThat(find("/", "glob:/nowhere/**"), hasSize(0));
+    }
+
+    @Test
+    public void find_belowStart() throws IOException {
+        createTree();
+        assertThat(find("/src/test", "glob:**.java"), contains(
+            "/src/test/java/a/ATest.java", "/src/test/java/b/c/BTest.java", "/src/test/resources/ATest.java"));
+        assertThat(find("/src/test/java", "glob:/src/**/*Test.java"),
+            contains("/src/test/java/a/ATest.java", "/src/test/java/b/c/BTest.java"));
+        assertThat(find("/doc", "glob:/src/**"), hasSize(0));
+        assertThat(find("/doc/ATest.java", "glob:**.java"), contains("/doc/ATest.java"));
+    }
+
+    @Test
+    public void find_regex() throws IOException {
+        createTree();
+        assertThat(find("/src", "regex:.*/[AB]\\.java"),
+            contains("/src/main/java/a/A.java", "/src/main/java/a/B.java"));
+    }
+
+    @Test
+    public void find_skipsDeletedEntries() throws IOException {
+        createTree();
+        sut.delete("/doc/ATest.java");
+        assertThat(find("/", "glob:**/ATest.java"),
+            contains("/src/test/java/a/ATest.java", "/src/test/resources/ATest.java"));
+    }
+
+    @Test
+    public void find_throwsExceptionIfStartDoesNotExist() throws IOException {
+        thrown.expect(NoSuchFileException.class);
+        sut.find("/foo", JvfsPathMatcher.newMatcher("glob:**"));
+    }
 }
@@ -0,0 +1,208 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsContentProvider;
+import de.weltraumschaf.jvfs.JvfsGeneratedFile;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link JvfsGeneratedContent}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsGeneratedContentTest {
+
+    @Rule
+    //CHECKSTYLE:OFF
+    public final ExpectedException thrown = ExpectedException.none();
+    //CHECKSTYLE:ON
+
+    /**
+     * Gives the low byte of the position and records the requested ranges.
+     */
+    private static class Counting implements JvfsContentProvider {
+
+        private final long size;
+        private final List<String> requests = new ArrayList<String>();
+
+        Counting(final long size) {
+            this.size = size;
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public synchronized void read(final long position, final ByteBuffer destination) {
+            requests.add(position + "+" + destination.remaining());
+            long current = position;
+
+            while (destination.hasRemaining()) {
+                destination.put((byte) current++);
+            }
+        }
+    }
+
+    private static SeekableByteChannel open(final JvfsGeneratedContent content) throws IOException {
+        return content.newChannel(JvfsFileEntry.newSpecial("/generated", content), JvfsOpenFlags.READ_ONLY);
+    }
+
+    @Test
+    public void forValue() {
+        assertThat(JvfsGeneratedContent.forValue(), is(nullValue()));
+        final JvfsGeneratedContent sut = JvfsGeneratedContent.forValue(
+            JvfsGeneratedFile.forValue(new Counting(42L)));
+        assertThat(sut.size(), is(42L));
+        assertThat(sut.isRegularFile(), is(true));
+    }
+
+    @Test
+    public void read_generatesOnlyRequestedRange() throws IOException {
+        final Counting provider = new Counting(10L * 1024L * 1024L * 1024L);
+        final JvfsGeneratedContent sut = new JvfsGeneratedContent(provider, 0L);
+        final SeekableByteChannel channel = open(sut);
+        channel.position(5000000000L);
+        final ByteBuffer buffer = ByteBuffer.allocate(4);
+        assertThat(channel.read(buffer), is(4));
+        assertThat(buffer.array(), is(equalTo(new byte[] {0, 1, 2, 3})));
+        assertThat(channel.position(), is(5000000004L));
+        assertThat(channel.size(), is(provider.size()));
+        assertThat(provider.requests.toString(), is(equalTo("[5000000000+4]")));
+        assertThat(sut.allocatedSize(), is(0L));
+    }
+
+    @Test
+    public void read_endOfFile() throws IOException {
+        final SeekableByteChannel channel = open(new JvfsGeneratedContent(new Counting(3L), 0L));
+        final ByteBuffer buffer = ByteBuffer.allocate(10);
+        assertThat(channel.read(buffer), is(3));
+        assertThat(channel.read(buffer), is(-1));
+    }
+
+    @Test
+    public void read_cachesBlocks() throws IOException {
+        final Counting provider = new Counting(3L * JvfsGeneratedContent.BLOCK_SIZE);
+        final JvfsGeneratedContent sut = new JvfsGeneratedContent(provider, 2L * JvfsGeneratedContent.BLOCK_SIZE);
+        final SeekableByteChannel channel = open(sut);
+        final ByteBuffer buffer = ByteBuffer.allocate(4);
+        channel.position(JvfsGeneratedContent.BLOCK_SIZE - 2);
+        channel.read(buffer);
+        assertThat(buffer.array(), is(equalTo(new byte[] {-2, -1, 0, 1})));
+        assertThat(provider.requests.size(), is(2));
+        assertThat(sut.allocatedSize(), is(2L * JvfsGeneratedContent.BLOCK_SIZE));
+
+        buffer.clear();
+        channel.position(0L);
+        channel.read(buffer);
+        assertThat(buffer.array(), is(equalTo(new byte[] {0, 1, 2, 3})));
+        assertThat(provider.requests.size(), is(2));
+    }
+
+    @Test
+    public void read_evictsLeastRecentlyUsedBlocks() throws IOException {
+        final int block = JvfsGeneratedContent.BLOCK_SIZE;
+        final Counting provider = new Counting(3L * block);
+        final JvfsGeneratedContent sut = new JvfsGeneratedContent(provider, 2L * block);
+        final SeekableByteChannel channel = open(sut);
+        final ByteBuffer buffer = ByteBuffer.allocate(1);
+        channel.read(buffer);
+        buffer.clear();
+        channel.position(block).read(buffer);
+        buffer.clear();
+        channel.position(0L).read(buffer);
+        buffer.clear();
+        channel.position(2L * block).read(buffer);
+        assertThat(provider.requests.size(), is(3));
+        assertThat(sut.allocatedSize(), is(2L * block));
+
+        buffer.clear();
+        channel.position(0L).read(buffer);
+        assertThat(provider.requests.size(), is(3));
+        buffer.clear();
+        channel.position(block).read(buffer);
+        assertThat(provider.requests.size(), is(4));
+    }
+
+    @Test
+    public void read_keepsCacheWithinSizeIfShortBlockIsEvicted() throws IOException {
+        final int block = JvfsGeneratedContent.BLOCK_SIZE;
+        final Counting provider = new Counting(2L * block + 10L);
+        final long cacheSize = block + 100L;
+        final JvfsGeneratedContent sut = new JvfsGeneratedContent(provider, cacheSize);
+        final SeekableByteChannel channel = open(sut);
+        final ByteBuffer buffer = ByteBuffer.allocate(1);
+        channel.position(2L * block).read(buffer);
+        buffer.clear();
+        channel.position(0L).read(buffer);
+        assertThat(sut.allocatedSize(), is(block + 10L));
+
+        buffer.clear();
+        channel.position(block).read(buffer);
+        assertThat(sut.allocatedSize() <= cacheSize, is(true));
+        assertThat(sut.allocatedSize(), is((long) block));
+    }
+
+    @Test
+    public void read_throwsExceptionIfProviderLeavesBytes() throws IOException {
+        final JvfsGeneratedContent sut = new JvfsGeneratedContent(new Counting(10L) {
+            @Override
+            public synchronized void read(final long position, final ByteBuffer destination) {
+                destination.put((byte) 1);
+            }
+        }, 0L);
+        thrown.expect(IOException.class);
+        thrown.expectMessage("Content provider left 9 bytes at position 0 unfilled!");
+        open(sut).read(ByteBuffer.allocate(10));
+    }
+
+    @Test
+    public void newChannel_throwsExceptionIfWriting() throws IOException {
+        final JvfsGeneratedContent sut = new JvfsGeneratedContent(new Counting(10L), 0L);
+        thrown.expect(AccessDeniedException.class);
+        final JvfsOpenFlags flags = JvfsOpenFlags.of(Arrays.asList(StandardOpenOption.WRITE));
+        sut.newChannel(JvfsFileEntry.newSpecial("/generated", sut), flags);
+    }
+
+    @Test
+    public void write_throwsException() throws IOException {
+        thrown.expect(NonWritableChannelException.class);
+        open(new JvfsGeneratedContent(new Counting(10L), 0L)).write(ByteBuffer.allocate(1));
+    }
+
+    @Test
+    public void copy_hasEmptyCache() throws IOException {
+        final JvfsGeneratedContent sut = new JvfsGeneratedContent(new Counting(10L), 1024L);
+        open(sut).read(ByteBuffer.allocate(10));
+        assertThat(sut.allocatedSize(), is(10L));
+        assertThat(sut.copy().allocatedSize(), is(0L));
+        assertThat(sut.copy().size(), is(10L));
+    }
+
+}
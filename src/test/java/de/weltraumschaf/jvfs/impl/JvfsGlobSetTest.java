@@ -0,0 +1,103 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsCollections;
+import java.util.BitSet;
+import java.util.List;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JvfsGlobSet}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsGlobSetTest {
+
+    private static final String[] GLOBS = {
+        "/src/main/**/*.java", "/src/main/**/*.xml", "/src/test/**/*Test.java", "/src/main", "/src/*", "/src",
+        "**/*.java", "**.class", "*.txt", "**", "", "/target/**", "/{src,doc}/**/*.md", "/s[rt]c/x", "/src/?ain/*",
+        "foo", "foobar", "foo*", "{,a}b", "/src/main/java/A.java",
+    };
+    private static final String[] PATHS = {
+        "", "/", "/src", "/src/main", "/src/main/java/A.java", "/src/main/java/a/B.java", "/src/main/res/a.xml",
+        "/src/test/java/FooTest.java", "/src/test/java/Foo.java", "/target/classes/A.class", "A.class", "a.txt",
+        "x/a.txt", "/doc/a/b.md", "/src/x.md", "/stc/x", "/src/x", "foo", "foobar", "foobaz", "b", "ab", "/tmp",
+    };
+
+    private static List<JvfsGlob> compileAll(final String... globs) {
+        final List<JvfsGlob> compiled = JvfsCollections.newList();
+
+        for (final String glob : globs) {
+            compiled.add(JvfsGlob.compile(glob));
+        }
+
+        return compiled;
+    }
+
+    @Test
+    public void match_sameAsEachGlob() {
+        final List<JvfsGlob> globs = compileAll(GLOBS);
+        final JvfsGlobSet sut = JvfsGlobSet.compile(globs);
+        assertThat(sut.size(), is(GLOBS.length));
+
+        for (final String path : PATHS) {
+            final BitSet expected = new BitSet();
+
+            for (int i = 0; i < globs.size(); ++i) {
+                if (globs.get(i).matches(path)) {
+                    expected.set(i);
+                }
+            }
+
+            assertThat(path, sut.match(path), is(equalTo(expected)));
+        }
+    }
+
+    @Test
+    public void match_empty() {
+        final JvfsGlobSet sut = JvfsGlobSet.compile(compileAll());
+        assertThat(sut.size(), is(0));
+        assertThat(sut.match("/foo").isEmpty(), is(true));
+    }
+
+    @Test
+    public void match_duplicateGlobs() {
+        final JvfsGlobSet sut = JvfsGlobSet.compile(compileAll("/foo/*", "/foo/*"));
+        final BitSet expected = new BitSet();
+        expected.set(0, 2);
+        assertThat(sut.match("/foo/bar"), is(equalTo(expected)));
+        assertThat(sut.match("/foo").isEmpty(), is(true));
+    }
+
+    @Test
+    public void compile_sharesPrefixes() {
+        final String[] globs = new String[300];
+        int positions = 0;
+
+        for (int i = 0; i < globs.length; ++i) {
+            globs[i] = "/home/user/project/module" + i + "/**/*.java";
+            positions += JvfsGlob.compile(globs[i]).getPositionCount() + 1;
+        }
+
+        final JvfsGlobSet sut = JvfsGlobSet.compile(compileAll(globs));
+        assertThat(sut.getPositionCount(), is(lessThan(positions / 2)));
+        assertThat(sut.match("/home/user/project/module42/src/Foo.java").nextSetBit(0), is(42));
+        assertThat(sut.match("/home/user/project/module42/src/Foo.java").cardinality(), is(1));
+        assertThat(sut.match("/home/user/other/module42/src/Foo.java").isEmpty(), is(true));
+    }
+
+}
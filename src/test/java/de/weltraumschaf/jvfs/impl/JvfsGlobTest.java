@@ -0,0 +1,123 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import java.util.regex.Pattern;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JvfsGlob}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsGlobTest {
+
+    private static final String[] GLOBS = {
+        "*.java", "**.java", "**/*.java", "/foo/*.java", "?oo*.java", "foo,bar", "foo\\ bar*.java",
+        "[Ff]oobar*.java", "[^a]oobar*.java", "[!a-d]oobar*.java", "[-d]oobar*.java", "[a-]x", "[\\[&&]",
+        "image.{gif,jpg,png}", "foo\\{}bar", "{,a}b", "a{b,c*}d", "**", "*", "a**b", "/**/test/**/*Test.java",
+        "{**/,}x", "*.{a,b}/**",
+    };
+    private static final String[] PATHS = {
+        "", "/", "Foo.java", "foo.java", "x/foo.java", "/foo/bar.java", "/foo/x/bar.java", "foo,bar", "foo bar1.java",
+        "foobar.java", "Foobar.java", "^oobar.java", "aoobar.java", "eoobar.java", "-oobar.java", "ax", "-x", "bx",
+        "[", "\\", "&", "image.gif", "image.png", "image.bmp", "foo{}bar", "b", "ab", "abd", "acd", "acxxd", "ac/d",
+        "a/b", "ab", "a//b", "/src/test/de/FooTest.java", "/src/main/test/x/FooTest.java", "x", "dir/x", "/x",
+        "f.a/b/c", "f.b", "f.c/d",
+    };
+
+    @Test
+    public void matches_sameAsRegexTranslation() {
+        for (final String glob : GLOBS) {
+            final JvfsGlob sut = JvfsGlob.compile(glob);
+            final Pattern regex = Pattern.compile(JvfsPathMatcher.newMatcher("glob:" + glob).getPattern());
+
+            for (final String path : PATHS) {
+                assertThat(glob + " on " + path, sut.matches(path), is(regex.matcher(path).matches()));
+            }
+        }
+    }
+
+    @Test
+    public void matches_largeGlob() {
+        final StringBuilder glob = new StringBuilder();
+        final StringBuilder path = new StringBuilder();
+
+        for (int i = 0; i < 50; ++i) {
+            glob.append("/d").append(i).append("*");
+            path.append("/d").append(i).append("x");
+        }
+
+        final JvfsGlob sut = JvfsGlob.compile(glob.toString());
+        assertThat(sut.matches(path.toString()), is(true));
+        assertThat(sut.matches(path.toString() + "/y"), is(false));
+        assertThat(sut.matches(path.substring(1)), is(false));
+    }
+
+    @Test
+    public void getSuffix() {
+        assertThat(JvfsGlob.compile("**/*Test.java").getSuffix(), is(equalTo("Test.java")));
+        assertThat(JvfsGlob.compile("image.{gif,jpg}").getSuffix(), is(equalTo("")));
+        assertThat(JvfsGlob.compile("*.{gif,jpg}.bak").getSuffix(), is(equalTo(".bak")));
+        assertThat(JvfsGlob.compile("foo").getSuffix(), is(equalTo("foo")));
+        assertThat(JvfsGlob.compile("foo*").getSuffix(), is(equalTo("")));
+    }
+
+    @Test
+    public void getPrefix() {
+        assertThat(JvfsGlob.compile("/src/main/**/*.java").getPrefix(), is(equalTo("/src/main/")));
+        assertThat(JvfsGlob.compile("\\*foo?").getPrefix(), is(equalTo("*foo")));
+        assertThat(JvfsGlob.compile("{a,b}c").getPrefix(), is(equalTo("")));
+        assertThat(JvfsGlob.compile("a[bc]d").getPrefix(), is(equalTo("a")));
+        assertThat(JvfsGlob.compile("foo").getPrefix(), is(equalTo("foo")));
+    }
+
+    @Test
+    public void getStartAndFollow() {
+        final JvfsGlob sut = JvfsGlob.compile("a*");
+        assertThat(sut.getPositionCount(), is(2));
+        assertThat(sut.getStart(), is(equalTo(new int[] {0})));
+        assertThat(sut.getFollow(0), is(equalTo(new int[] {1, 2})));
+        assertThat(sut.getFollow(1), is(equalTo(new int[] {1, 2})));
+        assertThat(JvfsGlob.compile("").getStart(), is(equalTo(new int[] {0})));
+    }
+
+    @Test
+    public void advance_sameAsMatches() {
+        for (final String glob : GLOBS) {
+            final JvfsGlob sut = JvfsGlob.compile(glob);
+
+            for (final String path : PATHS) {
+                for (int split = 0; split <= path.length(); ++split) {
+                    final long[] head = sut.advance(sut.getStartState(), path.substring(0, split), 0);
+                    final long[] state = null == head ? null : sut.advance(head, path, split);
+                    final boolean matches = null != state && sut.isAccepting(state);
+                    assertThat(glob + " on " + path + " split at " + split, matches, is(sut.matches(path)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void advance_returnsNullIfNothingCanMatch() {
+        final JvfsGlob sut = JvfsGlob.compile("/src/*/java/**");
+        assertThat(sut.advance(sut.getStartState(), "/doc/", 0), is(nullValue()));
+        assertThat(sut.advance(sut.getStartState(), "/src/main/res/", 0), is(nullValue()));
+        assertThat(sut.advance(sut.getStartState(), "/src/main/java/", 0), is(not(nullValue())));
+        assertThat(sut.isAccepting(sut.advance(sut.getStartState(), "/src/main/java", 0)), is(false));
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsCollections;
+import de.weltraumschaf.jvfs.JvfsOptions;
+import de.weltraumschaf.jvfs.JvfsPathCharset;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link JvfsIgnoreEngine}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsIgnoreEngineTest {
+
+    @Rule
+    //CHECKSTYLE:OFF
+    public final ExpectedException thrown = ExpectedException.none();
+    //CHECKSTYLE:ON
+    private final JvfsFileSystem fs = new JvfsFileSystem(
+        new JvfsFileSystemProvider(), JvfsOptions.builder().capacity("1M").pathCharset(JvfsPathCharset.ANY).create());
+    private final JvfsIgnoreEngine sut = new JvfsIgnoreEngine(fs, "/repo", ".gitignore");
+
+    @Before
+    public void createRepository() throws IOException {
+        Files.createDirectories(fs.getPath("/repo/src/main"));
+        Files.createDirectories(fs.getPath("/repo/build/classes"));
+        Files.createDirectories(fs.getPath("/repo/doc/api"));
+    }
+
+    private void write(final String path, final String... lines) throws IOException {
+        final StringBuilder text = new StringBuilder();
+
+        for (final String line : lines) {
+            text.append(line).append('\n');
+        }
+
+        Files.write(fs.getPath(path), text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private boolean ignored(final String path) throws IOException {
+        return sut.isIgnored(fs.getPath(path), false);
+    }
+
+    private boolean ignoredDirectory(final String path) throws IOException {
+        return sut.isIgnored(fs.getPath(path), true);
+    }
+
+    @Test
+    public void isIgnored_withoutIgnoreFiles() throws IOException {
+        assertThat(ignored("/repo/Foo.java"), is(false));
+        assertThat(ignoredDirectory("/repo/build"), is(false));
+    }
+
+    @Test
+    public void isIgnored_unanchoredMatchesAtAnyDepth() throws IOException {
+        write("/repo/.gitignore", "# comment", "", "*.class", "tmp");
+        assertThat(ignored("/repo/Foo.class"), is(true));
+        assertThat(ignored("/repo/src/main/Foo.class"), is(true));
+        assertThat(ignored("/repo/src/main/Foo.java"), is(false));
+        assertThat(ignoredDirectory("/repo/src/tmp"), is(true));
+        assertThat(ignored("/repo/src/tmp/x"), is(true));
+        assertThat(ignored("/repo/# comment"), is(false));
+    }
+
+    @Test
+    public void isIgnored_anchored() throws IOException {
+        write("/repo/.gitignore", "/build", "doc/api");
+        assertThat(ignoredDirectory("/repo/build"), is(true));
+        assertThat(ignored("/repo/build/classes/Foo.class"), is(true));
+        assertThat(ignoredDirectory("/repo/src/build"), is(false));
+        assertThat(ignoredDirectory("/repo/doc/api"), is(true));
+        assertThat(ignoredDirectory("/repo/src/doc/api"), is(false));
+    }
+
+    @Test
+    public void isIgnored_directoryOnly() throws IOException {
+        write("/repo/.gitignore", "build/");
+        assertThat(ignoredDirectory("/repo/build"), is(true));
+        assertThat(ignored("/repo/build"), is(false));
+        assertThat(ignored("/repo/src/build"), is(false));
+        assertThat(ignoredDirectory("/repo/src/build"), is(true));
+    }
+
+    @Test
+    public void isIgnored_negation() throws IOException {
+        write("/repo/.gitignore", "*.log", "!keep.log", "\\!bang", "\\#hash");
+        assertThat(ignored("/repo/a.log"), is(true));
+        assertThat(ignored("/repo/keep.log"), is(false));
+        assertThat(ignored("/repo/!bang"), is(true));
+        assertThat(ignored("/repo/#hash"), is(true));
+    }
+
+    @Test
+    public void isIgnored_negationCanNotIncludeBelowIgnoredDirectory() throws IOException {
+        write("/repo/.gitignore", "build/", "!build/classes/Foo.class");
+        assertThat(ignored("/repo/build/classes/Foo.class"), is(true));
+    }
+
+    @Test
+    public void isIgnored_doubleStars() throws IOException {
+        write("/repo/.gitignore", "**/main", "doc/**", "a/**/b");
+        assertThat(ignoredDirectory("/repo/src/main"), is(true));
+        assertThat(ignoredDirectory("/repo/main"), is(true));
+        assertThat(ignored("/repo/doc/index.html"), is(true));
+        assertThat(ignoredDirectory("/repo/doc"), is(false));
+        assertThat(ignored("/repo/a/b"), is(true));
+        assertThat(ignored("/repo/a/x/y/b"), is(true));
+        assertThat(ignored("/repo/a/xb"), is(false));
+    }
+
+    @Test
+    public void isIgnored_specialCharacters() throws IOException {
+        write("/repo/.gitignore", "{a,b}", "x[0-9]", "[^y]z", "trailing\\ ", "spaces   ");
+        assertThat(ignored("/repo/{a,b}"), is(true));
+        assertThat(ignored("/repo/a"), is(false));
+        assertThat(ignored("/repo/x5"), is(true));
+        assertThat(ignored("/repo/xa"), is(false));
+        assertThat(ignored("/repo/az"), is(true));
+        assertThat(ignored("/repo/yz"), is(false));
+        assertThat(ignored("/repo/trailing "), is(true));
+        assertThat(ignored("/repo/spaces"), is(true));
+    }
+
+    @Test
+    public void isIgnored_deeperFilesTakePrecedence() throws IOException {
+        write("/repo/.gitignore", "*.txt");
+        write("/repo/src/.gitignore", "!*.txt", "*.tmp");
+        assertThat(ignored("/repo/a.txt"), is(true));
+        assertThat(ignored("/repo/src/a.txt"), is(false));
+        assertThat(ignored("/repo/src/main/a.txt"), is(false));
+        assertThat(ignored("/repo/src/a.tmp"), is(true));
+        assertThat(ignored("/repo/a.tmp"), is(false));
+    }
+
+    @Test
+    public void isIgnored_outsideOfRoot() throws IOException {
+        write("/repo/.gitignore", "*");
+        assertThat(ignored("/repo/x"), is(true));
+        assertThat(ignoredDirectory("/repo"), is(false));
+        assertThat(ignored("/other/x"), is(false));
+        assertThat(ignored("/repository"), is(false));
+    }
+
+    @Test
+    public void isIgnored_looksUpDirectories() throws IOException {
+        write("/repo/.gitignore", "build/");
+        assertThat(sut.isIgnored(fs.getPath("/repo/build")), is(true));
+        assertThat(sut.isIgnored(fs.getPath("/repo/src/build")), is(false));
+    }
+
+    @Test
+    public void isIgnored_picksUpChangedIgnoreFiles() throws IOException {
+        write("/repo/.gitignore", "*.class");
+        assertThat(ignored("/repo/src/main/Foo.class"), is(true));
+        assertThat(ignored("/repo/src/main/Foo.java"), is(false));
+
+        write("/repo/.gitignore", "*.java");
+        assertThat(ignored("/repo/src/main/Foo.class"), is(false));
+        assertThat(ignored("/repo/src/main/Foo.java"), is(true));
+
+        write("/repo/src/.gitignore", "!Foo.java");
+        assertThat(ignored("/repo/src/main/Foo.java"), is(false));
+
+        Files.delete(fs.getPath("/repo/src/.gitignore"));
+        assertThat(ignored("/repo/src/main/Foo.java"), is(true));
+    }
+
+    @Test
+    public void isIgnored_skipsInvalidRules() throws IOException {
+        write("/repo/.gitignore", "[a/b]", "*.class");
+        assertThat(ignored("/repo/Foo.class"), is(true));
+    }
+
+    @Test
+    public void filter_prunesIgnoredDirectories() throws IOException {
+        write("/repo/.gitignore", "build/", "*.html");
+        final List<String> visited = JvfsCollections.newList();
+        final FileVisitor<Path> filter = sut.filter(new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+                visited.add(dir.toString());
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                visited.add(file.toString());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        final BasicFileAttributes attrs = mock(BasicFileAttributes.class);
+
+        assertThat(filter.preVisitDirectory(fs.getPath("/repo"), attrs), is(FileVisitResult.CONTINUE));
+        assertThat(filter.preVisitDirectory(fs.getPath("/repo/build"), attrs), is(FileVisitResult.SKIP_SUBTREE));
+        assertThat(filter.preVisitDirectory(fs.getPath("/repo/doc"), attrs), is(FileVisitResult.CONTINUE));
+        assertThat(filter.visitFile(fs.getPath("/repo/doc/index.html"), attrs), is(FileVisitResult.CONTINUE));
+        assertThat(filter.visitFile(fs.getPath("/repo/doc/index.txt"), attrs), is(FileVisitResult.CONTINUE));
+        assertThat(visited, contains("/repo", "/repo/doc", "/repo/doc/index.txt"));
+    }
+
+    @Test
+    public void getCacheSize() throws IOException {
+        write("/repo/.gitignore", "*.class");
+        ignored("/repo/src/main/Foo.class");
+        assertThat(sut.getCacheSize(), is(3));
+    }
+
+}
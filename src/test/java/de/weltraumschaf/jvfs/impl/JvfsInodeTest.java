@@ -0,0 +1,62 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import java.nio.ByteBuffer;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JvfsInode}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsInodeTest {
+
+    private final JvfsInode sut = new JvfsInode(JvfsFileContent.EMPTY, null);
+
+    @Test
+    public void links() {
+        assertThat(sut.getLinks(), is(1));
+        sut.link();
+        assertThat(sut.getLinks(), is(2));
+        sut.unlink();
+        sut.unlink();
+        assertThat(sut.getLinks(), is(0));
+    }
+
+    @Test
+    public void id() {
+        assertThat(sut.getId(), is(not(equalTo(new JvfsInode(JvfsFileContent.EMPTY, null).getId()))));
+        assertThat(sut.toString(), is(equalTo("inode:" + sut.getId())));
+    }
+
+    @Test
+    public void copy() {
+        sut.append(ByteBuffer.wrap("foo".getBytes()));
+        sut.setLastModifiedTime(1L);
+        sut.setHidden(true);
+        sut.link();
+        final JvfsInode copy = sut.copy();
+        assertThat(copy.getId(), is(not(sut.getId())));
+        assertThat(copy.getLinks(), is(1));
+        assertThat(copy.getContent().toByteArray(), is(equalTo("foo".getBytes())));
+        assertThat(copy.getLastModifiedTime(), is(1L));
+        assertThat(copy.isHidden(), is(true));
+        assertThat(copy.getPermissions(), is(not(sameInstance(sut.getPermissions()))));
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link JvfsInputStream}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsInputStreamTest {
+
+    //CHECKSTYLE:OFF
+    @Rule public final ExpectedException thrown = ExpectedException.none();
+    //CHECKSTYLE:ON
+
+    private final JvfsFileEntry entry = new JvfsFileEntry("/foo", false, "abcdef".getBytes());
+
+    @Test
+    public void read() throws IOException {
+        final JvfsInputStream sut = new JvfsInputStream(entry);
+        assertThat(sut.read(), is((int) 'a'));
+        final byte[] buffer = new byte[4];
+        assertThat(sut.read(buffer, 0, 4), is(4));
+        assertThat(new String(buffer), is(equalTo("bcde")));
+        assertThat(sut.read(buffer, 1, 3), is(1));
+        assertThat((char) buffer[1], is('f'));
+        assertThat(sut.read(), is(-1));
+        assertThat(sut.read(buffer, 0, 4), is(-1));
+    }
+
+    @Test
+    public void skipAndAvailable() throws IOException {
+        final JvfsInputStream sut = new JvfsInputStream(entry);
+        assertThat(sut.available(), is(6));
+        assertThat(sut.skip(4), is(4L));
+        assertThat(sut.available(), is(2));
+        assertThat(sut.skip(4), is(2L));
+        assertThat(sut.available(), is(0));
+    }
+
+    @Test
+    public void markAndReset() throws IOException {
+        final JvfsInputStream sut = new JvfsInputStream(entry);
+        sut.skip(2);
+        sut.mark(0);
+        assertThat(sut.read(), is((int) 'c'));
+        sut.reset();
+        assertThat(sut.read(), is((int) 'c'));
+    }
+
+    @Test
+    public void readsPinnedVersion() throws IOException {
+        final JvfsInputStream sut = new JvfsInputStream(entry);
+        entry.write(0, ByteBuffer.wrap("XYZ".getBytes()));
+        entry.truncate(3);
+        assertThat(sut.available(), is(6));
+        final byte[] buffer = new byte[6];
+        assertThat(sut.read(buffer), is(6));
+        assertThat(new String(buffer), is(equalTo("abcdef")));
+    }
+
+    @Test
+    public void read_throwsExceptionIfClosed() throws IOException {
+        final JvfsInputStream sut = new JvfsInputStream(entry);
+        sut.close();
+        thrown.expect(IOException.class);
+        thrown.expectMessage("Stream closed!");
+        sut.read();
+    }
+
+}
@@ -11,21 +11,40 @@
  */
 package de.weltraumschaf.jvfs.impl;
 
+import de.weltraumschaf.jvfs.JvfsCircularFile;
+import de.weltraumschaf.jvfs.JvfsContentProvider;
 import de.weltraumschaf.jvfs.JvfsFileSystems;
+import de.weltraumschaf.jvfs.JvfsGeneratedFile;
+import de.weltraumschaf.jvfs.JvfsOpenOption;
+import de.weltraumschaf.jvfs.JvfsPipeFile;
+import de.weltraumschaf.jvfs.JvfsReadRange;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AccessDeniedException;
 import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.PosixFilePermission;
+import java.util.Arrays;
+import java.util.List;
 import org.apache.commons.io.IOUtils;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import org.junit.After;
 import static org.junit.Assert.assertThat;
 import org.junit.Before;
@@ -223,4 +242,285 @@ public void fileAttributes() throws IOException {
         assertThat(Files.isWritable(file), is(false));
     }
 
+    @Test
+    public void readAndWriteAllBytes() throws IOException {
+        final Path foo = root.resolve("foo");
+        JvfsFileSystems.write(foo, "foo".getBytes());
+        assertThat(Files.exists(foo), is(true));
+        assertThat(new String(JvfsFileSystems.readAllBytes(foo)), is(equalTo("foo")));
+        assertThat(new String(Files.readAllBytes(foo)), is(equalTo("foo")));
+
+        JvfsFileSystems.write(foo, "ba".getBytes());
+        assertThat(new String(JvfsFileSystems.readAllBytes(foo)), is(equalTo("ba")));
+    }
+
+    @Test
+    public void writeAllBytes_copiesOrTakesOwnership() throws IOException {
+        final JvfsFileSystemProvider provider = (JvfsFileSystemProvider) root.getFileSystem().provider();
+        final Path foo = root.resolve("foo");
+        final byte[] bytes = "foo".getBytes();
+        provider.writeAllBytes(foo, bytes);
+        bytes[0] = 'b';
+        assertThat(new String(provider.readAllBytes(foo)), is(equalTo("foo")));
+
+        provider.writeAllBytes(foo, bytes, true);
+        assertThat(((JvfsPath) foo).readAllBytes(), is(not(sameInstance(bytes))));
+        assertThat(new String(provider.readAllBytes(foo)), is(equalTo("boo")));
+    }
+
+    @Test
+    public void readAllBytes_throwsExceptionIfDirectory() throws IOException {
+        final Path foo = Files.createDirectory(root.resolve("foo"));
+        thrown.expect(NoSuchFileException.class);
+        JvfsFileSystems.readAllBytes(foo);
+    }
+
+    @Test
+    public void newOutputStream_truncatesOrAppends() throws IOException {
+        final Path foo = root.resolve("foo");
+        JvfsFileSystems.write(foo, "foobar".getBytes());
+
+        OutputStream out = Files.newOutputStream(foo);
+        IOUtils.write("baz", out);
+        IOUtils.closeQuietly(out);
+        assertThat(new String(Files.readAllBytes(foo)), is(equalTo("baz")));
+
+        out = Files.newOutputStream(foo, StandardOpenOption.APPEND);
+        IOUtils.write("bar", out);
+        IOUtils.closeQuietly(out);
+        assertThat(new String(Files.readAllBytes(foo)), is(equalTo("bazbar")));
+    }
+
+    @Test
+    public void newInputStream_throwsExceptionIfFileDoesNotExist() throws IOException {
+        thrown.expect(NoSuchFileException.class);
+        Files.newInputStream(root.resolve("foo"));
+    }
+
+    @Test
+    public void adoptAndReadOnlyView() throws IOException {
+        final Path foo = root.resolve("foo");
+        JvfsFileSystems.adopt(foo, ByteBuffer.wrap("foobar".getBytes()));
+        assertThat(new String(Files.readAllBytes(foo)), is(equalTo("foobar")));
+
+        final ByteBuffer view = JvfsFileSystems.readOnlyView(foo);
+        JvfsFileSystems.write(foo, "baz".getBytes());
+        assertThat(view.isReadOnly(), is(true));
+        final byte[] bytes = new byte[view.remaining()];
+        view.get(bytes);
+        assertThat(new String(bytes), is(equalTo("foobar")));
+        assertThat(JvfsFileSystems.readOnlyView(foo).remaining(), is(3));
+    }
+
+    @Test
+    public void readOnlyView_throwsExceptionIfFileDoesNotExist() throws IOException {
+        thrown.expect(NoSuchFileException.class);
+        JvfsFileSystems.readOnlyView(root.resolve("foo"));
+    }
+
+    @Test
+    public void sealOnClose() throws IOException {
+        final Path foo = root.resolve("foo");
+        final OutputStream out = Files.newOutputStream(foo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                JvfsOpenOption.SEAL_ON_CLOSE);
+        IOUtils.write("foo", out);
+        IOUtils.closeQuietly(out);
+        assertThat(new String(Files.readAllBytes(foo)), is(equalTo("foo")));
+        thrown.expect(AccessDeniedException.class);
+        Files.newOutputStream(foo);
+    }
+
+    @Test
+    public void seal() throws IOException {
+        final Path foo = root.resolve("foo");
+        JvfsFileSystems.write(foo, "foo".getBytes());
+        JvfsFileSystems.seal(foo);
+        assertThat(new String(JvfsFileSystems.readAllBytes(foo)), is(equalTo("foo")));
+        thrown.expect(AccessDeniedException.class);
+        JvfsFileSystems.write(foo, "bar".getBytes());
+    }
+
+    @Test
+    public void readAndSliceRanges() throws IOException {
+        final Path foo = root.resolve("foo");
+        JvfsFileSystems.write(foo, "0123456789".getBytes());
+        final ByteBuffer footer = ByteBuffer.allocate(2);
+        final ByteBuffer header = ByteBuffer.allocate(3);
+        assertThat(JvfsFileSystems.read(foo, Arrays.asList(JvfsReadRange.of(8, footer), JvfsReadRange.of(0, header))),
+            is(5L));
+        assertThat(new String(footer.array()), is(equalTo("89")));
+        assertThat(new String(header.array()), is(equalTo("012")));
+
+        final List<ByteBuffer> slices = JvfsFileSystems.slice(foo, Arrays.asList(JvfsReadRange.of(4, 2)));
+        assertThat(slices.size(), is(1));
+        assertThat(slices.get(0).remaining(), is(2));
+        assertThat(slices.get(0).get(1), is((byte) '5'));
+    }
+
+    @Test
+    public void countsOpenHandles() throws IOException {
+        final Path foo = root.resolve("foo");
+        final JvfsFileSystem fs = (JvfsFileSystem) root.getFileSystem();
+        final OutputStream out = Files.newOutputStream(foo);
+        assertThat(fs.getOpenHandles("/foo"), is(1));
+        final SeekableByteChannel channel = Files.newByteChannel(foo);
+        final FileChannel fileChannel = FileChannel.open(foo, StandardOpenOption.READ);
+        final InputStream in = Files.newInputStream(foo);
+        assertThat(fs.getOpenHandles("/foo"), is(4));
+        out.close();
+        out.close();
+        channel.close();
+        fileChannel.close();
+        in.close();
+        in.close();
+        assertThat(fs.getOpenHandles("/foo"), is(0));
+    }
+
+    @Test
+    public void circularFile() throws IOException {
+        final Path log = root.resolve("log");
+        Files.createFile(log, JvfsCircularFile.forValue(8));
+        Files.write(log, "12345".getBytes(), StandardOpenOption.APPEND);
+        Files.write(log, "6789".getBytes(), StandardOpenOption.APPEND);
+        assertThat(new String(Files.readAllBytes(log)), is(equalTo("23456789")));
+        assertThat(Files.size(log), is(8L));
+
+        try (final SeekableByteChannel channel = Files.newByteChannel(log, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap("abc".getBytes()));
+        }
+
+        assertThat(new String(JvfsFileSystems.readAllBytes(log)), is(equalTo("56789abc")));
+        assertThat(IOUtils.toString(Files.newInputStream(log)), is(equalTo("56789abc")));
+        assertThat(((JvfsFileSystem) root.getFileSystem()).getUsedSpace(), is(8L));
+
+        JvfsFileSystems.write(log, "0123456789".getBytes());
+        assertThat(new String(Files.readAllBytes(log)), is(equalTo("23456789")));
+    }
+
+    @Test
+    public void circularFile_hasNoView() throws IOException {
+        final Path log = root.resolve("log");
+        Files.createFile(log, JvfsCircularFile.forValue(8));
+        thrown.expect(FileSystemException.class);
+        thrown.expectMessage("Not a regular file");
+        JvfsFileSystems.readOnlyView(log);
+    }
+
+    @Test
+    public void pipe() throws Exception {
+        final Path pipe = root.resolve("pipe");
+        Files.createFile(pipe, JvfsPipeFile.forValue(4));
+        assertThat(Files.isRegularFile(pipe), is(false));
+        assertThat(Files.readAttributes(pipe, BasicFileAttributes.class).isOther(), is(true));
+        final SeekableByteChannel consumer = Files.newByteChannel(pipe);
+        final Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try (final OutputStream out = Files.newOutputStream(pipe)) {
+                    for (int i = 0; i < 100; ++i) {
+                        out.write(("message " + i + "\n").getBytes());
+                    }
+                } catch (final IOException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        });
+        producer.start();
+        final String received;
+
+        try (final InputStream in = Channels.newInputStream(consumer)) {
+            received = IOUtils.toString(in);
+        }
+
+        producer.join();
+        assertThat(received.split("\n").length, is(100));
+        assertThat(received.startsWith("message 0\nmessage 1\n"), is(true));
+        assertThat(((JvfsFileSystem) root.getFileSystem()).getOpenHandles("/pipe"), is(0));
+    }
+
+    @Test
+    public void generatedFile() throws IOException {
+        final Path pattern = root.resolve("pattern");
+        Files.createFile(pattern, JvfsGeneratedFile.forValue(new JvfsContentProvider() {
+            @Override
+            public long size() {
+                return 10L * 1024L * 1024L * 1024L;
+            }
+
+            @Override
+            public void read(final long position, final ByteBuffer destination) {
+                long current = position;
+
+                while (destination.hasRemaining()) {
+                    destination.put((byte) ('a' + current++ % 26));
+                }
+            }
+        }, "1M"));
+        assertThat(Files.isRegularFile(pattern), is(true));
+        assertThat(Files.size(pattern), is(10L * 1024L * 1024L * 1024L));
+
+        try (final SeekableByteChannel channel = Files.newByteChannel(pattern)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(3);
+            channel.position(26L * 300000000L + 1);
+            channel.read(buffer);
+            assertThat(new String(buffer.array()), is(equalTo("bcd")));
+        }
+
+        final byte[] head = new byte[5];
+        IOUtils.readFully(Files.newInputStream(pattern), head);
+        assertThat(new String(head), is(equalTo("abcde")));
+        thrown.expect(AccessDeniedException.class);
+        Files.write(pattern, "foo".getBytes());
+    }
+
+    @Test
+    public void hardLink() throws IOException {
+        final Path output = root.resolve("out/lib.jar");
+        final Path staged = root.resolve("stage/lib.jar");
+        Files.createDirectories(output.getParent());
+        Files.createDirectories(staged.getParent());
+        Files.write(output, "foo".getBytes());
+        Files.createLink(staged, output);
+        assertThat(Files.isSameFile(output, staged), is(true));
+        assertThat(Files.readAttributes(staged, BasicFileAttributes.class).fileKey(),
+            is(equalTo(Files.readAttributes(output, BasicFileAttributes.class).fileKey())));
+        assertThat(((JvfsFileSystem) root.getFileSystem()).getUsedSpace(), is(3L));
+
+        Files.write(staged, "bar".getBytes());
+        assertThat(new String(Files.readAllBytes(output)), is(equalTo("bar")));
+
+        Files.delete(output);
+        assertThat(new String(Files.readAllBytes(staged)), is(equalTo("bar")));
+        assertThat(Files.isSameFile(staged, root.resolve("stage/../stage/lib.jar").normalize()), is(true));
+    }
+
+    @Test
+    public void symbolicLink() throws IOException {
+        final Path module = root.resolve("store/pkg-1.0/index.js");
+        Files.createDirectories(module.getParent());
+        Files.write(module, "module".getBytes());
+        final Path link = root.resolve("node_modules/pkg");
+        Files.createDirectories(link.getParent());
+        Files.createSymbolicLink(link, root.getFileSystem().getPath("../store/pkg-1.0"));
+
+        assertThat(Files.isSymbolicLink(link), is(true));
+        assertThat(Files.isDirectory(link), is(true));
+        assertThat(Files.readSymbolicLink(link).toString(), is(equalTo("../store/pkg-1.0")));
+        assertThat(new String(Files.readAllBytes(link.resolve("index.js"))), is(equalTo("module")));
+        assertThat(link.resolve("index.js").toRealPath().toString(), is(equalTo("/store/pkg-1.0/index.js")));
+        assertThat(Files.isSameFile(link.resolve("index.js"), module), is(true));
+
+        Files.delete(link);
+        assertThat(Files.exists(link), is(false));
+        assertThat(Files.exists(module), is(true));
+    }
+
+    @Test
+    public void symbolicLink_loop() throws IOException {
+        Files.createSymbolicLink(root.resolve("a"), root.resolve("b"));
+        Files.createSymbolicLink(root.resolve("b"), root.resolve("a"));
+        thrown.expect(FileSystemException.class);
+        thrown.expectMessage("Too many levels of symbolic links");
+        Files.readAllBytes(root.resolve("a"));
+    }
 }
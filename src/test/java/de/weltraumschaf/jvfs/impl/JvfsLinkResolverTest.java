@@ -0,0 +1,114 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsCollections;
+import java.nio.file.FileSystemException;
+import java.util.Map;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link JvfsLinkResolver}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsLinkResolverTest {
+
+    @Rule
+    //CHECKSTYLE:OFF
+    public final ExpectedException thrown = ExpectedException.none();
+    //CHECKSTYLE:ON
+    private final Map<String, JvfsFileEntry> attic = JvfsCollections.newMap();
+    private final JvfsLinkResolver sut = new JvfsLinkResolver(attic);
+
+    private void link(final String path, final String target) {
+        attic.put(path, JvfsFileEntry.newSymbolicLink(path, target));
+        sut.linkAdded();
+    }
+
+    @Test
+    public void resolve_withoutLinksReturnsPathAsIs() throws FileSystemException {
+        final String path = "/foo/../bar";
+        assertThat(sut.resolve(path, true), is(sameInstance(path)));
+        assertThat(sut.getCacheSize(), is(0));
+    }
+
+    @Test
+    public void resolve_absoluteTarget() throws FileSystemException {
+        link("/a/b", "/x/y");
+        assertThat(sut.resolve("/a/b/c", true), is(equalTo("/x/y/c")));
+        assertThat(sut.resolve("/a/b", true), is(equalTo("/x/y")));
+        assertThat(sut.resolve("/a/b", false), is(equalTo("/a/b")));
+        assertThat(sut.resolve("/", true), is(equalTo("/")));
+    }
+
+    @Test
+    public void resolve_relativeTarget() throws FileSystemException {
+        link("/a/b", "../x/./y");
+        assertThat(sut.resolve("/a/b/c", true), is(equalTo("/x/y/c")));
+        assertThat(sut.resolve("/a/b/../d", true), is(equalTo("/x/d")));
+    }
+
+    @Test
+    public void resolve_chainOfLinks() throws FileSystemException {
+        link("/a", "/b");
+        link("/b", "c");
+        link("/c/d", "/e");
+        assertThat(sut.resolve("/a/d/f", true), is(equalTo("/e/f")));
+    }
+
+    @Test
+    public void resolve_cachesDirectories() throws FileSystemException {
+        link("/a/b", "/x");
+        sut.resolve("/a/b/c/file1", true);
+        sut.resolve("/a/b/c/file2", true);
+        assertThat(sut.getCacheSize(), is(1));
+
+        attic.put("/a/b", JvfsFileEntry.newSymbolicLink("/a/b", "/y"));
+        assertThat(sut.resolve("/a/b/c/file1", true), is(equalTo("/x/c/file1")));
+        sut.invalidate();
+        assertThat(sut.getCacheSize(), is(0));
+        assertThat(sut.resolve("/a/b/c/file1", true), is(equalTo("/y/c/file1")));
+    }
+
+    @Test
+    public void resolve_throwsExceptionOnLoop() throws FileSystemException {
+        link("/a", "/b");
+        link("/b", "/a");
+        thrown.expect(FileSystemException.class);
+        thrown.expectMessage("Too many levels of symbolic links");
+        sut.resolve("/a/c", true);
+    }
+
+    @Test
+    public void resolve_throwsExceptionOnSelfLoop() throws FileSystemException {
+        link("/a", "a");
+        thrown.expect(FileSystemException.class);
+        thrown.expectMessage("Too many levels of symbolic links");
+        sut.resolve("/a", true);
+    }
+
+    @Test
+    public void linkRemoved_lastLinkTurnsResolvingOff() throws FileSystemException {
+        link("/a", "/b");
+        attic.remove("/a");
+        sut.linkRemoved();
+        assertThat(sut.resolve("/a/./c", true), is(equalTo("/a/./c")));
+    }
+
+}
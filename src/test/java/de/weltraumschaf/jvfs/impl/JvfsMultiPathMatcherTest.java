@@ -0,0 +1,90 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.regex.PatternSyntaxException;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link JvfsMultiPathMatcher}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsMultiPathMatcherTest {
+
+    @Rule
+    //CHECKSTYLE:OFF
+    public final ExpectedException thrown = ExpectedException.none();
+    //CHECKSTYLE:ON
+    private final JvfsFileSystem fs = mock(JvfsFileSystem.class);
+    private final JvfsMultiPathMatcher sut = JvfsMultiPathMatcher.newMatcher(Arrays.asList(
+        "glob:**/*.java", "regex:.*/[A-Z][a-z]+\\.java", "glob:/src/main/**", "glob:/src/test/**", "regex:/src/.*"));
+
+    private static BitSet bits(final int... indices) {
+        final BitSet bits = new BitSet();
+
+        for (final int index : indices) {
+            bits.set(index);
+        }
+
+        return bits;
+    }
+
+    private Path path(final String path) {
+        return new JvfsPath(path, fs);
+    }
+
+    @Test
+    public void match() {
+        assertThat(sut.match(path("/src/main/Foo.java")), is(equalTo(bits(0, 1, 2, 4))));
+        assertThat(sut.match(path("/src/test/FooBar.java")), is(equalTo(bits(0, 3, 4))));
+        assertThat(sut.match(path("/src/site/index.html")), is(equalTo(bits(4))));
+        assertThat(sut.match(path("/doc/index.html")), is(equalTo(bits())));
+    }
+
+    @Test
+    public void matches() {
+        assertThat(sut.matches(path("/src/site/index.html")), is(true));
+        assertThat(sut.matches(path("/doc/index.html")), is(false));
+    }
+
+    @Test
+    public void sizeAndPatterns() {
+        assertThat(sut.size(), is(5));
+        assertThat(sut.getPattern(1), is(equalTo("regex:.*/[A-Z][a-z]+\\.java")));
+        assertThat(sut.toString(), is(equalTo(Arrays.asList(
+            "glob:**/*.java", "regex:.*/[A-Z][a-z]+\\.java", "glob:/src/main/**", "glob:/src/test/**", "regex:/src/.*")
+            .toString())));
+    }
+
+    @Test
+    public void newMatcher_throwsExceptionIfPatternIsInvalid() {
+        thrown.expect(PatternSyntaxException.class);
+        JvfsMultiPathMatcher.newMatcher(Arrays.asList("glob:*.java", "glob:{a,{b}}"));
+    }
+
+    @Test
+    public void newMatcher_throwsExceptionIfNull() {
+        thrown.expect(NullPointerException.class);
+        JvfsMultiPathMatcher.newMatcher(null);
+    }
+
+}
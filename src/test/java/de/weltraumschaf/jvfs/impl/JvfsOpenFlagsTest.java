@@ -0,0 +1,72 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsOpenOption;
+import de.weltraumschaf.jvfs.JvfsPreallocation;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JvfsOpenFlags}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsOpenFlagsTest {
+
+    @Test
+    public void of_empty() {
+        final JvfsOpenFlags sut = JvfsOpenFlags.of(Collections.<OpenOption>emptySet());
+        assertThat(sut.hasAny(JvfsOpenFlags.READ | JvfsOpenFlags.WRITE | JvfsOpenFlags.APPEND), is(false));
+        assertThat(sut.has(0), is(true));
+        assertThat(sut.getPreallocation(), is(-1L));
+    }
+
+    @Test
+    public void of() {
+        final JvfsOpenFlags sut = JvfsOpenFlags.of(Arrays.<OpenOption>asList(
+            StandardOpenOption.WRITE,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.SYNC,
+            LinkOption.NOFOLLOW_LINKS,
+            JvfsOpenOption.SEAL_ON_CLOSE,
+            JvfsPreallocation.forValue(42L)));
+        assertThat(sut.has(JvfsOpenFlags.WRITE | JvfsOpenFlags.CREATE), is(true));
+        assertThat(sut.has(JvfsOpenFlags.SEAL_ON_CLOSE), is(true));
+        assertThat(sut.has(JvfsOpenFlags.NON_BLOCKING), is(false));
+        assertThat(sut.has(JvfsOpenFlags.WRITE | JvfsOpenFlags.APPEND), is(false));
+        assertThat(sut.hasAny(JvfsOpenFlags.WRITE | JvfsOpenFlags.APPEND), is(true));
+        assertThat(sut.hasAny(JvfsOpenFlags.READ | JvfsOpenFlags.CREATE_NEW | JvfsOpenFlags.TRUNCATE_EXISTING),
+            is(false));
+        assertThat(sut.getPreallocation(), is(42L));
+    }
+
+    @Test
+    public void of_nonBlocking() {
+        final JvfsOpenFlags sut = JvfsOpenFlags.of(Arrays.asList(JvfsOpenOption.NON_BLOCKING));
+        assertThat(sut.has(JvfsOpenFlags.NON_BLOCKING), is(true));
+        assertThat(sut.has(JvfsOpenFlags.SEAL_ON_CLOSE), is(false));
+    }
+
+    @Test
+    public void readOnly() {
+        assertThat(JvfsOpenFlags.READ_ONLY.has(JvfsOpenFlags.READ), is(true));
+        assertThat(JvfsOpenFlags.READ_ONLY.hasAny(~JvfsOpenFlags.READ), is(false));
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import java.io.IOException;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import java.nio.file.AccessDeniedException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link JvfsOutputStream}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsOutputStreamTest {
+
+    //CHECKSTYLE:OFF
+    @Rule public final ExpectedException thrown = ExpectedException.none();
+    //CHECKSTYLE:ON
+
+    private final JvfsFileEntry entry = JvfsFileEntry.newFile("/foo");
+
+    @Test
+    public void publishesOnFlushAndClose() throws IOException {
+        final JvfsOutputStream sut = new JvfsOutputStream(entry, false);
+        sut.write('a');
+        sut.write("bc".getBytes());
+        assertThat(entry.getContent().length, is(0));
+        sut.flush();
+        assertThat(new String(entry.getContent()), is(equalTo("abc")));
+        sut.write("def".getBytes(), 1, 2);
+        sut.close();
+        assertThat(new String(entry.getContent()), is(equalTo("abcef")));
+    }
+
+    @Test
+    public void publishesIfBufferIsFull() throws IOException {
+        final JvfsOutputStream sut = new JvfsOutputStream(entry, false);
+
+        for (int i = 0; i < JvfsOutputStream.BUFFER_SIZE + 1; ++i) {
+            sut.write('x');
+        }
+
+        assertThat(entry.getContent().length, is(JvfsOutputStream.BUFFER_SIZE));
+        sut.close();
+        assertThat(entry.getContent().length, is(JvfsOutputStream.BUFFER_SIZE + 1));
+    }
+
+    @Test
+    public void writesLargeArraysDirectly() throws IOException {
+        final JvfsOutputStream sut = new JvfsOutputStream(entry, false);
+        sut.write('x');
+        sut.write(new byte[JvfsOutputStream.BUFFER_SIZE]);
+        assertThat(entry.getContent().length, is(JvfsOutputStream.BUFFER_SIZE + 1));
+        assertThat(entry.getContent()[0], is((byte) 'x'));
+    }
+
+    @Test
+    public void overwritesFromStart() throws IOException {
+        entry.setContent("abcdef".getBytes());
+        final JvfsOutputStream sut = new JvfsOutputStream(entry, false);
+        sut.write("XY".getBytes());
+        sut.close();
+        assertThat(new String(entry.getContent()), is(equalTo("XYcdef")));
+    }
+
+    @Test
+    public void appendsAtEnd() throws IOException {
+        entry.setContent("abc".getBytes());
+        final JvfsOutputStream sut = new JvfsOutputStream(entry, true);
+        sut.write("de".getBytes());
+        entry.setContent("ABCD".getBytes());
+        sut.close();
+        assertThat(new String(entry.getContent()), is(equalTo("ABCDde")));
+    }
+
+    @Test
+    public void write_throwsExceptionIfClosed() throws IOException {
+        final JvfsOutputStream sut = new JvfsOutputStream(entry, false);
+        sut.close();
+        sut.close();
+        thrown.expect(IOException.class);
+        thrown.expectMessage("Stream closed!");
+        sut.write('a');
+    }
+
+    @Test
+    public void sealOnClose() throws IOException {
+        final JvfsOutputStream sut = new JvfsOutputStream(entry, false, true);
+        sut.write("abc".getBytes());
+        assertThat(entry.isSealed(), is(false));
+        sut.close();
+        assertThat(entry.isSealed(), is(true));
+        assertThat(new String(entry.getContent()), is(equalTo("abc")));
+    }
+
+    @Test
+    public void flush_throwsExceptionIfSealed() throws IOException {
+        final JvfsOutputStream sut = new JvfsOutputStream(entry, false);
+        sut.write("abc".getBytes());
+        entry.seal();
+        thrown.expect(AccessDeniedException.class);
+        sut.flush();
+    }
+}
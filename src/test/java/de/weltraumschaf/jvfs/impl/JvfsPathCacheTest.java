@@ -0,0 +1,62 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link JvfsPathCache}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsPathCacheTest {
+
+    private final JvfsFileSystem fs = mock(JvfsFileSystem.class);
+
+    @Test
+    public void putAndGet() {
+        final JvfsPathCache sut = new JvfsPathCache(2);
+        final JvfsPath path = new JvfsPath("/foo", fs);
+        assertThat(sut.get("/foo"), is(nullValue()));
+        assertThat(sut.put("/foo", path), is(sameInstance(path)));
+        assertThat(sut.get("/foo"), is(sameInstance(path)));
+        assertThat(sut.put("/foo", new JvfsPath("/foo", fs)), is(sameInstance(path)));
+        assertThat(sut.size(), is(1));
+        sut.clear();
+        assertThat(sut.size(), is(0));
+    }
+
+    @Test
+    public void put_evictsIfFull() {
+        final JvfsPathCache sut = new JvfsPathCache(2);
+        sut.put("/a", new JvfsPath("/a", fs));
+        sut.put("/b", new JvfsPath("/b", fs));
+        sut.put("/c", new JvfsPath("/c", fs));
+        assertThat(sut.size(), is(2));
+        assertThat(sut.get("/c").toString(), is("/c"));
+    }
+
+    @Test
+    public void disabled() {
+        final JvfsPathCache sut = new JvfsPathCache(0);
+        final JvfsPath path = new JvfsPath("/foo", fs);
+        assertThat(sut.put("/foo", path), is(sameInstance(path)));
+        assertThat(sut.get("/foo"), is(nullValue()));
+        assertThat(sut.size(), is(0));
+    }
+
+}
@@ -15,6 +15,7 @@
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import org.junit.Test;
 import org.junit.Rule;
@@ -161,6 +162,30 @@ public void newMatcher_globSyntax_throwsExcpetionIfExplicitNameSeparatorInClass(
         JvfsPathMatcher.newMatcher("glob:[/foo]");
     }
 
+    @Test
+    public void newMatcher_globSyntax_throwsExcpetionIfClassEmpty() {
+        thrown.expect(PatternSyntaxException.class);
+        JvfsPathMatcher.newMatcher("glob:[]");
+    }
+
+    @Test
+    public void newMatcher_globSyntax_throwsExcpetionIfNegatedClassEmpty() {
+        thrown.expect(PatternSyntaxException.class);
+        JvfsPathMatcher.newMatcher("glob:[!]");
+    }
+
+    @Test
+    public void newMatcher_globSyntax_throwsExcpetionIfClassStartsWithClosingBracket() {
+        thrown.expect(PatternSyntaxException.class);
+        JvfsPathMatcher.newMatcher("glob:[!]a]");
+    }
+
+    @Test
+    public void compileGlob_throwsExcpetionIfClassEmpty() {
+        thrown.expect(PatternSyntaxException.class);
+        JvfsPathMatcher.compileGlob("foo[]");
+    }
+
     @Test
     public void newMatcher_globSyntax_throwsExcpetionIfClassNotClosed() {
         thrown.expect(PatternSyntaxException.class);
@@ -215,4 +240,28 @@ public void matches() {
         assertThat(
             m.matches(new JvfsPath("baz.txt", mock(JvfsFileSystem.class))), is(false));
     }
+
+    @Test
+    public void newMatcher_isCached() {
+        final JvfsPathMatcher m = JvfsPathMatcher.newMatcher("glob:**/*.txt");
+        assertThat(JvfsPathMatcher.newMatcher("glob:**/*.txt"), is(sameInstance(m)));
+    }
+
+    @Test
+    public void matches_regex() {
+        final JvfsPathMatcher m = JvfsPathMatcher.newMatcher("regex:.*\\.(jpg|gif)");
+        assertThat(m.matches(new JvfsPath("/foo/baz.jpg", mock(JvfsFileSystem.class))), is(true));
+        assertThat(m.matches(new JvfsPath("/foo/baz.png", mock(JvfsFileSystem.class))), is(false));
+    }
+
+    @Test
+    public void getDirectoryPrefix() {
+        assertThat(JvfsPathMatcher.newMatcher("glob:/src/main/java/**/*Test.java").getDirectoryPrefix(),
+            is(equalTo("/src/main/java")));
+        assertThat(JvfsPathMatcher.newMatcher("glob:/src/ma*").getDirectoryPrefix(), is(equalTo("/src")));
+        assertThat(JvfsPathMatcher.newMatcher("glob:/*.txt").getDirectoryPrefix(), is(equalTo("/")));
+        assertThat(JvfsPathMatcher.newMatcher("glob:**/*.txt").getDirectoryPrefix(), is(equalTo("")));
+        assertThat(JvfsPathMatcher.newMatcher("glob:src/*.txt").getDirectoryPrefix(), is(equalTo("src")));
+        assertThat(JvfsPathMatcher.newMatcher("regex:/src/.*").getDirectoryPrefix(), is(equalTo("")));
+    }
 }
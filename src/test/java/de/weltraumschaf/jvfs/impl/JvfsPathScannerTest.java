@@ -0,0 +1,128 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsPathCharset;
+import java.nio.file.InvalidPathException;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link JvfsPathScanner}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsPathScannerTest {
+
+    @Rule
+    //CHECKSTYLE:OFF
+    public final ExpectedException thrown = ExpectedException.none();
+    //CHECKSTYLE:ON
+    private final JvfsPathScanner portable = JvfsPathScanner.forCharset(JvfsPathCharset.PORTABLE);
+    private final JvfsPathScanner unicode = JvfsPathScanner.forCharset(JvfsPathCharset.UNICODE);
+    private final JvfsPathScanner any = JvfsPathScanner.forCharset(JvfsPathCharset.ANY);
+
+    @Test
+    public void forCharset() {
+        assertThat(JvfsPathScanner.forCharset(JvfsPathCharset.UNICODE), is(sameInstance(unicode)));
+        assertThat(unicode.getCharset(), is(JvfsPathCharset.UNICODE));
+    }
+
+    @Test
+    public void indexOfInvalid_portable() {
+        assertThat(portable.indexOfInvalid("/foo-bar/baz_1.txt"), is(-1));
+        assertThat(portable.indexOfInvalid(""), is(-1));
+        assertThat(portable.indexOfInvalid("/foo bar"), is(4));
+        assertThat(portable.indexOfInvalid("/foo+bar"), is(4));
+        assertThat(portable.indexOfInvalid("/\u00fcber"), is(1));
+    }
+
+    @Test
+    public void indexOfInvalid_unicode() {
+        assertThat(unicode.indexOfInvalid("/\u00fcber/\u65e5\u672c/\u0645\u0644\u0641"), is(-1));
+        // e followed by combining acute accent
+        assertThat(unicode.indexOfInvalid("/cafe\u0301"), is(-1));
+        // mathematical bold capital A, outside the basic multilingual plane
+        assertThat(unicode.indexOfInvalid("/\ud835\udc00"), is(-1));
+        assertThat(unicode.indexOfInvalid("/\ud835"), is(1));
+        assertThat(unicode.indexOfInvalid("/foo bar"), is(4));
+        assertThat(unicode.indexOfInvalid("/\u00a7"), is(1));
+    }
+
+    @Test
+    public void indexOfInvalid_any() {
+        assertThat(any.indexOfInvalid("/foo bar/(1)+\u00a7"), is(-1));
+        assertThat(any.indexOfInvalid("/foo\u0000"), is(4));
+        assertThat(any.indexOfInvalid("/foo\tbar"), is(4));
+        assertThat(any.indexOfInvalid("/foo\u0085"), is(4));
+    }
+
+    @Test
+    public void normalize_returnsNormalPathAsIs() {
+        final String path = "/foo/bar.baz/..snafu";
+        assertThat(portable.normalize(path), is(sameInstance(path)));
+        assertThat(portable.normalize("/"), is(equalTo("/")));
+        assertThat(portable.normalize(""), is(equalTo("")));
+        assertThat(portable.normalize("foo"), is(equalTo("foo")));
+    }
+
+    @Test
+    public void normalize() {
+        assertThat(portable.normalize("foo/./bar/../baz"), is(equalTo("foo/baz")));
+        assertThat(portable.normalize("/foo/./bar/../baz"), is(equalTo("/foo/baz")));
+        assertThat(portable.normalize("//foo///bar//"), is(equalTo("/foo/bar")));
+        assertThat(portable.normalize("/foo/.."), is(equalTo("/")));
+        assertThat(portable.normalize("foo/.."), is(equalTo("")));
+        assertThat(portable.normalize("/."), is(equalTo("/")));
+        assertThat(portable.normalize("./foo/"), is(equalTo("foo")));
+        assertThat(unicode.normalize("/\u00fcber/./\u65e5/../x"), is(equalTo("/\u00fcber/x")));
+    }
+
+    @Test
+    public void normalizeNames_skipsCharacterChecks() {
+        final String path = "/foo\tbar/b r";
+        assertThat(JvfsPathScanner.normalizeNames(path), is(sameInstance(path)));
+        assertThat(JvfsPathScanner.normalizeNames("/foo\tbar/../b+r/."), is(equalTo("/b+r")));
+    }
+
+    @Test
+    public void normalizeNames_throwsExceptionBeyondRoot() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Cannot specify to go back \"../\" past the root");
+        JvfsPathScanner.normalizeNames("foo/../..");
+    }
+
+    @Test
+    public void normalize_throwsExceptionBeyondRoot() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Cannot specify to go back \"../\" past the root");
+        portable.normalize("/foo/../..");
+    }
+
+    @Test
+    public void normalize_throwsExceptionOnInvalidCharacter() {
+        thrown.expect(InvalidPathException.class);
+        portable.normalize("/foo/b r");
+    }
+
+    @Test
+    public void normalize_throwsExceptionOnInvalidCharacterInRewrittenPart() {
+        thrown.expect(InvalidPathException.class);
+        portable.normalize("/foo//b r");
+    }
+
+}
@@ -20,6 +20,8 @@
 import java.nio.file.AccessMode;
 import java.nio.file.CopyOption;
 import java.nio.file.FileSystem;
+import java.nio.file.FileSystemException;
+import java.nio.file.LinkOption;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
@@ -34,7 +36,6 @@
 import java.util.concurrent.TimeUnit;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
-import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -133,6 +134,41 @@ public void getNameCount() {
         assertThat(new JvfsPath(createPath(true, "foo", "bar", "baz"), fs).getNameCount(), is(3));
     }
 
+    @Test
+    public void getNameCount_deepPath() {
+        final StringBuilder buffer = new StringBuilder();
+
+        for (int i = 0; i < 100000; ++i) {
+            buffer.append(DIR_SEP).append('n');
+        }
+
+        final Path sut = new JvfsPath(buffer.toString(), fs);
+        assertThat(sut.getNameCount(), is(100000));
+        assertThat(sut.getName(99999).toString(), is(equalTo("n")));
+        assertThat(sut.getParent().getNameCount(), is(99999));
+    }
+
+    @Test
+    public void redundantSeparatorsAreRemoved() {
+        final Path sut = new JvfsPath("//foo///bar/", fs);
+        assertThat(sut.toString(), is(equalTo("/foo/bar")));
+        assertThat(sut.getNameCount(), is(2));
+        assertThat(sut, is(equalTo((Path) new JvfsPath("/foo/bar", fs))));
+        assertThat(new JvfsPath("foo//", fs).toString(), is(equalTo("foo")));
+        assertThat(new JvfsPath("//", fs).toString(), is(equalTo(DIR_SEP)));
+    }
+
+    @Test
+    public void derivedPathsHaveNames() {
+        final Path sut = new JvfsPath(createPath(true, "foo", "bar", "baz", "snafu"), fs);
+        final Path subpath = sut.subpath(1, 3);
+        assertThat(subpath.toString(), is(equalTo(createPath(false, "bar", "baz"))));
+        assertThat(subpath.getName(1).toString(), is(equalTo("baz")));
+        assertThat(subpath.getParent().toString(), is(equalTo("bar")));
+        assertThat(sut.getParent().getFileName().toString(), is(equalTo("baz")));
+        assertThat(sut.getParent().getParent().getName(1).toString(), is(equalTo("bar")));
+    }
+
     @Test
     public void getName() {
         assertThat(new JvfsPath(createPath(false, "foo", "bar", "baz"), fs).getName(0),
@@ -262,6 +298,20 @@ public void normalize() {
         assertThat(sut.normalize(), is(equalTo((Path) new JvfsPath(createPath(false, "foo", "baz"), fs))));
     }
 
+    @Test
+    public void normalize_returnsSelfIfAlreadyNormal() {
+        final Path sut = new JvfsPath(createPath(true, "foo", "bar"), fs);
+        assertThat(sut.normalize(), is(sameInstance(sut)));
+        assertThat(new JvfsPath(createPath(false, ".", "..foo", "bar."), fs).normalize().toString(),
+            is(equalTo(createPath(false, "..foo", "bar."))));
+    }
+
+    @Test
+    public void normalize_throwsExceptionBeyondRoot() {
+        thrown.expect(IllegalArgumentException.class);
+        new JvfsPath(createPath(true, "foo", "..", ".."), fs).normalize();
+    }
+
     @Test
     public void resolve_Path() {
         final Path sut = new JvfsPath(createPath(true, "foo"), fs);
@@ -322,6 +372,23 @@ public void relativize() {
             is(equalTo((Path) new JvfsPath(createPath(false, "c", "d"), fs))));
     }
 
+    @Test
+    public void relativize_backwards() {
+        final Path sut = new JvfsPath(createPath(true, "a", "b", "c"), fs);
+        assertThat(sut.relativize(new JvfsPath(createPath(true, "a", "d"), fs)).toString(),
+            is(equalTo(createPath(false, "..", "..", "d"))));
+        assertThat(sut.relativize(new JvfsPath(createPath(true, "a"), fs)).toString(),
+            is(equalTo(createPath(false, "..", ".."))));
+        assertThat(new JvfsPath("a", fs).relativize(new JvfsPath("b", fs)).toString(),
+            is(equalTo(createPath(false, "..", "b"))));
+    }
+
+    @Test
+    public void relativize_throwsExceptionIfOnlyOneIsAbsolute() {
+        thrown.expect(IllegalArgumentException.class);
+        new JvfsPath(createPath(true, "a", "b"), fs).relativize(new JvfsPath(createPath(false, "a", "b"), fs));
+    }
+
     @Test
     public void relativize_throwsExceptionIfNotJvfsType() {
         thrown.expect(IllegalArgumentException.class);
@@ -369,8 +436,24 @@ public void toAbsolutePath() {
 
     @Test
     public void toRealPath() throws Exception {
-        thrown.expect(UnsupportedOperationException.class);
-        new JvfsPath(createPath(true, "a", "b"), fs).toRealPath();
+        when(fs.toRealPath(createPath(true, "a", "b"), true)).thenReturn(createPath(true, "c"));
+        when(fs.toRealPath(createPath(true, "a", "b"), false)).thenReturn(createPath(true, "a", "b"));
+        final JvfsPath sut = new JvfsPath(createPath(true, "a", "b"), fs);
+        assertThat(sut.toRealPath().toString(), is(equalTo(createPath(true, "c"))));
+        assertThat(sut.toRealPath(LinkOption.NOFOLLOW_LINKS).toString(), is(equalTo(createPath(true, "a", "b"))));
+    }
+
+    @Test
+    public void createSymbolicLink() throws IOException {
+        final JvfsPath sut = new JvfsPath(createPath(true, "bar"), fs);
+        sut.createSymbolicLink(new JvfsPath("baz", fs));
+        verify(fs).createSymbolicLink(sut.toString(), "baz");
+    }
+
+    @Test
+    public void readSymbolicLink() throws IOException {
+        when(fs.readSymbolicLink(createPath(true, "bar"))).thenReturn("baz");
+        assertThat(new JvfsPath(createPath(true, "bar"), fs).readSymbolicLink().toString(), is(equalTo("baz")));
     }
 
     @Test
@@ -469,7 +552,7 @@ public void equals() {
     @Test
     public void getAttributes_throwsExceptionIfFileNotExists() throws IOException {
         final JvfsPath sut = new JvfsPath(createPath(true, "bar"), fs);
-        when(fs.getFileAttributes(sut.toString())).thenReturn(null);
+        when(fs.getFileAttributes(sut, true)).thenReturn(null);
         thrown.expect(NoSuchFileException.class);
         sut.getAttributes();
     }
@@ -478,14 +561,14 @@ public void getAttributes_throwsExceptionIfFileNotExists() throws IOException {
     public void getAttributes() throws IOException {
         final JvfsPath sut = new JvfsPath(createPath(true, "bar"), fs);
         final JvfsFileAttributes attrs = mock(JvfsFileAttributes.class);
-        when(fs.getFileAttributes(sut.toString())).thenReturn(attrs);
+        when(fs.getFileAttributes(sut, true)).thenReturn(attrs);
         assertThat(sut.getAttributes(), is(sameInstance((BasicFileAttributes) attrs)));
     }
 
     @Test
     public void readAttributes() throws IOException {
         final JvfsPath sut = new JvfsPath(createPath(true, "bar"), fs);
-        when(fs.getFileAttributes(sut.toString()))
+        when(fs.getFileAttributes(sut, true))
             .thenReturn(new JvfsFileAttributes(JvfsFileEntry.newFile(DIR_SEP + "bar")));
         final Map<String, Object> attrs = sut.readAttributes("isDirectory,creationTime,size");
         assertThat(attrs.size(), is(3));
@@ -598,9 +681,28 @@ public void move_throwsExceptionIfTargetIsNull() throws IOException {
     }
 
     @Test
-    @Ignore
-    public void isSameFile() {
+    public void isSameFile() throws IOException {
+        final JvfsPath sut = new JvfsPath(createPath(true, "bar"), fs);
+        assertThat(sut.isSameFile(new JvfsPath(createPath(true, "bar"), fs)), is(true));
+        assertThat(sut.isSameFile(new JvfsPath(createPath(true, "bar"), mock(JvfsFileSystem.class))), is(false));
+        verify(fs, never()).isSameFile(anyString(), anyString());
+        when(fs.isSameFile(sut.toString(), createPath(true, "baz"))).thenReturn(true);
+        assertThat(sut.isSameFile(new JvfsPath(createPath(true, "baz"), fs)), is(true));
+    }
+
+    @Test
+    public void createLink() throws IOException {
+        final JvfsPath sut = new JvfsPath(createPath(true, "bar"), fs);
+        sut.createLink(new JvfsPath(createPath(true, "baz"), fs));
+        verify(fs).createLink(sut.toString(), createPath(true, "baz"));
+    }
 
+    @Test
+    public void createLink_throwsExceptionIfOtherFileSystem() throws IOException {
+        thrown.expect(FileSystemException.class);
+        thrown.expectMessage("Invalid cross-device link");
+        new JvfsPath(createPath(true, "bar"), fs).createLink(
+            new JvfsPath(createPath(true, "baz"), mock(JvfsFileSystem.class)));
     }
 
     @Test
@@ -621,7 +723,7 @@ public void getFileStore() {
     public void checkAccess() throws IOException {
         final JvfsPath sut = new JvfsPath(createPath(true, "bar"), fs);
         sut.checkAccess(AccessMode.READ, AccessMode.WRITE);
-        verify(fs).checkAccess(sut.toString(), AccessMode.READ, AccessMode.WRITE);
+        verify(fs).checkAccess(sut, AccessMode.READ, AccessMode.WRITE);
     }
 
 }
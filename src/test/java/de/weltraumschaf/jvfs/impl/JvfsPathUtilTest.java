@@ -40,28 +40,13 @@ public void invokeConstructorByReflectionThrowsException() throws Exception {
         ctor.newInstance();
     }
 
-    @Test
-    public void normalize() {
-        assertThat(
-                JvfsPathUtil.normalize(JvfsPathUtil.tokenize("foo/./bar/../baz"), false),
-                is(equalTo("foo/baz")));
-        assertThat(
-                JvfsPathUtil.normalize(JvfsPathUtil.tokenize("foo/./bar/../baz"), true),
-                is(equalTo("/foo/baz")));
-    }
-
-    @Test
-    public void normalize_beyondRoot() {
-        thrown.expect(IllegalArgumentException.class);
-        thrown.expectMessage("Cannot specify to go back \"../\" past the root");
-        JvfsPathUtil.normalize(JvfsPathUtil.tokenize("foo/bar/../../../../baz"), false);
-    }
-
     @Test
     public void tokenize() {
         assertThat(
                 JvfsPathUtil.tokenize("foo/./bar/../baz"),
                 contains("foo", ".", "bar", "..", "baz"));
+        assertThat(JvfsPathUtil.tokenize("//foo//bar/"), contains("foo", "bar"));
+        assertThat(JvfsPathUtil.tokenize("/"), is(empty()));
     }
 
     @Test
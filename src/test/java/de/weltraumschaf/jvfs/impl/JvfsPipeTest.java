@@ -0,0 +1,153 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsOpenOption;
+import de.weltraumschaf.jvfs.JvfsPipeFile;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link JvfsPipe}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsPipeTest {
+
+    @Rule
+    //CHECKSTYLE:OFF
+    public final ExpectedException thrown = ExpectedException.none();
+    //CHECKSTYLE:ON
+
+    private static final JvfsOpenFlags WRITE = JvfsOpenFlags.of(Arrays.asList(StandardOpenOption.WRITE));
+    private static final JvfsOpenFlags WRITE_NON_BLOCKING = JvfsOpenFlags.of(Arrays.asList(
+        StandardOpenOption.WRITE, JvfsOpenOption.NON_BLOCKING));
+    private static final JvfsOpenFlags READ_NON_BLOCKING = JvfsOpenFlags.of(Arrays.asList(
+        StandardOpenOption.READ, JvfsOpenOption.NON_BLOCKING));
+
+    private final JvfsPipe sut = new JvfsPipe(4);
+    private final JvfsFileEntry entry = JvfsFileEntry.newSpecial("/pipe", sut);
+
+    private static ByteBuffer bytes(final String bytes) {
+        return ByteBuffer.wrap(bytes.getBytes());
+    }
+
+    @Test
+    public void capacityOf() {
+        assertThat(JvfsPipe.capacityOf(), is(-1L));
+        assertThat(JvfsPipe.capacityOf(JvfsPipeFile.forValue(8L)), is(8L));
+    }
+
+    @Test
+    public void nonBlocking() throws IOException {
+        final SeekableByteChannel producer = sut.newChannel(entry, WRITE_NON_BLOCKING);
+        final SeekableByteChannel consumer = sut.newChannel(entry, READ_NON_BLOCKING);
+        assertThat(entry.getOpenHandles(), is(2));
+        final ByteBuffer buffer = ByteBuffer.allocate(3);
+        assertThat(consumer.read(buffer), is(0));
+        assertThat(producer.write(bytes("abcdef")), is(4));
+        assertThat(producer.write(bytes("x")), is(0));
+        assertThat(sut.size(), is(4L));
+        assertThat(consumer.read(buffer), is(3));
+        assertThat(new String(buffer.array()), is(equalTo("abc")));
+        assertThat(producer.write(bytes("ghi")), is(3));
+        buffer.clear();
+        assertThat(consumer.read(buffer), is(3));
+        assertThat(new String(buffer.array()), is(equalTo("dgh")));
+        producer.close();
+        buffer.clear();
+        assertThat(consumer.read(buffer), is(1));
+        assertThat(consumer.read(buffer), is(-1));
+        assertThat(consumer.position(), is(7L));
+        consumer.close();
+        assertThat(entry.getOpenHandles(), is(0));
+    }
+
+    @Test
+    public void blocking() throws Exception {
+        final SeekableByteChannel consumer = sut.newChannel(entry, JvfsOpenFlags.READ_ONLY);
+        final AtomicLong written = new AtomicLong();
+        final Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try (final SeekableByteChannel channel = sut.newChannel(entry, WRITE)) {
+                    for (int i = 0; i < 1000; ++i) {
+                        written.addAndGet(channel.write(bytes("0123456789")));
+                    }
+                } catch (final IOException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        });
+        producer.start();
+        final ByteBuffer buffer = ByteBuffer.allocate(7);
+        long read = 0;
+        int count;
+
+        while ((count = consumer.read(buffer)) > -1) {
+            read += count;
+            buffer.clear();
+        }
+
+        producer.join();
+        assertThat(written.get(), is(10000L));
+        assertThat(read, is(10000L));
+    }
+
+    @Test
+    public void write_throwsExceptionIfConsumersHaveGone() throws IOException {
+        sut.newChannel(entry, JvfsOpenFlags.READ_ONLY).close();
+        thrown.expect(IOException.class);
+        thrown.expectMessage("Broken pipe");
+        sut.newChannel(entry, WRITE).write(bytes("a"));
+    }
+
+    @Test
+    public void write_throwsExceptionIfConsumer() throws IOException {
+        thrown.expect(NonWritableChannelException.class);
+        sut.newChannel(entry, JvfsOpenFlags.READ_ONLY).write(bytes("a"));
+    }
+
+    @Test
+    public void read_throwsExceptionIfProducer() throws IOException {
+        thrown.expect(NonReadableChannelException.class);
+        sut.newChannel(entry, WRITE).read(ByteBuffer.allocate(1));
+    }
+
+    @Test
+    public void position_throwsException() throws IOException {
+        thrown.expect(UnsupportedOperationException.class);
+        sut.newChannel(entry, WRITE).position(1);
+    }
+
+    @Test
+    public void copyIsEmpty() throws IOException {
+        sut.newChannel(entry, WRITE).write(bytes("ab"));
+        final JvfsSpecialFile copy = sut.copy();
+        assertThat(copy.size(), is(0L));
+        assertThat(copy.allocatedSize(), is(4L));
+        assertThat(copy.isRegularFile(), is(false));
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsCircularFile;
+import de.weltraumschaf.jvfs.JvfsOpenOption;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link JvfsRingBuffer}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsRingBufferTest {
+
+    @Rule
+    //CHECKSTYLE:OFF
+    public final ExpectedException thrown = ExpectedException.none();
+    //CHECKSTYLE:ON
+
+    private static void append(final JvfsRingBuffer sut, final String bytes) {
+        sut.append(ByteBuffer.wrap(bytes.getBytes()));
+    }
+
+    private static String asString(final JvfsRingBuffer sut) {
+        return new String(sut.toByteArray());
+    }
+
+    @Test
+    public void capacityOf() {
+        assertThat(JvfsRingBuffer.capacityOf(), is(-1L));
+        final FileAttribute<?> permissions = PosixFilePermissions.asFileAttribute(
+            PosixFilePermissions.fromString("rw-r--r--"));
+        assertThat(JvfsRingBuffer.capacityOf(permissions, JvfsCircularFile.forValue(8L)), is(8L));
+    }
+
+    @Test
+    public void append_keepsLastBytes() {
+        final JvfsRingBuffer sut = new JvfsRingBuffer(4);
+        append(sut, "ab");
+        assertThat(asString(sut), is(equalTo("ab")));
+        append(sut, "cde");
+        assertThat(asString(sut), is(equalTo("bcde")));
+        append(sut, "f");
+        assertThat(asString(sut), is(equalTo("cdef")));
+        assertThat(sut.size(), is(4L));
+        assertThat(sut.allocatedSize(), is(4L));
+    }
+
+    @Test
+    public void append_moreThanCapacity() {
+        final JvfsRingBuffer sut = new JvfsRingBuffer(4);
+        append(sut, "ab");
+        final ByteBuffer source = ByteBuffer.wrap("0123456789".getBytes());
+        assertThat(sut.append(source), is(10));
+        assertThat(source.hasRemaining(), is(false));
+        assertThat(asString(sut), is(equalTo("6789")));
+    }
+
+    @Test
+    public void append_growsUpToCapacity() {
+        final JvfsRingBuffer sut = new JvfsRingBuffer(1000);
+        assertThat(sut.allocatedSize(), is(256L));
+        final byte[] bytes = new byte[300];
+        Arrays.fill(bytes, (byte) 'x');
+        sut.append(ByteBuffer.wrap(bytes));
+        assertThat(sut.allocatedSize(), is(512L));
+        sut.append(ByteBuffer.wrap(bytes));
+        sut.append(ByteBuffer.wrap(bytes));
+        sut.append(ByteBuffer.wrap(bytes));
+        assertThat(sut.allocatedSize(), is(1000L));
+        assertThat(sut.size(), is(1000L));
+    }
+
+    @Test
+    public void read_wrapsAround() {
+        final JvfsRingBuffer sut = new JvfsRingBuffer(4);
+        append(sut, "abcdef");
+        append(sut, "gh");
+        final ByteBuffer buffer = ByteBuffer.allocate(3);
+        assertThat(sut.read(1, buffer), is(3));
+        assertThat(new String(buffer.array()), is(equalTo("fgh")));
+        assertThat(sut.read(4, buffer), is(-1));
+    }
+
+    @Test
+    public void truncate() {
+        final JvfsRingBuffer sut = new JvfsRingBuffer(4);
+        append(sut, "abcdef");
+        sut.truncate(2);
+        assertThat(asString(sut), is(equalTo("cd")));
+        append(sut, "XYZ");
+        assertThat(asString(sut), is(equalTo("dXYZ")));
+        sut.truncate(0);
+        append(sut, "12");
+        assertThat(asString(sut), is(equalTo("12")));
+    }
+
+    @Test
+    public void copy() {
+        final JvfsRingBuffer sut = new JvfsRingBuffer(4);
+        append(sut, "abcdef");
+        final JvfsRingBuffer copy = (JvfsRingBuffer) sut.copy();
+        append(sut, "g");
+        assertThat(asString(copy), is(equalTo("cdef")));
+        assertThat(copy.capacity(), is(4));
+    }
+
+    @Test
+    public void channel() throws IOException {
+        final JvfsRingBuffer sut = new JvfsRingBuffer(4);
+        final JvfsFileEntry entry = JvfsFileEntry.newSpecial("/log", sut);
+        final SeekableByteChannel channel = sut.newChannel(entry, JvfsOpenFlags.READ_ONLY);
+        assertThat(entry.getOpenHandles(), is(1));
+        channel.position(2);
+        assertThat(channel.write(ByteBuffer.wrap("abc".getBytes())), is(3));
+        assertThat(channel.position(), is(3L));
+        assertThat(channel.write(ByteBuffer.wrap("de".getBytes())), is(2));
+        assertThat(channel.size(), is(4L));
+        assertThat(entry.size(), is(4L));
+        channel.position(1);
+        final ByteBuffer buffer = ByteBuffer.allocate(8);
+        assertThat(channel.read(buffer), is(3));
+        assertThat(new String(buffer.array(), 0, 3), is(equalTo("cde")));
+        assertThat(channel.read(buffer), is(-1));
+        channel.truncate(1);
+        assertThat(channel.position(), is(1L));
+        channel.close();
+        channel.close();
+        assertThat(entry.getOpenHandles(), is(0));
+    }
+
+    @Test
+    public void channel_sealOnClose() throws IOException {
+        final JvfsRingBuffer sut = new JvfsRingBuffer(4);
+        final JvfsFileEntry entry = JvfsFileEntry.newSpecial("/log", sut);
+        sut.newChannel(entry, JvfsOpenFlags.of(Arrays.asList(StandardOpenOption.WRITE,
+            JvfsOpenOption.SEAL_ON_CLOSE))).close();
+        assertThat(entry.isSealed(), is(true));
+        thrown.expect(NonWritableChannelException.class);
+        sut.newChannel(entry, JvfsOpenFlags.READ_ONLY).write(ByteBuffer.wrap("a".getBytes()));
+    }
+
+}
@@ -23,6 +23,9 @@
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Test;
 import org.junit.After;
 import org.junit.Assert;
@@ -241,4 +244,181 @@ public void truncateLargerThanSizeRepositions() throws IOException {
             this.channel.position());
     }
 
+    @Test
+    public void readerKeepsPinnedVersionWhileWriterWrites() throws IOException {
+        final JvfsFileEntry entry = JvfsFileEntry.newFile("foo");
+        entry.setContent(CONTENTS_SMALLER_BUFFER.getBytes(UTF8));
+        final JvfsSeekableByteChannel reader = new JvfsSeekableByteChannel(entry);
+        final JvfsSeekableByteChannel writer = new JvfsSeekableByteChannel(entry);
+        writer.position(writer.size()).write(ByteBuffer.wrap(", JBoss by Red Hat".getBytes(UTF8)));
+        writer.close();
+
+        final byte[] contents = new byte[64];
+        final int numBytesRead = reader.read(ByteBuffer.wrap(contents));
+        Assert.assertEquals("Reader should not see bytes published after it was opened",
+            CONTENTS_SMALLER_BUFFER, new String(contents, 0, numBytesRead, UTF8));
+        Assert.assertEquals("Entry should hold the published version",
+            CONTENTS_BIGGER_BUFFER, new String(entry.getContent(), UTF8));
+        reader.close();
+    }
+
+    @Test
+    public void appendWritesAtEndRegardlessOfPosition() throws IOException {
+        final JvfsFileEntry entry = JvfsFileEntry.newFile("foo");
+        entry.setContent(CONTENTS_SMALLER_BUFFER.getBytes(UTF8));
+        final JvfsSeekableByteChannel appender = new JvfsSeekableByteChannel(entry, true);
+        Assert.assertEquals("Append channel should start at end", CONTENTS_SMALLER_BUFFER.length(),
+            appender.position());
+        // Someone else writes in the meantime.
+        new JvfsSeekableByteChannel(entry, true).write(ByteBuffer.wrap(", JBoss".getBytes(UTF8)));
+        appender.position(0).write(ByteBuffer.wrap(" by Red Hat".getBytes(UTF8)));
+        Assert.assertEquals("Append should not overwrite other appends", CONTENTS_BIGGER_BUFFER,
+            new String(entry.getContent(), UTF8));
+        Assert.assertEquals("Position should be behind the appended bytes", CONTENTS_BIGGER_BUFFER.length(),
+            appender.position());
+        appender.close();
+    }
+
+    @Test
+    public void concurrentAppendersDoNotOverwriteEachOther() throws Exception {
+        final JvfsFileEntry entry = JvfsFileEntry.newFile("foo");
+        final int numThreads = 8;
+        final int numRecords = 1000;
+        final byte[] record = "0123456789\n".getBytes(UTF8);
+        final List<Thread> threads = new ArrayList<Thread>();
+
+        for (int i = 0; i < numThreads; ++i) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    final JvfsSeekableByteChannel appender = new JvfsSeekableByteChannel(entry, true);
+
+                    try {
+                        for (int j = 0; j < numRecords; ++j) {
+                            appender.write(ByteBuffer.wrap(record));
+                        }
+
+                        appender.close();
+                    } catch (final IOException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+            }));
+        }
+
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        final byte[] content = entry.getContent();
+        Assert.assertEquals("Every append should be kept", numThreads * numRecords * record.length, content.length);
+
+        for (int i = 0; i < content.length; i += record.length) {
+            Assert.assertEquals("Records should not be torn", "0123456789\n",
+                new String(content, i, record.length, UTF8));
+        }
+    }
+
+    @Test
+    public void readsSealedEntryConcurrently() throws Exception {
+        final JvfsFileEntry entry = JvfsFileEntry.newFile("bar");
+        final int size = 100000;
+        entry.setContent(new byte[size]);
+        entry.seal();
+        final JvfsSeekableByteChannel sealed = new JvfsSeekableByteChannel(entry);
+        final int threads = 8;
+        final long[] counts = new long[threads];
+        final List<Thread> workers = new ArrayList<Thread>();
+
+        for (int i = 0; i < threads; ++i) {
+            final int index = i;
+            workers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    final ByteBuffer buffer = ByteBuffer.allocate(7);
+
+                    try {
+                        int read;
+
+                        while ((read = sealed.read(buffer)) > -1) {
+                            counts[index] += read;
+                            buffer.clear();
+                        }
+                    } catch (final IOException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+            }));
+        }
+
+        for (final Thread worker : workers) {
+            worker.start();
+        }
+
+        long total = 0;
+
+        for (int i = 0; i < threads; ++i) {
+            workers.get(i).join();
+            total += counts[i];
+        }
+
+        Assert.assertEquals("Every byte must be read exactly once", size, total);
+        Assert.assertEquals(size, sealed.position());
+    }
+
+    @Test(expected = NonWritableChannelException.class)
+    public void writeToSealedEntry() throws IOException {
+        final JvfsFileEntry entry = JvfsFileEntry.newFile("bar");
+        entry.seal();
+        new JvfsSeekableByteChannel(entry).write(smallerBuffer);
+    }
+
+    @Test(expected = NonWritableChannelException.class)
+    public void truncateSealedEntry() throws IOException {
+        final JvfsFileEntry entry = JvfsFileEntry.newFile("bar");
+        entry.seal();
+        new JvfsSeekableByteChannel(entry).truncate(10);
+    }
+
+    @Test
+    public void sealOnClose() throws IOException {
+        final JvfsFileEntry entry = JvfsFileEntry.newFile("bar");
+        final JvfsSeekableByteChannel sut = new JvfsSeekableByteChannel(entry, false, true);
+        sut.write(smallerBuffer);
+        Assert.assertFalse(entry.isSealed());
+        sut.close();
+        Assert.assertTrue(entry.isSealed());
+    }
+
+    @Test(timeout = 10000)
+    public void doesNotUseMonitorOfChannel() throws Exception {
+        channel.write(smallerBuffer);
+        channel.position(0);
+        final ByteBuffer destination = ByteBuffer.allocate(CONTENTS_SMALLER_BUFFER.length());
+        final Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    channel.read(destination);
+                    channel.position(0);
+                    channel.truncate(5);
+                    channel.close();
+                } catch (final IOException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        });
+
+        synchronized (channel) {
+            reader.start();
+            reader.join();
+        }
+
+        Assert.assertEquals(CONTENTS_SMALLER_BUFFER, new String(destination.array(), UTF8));
+        Assert.assertFalse(channel.isOpen());
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SeekableByteChannel;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link JvfsSpecialChannel}.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsSpecialChannelTest {
+
+    @Rule
+    //CHECKSTYLE:OFF
+    public final ExpectedException thrown = ExpectedException.none();
+    //CHECKSTYLE:ON
+    private final JvfsFileEntry entry = JvfsFileEntry.newFile("/foo");
+    private final Stub sut = new Stub(entry);
+
+    @Test
+    public void openAndCloseAreRegisteredOnce() throws IOException {
+        assertThat(sut.isOpen(), is(true));
+        assertThat(entry.getOpenHandles(), is(1));
+        sut.close();
+        sut.close();
+        assertThat(sut.isOpen(), is(false));
+        assertThat(entry.getOpenHandles(), is(0));
+    }
+
+    @Test
+    public void claimAndAdvance() throws IOException {
+        assertThat(sut.position(), is(0L));
+        assertThat(sut.claim(0L, 5L), is(true));
+        assertThat(sut.claim(0L, 7L), is(false));
+        assertThat(sut.position(), is(5L));
+        sut.advance(3L);
+        assertThat(sut.position(), is(8L));
+        sut.position(2L);
+        assertThat(sut.position(), is(2L));
+    }
+
+    @Test
+    public void position_throwsExceptionIfNegative() throws IOException {
+        thrown.expect(IllegalArgumentException.class);
+        sut.position(-1L);
+    }
+
+    @Test
+    public void checkClosed_throwsExceptionIfClosed() throws IOException {
+        sut.checkClosed();
+        sut.close();
+        thrown.expect(ClosedChannelException.class);
+        sut.checkClosed();
+    }
+
+    /**
+     * Channel without content.
+     */
+    private static final class Stub extends JvfsSpecialChannel {
+
+        Stub(final JvfsFileEntry entry) {
+            super(entry);
+        }
+
+        @Override
+        public int read(final ByteBuffer destination) throws IOException {
+            return -1;
+        }
+
+        @Override
+        public int write(final ByteBuffer source) throws IOException {
+            return 0;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return 0L;
+        }
+
+        @Override
+        public SeekableByteChannel truncate(final long size) throws IOException {
+            return this;
+        }
+    }
+}
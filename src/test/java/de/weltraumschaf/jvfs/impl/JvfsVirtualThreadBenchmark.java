@@ -0,0 +1,114 @@
+/*
+ *  LICENSE
+ *
+ * "THE BEER-WARE LICENSE" (Revision 43):
+ * "Sven Strittmatter" <weltraumschaf@googlemail.com> wrote this file.
+ * As long as you retain this notice you can do whatever you want with
+ * this stuff. If we meet some day, and you think this stuff is worth it,
+ * you can buy me a non alcohol-free beer in return.
+ *
+ * Copyright (C) 2012 "Sven Strittmatter" <weltraumschaf@googlemail.com>
+ */
+package de.weltraumschaf.jvfs.impl;
+
+import de.weltraumschaf.jvfs.JvfsCollections;
+import de.weltraumschaf.jvfs.JvfsOptions;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+import org.junit.Test;
+
+/**
+ * Benchmark of many virtual threads doing small reads on one file.
+ *
+ * Not part of the regular build; run it with {@literal mvn test -P benchmark} on JDK 21 or newer. Virtual threads are
+ * started by reflection because the sources are compiled for Java 7; on older JDKs the benchmark is skipped.
+ *
+ * @author Sven Strittmatter <weltraumschaf@googlemail.com>
+ */
+public class JvfsVirtualThreadBenchmark {
+
+    private static final int THREADS = 100000;
+    private static final int READS = 16;
+    private static final int READ_SIZE = 64;
+    private static final int FILE_SIZE = 64 * 1024;
+
+    private final JvfsFileSystem fs = new JvfsFileSystem(
+        new JvfsFileSystemProvider(), JvfsOptions.builder().capacity("1M").create());
+
+    @Test
+    public void smallReads() throws Exception {
+        final Method startVirtualThread = startVirtualThreadMethod();
+        assumeTrue(null != startVirtualThread);
+        fs.add(new JvfsFileEntry("/data", false, new byte[FILE_SIZE]));
+        final Set<OpenOption> options = JvfsCollections.newSet();
+        options.add(StandardOpenOption.READ);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger completed = new AtomicInteger();
+        final List<Thread> threads = JvfsCollections.newList(THREADS);
+
+        for (int i = 0; i < THREADS; ++i) {
+            final int offset = (i * READ_SIZE) % (FILE_SIZE - READS * READ_SIZE);
+            threads.add((Thread) startVirtualThread.invoke(null, new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        read(options, offset);
+                        completed.incrementAndGet();
+                    } catch (final InterruptedException | IOException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            }));
+        }
+
+        final long begin = System.nanoTime();
+        start.countDown();
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        final long elapsed = System.nanoTime() - begin;
+        System.out.println(String.format("%d virtual threads did %d reads of %d bytes in %d ms (%.0f reads/s)",
+            THREADS, THREADS * READS, READ_SIZE, elapsed / 1000000L, THREADS * READS * 1e9 / elapsed));
+        assertThat(completed.get(), is(THREADS));
+    }
+
+    private void read(final Set<OpenOption> options, final int offset) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(READ_SIZE);
+
+        try (SeekableByteChannel channel = fs.newByteChannel("/data", options)) {
+            channel.position(offset);
+
+            for (int i = 0; i < READS; ++i) {
+                buffer.clear();
+                channel.read(buffer);
+            }
+        }
+    }
+
+    /**
+     * Get {@literal Thread#startVirtualThread(Runnable)}.
+     *
+     * @return {@literal null} if the JDK has no virtual threads
+     */
+    private static Method startVirtualThreadMethod() {
+        try {
+            return Thread.class.getMethod("startVirtualThread", Runnable.class);
+        } catch (final NoSuchMethodException ex) {
+            return null;
+        }
+    }
+}